@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.core.ResolvableType;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+
+/**
+ * Benchmarks for {@link DefaultListableBeanFactory#getBean} lookups
+ * by name, by type and by {@link ResolvableType}, for singleton and
+ * prototype definitions.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DefaultListableBeanFactoryBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"10", "1000"})
+		public int beanCount;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			for (int i = 0; i < this.beanCount; i++) {
+				RootBeanDefinition filler = new RootBeanDefinition(Object.class);
+				this.beanFactory.registerBeanDefinition("filler" + i, filler);
+			}
+			RootBeanDefinition singleton = new RootBeanDefinition(TestBean.class);
+			singleton.getPropertyValues().add("name", "singleton");
+			this.beanFactory.registerBeanDefinition("singleton", singleton);
+			RootBeanDefinition prototype = new RootBeanDefinition(TestBean.class);
+			prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			prototype.getPropertyValues().add("name", "prototype");
+			prototype.getPropertyValues().add("spouse", new RuntimeBeanReference("singleton"));
+			this.beanFactory.registerBeanDefinition("prototype", prototype);
+			this.beanFactory.preInstantiateSingletons();
+		}
+	}
+
+	@Benchmark
+	public void singletonByName(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean("singleton"));
+	}
+
+	@Benchmark
+	public void singletonByType(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean("singleton", ITestBean.class));
+	}
+
+	@Benchmark
+	public void singletonByResolvableType(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBeanProvider(ResolvableType.forClass(ITestBean.class)).getObject());
+	}
+
+	@Benchmark
+	public void prototypeByName(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean("prototype"));
+	}
+
+	@Benchmark
+	public void beanNamesForType(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBeanNamesForType(ITestBean.class));
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.beans.factory.ObjectFactory;
+
+/**
+ * Contention benchmarks for {@link DefaultSingletonBeanRegistry#getSingleton(String, ObjectFactory)},
+ * comparing the default registry-wide lock with
+ * {@link DefaultSingletonBeanRegistry#setConcurrentSingletonCreation concurrent singleton creation}.
+ * Runs with as many threads as there are available processors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(Threads.MAX)
+public class DefaultSingletonBeanRegistryBenchmark {
+
+	private static final int SINGLETON_COUNT = 1024;
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"false", "true"})
+		public boolean concurrentSingletonCreation;
+
+		public DefaultSingletonBeanRegistry registry;
+
+		public final String[] beanNames = new String[SINGLETON_COUNT];
+
+		public final AtomicInteger counter = new AtomicInteger();
+
+		public final ObjectFactory<Object> factory = () -> {
+			// Simulate a singleton with a non-trivial initialization cost
+			Blackhole.consumeCPU(2000);
+			return new Object();
+		};
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			this.registry = new DefaultSingletonBeanRegistry();
+			this.registry.setConcurrentSingletonCreation(this.concurrentSingletonCreation);
+			for (int i = 0; i < SINGLETON_COUNT; i++) {
+				this.beanNames[i] = "bean" + i;
+				this.registry.getSingleton(this.beanNames[i], this.factory);
+			}
+		}
+	}
+
+	@Benchmark
+	public void getExistingSingleton(BenchmarkState state, Blackhole bh) {
+		String beanName = state.beanNames[ThreadLocalRandom.current().nextInt(SINGLETON_COUNT)];
+		bh.consume(state.registry.getSingleton(beanName, state.factory));
+	}
+
+	@Benchmark
+	public void createSingleton(BenchmarkState state, Blackhole bh) {
+		String beanName = "lazy" + state.counter.incrementAndGet();
+		bh.consume(state.registry.getSingleton(beanName, state.factory));
+	}
+
+}
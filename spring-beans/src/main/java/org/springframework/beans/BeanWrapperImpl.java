@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -304,6 +304,10 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 				}
 			}
 			else {
+				LambdaPropertyAccessors.ReadAccessor accessor = LambdaPropertyAccessors.getReadAccessor(readMethod);
+				if (accessor != null) {
+					return accessor.read(getWrappedInstance());
+				}
 				ReflectionUtils.makeAccessible(readMethod);
 				return readMethod.invoke(getWrappedInstance(), (Object[]) null);
 			}
@@ -328,6 +332,11 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 				}
 			}
 			else {
+				LambdaPropertyAccessors.WriteAccessor accessor = LambdaPropertyAccessors.getWriteAccessor(writeMethod);
+				if (accessor != null && accessor.isWritable(value)) {
+					accessor.write(getWrappedInstance(), value);
+					return;
+				}
 				ReflectionUtils.makeAccessible(writeMethod);
 				writeMethod.invoke(getWrappedInstance(), value);
 			}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Internal helper for invoking bean property read and write methods through
+ * {@link LambdaMetafactory}-generated functions instead of reflection.
+ *
+ * <p>A function is generated on the second use of a given read or write method
+ * and cached per method from then on; the first use goes through reflection.
+ * Only public methods on public classes with public property types are supported,
+ * and only if all involved types are visible to this class's ClassLoader.
+ * In all other cases the caller is expected to fall back to reflection.
+ * Since supported classes live in this class's ClassLoader or a parent of it,
+ * cached functions do not hold on to any application ClassLoader.
+ *
+ * <p>Exceptions thrown by a generated function are wrapped in an
+ * {@link InvocationTargetException}, just like with reflective invocation.
+ *
+ * @since 5.1.12
+ * @see BeanWrapperImpl
+ */
+abstract class LambdaPropertyAccessors {
+
+	/**
+	 * System property that instructs Spring to always invoke property methods
+	 * through reflection: "spring.beans.lambda-accessors.ignore".
+	 */
+	public static final String IGNORE_LAMBDA_ACCESSORS_PROPERTY_NAME = "spring.beans.lambda-accessors.ignore";
+
+	private static final boolean shouldIgnoreLambdaAccessors =
+			SpringProperties.getFlag(IGNORE_LAMBDA_ACCESSORS_PROPERTY_NAME);
+
+	private static final Log logger = LogFactory.getLog(LambdaPropertyAccessors.class);
+
+	private static final Object UNSUPPORTED = new Object();
+
+	private static final Object FIRST_USE = new Object();
+
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+	/** Cache of generated accessors, keyed by read or write method. */
+	private static final Map<Method, Object> accessorCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	/**
+	 * Return a generated accessor for the given read method.
+	 * @return the accessor, or {@code null} if reflection should be used
+	 */
+	@Nullable
+	public static ReadAccessor getReadAccessor(Method readMethod) {
+		return (ReadAccessor) getAccessor(readMethod, false);
+	}
+
+	/**
+	 * Return a generated accessor for the given write method.
+	 * @return the accessor, or {@code null} if reflection should be used
+	 */
+	@Nullable
+	public static WriteAccessor getWriteAccessor(Method writeMethod) {
+		return (WriteAccessor) getAccessor(writeMethod, true);
+	}
+
+
+	@Nullable
+	private static Object getAccessor(Method method, boolean write) {
+		if (shouldIgnoreLambdaAccessors) {
+			return null;
+		}
+		Object cached = accessorCache.get(method);
+		if (cached == null) {
+			if (accessorCache.putIfAbsent(method, (isSupported(method, write) ? FIRST_USE : UNSUPPORTED)) == null) {
+				// First use: go through reflection, generate on the next call.
+				return null;
+			}
+			cached = accessorCache.get(method);
+		}
+		if (cached != FIRST_USE) {
+			return (cached != UNSUPPORTED ? cached : null);
+		}
+		Object accessor;
+		try {
+			accessor = (write ? new WriteAccessor(method) : new ReadAccessor(method));
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate accessor function for " + method, ex);
+			}
+			accessor = UNSUPPORTED;
+		}
+		accessorCache.put(method, accessor);
+		return (accessor != UNSUPPORTED ? accessor : null);
+	}
+
+	private static boolean isSupported(Method method, boolean write) {
+		if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+			return false;
+		}
+		Class<?> propertyType = (write ? method.getParameterTypes()[0] : method.getReturnType());
+		return (isAccessible(method.getDeclaringClass()) && isAccessible(propertyType) &&
+				isAccessible(method.getReturnType()));
+	}
+
+	private static boolean isAccessible(Class<?> clazz) {
+		Class<?> current = clazz;
+		while (current.isArray()) {
+			current = current.getComponentType();
+		}
+		if (current.isPrimitive()) {
+			return true;
+		}
+		if (!ClassUtils.isVisible(current, LambdaPropertyAccessors.class.getClassLoader())) {
+			return false;
+		}
+		while (current != null) {
+			if (!Modifier.isPublic(current.getModifiers())) {
+				return false;
+			}
+			current = current.getDeclaringClass();
+		}
+		return true;
+	}
+
+
+	/**
+	 * Generated accessor for a property read method.
+	 */
+	static final class ReadAccessor {
+
+		private final Function<Object, Object> function;
+
+		@SuppressWarnings("unchecked")
+		ReadAccessor(Method readMethod) throws Throwable {
+			MethodHandle handle = lookup.unreflect(readMethod);
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+					MethodType.methodType(Function.class),
+					MethodType.methodType(Object.class, Object.class), handle,
+					MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(readMethod.getReturnType()),
+							readMethod.getDeclaringClass()));
+			this.function = (Function<Object, Object>) callSite.getTarget().invoke();
+		}
+
+		@Nullable
+		public Object read(Object target) throws InvocationTargetException {
+			try {
+				return this.function.apply(target);
+			}
+			catch (Throwable ex) {
+				throw new InvocationTargetException(ex);
+			}
+		}
+	}
+
+
+	/**
+	 * Generated accessor for a property write method.
+	 */
+	static final class WriteAccessor {
+
+		private final Class<?> parameterType;
+
+		private final BiConsumer<Object, Object> function;
+
+		@SuppressWarnings("unchecked")
+		WriteAccessor(Method writeMethod) throws Throwable {
+			this.parameterType = writeMethod.getParameterTypes()[0];
+			MethodHandle handle = lookup.unreflect(writeMethod);
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept",
+					MethodType.methodType(BiConsumer.class),
+					MethodType.methodType(void.class, Object.class, Object.class), handle,
+					MethodType.methodType(void.class, writeMethod.getDeclaringClass(),
+							ClassUtils.resolvePrimitiveIfNecessary(this.parameterType)));
+			this.function = (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+		}
+
+		/**
+		 * Determine whether the given value can be passed to the write method as-is.
+		 * Otherwise, reflection is to be used for reporting the argument mismatch.
+		 */
+		public boolean isWritable(@Nullable Object value) {
+			return ClassUtils.isAssignableValue(this.parameterType, value);
+		}
+
+		public void write(Object target, @Nullable Object value) throws InvocationTargetException {
+			try {
+				this.function.accept(target, value);
+			}
+			catch (Throwable ex) {
+				throw new InvocationTargetException(ex);
+			}
+		}
+	}
+
+}
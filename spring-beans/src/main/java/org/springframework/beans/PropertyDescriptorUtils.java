@@ -19,7 +19,13 @@ package org.springframework.beans;
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.springframework.lang.Nullable;
 import org.springframework.util.ObjectUtils;
@@ -32,6 +38,84 @@ import org.springframework.util.ObjectUtils;
  */
 abstract class PropertyDescriptorUtils {
 
+	/**
+	 * Simple introspection algorithm for basic set/get/is accessor methods,
+	 * building corresponding JavaBeans property descriptors for them.
+	 * <p>This just supports the basic JavaBeans conventions, without indexed
+	 * properties or any customizers, and without other BeanInfo metadata.
+	 * Setter methods with a non-void return type are accepted as well.
+	 * @param beanClass the target class to introspect
+	 * @return a collection of property descriptors, sorted by property name
+	 * @throws IntrospectionException from introspecting the given bean class
+	 * @since 5.1.12
+	 * @see SimpleBeanInfoFactory
+	 */
+	public static Collection<? extends PropertyDescriptor> determineBasicProperties(Class<?> beanClass)
+			throws IntrospectionException {
+
+		Map<String, BasicPropertyDescriptor> pdMap = new TreeMap<>();
+
+		for (Method method : beanClass.getMethods()) {
+			if (Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+				continue;
+			}
+			String methodName = method.getName();
+			boolean setter;
+			int nameIndex;
+			if (methodName.startsWith("set") && method.getParameterCount() == 1) {
+				setter = true;
+				nameIndex = 3;
+			}
+			else if (methodName.startsWith("get") && method.getParameterCount() == 0 &&
+					method.getReturnType() != Void.TYPE) {
+				setter = false;
+				nameIndex = 3;
+			}
+			else if (methodName.startsWith("is") && method.getParameterCount() == 0 &&
+					method.getReturnType() == Boolean.TYPE) {
+				setter = false;
+				nameIndex = 2;
+			}
+			else {
+				continue;
+			}
+
+			String propertyName = decapitalize(methodName.substring(nameIndex));
+			if (propertyName.isEmpty()) {
+				continue;
+			}
+			BasicPropertyDescriptor pd = pdMap.get(propertyName);
+			if (pd == null) {
+				pd = new BasicPropertyDescriptor(propertyName);
+				pdMap.put(propertyName, pd);
+			}
+			if (setter) {
+				pd.addWriteMethod(method);
+			}
+			else {
+				pd.addReadMethod(method);
+			}
+		}
+
+		for (BasicPropertyDescriptor pd : pdMap.values()) {
+			pd.resolveWriteMethod();
+		}
+		return pdMap.values();
+	}
+
+	/**
+	 * See {@link java.beans.Introspector#decapitalize}.
+	 */
+	private static String decapitalize(String name) {
+		if (name.isEmpty() || (name.length() > 1 &&
+				Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1)))) {
+			return name;
+		}
+		char[] chars = name.toCharArray();
+		chars[0] = Character.toLowerCase(chars[0]);
+		return new String(chars);
+	}
+
 	/**
 	 * See {@link java.beans.FeatureDescriptor}.
 	 */
@@ -173,4 +257,100 @@ abstract class PropertyDescriptorUtils {
 				pd.isBound() == otherPd.isBound() && pd.isConstrained() == otherPd.isConstrained());
 	}
 
+
+	/**
+	 * PropertyDescriptor for {@link #determineBasicProperties(Class)},
+	 * not performing any early type determination for
+	 * {@link #setReadMethod}/{@link #setWriteMethod}.
+	 */
+	private static class BasicPropertyDescriptor extends PropertyDescriptor {
+
+		@Nullable
+		private Method readMethod;
+
+		@Nullable
+		private Method writeMethod;
+
+		private final List<Method> alternativeWriteMethods = new ArrayList<>(1);
+
+		public BasicPropertyDescriptor(String propertyName) throws IntrospectionException {
+			super(propertyName, null, null);
+		}
+
+		public void addReadMethod(Method readMethod) {
+			if (this.readMethod == null) {
+				this.readMethod = readMethod;
+			}
+			else if (readMethod.getReturnType() == Boolean.TYPE && readMethod.getName().startsWith("is")) {
+				// Prefer "is" over "get" accessor for boolean properties, as the Introspector does
+				this.readMethod = readMethod;
+			}
+			else if (this.readMethod.getReturnType().isAssignableFrom(readMethod.getReturnType()) &&
+					!this.readMethod.getName().startsWith("is")) {
+				// More specific return type, e.g. through a covariant override
+				this.readMethod = readMethod;
+			}
+		}
+
+		public void addWriteMethod(Method writeMethod) {
+			this.alternativeWriteMethods.add(writeMethod);
+		}
+
+		public void resolveWriteMethod() {
+			Method compatibleMethod = null;
+			for (Method candidate : this.alternativeWriteMethods) {
+				Class<?> paramType = candidate.getParameterTypes()[0];
+				if (this.readMethod == null) {
+					if (compatibleMethod == null || (candidate.getReturnType() == Void.TYPE &&
+							compatibleMethod.getReturnType() != Void.TYPE)) {
+						compatibleMethod = candidate;
+					}
+				}
+				else if (paramType == this.readMethod.getReturnType()) {
+					this.writeMethod = candidate;
+					return;
+				}
+				else if (compatibleMethod == null && (paramType.isAssignableFrom(this.readMethod.getReturnType()) ||
+						this.readMethod.getReturnType().isAssignableFrom(paramType))) {
+					compatibleMethod = candidate;
+				}
+			}
+			this.writeMethod = compatibleMethod;
+		}
+
+		@Override
+		public void setReadMethod(@Nullable Method readMethod) {
+			this.readMethod = readMethod;
+		}
+
+		@Override
+		@Nullable
+		public Method getReadMethod() {
+			return this.readMethod;
+		}
+
+		@Override
+		public void setWriteMethod(@Nullable Method writeMethod) {
+			this.writeMethod = writeMethod;
+		}
+
+		@Override
+		@Nullable
+		public Method getWriteMethod() {
+			return this.writeMethod;
+		}
+
+		@Override
+		@Nullable
+		public Class<?> getPropertyType() {
+			if (this.readMethod != null) {
+				return this.readMethod.getReturnType();
+			}
+			if (this.writeMethod != null) {
+				return this.writeMethod.getParameterTypes()[0];
+			}
+			return null;
+		}
+	}
+
 }
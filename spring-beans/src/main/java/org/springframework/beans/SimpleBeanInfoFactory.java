@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.BeanDescriptor;
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.beans.SimpleBeanInfo;
+import java.util.Collection;
+
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+
+/**
+ * {@link BeanInfoFactory} implementation that bypasses the standard
+ * {@link java.beans.Introspector} for faster introspection, reduced to
+ * basic property determination (as commonly needed in Spring applications).
+ *
+ * <p>Properties are discovered through a single scan of the public methods
+ * of the bean class, following the basic set/get/is naming conventions and
+ * accepting non-void setter methods as well. Indexed properties, explicit
+ * {@code BeanInfo} classes and other JavaBeans metadata are not supported.
+ *
+ * <p>Not registered by default. To activate it, list it under the
+ * {@code org.springframework.beans.BeanInfoFactory} key in a
+ * {@code META-INF/spring.factories} file of the application. It is ordered
+ * just before {@link ExtendedBeanInfoFactory} and therefore takes precedence.
+ *
+ * @since 5.1.12
+ * @see PropertyDescriptorUtils#determineBasicProperties
+ * @see CachedIntrospectionResults
+ */
+public class SimpleBeanInfoFactory implements BeanInfoFactory, Ordered {
+
+	@Override
+	@NonNull
+	public BeanInfo getBeanInfo(Class<?> beanClass) throws IntrospectionException {
+		Collection<? extends PropertyDescriptor> pds =
+				PropertyDescriptorUtils.determineBasicProperties(beanClass);
+
+		return new SimpleBeanInfo() {
+			@Override
+			public BeanDescriptor getBeanDescriptor() {
+				return new BeanDescriptor(beanClass);
+			}
+			@Override
+			public PropertyDescriptor[] getPropertyDescriptors() {
+				return pds.toArray(new PropertyDescriptor[0]);
+			}
+		};
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 1;
+	}
+
+}
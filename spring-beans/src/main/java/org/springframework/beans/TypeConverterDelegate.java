@@ -33,6 +33,8 @@ import org.springframework.core.CollectionFactory;
 import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.support.GenericConversionService;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.NumberUtils;
@@ -124,7 +126,22 @@ class TypeConverterDelegate {
 		ConversionService conversionService = this.propertyEditorRegistry.getConversionService();
 		if (editor == null && conversionService != null && newValue != null && typeDescriptor != null) {
 			TypeDescriptor sourceTypeDesc = TypeDescriptor.forObject(newValue);
-			if (conversionService.canConvert(sourceTypeDesc, typeDescriptor)) {
+			if (conversionService instanceof GenericConversionService &&
+					((GenericConversionService) conversionService).isCompiledConversionEnabled()) {
+				// Single lookup of a pre-resolved converter, also for collection elements
+				Converter<Object, Object> converter =
+						((GenericConversionService) conversionService).getCompiledConverter(sourceTypeDesc, typeDescriptor);
+				if (converter != null) {
+					try {
+						return (T) converter.convert(newValue);
+					}
+					catch (ConversionFailedException ex) {
+						// fallback to default conversion logic below
+						conversionAttemptEx = ex;
+					}
+				}
+			}
+			else if (conversionService.canConvert(sourceTypeDesc, typeDescriptor)) {
 				try {
 					return (T) conversionService.convert(newValue, sourceTypeDesc, typeDescriptor);
 				}
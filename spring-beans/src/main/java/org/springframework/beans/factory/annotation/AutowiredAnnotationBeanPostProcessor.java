@@ -26,6 +26,7 @@ import org.springframework.beans.factory.*;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory;
 import org.springframework.beans.factory.support.LookupOverride;
 import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcessor;
 import org.springframework.beans.factory.support.RootBeanDefinition;
@@ -867,7 +868,12 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 			if (arguments != null) {
 				try {
 					ReflectionUtils.makeAccessible(method);
-					method.invoke(bean, arguments);
+					if (beanFactory instanceof AbstractAutowireCapableBeanFactory) {
+						((AbstractAutowireCapableBeanFactory) beanFactory).invokeBeanMethod(beanName, bean, method, arguments);
+					}
+					else {
+						method.invoke(bean, arguments);
+					}
 				}
 				catch (InvocationTargetException ex) {
 					throw ex.getTargetException();
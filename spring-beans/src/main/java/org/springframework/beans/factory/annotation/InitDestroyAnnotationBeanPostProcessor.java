@@ -20,7 +20,10 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory;
 import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcessor;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.core.Ordered;
@@ -68,8 +71,8 @@ import java.util.concurrent.ConcurrentHashMap;
  * @see #setDestroyAnnotationType
  */
 @SuppressWarnings("serial")
-public class InitDestroyAnnotationBeanPostProcessor
-		implements DestructionAwareBeanPostProcessor, MergedBeanDefinitionPostProcessor, PriorityOrdered, Serializable {
+public class InitDestroyAnnotationBeanPostProcessor implements DestructionAwareBeanPostProcessor,
+		MergedBeanDefinitionPostProcessor, PriorityOrdered, BeanFactoryAware, Serializable {
 
 	protected transient Log logger = LogFactory.getLog(getClass());
 
@@ -84,6 +87,9 @@ public class InitDestroyAnnotationBeanPostProcessor
 	@Nullable
 	private final transient Map<Class<?>, LifecycleMetadata> lifecycleMetadataCache = new ConcurrentHashMap<>(256);
 
+	@Nullable
+	private transient AbstractAutowireCapableBeanFactory beanFactory;
+
 
 	/**
 	 * Specify the init annotation to check for, indicating initialization
@@ -116,6 +122,18 @@ public class InitDestroyAnnotationBeanPostProcessor
 		return this.order;
 	}
 
+	/**
+	 * Invoke init and destroy methods through the given factory's
+	 * {@link AbstractAutowireCapableBeanFactory#invokeBeanMethod}
+	 * if applicable, using reflection otherwise.
+	 * @since 5.1.12
+	 */
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		this.beanFactory = (beanFactory instanceof AbstractAutowireCapableBeanFactory ?
+				(AbstractAutowireCapableBeanFactory) beanFactory : null);
+	}
+
 
 	@Override
 	public void postProcessMergedBeanDefinition(RootBeanDefinition beanDefinition, Class<?> beanType, String beanName) {
@@ -380,7 +398,7 @@ public class InitDestroyAnnotationBeanPostProcessor
 					 * target就是当前对象
 					 * 反射基本知识
 					 */
-					element.invoke(target);
+					element.invoke(target, beanName, beanFactory);
 				}
 			}
 		}
@@ -394,7 +412,7 @@ public class InitDestroyAnnotationBeanPostProcessor
 					if (logger.isTraceEnabled()) {
 						logger.trace("Invoking destroy method on bean '" + beanName + "': " + element.getMethod());
 					}
-					element.invoke(target);
+					element.invoke(target, beanName, beanFactory);
 				}
 			}
 		}
@@ -434,9 +452,16 @@ public class InitDestroyAnnotationBeanPostProcessor
 			return this.identifier;
 		}
 
-		public void invoke(Object target) throws Throwable {
+		public void invoke(Object target, String beanName, @Nullable AbstractAutowireCapableBeanFactory beanFactory)
+				throws Throwable {
+
 			ReflectionUtils.makeAccessible(this.method);
-			this.method.invoke(target, (Object[]) null);
+			if (beanFactory != null) {
+				beanFactory.invokeBeanMethod(beanName, target, this.method);
+			}
+			else {
+				this.method.invoke(target, (Object[]) null);
+			}
 		}
 
 		@Override
@@ -2317,13 +2317,53 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		} else {
 			try {
 				ReflectionUtils.makeAccessible(methodToInvoke);
-				methodToInvoke.invoke(bean);
+				invokeBeanMethod(mbd, bean, methodToInvoke);
 			} catch (InvocationTargetException ex) {
 				throw ex.getTargetException();
 			}
 		}
 	}
 
+	/**
+	 * Invoke the given method on a bean instance obtained from this factory,
+	 * e.g. an injection or lifecycle method determined by a bean post-processor.
+	 * <p>Goes through generated invokers for non-singleton beans if a
+	 * {@link GeneratedInvokerInstantiationStrategy} is in use, and through
+	 * reflection otherwise.
+	 * @param beanName the name of the bean (may be {@code null} or refer to a
+	 * bean without a bean definition of its own, in which case reflection is used)
+	 * @param bean the bean instance
+	 * @param method the method to invoke (made accessible already, if necessary)
+	 * @param args the arguments to pass
+	 * @return the method return value
+	 * @throws IllegalAccessException if the method is not accessible
+	 * @throws InvocationTargetException if the method itself threw an exception
+	 * @since 5.1.12
+	 * @see #setInstantiationStrategy
+	 */
+	@Nullable
+	public Object invokeBeanMethod(@Nullable String beanName, Object bean, Method method, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		if (beanName != null && getInstantiationStrategy() instanceof GeneratedInvokerInstantiationStrategy &&
+				containsBeanDefinition(beanName)) {
+			return invokeBeanMethod(getMergedLocalBeanDefinition(beanName), bean, method, args);
+		}
+		return method.invoke(bean, args);
+	}
+
+	@Override
+	@Nullable
+	protected Object invokeBeanMethod(RootBeanDefinition mbd, Object bean, Method method, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		InstantiationStrategy instantiationStrategy = getInstantiationStrategy();
+		if (instantiationStrategy instanceof GeneratedInvokerInstantiationStrategy) {
+			return ((GeneratedInvokerInstantiationStrategy) instantiationStrategy).invokeMethod(mbd, bean, method, args);
+		}
+		return super.invokeBeanMethod(mbd, bean, method, args);
+	}
+
 
 	/**
 	 * Applies the {@code postProcessAfterInitialization} callback of all
@@ -27,6 +27,8 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.*;
 
 import java.beans.PropertyEditor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.security.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -1149,7 +1151,10 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 	 * @param mbd      the merged bean definition
 	 */
 	protected void destroyBean(String beanName, Object bean, RootBeanDefinition mbd) {
-		new DisposableBeanAdapter(bean, beanName, mbd, getBeanPostProcessors(), getAccessControlContext()).destroy();
+		DisposableBeanAdapter adapter =
+				new DisposableBeanAdapter(bean, beanName, mbd, getBeanPostProcessors(), getAccessControlContext());
+		adapter.setBeanMethodInvocation(this, mbd);
+		adapter.destroy();
 	}
 
 	@Override
@@ -1836,12 +1841,35 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 				if (scope == null) {
 					throw new IllegalStateException("No Scope registered for scope name '" + mbd.getScope() + "'");
 				}
-				scope.registerDestructionCallback(beanName,
-						new DisposableBeanAdapter(bean, beanName, mbd, getBeanPostProcessors(), acc));
+				DisposableBeanAdapter adapter =
+						new DisposableBeanAdapter(bean, beanName, mbd, getBeanPostProcessors(), acc);
+				adapter.setBeanMethodInvocation(this, mbd);
+				scope.registerDestructionCallback(beanName, adapter);
 			}
 		}
 	}
 
+	/**
+	 * Invoke the given method on a bean instance of the given bean definition,
+	 * e.g. a custom destroy method.
+	 * <p>The default implementation uses reflection. Subclasses may override
+	 * this with a more efficient invocation mechanism.
+	 * @param mbd the merged bean definition of the bean
+	 * @param bean the bean instance
+	 * @param method the method to invoke (made accessible already, if necessary)
+	 * @param args the arguments to pass
+	 * @return the method return value
+	 * @throws IllegalAccessException if the method is not accessible
+	 * @throws InvocationTargetException if the method itself threw an exception
+	 * @since 5.1.12
+	 */
+	@Nullable
+	protected Object invokeBeanMethod(RootBeanDefinition mbd, Object bean, Method method, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		return method.invoke(bean, args);
+	}
+
 
 	//---------------------------------------------------------------------
 	// Abstract methods to be implemented by subclasses
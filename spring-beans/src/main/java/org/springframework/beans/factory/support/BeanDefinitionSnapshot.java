@@ -0,0 +1,1220 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.core.AttributeAccessor;
+import org.springframework.core.Conventions;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.StandardAnnotationMetadata;
+import org.springframework.core.type.StandardMethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Compact binary snapshot of the bean definitions in a {@link BeanDefinitionRegistry},
+ * allowing an application context to restore its post-processed registry on restart
+ * instead of parsing, scanning and evaluating configuration classes again.
+ *
+ * <p>A snapshot is tagged with a fingerprint - typically derived from the classpath
+ * through {@link #computeClasspathFingerprint} - and is only restored if the given
+ * fingerprint matches, so that stale snapshots are ignored rather than applied.
+ *
+ * <p>Only declarative metadata is supported: bean class names, scopes, constructor
+ * arguments and property values consisting of references, inner beans, typed strings,
+ * managed collections and simple values, as well as method overrides, qualifiers and
+ * simple attributes. Bean definitions with an instance supplier, a qualified element
+ * or any other programmatic state cannot be written and lead to a
+ * {@link BeanDefinitionStoreException}. Metadata sources (e.g. XML elements) are
+ * not retained. {@link AnnotatedBeanDefinition AnnotatedBeanDefinitions} are restored
+ * as annotated bean definitions which introspect their annotation metadata on demand
+ * and - in case of a factory method - only accept the factory method overloads that
+ * the original bean definition accepted.
+ *
+ * @since 5.1.12
+ */
+public abstract class BeanDefinitionSnapshot {
+
+	/**
+	 * Attribute set on every bean definition restored from a snapshot, allowing
+	 * post-processors to skip work whose outcome is already part of the snapshot.
+	 */
+	public static final String RESTORED_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(BeanDefinitionSnapshot.class, "restored");
+
+	private static final int MAGIC = 0x53424453;
+
+	private static final int VERSION = 2;
+
+	private static final byte ROOT_BEAN_DEFINITION = 1;
+
+	private static final byte GENERIC_BEAN_DEFINITION = 2;
+
+	private static final byte ANNOTATED_ROOT_BEAN_DEFINITION = 3;
+
+	private static final byte ANNOTATED_GENERIC_BEAN_DEFINITION = 4;
+
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte BOOLEAN = 2;
+	private static final byte INTEGER = 3;
+	private static final byte LONG = 4;
+	private static final byte SHORT = 5;
+	private static final byte BYTE = 6;
+	private static final byte FLOAT = 7;
+	private static final byte DOUBLE = 8;
+	private static final byte CHARACTER = 9;
+	private static final byte CLASS = 10;
+	private static final byte ENUM = 11;
+	private static final byte TYPED_STRING = 12;
+	private static final byte BEAN_REFERENCE = 13;
+	private static final byte BEAN_NAME_REFERENCE = 14;
+	private static final byte BEAN_DEFINITION_HOLDER = 15;
+	private static final byte BEAN_DEFINITION = 16;
+	private static final byte MANAGED_ARRAY = 17;
+	private static final byte MANAGED_LIST = 18;
+	private static final byte MANAGED_SET = 19;
+	private static final byte MANAGED_MAP = 20;
+	private static final byte MANAGED_PROPERTIES = 21;
+	private static final byte ARRAY = 22;
+	private static final byte LIST = 23;
+	private static final byte SET = 24;
+	private static final byte MAP = 25;
+
+	private static final byte LOOKUP_OVERRIDE = 1;
+
+	private static final byte REPLACE_OVERRIDE = 2;
+
+
+	/**
+	 * Write all bean definitions and aliases in the given registry to the given stream.
+	 * @param registry the registry to take the snapshot from
+	 * @param fingerprint the fingerprint to tag the snapshot with
+	 * @param out the stream to write to (not closed by this method)
+	 * @throws BeanDefinitionStoreException if a bean definition cannot be represented
+	 * in a snapshot
+	 * @throws IOException in case of I/O errors
+	 */
+	public static void write(BeanDefinitionRegistry registry, String fingerprint, OutputStream out)
+			throws IOException {
+
+		write(registry, registry.getBeanDefinitionNames(), fingerprint, out);
+	}
+
+	/**
+	 * Write the given bean definitions and their aliases to the given stream.
+	 * @param registry the registry to take the snapshot from
+	 * @param beanNames the names of the bean definitions to include
+	 * @param fingerprint the fingerprint to tag the snapshot with
+	 * @param out the stream to write to (not closed by this method)
+	 * @throws BeanDefinitionStoreException if a bean definition cannot be represented
+	 * in a snapshot
+	 * @throws IOException in case of I/O errors
+	 */
+	public static void write(BeanDefinitionRegistry registry, String[] beanNames, String fingerprint,
+			OutputStream out) throws IOException {
+
+		DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+		ClassLoader classLoader = (registry instanceof ConfigurableBeanFactory ?
+				((ConfigurableBeanFactory) registry).getBeanClassLoader() : null);
+		SnapshotWriter writer = new SnapshotWriter(dos, classLoader);
+		dos.writeInt(MAGIC);
+		dos.writeInt(VERSION);
+		dos.writeUTF(fingerprint);
+		dos.writeInt(beanNames.length);
+		for (String beanName : beanNames) {
+			writer.currentBeanName = beanName;
+			writer.writeString(beanName);
+			writer.writeStrings(registry.getAliases(beanName));
+			writer.writeBeanDefinition(registry.getBeanDefinition(beanName));
+		}
+		dos.flush();
+	}
+
+	/**
+	 * Restore the bean definitions and aliases from the given stream into the given
+	 * registry, replacing existing bean definitions of the same name.
+	 * <p>Nothing is registered if the snapshot has been written by a different
+	 * version of this class or with a different fingerprint.
+	 * @param in the stream to read from (not closed by this method)
+	 * @param fingerprint the expected fingerprint
+	 * @param registry the registry to restore the bean definitions into
+	 * @return {@code true} if the snapshot has been restored, or {@code false}
+	 * if it did not match the given fingerprint
+	 * @throws IOException in case of I/O errors or a corrupt snapshot
+	 */
+	public static boolean read(InputStream in, String fingerprint, BeanDefinitionRegistry registry)
+			throws IOException {
+
+		DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+		if (dis.readInt() != MAGIC || dis.readInt() != VERSION || !fingerprint.equals(dis.readUTF())) {
+			return false;
+		}
+		ClassLoader classLoader = (registry instanceof ConfigurableBeanFactory ?
+				((ConfigurableBeanFactory) registry).getBeanClassLoader() : null);
+		SnapshotReader reader = new SnapshotReader(dis, classLoader);
+		int count = dis.readInt();
+		List<BeanDefinitionHolder> holders = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String beanName = reader.readRequiredString();
+			String[] aliases = reader.readStrings();
+			BeanDefinition bd = reader.readBeanDefinition();
+			bd.setAttribute(RESTORED_ATTRIBUTE, Boolean.TRUE);
+			holders.add(new BeanDefinitionHolder(bd, beanName, aliases));
+		}
+		for (BeanDefinitionHolder holder : holders) {
+			String beanName = holder.getBeanName();
+			if (registry.containsBeanDefinition(beanName)) {
+				registry.removeBeanDefinition(beanName);
+			}
+			BeanDefinitionReaderUtils.registerBeanDefinition(holder, registry);
+		}
+		return true;
+	}
+
+	/**
+	 * Compute a fingerprint for the classpath of the given ClassLoader, covering the
+	 * location, size and modification time of every jar file and every file in
+	 * classpath directories, as well as the {@code java.class.path} system property.
+	 * @param classLoader the ClassLoader to inspect (may be {@code null}
+	 * for the default ClassLoader)
+	 * @return a hex-encoded digest of the classpath
+	 * @throws IOException in case of errors accessing classpath directories
+	 */
+	public static String computeClasspathFingerprint(@Nullable ClassLoader classLoader) throws IOException {
+		Map<String, File> entries = new LinkedHashMap<>();
+		ClassLoader current = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		while (current != null) {
+			if (current instanceof URLClassLoader) {
+				for (URL url : ((URLClassLoader) current).getURLs()) {
+					entries.put(url.toString(), (ResourceUtils.isFileURL(url) ? ResourceUtils.getFile(url) : null));
+				}
+			}
+			current = current.getParent();
+		}
+		String classPath = System.getProperty("java.class.path");
+		if (classPath != null) {
+			for (String path : StringUtils.tokenizeToStringArray(classPath, File.pathSeparator)) {
+				File file = new File(path);
+				entries.put(file.toURI().toString(), file);
+			}
+		}
+
+		StringBuilder sb = new StringBuilder(VERSION + "\n");
+		for (Map.Entry<String, File> entry : entries.entrySet()) {
+			sb.append(entry.getKey());
+			File file = entry.getValue();
+			if (file != null && file.isDirectory()) {
+				try (Stream<Path> paths = Files.walk(file.toPath())) {
+					long[] stats = new long[2];
+					paths.filter(Files::isRegularFile).forEach(path -> {
+						File element = path.toFile();
+						stats[0] += element.length();
+						stats[1] = Math.max(stats[1], element.lastModified());
+					});
+					sb.append(':').append(stats[0]).append(':').append(stats[1]);
+				}
+			}
+			else if (file != null && file.exists()) {
+				sb.append(':').append(file.length()).append(':').append(file.lastModified());
+			}
+			sb.append('\n');
+		}
+		return DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+
+	/**
+	 * Writes bean definitions and values, sharing repeated strings
+	 * (class names, scopes, bean names) through a string table.
+	 */
+	private static class SnapshotWriter {
+
+		private final DataOutputStream out;
+
+		@Nullable
+		private final ClassLoader classLoader;
+
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		String currentBeanName = "";
+
+		SnapshotWriter(DataOutputStream out, @Nullable ClassLoader classLoader) {
+			this.out = out;
+			this.classLoader = classLoader;
+		}
+
+		void writeBeanDefinition(BeanDefinition bd) throws IOException {
+			if (!(bd instanceof AbstractBeanDefinition)) {
+				throw unsupported("bean definition of type [" + bd.getClass().getName() + "]");
+			}
+			AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+			if (abd.getInstanceSupplier() != null) {
+				throw unsupported("instance supplier");
+			}
+			if (abd instanceof RootBeanDefinition) {
+				RootBeanDefinition rbd = (RootBeanDefinition) abd;
+				if (rbd.getQualifiedElement() != null) {
+					throw unsupported("qualified element");
+				}
+				if (rbd.targetType != null && rbd.targetType.hasGenerics()) {
+					throw unsupported("generic target type " + rbd.targetType);
+				}
+				if (abd instanceof AnnotatedBeanDefinition) {
+					this.out.writeByte(ANNOTATED_ROOT_BEAN_DEFINITION);
+					writeAnnotatedBeanDefinition(rbd, (AnnotatedBeanDefinition) abd);
+				}
+				else {
+					this.out.writeByte(ROOT_BEAN_DEFINITION);
+				}
+			}
+			else {
+				if (abd instanceof AnnotatedBeanDefinition) {
+					this.out.writeByte(ANNOTATED_GENERIC_BEAN_DEFINITION);
+					writeAnnotatedBeanDefinition(abd, (AnnotatedBeanDefinition) abd);
+				}
+				else {
+					this.out.writeByte(GENERIC_BEAN_DEFINITION);
+				}
+				writeString(abd.getParentName());
+			}
+
+			writeString(abd.getBeanClassName());
+			writeString(abd.getScope());
+			this.out.writeBoolean(abd.isAbstract());
+			this.out.writeBoolean(abd.isLazyInit());
+			this.out.writeInt(abd.getAutowireMode());
+			this.out.writeInt(abd.getDependencyCheck());
+			writeStrings(abd.getDependsOn());
+			this.out.writeBoolean(abd.isAutowireCandidate());
+			this.out.writeBoolean(abd.isPrimary());
+			this.out.writeBoolean(abd.isNonPublicAccessAllowed());
+			this.out.writeBoolean(abd.isLenientConstructorResolution());
+			writeString(abd.getFactoryBeanName());
+			writeString(abd.getFactoryMethodName());
+			writeString(abd.getInitMethodName());
+			writeString(abd.getDestroyMethodName());
+			this.out.writeBoolean(abd.isEnforceInitMethod());
+			this.out.writeBoolean(abd.isEnforceDestroyMethod());
+			this.out.writeBoolean(abd.isSynthetic());
+			this.out.writeInt(abd.getRole());
+			writeString(abd.getDescription());
+			writeString(abd.getResourceDescription());
+			writeAttributes(abd);
+
+			Set<AutowireCandidateQualifier> qualifiers = abd.getQualifiers();
+			this.out.writeInt(qualifiers.size());
+			for (AutowireCandidateQualifier qualifier : qualifiers) {
+				writeString(qualifier.getTypeName());
+				writeAttributes(qualifier);
+			}
+
+			writeConstructorArgumentValues(abd.hasConstructorArgumentValues() ?
+					abd.getConstructorArgumentValues() : null);
+			writePropertyValues(abd.hasPropertyValues() ? abd.getPropertyValues() : null);
+			writeMethodOverrides(abd.getMethodOverrides());
+
+			if (abd instanceof RootBeanDefinition) {
+				RootBeanDefinition rbd = (RootBeanDefinition) abd;
+				this.out.writeBoolean(rbd.isFactoryMethodUnique);
+				writeString(rbd.targetType != null ? rbd.targetType.toClass().getName() : null);
+				BeanDefinitionHolder decorated = rbd.getDecoratedDefinition();
+				writeValue(decorated);
+			}
+		}
+
+		/**
+		 * Write the introspected class of the annotation metadata, followed by the
+		 * parameter types of the factory method (if any) and of all overloads which
+		 * a root bean definition accepts as factory methods.
+		 */
+		private void writeAnnotatedBeanDefinition(AbstractBeanDefinition abd, AnnotatedBeanDefinition annotated)
+				throws IOException {
+
+			AnnotationMetadata metadata = annotated.getMetadata();
+			MethodMetadata factoryMethodMetadata = annotated.getFactoryMethodMetadata();
+			writeString(metadata.getClassName());
+			if (factoryMethodMetadata == null || abd.getFactoryMethodName() == null) {
+				this.out.writeInt(-1);
+				return;
+			}
+
+			Method[] candidates;
+			try {
+				candidates = ReflectionUtils.getUniqueDeclaredMethods(
+						ClassUtils.forName(metadata.getClassName(), this.classLoader));
+			}
+			catch (ClassNotFoundException | LinkageError ex) {
+				throw unsupported("unresolvable factory class [" + metadata.getClassName() + "]");
+			}
+			Method factoryMethod = null;
+			List<Method> overloads = new ArrayList<>();
+			for (Method candidate : candidates) {
+				if (!candidate.getName().equals(factoryMethodMetadata.getMethodName())) {
+					continue;
+				}
+				if (factoryMethod == null && isIntrospectedMethod(factoryMethodMetadata, candidate)) {
+					factoryMethod = candidate;
+				}
+				else if (abd instanceof RootBeanDefinition && ((RootBeanDefinition) abd).isFactoryMethod(candidate)) {
+					overloads.add(candidate);
+				}
+			}
+			if (factoryMethod == null) {
+				throw unsupported("unresolvable factory method [" + factoryMethodMetadata.getMethodName() + "]");
+			}
+			this.out.writeInt(overloads.size() + 1);
+			writeParameterTypes(factoryMethod);
+			for (Method overload : overloads) {
+				writeParameterTypes(overload);
+			}
+		}
+
+		private boolean isIntrospectedMethod(MethodMetadata metadata, Method candidate) {
+			if (metadata instanceof StandardMethodMetadata) {
+				return ((StandardMethodMetadata) metadata).getIntrospectedMethod().equals(candidate);
+			}
+			return (candidate.getDeclaringClass().getName().equals(metadata.getDeclaringClassName()) &&
+					candidate.getReturnType().getName().equals(metadata.getReturnTypeName()) &&
+					Modifier.isStatic(candidate.getModifiers()) == metadata.isStatic());
+		}
+
+		private void writeParameterTypes(Method method) throws IOException {
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			this.out.writeInt(parameterTypes.length);
+			for (Class<?> parameterType : parameterTypes) {
+				writeString(parameterType.getName());
+			}
+		}
+
+		private void writeAttributes(AttributeAccessor accessor) throws IOException {
+			String[] names = accessor.attributeNames();
+			this.out.writeInt(names.length - (accessor.hasAttribute(RESTORED_ATTRIBUTE) ? 1 : 0));
+			for (String name : names) {
+				if (!RESTORED_ATTRIBUTE.equals(name)) {
+					writeString(name);
+					writeValue(accessor.getAttribute(name));
+				}
+			}
+		}
+
+		private void writeConstructorArgumentValues(@Nullable ConstructorArgumentValues cav) throws IOException {
+			if (cav == null) {
+				this.out.writeInt(0);
+				this.out.writeInt(0);
+				return;
+			}
+			Map<Integer, ConstructorArgumentValues.ValueHolder> indexed = cav.getIndexedArgumentValues();
+			this.out.writeInt(indexed.size());
+			for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry : indexed.entrySet()) {
+				this.out.writeInt(entry.getKey());
+				writeValueHolder(entry.getValue());
+			}
+			List<ConstructorArgumentValues.ValueHolder> generic = cav.getGenericArgumentValues();
+			this.out.writeInt(generic.size());
+			for (ConstructorArgumentValues.ValueHolder valueHolder : generic) {
+				writeValueHolder(valueHolder);
+			}
+		}
+
+		private void writeValueHolder(ConstructorArgumentValues.ValueHolder valueHolder) throws IOException {
+			writeValue(valueHolder.getValue());
+			writeString(valueHolder.getType());
+			writeString(valueHolder.getName());
+		}
+
+		private void writePropertyValues(@Nullable MutablePropertyValues pvs) throws IOException {
+			if (pvs == null) {
+				this.out.writeInt(0);
+				return;
+			}
+			PropertyValue[] pvArray = pvs.getPropertyValues();
+			this.out.writeInt(pvArray.length);
+			for (PropertyValue pv : pvArray) {
+				writeString(pv.getName());
+				writeValue(pv.getValue());
+				this.out.writeBoolean(pv.isOptional());
+			}
+		}
+
+		private void writeMethodOverrides(MethodOverrides overrides) throws IOException {
+			Set<MethodOverride> overrideSet = overrides.getOverrides();
+			this.out.writeInt(overrideSet.size());
+			for (MethodOverride override : overrideSet) {
+				if (override instanceof LookupOverride) {
+					this.out.writeByte(LOOKUP_OVERRIDE);
+					writeString(override.getMethodName());
+					writeString(((LookupOverride) override).getBeanName());
+				}
+				else if (override instanceof ReplaceOverride) {
+					ReplaceOverride replaceOverride = (ReplaceOverride) override;
+					this.out.writeByte(REPLACE_OVERRIDE);
+					writeString(override.getMethodName());
+					writeString(replaceOverride.getMethodReplacerBeanName());
+					writeStrings(StringUtils.toStringArray(replaceOverride.getTypeIdentifiers()));
+				}
+				else {
+					throw unsupported("method override of type [" + override.getClass().getName() + "]");
+				}
+				this.out.writeBoolean(override.isOverloaded());
+			}
+		}
+
+		void writeValue(@Nullable Object value) throws IOException {
+			if (value == null) {
+				this.out.writeByte(NULL);
+			}
+			else if (value instanceof String) {
+				this.out.writeByte(STRING);
+				writeString((String) value);
+			}
+			else if (value instanceof Boolean) {
+				this.out.writeByte(BOOLEAN);
+				this.out.writeBoolean((Boolean) value);
+			}
+			else if (value instanceof Integer) {
+				this.out.writeByte(INTEGER);
+				this.out.writeInt((Integer) value);
+			}
+			else if (value instanceof Long) {
+				this.out.writeByte(LONG);
+				this.out.writeLong((Long) value);
+			}
+			else if (value instanceof Short) {
+				this.out.writeByte(SHORT);
+				this.out.writeShort((Short) value);
+			}
+			else if (value instanceof Byte) {
+				this.out.writeByte(BYTE);
+				this.out.writeByte((Byte) value);
+			}
+			else if (value instanceof Float) {
+				this.out.writeByte(FLOAT);
+				this.out.writeFloat((Float) value);
+			}
+			else if (value instanceof Double) {
+				this.out.writeByte(DOUBLE);
+				this.out.writeDouble((Double) value);
+			}
+			else if (value instanceof Character) {
+				this.out.writeByte(CHARACTER);
+				this.out.writeChar((Character) value);
+			}
+			else if (value instanceof Class) {
+				this.out.writeByte(CLASS);
+				writeString(((Class<?>) value).getName());
+			}
+			else if (value instanceof Enum) {
+				this.out.writeByte(ENUM);
+				writeString(((Enum<?>) value).getDeclaringClass().getName());
+				writeString(((Enum<?>) value).name());
+			}
+			else if (value instanceof TypedStringValue) {
+				TypedStringValue typedStringValue = (TypedStringValue) value;
+				this.out.writeByte(TYPED_STRING);
+				writeString(typedStringValue.getValue());
+				writeString(typedStringValue.hasTargetType() ?
+						typedStringValue.getTargetType().getName() : typedStringValue.getTargetTypeName());
+				writeString(typedStringValue.getSpecifiedTypeName());
+				this.out.writeBoolean(typedStringValue.isDynamic());
+			}
+			else if (value instanceof RuntimeBeanReference) {
+				RuntimeBeanReference reference = (RuntimeBeanReference) value;
+				this.out.writeByte(BEAN_REFERENCE);
+				writeString(reference.getBeanName());
+				this.out.writeBoolean(reference.isToParent());
+			}
+			else if (value instanceof RuntimeBeanNameReference) {
+				this.out.writeByte(BEAN_NAME_REFERENCE);
+				writeString(((RuntimeBeanNameReference) value).getBeanName());
+			}
+			else if (value instanceof BeanDefinitionHolder) {
+				BeanDefinitionHolder holder = (BeanDefinitionHolder) value;
+				this.out.writeByte(BEAN_DEFINITION_HOLDER);
+				writeString(holder.getBeanName());
+				writeStrings(holder.getAliases());
+				writeBeanDefinition(holder.getBeanDefinition());
+			}
+			else if (value instanceof BeanDefinition) {
+				this.out.writeByte(BEAN_DEFINITION);
+				writeBeanDefinition((BeanDefinition) value);
+			}
+			else if (value instanceof ManagedArray) {
+				ManagedArray array = (ManagedArray) value;
+				this.out.writeByte(MANAGED_ARRAY);
+				writeString(array.getElementTypeName());
+				this.out.writeBoolean(array.isMergeEnabled());
+				writeElements(array);
+			}
+			else if (value instanceof ManagedList) {
+				ManagedList<?> list = (ManagedList<?>) value;
+				this.out.writeByte(MANAGED_LIST);
+				writeString(list.getElementTypeName());
+				this.out.writeBoolean(list.isMergeEnabled());
+				writeElements(list);
+			}
+			else if (value instanceof ManagedSet) {
+				ManagedSet<?> set = (ManagedSet<?>) value;
+				this.out.writeByte(MANAGED_SET);
+				writeString(set.getElementTypeName());
+				this.out.writeBoolean(set.isMergeEnabled());
+				writeElements(set);
+			}
+			else if (value instanceof ManagedMap) {
+				ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+				this.out.writeByte(MANAGED_MAP);
+				writeString(map.getKeyTypeName());
+				writeString(map.getValueTypeName());
+				this.out.writeBoolean(map.isMergeEnabled());
+				writeEntries(map);
+			}
+			else if (value instanceof ManagedProperties) {
+				ManagedProperties properties = (ManagedProperties) value;
+				this.out.writeByte(MANAGED_PROPERTIES);
+				this.out.writeBoolean(properties.isMergeEnabled());
+				writeEntries(properties);
+			}
+			else if (value.getClass().isArray()) {
+				this.out.writeByte(ARRAY);
+				writeString(value.getClass().getComponentType().getName());
+				int length = Array.getLength(value);
+				this.out.writeInt(length);
+				for (int i = 0; i < length; i++) {
+					writeValue(Array.get(value, i));
+				}
+			}
+			else if (value instanceof List) {
+				this.out.writeByte(LIST);
+				writeElements((List<?>) value);
+			}
+			else if (value instanceof Set) {
+				this.out.writeByte(SET);
+				writeElements((Set<?>) value);
+			}
+			else if (value instanceof Map) {
+				this.out.writeByte(MAP);
+				writeEntries((Map<?, ?>) value);
+			}
+			else {
+				throw unsupported("value of type [" + value.getClass().getName() + "]");
+			}
+		}
+
+		private void writeElements(Collection<?> elements) throws IOException {
+			this.out.writeInt(elements.size());
+			for (Object element : elements) {
+				writeValue(element);
+			}
+		}
+
+		private void writeEntries(Map<?, ?> map) throws IOException {
+			this.out.writeInt(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				writeValue(entry.getKey());
+				writeValue(entry.getValue());
+			}
+		}
+
+		void writeStrings(@Nullable String[] values) throws IOException {
+			if (values == null) {
+				this.out.writeInt(-1);
+				return;
+			}
+			this.out.writeInt(values.length);
+			for (String value : values) {
+				writeString(value);
+			}
+		}
+
+		/**
+		 * Write a string as {@code -1} for {@code null}, as {@code -2 - index} for a
+		 * string written before, or as its UTF-8 byte length followed by the bytes.
+		 */
+		void writeString(@Nullable String value) throws IOException {
+			if (value == null) {
+				this.out.writeInt(-1);
+				return;
+			}
+			Integer index = this.strings.get(value);
+			if (index != null) {
+				this.out.writeInt(-2 - index);
+				return;
+			}
+			this.strings.put(value, this.strings.size());
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			this.out.writeInt(bytes.length);
+			this.out.write(bytes);
+		}
+
+		private BeanDefinitionStoreException unsupported(String what) {
+			return new BeanDefinitionStoreException(null, this.currentBeanName,
+					"Cannot write " + what + " to bean definition snapshot");
+		}
+	}
+
+
+	/**
+	 * Reads bean definitions and values in the format written by {@link SnapshotWriter}.
+	 */
+	private static class SnapshotReader {
+
+		private final DataInputStream in;
+
+		@Nullable
+		private final ClassLoader classLoader;
+
+		private final List<String> strings = new ArrayList<>();
+
+		SnapshotReader(DataInputStream in, @Nullable ClassLoader classLoader) {
+			this.in = in;
+			this.classLoader = classLoader;
+		}
+
+		AbstractBeanDefinition readBeanDefinition() throws IOException {
+			byte kind = this.in.readByte();
+			AbstractBeanDefinition abd;
+			if (kind == ROOT_BEAN_DEFINITION) {
+				abd = new RootBeanDefinition();
+			}
+			else if (kind == ANNOTATED_ROOT_BEAN_DEFINITION) {
+				abd = new RestoredAnnotatedRootBeanDefinition(readAnnotatedBeanDefinition());
+			}
+			else if (kind == GENERIC_BEAN_DEFINITION || kind == ANNOTATED_GENERIC_BEAN_DEFINITION) {
+				GenericBeanDefinition gbd = (kind == GENERIC_BEAN_DEFINITION ? new GenericBeanDefinition() :
+						new RestoredAnnotatedGenericBeanDefinition(readAnnotatedBeanDefinition()));
+				gbd.setParentName(readString());
+				abd = gbd;
+			}
+			else {
+				throw new IOException("Corrupt bean definition snapshot: unknown bean definition kind " + kind);
+			}
+
+			abd.setBeanClassName(readString());
+			abd.setScope(readString());
+			abd.setAbstract(this.in.readBoolean());
+			abd.setLazyInit(this.in.readBoolean());
+			abd.setAutowireMode(this.in.readInt());
+			abd.setDependencyCheck(this.in.readInt());
+			abd.setDependsOn(readStrings());
+			abd.setAutowireCandidate(this.in.readBoolean());
+			abd.setPrimary(this.in.readBoolean());
+			abd.setNonPublicAccessAllowed(this.in.readBoolean());
+			abd.setLenientConstructorResolution(this.in.readBoolean());
+			abd.setFactoryBeanName(readString());
+			abd.setFactoryMethodName(readString());
+			abd.setInitMethodName(readString());
+			abd.setDestroyMethodName(readString());
+			abd.setEnforceInitMethod(this.in.readBoolean());
+			abd.setEnforceDestroyMethod(this.in.readBoolean());
+			abd.setSynthetic(this.in.readBoolean());
+			abd.setRole(this.in.readInt());
+			abd.setDescription(readString());
+			abd.setResourceDescription(readString());
+			readAttributes(abd);
+
+			int qualifierCount = this.in.readInt();
+			for (int i = 0; i < qualifierCount; i++) {
+				AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(readRequiredString());
+				readAttributes(qualifier);
+				abd.addQualifier(qualifier);
+			}
+
+			readConstructorArgumentValues(abd);
+			readPropertyValues(abd);
+			readMethodOverrides(abd.getMethodOverrides());
+
+			if (abd instanceof RootBeanDefinition) {
+				RootBeanDefinition rbd = (RootBeanDefinition) abd;
+				rbd.isFactoryMethodUnique = this.in.readBoolean();
+				String targetTypeName = readString();
+				if (targetTypeName != null) {
+					rbd.setTargetType(loadClass(targetTypeName));
+				}
+				Object decorated = readValue();
+				if (decorated != null) {
+					rbd.setDecoratedDefinition((BeanDefinitionHolder) decorated);
+				}
+			}
+			return abd;
+		}
+
+		private RestoredMetadata readAnnotatedBeanDefinition() throws IOException {
+			String className = readRequiredString();
+			int count = this.in.readInt();
+			List<String[]> factoryMethodSignatures = null;
+			if (count >= 0) {
+				factoryMethodSignatures = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					String[] parameterTypeNames = new String[this.in.readInt()];
+					for (int j = 0; j < parameterTypeNames.length; j++) {
+						parameterTypeNames[j] = readRequiredString();
+					}
+					factoryMethodSignatures.add(parameterTypeNames);
+				}
+			}
+			return new RestoredMetadata(className, factoryMethodSignatures, this.classLoader);
+		}
+
+		private void readAttributes(AttributeAccessor accessor) throws IOException {
+			int count = this.in.readInt();
+			for (int i = 0; i < count; i++) {
+				accessor.setAttribute(readRequiredString(), readValue());
+			}
+		}
+
+		private void readConstructorArgumentValues(AbstractBeanDefinition abd) throws IOException {
+			int indexedCount = this.in.readInt();
+			for (int i = 0; i < indexedCount; i++) {
+				int index = this.in.readInt();
+				abd.getConstructorArgumentValues().addIndexedArgumentValue(index, readValueHolder());
+			}
+			int genericCount = this.in.readInt();
+			for (int i = 0; i < genericCount; i++) {
+				abd.getConstructorArgumentValues().addGenericArgumentValue(readValueHolder());
+			}
+		}
+
+		private ConstructorArgumentValues.ValueHolder readValueHolder() throws IOException {
+			Object value = readValue();
+			return new ConstructorArgumentValues.ValueHolder(value, readString(), readString());
+		}
+
+		private void readPropertyValues(AbstractBeanDefinition abd) throws IOException {
+			int count = this.in.readInt();
+			for (int i = 0; i < count; i++) {
+				PropertyValue pv = new PropertyValue(readRequiredString(), readValue());
+				pv.setOptional(this.in.readBoolean());
+				abd.getPropertyValues().addPropertyValue(pv);
+			}
+		}
+
+		private void readMethodOverrides(MethodOverrides overrides) throws IOException {
+			int count = this.in.readInt();
+			for (int i = 0; i < count; i++) {
+				byte kind = this.in.readByte();
+				MethodOverride override;
+				if (kind == LOOKUP_OVERRIDE) {
+					override = new LookupOverride(readRequiredString(), readString());
+				}
+				else if (kind == REPLACE_OVERRIDE) {
+					ReplaceOverride replaceOverride = new ReplaceOverride(readRequiredString(), readRequiredString());
+					String[] typeIdentifiers = readStrings();
+					if (typeIdentifiers != null) {
+						for (String typeIdentifier : typeIdentifiers) {
+							replaceOverride.addTypeIdentifier(typeIdentifier);
+						}
+					}
+					override = replaceOverride;
+				}
+				else {
+					throw new IOException("Corrupt bean definition snapshot: unknown method override kind " + kind);
+				}
+				override.setOverloaded(this.in.readBoolean());
+				overrides.addOverride(override);
+			}
+		}
+
+		@Nullable
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Object readValue() throws IOException {
+			byte tag = this.in.readByte();
+			switch (tag) {
+				case NULL:
+					return null;
+				case STRING:
+					return readString();
+				case BOOLEAN:
+					return this.in.readBoolean();
+				case INTEGER:
+					return this.in.readInt();
+				case LONG:
+					return this.in.readLong();
+				case SHORT:
+					return this.in.readShort();
+				case BYTE:
+					return this.in.readByte();
+				case FLOAT:
+					return this.in.readFloat();
+				case DOUBLE:
+					return this.in.readDouble();
+				case CHARACTER:
+					return this.in.readChar();
+				case CLASS:
+					return loadClass(readRequiredString());
+				case ENUM: {
+					Class enumType = loadClass(readRequiredString());
+					return Enum.valueOf(enumType, readRequiredString());
+				}
+				case TYPED_STRING: {
+					TypedStringValue typedStringValue = new TypedStringValue(readString());
+					typedStringValue.setTargetTypeName(readString());
+					typedStringValue.setSpecifiedTypeName(readString());
+					if (this.in.readBoolean()) {
+						typedStringValue.setDynamic();
+					}
+					return typedStringValue;
+				}
+				case BEAN_REFERENCE:
+					return new RuntimeBeanReference(readRequiredString(), this.in.readBoolean());
+				case BEAN_NAME_REFERENCE:
+					return new RuntimeBeanNameReference(readRequiredString());
+				case BEAN_DEFINITION_HOLDER: {
+					String beanName = readRequiredString();
+					String[] aliases = readStrings();
+					return new BeanDefinitionHolder(readBeanDefinition(), beanName, aliases);
+				}
+				case BEAN_DEFINITION:
+					return readBeanDefinition();
+				case MANAGED_ARRAY: {
+					String elementTypeName = readRequiredString();
+					boolean mergeEnabled = this.in.readBoolean();
+					int size = this.in.readInt();
+					ManagedArray array = new ManagedArray(elementTypeName, size);
+					array.setMergeEnabled(mergeEnabled);
+					readElements(array, size);
+					return array;
+				}
+				case MANAGED_LIST: {
+					ManagedList list = new ManagedList<>();
+					list.setElementTypeName(readString());
+					list.setMergeEnabled(this.in.readBoolean());
+					readElements(list, this.in.readInt());
+					return list;
+				}
+				case MANAGED_SET: {
+					ManagedSet set = new ManagedSet<>();
+					set.setElementTypeName(readString());
+					set.setMergeEnabled(this.in.readBoolean());
+					readElements(set, this.in.readInt());
+					return set;
+				}
+				case MANAGED_MAP: {
+					ManagedMap map = new ManagedMap<>();
+					map.setKeyTypeName(readString());
+					map.setValueTypeName(readString());
+					map.setMergeEnabled(this.in.readBoolean());
+					readEntries(map);
+					return map;
+				}
+				case MANAGED_PROPERTIES: {
+					ManagedProperties properties = new ManagedProperties();
+					properties.setMergeEnabled(this.in.readBoolean());
+					readEntries(properties);
+					return properties;
+				}
+				case ARRAY: {
+					Class<?> componentType = loadClass(readRequiredString());
+					int length = this.in.readInt();
+					Object array = Array.newInstance(componentType, length);
+					for (int i = 0; i < length; i++) {
+						Array.set(array, i, readValue());
+					}
+					return array;
+				}
+				case LIST: {
+					List list = new ArrayList<>();
+					readElements(list, this.in.readInt());
+					return list;
+				}
+				case SET: {
+					Set set = new LinkedHashSet<>();
+					readElements(set, this.in.readInt());
+					return set;
+				}
+				case MAP: {
+					Map map = new LinkedHashMap<>();
+					readEntries(map);
+					return map;
+				}
+				default:
+					throw new IOException("Corrupt bean definition snapshot: unknown value tag " + tag);
+			}
+		}
+
+		private void readElements(Collection<Object> elements, int size) throws IOException {
+			for (int i = 0; i < size; i++) {
+				elements.add(readValue());
+			}
+		}
+
+		private void readEntries(Map<Object, Object> map) throws IOException {
+			int size = this.in.readInt();
+			for (int i = 0; i < size; i++) {
+				Object key = readValue();
+				map.put(key, readValue());
+			}
+		}
+
+		private Class<?> loadClass(String className) throws IOException {
+			try {
+				return ClassUtils.forName(className, this.classLoader);
+			}
+			catch (ClassNotFoundException | LinkageError ex) {
+				throw new IOException("Class [" + className + "] referenced by bean definition snapshot not found", ex);
+			}
+		}
+
+		@Nullable
+		String[] readStrings() throws IOException {
+			int length = this.in.readInt();
+			if (length < 0) {
+				return null;
+			}
+			String[] values = new String[length];
+			for (int i = 0; i < length; i++) {
+				values[i] = readString();
+			}
+			return values;
+		}
+
+		String readRequiredString() throws IOException {
+			String value = readString();
+			if (value == null) {
+				throw new IOException("Corrupt bean definition snapshot: unexpected null string");
+			}
+			return value;
+		}
+
+		@Nullable
+		String readString() throws IOException {
+			int header = this.in.readInt();
+			if (header == -1) {
+				return null;
+			}
+			if (header < -1) {
+				int index = -2 - header;
+				if (index >= this.strings.size()) {
+					throw new IOException("Corrupt bean definition snapshot: invalid string index " + index);
+				}
+				return this.strings.get(index);
+			}
+			byte[] bytes = new byte[header];
+			this.in.readFully(bytes);
+			String value = new String(bytes, StandardCharsets.UTF_8);
+			this.strings.add(value);
+			return value;
+		}
+	}
+
+
+	/**
+	 * Annotation metadata of a restored {@link AnnotatedBeanDefinition}, introspected
+	 * on demand so that restoring a snapshot does not load the introspected classes.
+	 */
+	private static final class RestoredMetadata {
+
+		private final String className;
+
+		@Nullable
+		private final List<String[]> factoryMethodSignatures;
+
+		@Nullable
+		private final ClassLoader classLoader;
+
+		@Nullable
+		private volatile AnnotationMetadata metadata;
+
+		@Nullable
+		private volatile MethodMetadata factoryMethodMetadata;
+
+		RestoredMetadata(String className, @Nullable List<String[]> factoryMethodSignatures,
+				@Nullable ClassLoader classLoader) {
+
+			this.className = className;
+			this.factoryMethodSignatures = factoryMethodSignatures;
+			this.classLoader = classLoader;
+		}
+
+		AnnotationMetadata getMetadata() {
+			AnnotationMetadata metadata = this.metadata;
+			if (metadata == null) {
+				metadata = new StandardAnnotationMetadata(getIntrospectedClass(), true);
+				this.metadata = metadata;
+			}
+			return metadata;
+		}
+
+		@Nullable
+		MethodMetadata getFactoryMethodMetadata(@Nullable String factoryMethodName) {
+			if (this.factoryMethodSignatures == null || factoryMethodName == null) {
+				return null;
+			}
+			MethodMetadata factoryMethodMetadata = this.factoryMethodMetadata;
+			if (factoryMethodMetadata == null) {
+				String[] signature = this.factoryMethodSignatures.get(0);
+				for (Method candidate : ReflectionUtils.getUniqueDeclaredMethods(getIntrospectedClass())) {
+					if (candidate.getName().equals(factoryMethodName) && matches(candidate, signature)) {
+						factoryMethodMetadata = new StandardMethodMetadata(candidate, true);
+						break;
+					}
+				}
+				if (factoryMethodMetadata == null) {
+					throw new IllegalStateException("Factory method [" + factoryMethodName +
+							"] not found on class [" + this.className + "]");
+				}
+				this.factoryMethodMetadata = factoryMethodMetadata;
+			}
+			return factoryMethodMetadata;
+		}
+
+		boolean isFactoryMethod(Method candidate) {
+			if (this.factoryMethodSignatures == null) {
+				return true;
+			}
+			for (String[] signature : this.factoryMethodSignatures) {
+				if (matches(candidate, signature)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private Class<?> getIntrospectedClass() {
+			try {
+				return ClassUtils.forName(this.className, this.classLoader);
+			}
+			catch (ClassNotFoundException ex) {
+				throw new IllegalStateException("Class [" + this.className +
+						"] referenced by bean definition snapshot not found", ex);
+			}
+		}
+
+		private static boolean matches(Method candidate, String[] parameterTypeNames) {
+			Class<?>[] parameterTypes = candidate.getParameterTypes();
+			if (parameterTypes.length != parameterTypeNames.length) {
+				return false;
+			}
+			for (int i = 0; i < parameterTypes.length; i++) {
+				if (!parameterTypes[i].getName().equals(parameterTypeNames[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+
+	/**
+	 * Restored root bean definition with annotation metadata, e.g. for a
+	 * {@code @Bean} method: only accepts the original factory method overloads.
+	 */
+	@SuppressWarnings("serial")
+	private static class RestoredAnnotatedRootBeanDefinition extends RootBeanDefinition
+			implements AnnotatedBeanDefinition {
+
+		private final RestoredMetadata restoredMetadata;
+
+		RestoredAnnotatedRootBeanDefinition(RestoredMetadata restoredMetadata) {
+			this.restoredMetadata = restoredMetadata;
+		}
+
+		private RestoredAnnotatedRootBeanDefinition(RestoredAnnotatedRootBeanDefinition original) {
+			super(original);
+			this.restoredMetadata = original.restoredMetadata;
+		}
+
+		@Override
+		public AnnotationMetadata getMetadata() {
+			return this.restoredMetadata.getMetadata();
+		}
+
+		@Override
+		@Nullable
+		public MethodMetadata getFactoryMethodMetadata() {
+			return this.restoredMetadata.getFactoryMethodMetadata(getFactoryMethodName());
+		}
+
+		@Override
+		public boolean isFactoryMethod(Method candidate) {
+			return (super.isFactoryMethod(candidate) && this.restoredMetadata.isFactoryMethod(candidate));
+		}
+
+		@Override
+		public RestoredAnnotatedRootBeanDefinition cloneBeanDefinition() {
+			return new RestoredAnnotatedRootBeanDefinition(this);
+		}
+	}
+
+
+	/**
+	 * Restored generic bean definition with annotation metadata,
+	 * e.g. for a scanned component or a registered configuration class.
+	 */
+	@SuppressWarnings("serial")
+	private static class RestoredAnnotatedGenericBeanDefinition extends GenericBeanDefinition
+			implements AnnotatedBeanDefinition {
+
+		private final RestoredMetadata restoredMetadata;
+
+		RestoredAnnotatedGenericBeanDefinition(RestoredMetadata restoredMetadata) {
+			this.restoredMetadata = restoredMetadata;
+		}
+
+		@Override
+		public AnnotationMetadata getMetadata() {
+			return this.restoredMetadata.getMetadata();
+		}
+
+		@Override
+		@Nullable
+		public MethodMetadata getFactoryMethodMetadata() {
+			return this.restoredMetadata.getFactoryMethodMetadata(getFactoryMethodName());
+		}
+	}
+
+}
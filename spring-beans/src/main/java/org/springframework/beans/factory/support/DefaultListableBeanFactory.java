@@ -114,6 +114,11 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	 */
 	private boolean allowEagerClassLoading = true;
 
+	/**
+	 * Number of threads to use for pre-instantiating singletons.
+	 */
+	private int preInstantiationParallelism = 1;
+
 	/**
 	 * Optional OrderComparator for dependency Lists and arrays.
 	 */
@@ -138,6 +143,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 	/**
 	 * Map of singleton and non-singleton bean names, keyed by dependency type.
+	 * Entries are removed per type (and its supertypes) when a bean of that type
+	 * gets registered or removed, see {@link #updateByTypeCache(String)}.
 	 */
 	private final Map<Class<?>, String[]> allBeanNamesByType = new ConcurrentHashMap<>(64);
 
@@ -146,6 +153,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	 */
 	private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
 
+	/**
+	 * Map from bean definition name to the type predicted for it in by-type lookups,
+	 * with {@code void.class} for a type that cannot be predicted upfront.
+	 * Maintained while by-type mappings are cached.
+	 */
+	private final Map<String, Class<?>> beanTypeIndex = new ConcurrentHashMap<>(256);
+
 	/**
 	 * List of bean definition names, in registration order.
 	 */
@@ -266,6 +280,37 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.allowEagerClassLoading;
 	}
 
+	/**
+	 * Set the number of threads to use for pre-instantiating non-lazy singletons.
+	 * <p>Default is 1, creating all singletons sequentially on the calling thread,
+	 * in registration order. A higher value builds a dependency graph from the
+	 * merged bean definitions and creates independent beans in parallel on a
+	 * {@link java.util.concurrent.ForkJoinPool}, with beans involved in circular
+	 * references created sequentially. The resulting critical path is logged at
+	 * debug level.
+	 * <p>Setting a value higher than 1 also switches on
+	 * {@link #setConcurrentSingletonCreation concurrent singleton creation}.
+	 *
+	 * @see #preInstantiateSingletons()
+	 * @since 5.1.12
+	 */
+	public void setPreInstantiationParallelism(int preInstantiationParallelism) {
+		Assert.isTrue(preInstantiationParallelism > 0, "Pre-instantiation parallelism must be at least 1");
+		this.preInstantiationParallelism = preInstantiationParallelism;
+		if (preInstantiationParallelism > 1) {
+			setConcurrentSingletonCreation(true);
+		}
+	}
+
+	/**
+	 * Return the number of threads to use for pre-instantiating non-lazy singletons.
+	 *
+	 * @since 5.1.12
+	 */
+	public int getPreInstantiationParallelism() {
+		return this.preInstantiationParallelism;
+	}
+
 	/**
 	 * Set a {@link java.util.Comparator} for dependency Lists and arrays.
 	 *
@@ -323,6 +368,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			DefaultListableBeanFactory otherListableFactory = (DefaultListableBeanFactory) otherFactory;
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
+			this.preInstantiationParallelism = otherListableFactory.preInstantiationParallelism;
+			setConcurrentSingletonCreation(otherListableFactory.isConcurrentSingletonCreation());
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware...
 			setAutowireCandidateResolver(
@@ -514,6 +561,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		resolvedBeanNames = doGetBeanNamesForType(ResolvableType.forRawClass(type), includeNonSingletons, true);
 		if (ClassUtils.isCacheSafe(type, getBeanClassLoader())) {
 			cache.put(type, resolvedBeanNames);
+			indexBeanTypes();
 		}
 		return resolvedBeanNames;
 	}
@@ -836,7 +884,11 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	@Override
 	public void clearMetadataCache() {
 		super.clearMetadataCache();
-		clearByTypeCache();
+		// Merged bean definitions are retained once the configuration is frozen,
+		// and by-type mappings are only cached from then on.
+		if (!isConfigurationFrozen()) {
+			clearByTypeCache();
+		}
 	}
 
 	@Override
@@ -872,48 +924,20 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
 		// Trigger initialization of all non-lazy singleton beans...
-		for (String beanName : beanNames) {
-			/**
-			 * 取出BeanDefinition，每次调用getBeanNamesForType()都会把之前没有存到
-			 * mergedBeanDefinitions的BeanDefinition转为RootBeanDefinition存到里面
-			 */
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			/**
-			 * 非抽象类，单例，非懒加载
-			 */
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				/**
-				 * TODO 第一次调用
-				 * isFactoryBean第一次调用beanPostProcessor
-				 * 链路 isFactoryBean - > {@link AbstractBeanFactory#isFactoryBean(String)} 
-				 * ->{@link AbstractBeanFactory#isFactoryBean(String, RootBeanDefinition)}
-				 * ->{@link AbstractAutowireCapableBeanFactory#predictBeanType(String, RootBeanDefinition, Class[])}
-				 */
-				if (isFactoryBean(beanName)) {
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					if (bean instanceof FactoryBean) {
-						final FactoryBean<?> factory = (FactoryBean<?>) bean;
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
-											((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						} else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				} else {
-					/**
-					 * 不是factoryBean实例化普通bean
-					 * {@link #doGetBean(String, Class, Object[], boolean)}
-					 */
-					getBean(beanName);
+		if (this.preInstantiationParallelism > 1) {
+			List<String> eagerBeanNames = new ArrayList<>(beanNames.size());
+			for (String beanName : beanNames) {
+				RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+				if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+					eagerBeanNames.add(beanName);
 				}
 			}
+			new ParallelSingletonPreInstantiator(this, this.preInstantiationParallelism)
+					.preInstantiate(eagerBeanNames, this::preInstantiateSingleton);
+		} else {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
+			}
 		}
 
 		// Trigger post-initialization callback for all applicable beans...
@@ -933,6 +957,57 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 	}
 
+	/**
+	 * Pre-instantiate the given bean if it is a non-lazy singleton,
+	 * including the object exposed by an eager-init {@link SmartFactoryBean}.
+	 *
+	 * @param beanName the name of the bean
+	 * @see #preInstantiateSingletons()
+	 */
+	private void preInstantiateSingleton(String beanName) {
+		/**
+		 * 取出BeanDefinition，每次调用getBeanNamesForType()都会把之前没有存到
+		 * mergedBeanDefinitions的BeanDefinition转为RootBeanDefinition存到里面
+		 */
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		/**
+		 * 非抽象类，单例，非懒加载
+		 */
+		if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+			/**
+			 * TODO 第一次调用
+			 * isFactoryBean第一次调用beanPostProcessor
+			 * 链路 isFactoryBean - > {@link AbstractBeanFactory#isFactoryBean(String)} 
+			 * ->{@link AbstractBeanFactory#isFactoryBean(String, RootBeanDefinition)}
+			 * ->{@link AbstractAutowireCapableBeanFactory#predictBeanType(String, RootBeanDefinition, Class[])}
+			 */
+			if (isFactoryBean(beanName)) {
+				Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+				if (bean instanceof FactoryBean) {
+					final FactoryBean<?> factory = (FactoryBean<?>) bean;
+					boolean isEagerInit;
+					if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+						isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
+										((SmartFactoryBean<?>) factory)::isEagerInit,
+								getAccessControlContext());
+					} else {
+						isEagerInit = (factory instanceof SmartFactoryBean &&
+								((SmartFactoryBean<?>) factory).isEagerInit());
+					}
+					if (isEagerInit) {
+						getBean(beanName);
+					}
+				}
+			} else {
+				/**
+				 * 不是factoryBean实例化普通bean
+				 * {@link #doGetBean(String, Class, Object[], boolean)}
+				 */
+				getBean(beanName);
+			}
+		}
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
@@ -1013,6 +1088,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		if (existingDefinition != null || containsSingleton(beanName)) {
 			resetBeanDefinition(beanName);
 		}
+		updateByTypeCache(beanName);
 	}
 
 	@Override
@@ -1041,6 +1117,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		this.frozenBeanDefinitionNames = null;
 
 		resetBeanDefinition(beanName);
+		updateByTypeCache(beanName);
 	}
 
 	/**
@@ -1079,6 +1156,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 				// of the beanDefinitionMap.
 				if (bd != null && beanName.equals(bd.getParentName())) {
 					resetBeanDefinition(bdName);
+					// The merged type of a child definition may have changed
+					updateByTypeCache(bdName);
 				}
 			}
 		}
@@ -1096,7 +1175,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		super.registerSingleton(beanName, singletonObject);
 		updateManualSingletonNames(set -> set.add(beanName), set -> !this.beanDefinitionMap.containsKey(beanName));
-		clearByTypeCache();
+		clearByTypeCache(singletonObject.getClass());
 	}
 
 	@Override
@@ -1108,9 +1187,17 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 	@Override
 	public void destroySingleton(String beanName) {
+		Object singletonInstance = getSingleton(beanName, false);
 		super.destroySingleton(beanName);
 		removeManualSingletonName(beanName);
-		clearByTypeCache();
+		if (singletonInstance != null) {
+			// Type matching falls back from the instance to the bean definition
+			clearByTypeCache(singletonInstance.getClass());
+			Class<?> indexedType = this.beanTypeIndex.get(beanName);
+			if (indexedType != null) {
+				clearByTypeCache(indexedType);
+			}
+		}
 	}
 
 	private void removeManualSingletonName(String beanName) {
@@ -1150,6 +1237,97 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		this.singletonBeanNamesByType.clear();
 	}
 
+	/**
+	 * Remove the by-type mappings affected by a registered, replaced or removed
+	 * bean definition: those for the type indexed for its previous definition
+	 * and those for the type predicted for its current definition, if any.
+	 * <p>Types predicted by SmartInstantiationAwareBeanPostProcessors are taken
+	 * into account; only FactoryBeans and beans whose type cannot be predicted
+	 * remove all by-type mappings.
+	 *
+	 * @param beanName the name of the changed bean definition
+	 * @see #determineIndexedType(String)
+	 */
+	private void updateByTypeCache(String beanName) {
+		Class<?> indexedType = this.beanTypeIndex.remove(beanName);
+		if (this.allBeanNamesByType.isEmpty() && this.singletonBeanNamesByType.isEmpty()) {
+			return;
+		}
+		if (indexedType != null) {
+			clearByTypeCache(indexedType);
+		}
+		if (this.beanDefinitionMap.containsKey(beanName)) {
+			Class<?> beanType = determineIndexedType(beanName);
+			this.beanTypeIndex.put(beanName, beanType);
+			clearByTypeCache(beanType);
+		}
+	}
+
+	/**
+	 * Remove the by-type mappings for the given bean type and all of its
+	 * superclasses and interfaces, keeping the mappings for unrelated types.
+	 *
+	 * @param beanType the type of the changed bean, or {@code void.class} if it
+	 *                 cannot be predicted (removing all by-type mappings then)
+	 */
+	private void clearByTypeCache(Class<?> beanType) {
+		if (this.allBeanNamesByType.isEmpty() && this.singletonBeanNamesByType.isEmpty()) {
+			return;
+		}
+		if (beanType == void.class || beanType.isArray() || FactoryBean.class.isAssignableFrom(beanType)) {
+			// A FactoryBean may expose an object of any type
+			clearByTypeCache();
+			return;
+		}
+		for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(beanType)) {
+			this.allBeanNamesByType.remove(type);
+			this.singletonBeanNamesByType.remove(type);
+		}
+		for (Class<?> type = beanType; type != null; type = type.getSuperclass()) {
+			this.allBeanNamesByType.remove(type);
+			this.singletonBeanNamesByType.remove(type);
+		}
+	}
+
+	/**
+	 * Index the predicted types of all bean definitions that are not indexed yet,
+	 * once by-type mappings are being cached for them.
+	 */
+	private void indexBeanTypes() {
+		List<String> beanNames = this.beanDefinitionNames;
+		if (this.beanTypeIndex.size() < beanNames.size()) {
+			for (String beanName : beanNames) {
+				if (!this.beanTypeIndex.containsKey(beanName)) {
+					this.beanTypeIndex.put(beanName, determineIndexedType(beanName));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determine the type that the given bean will be matched with in by-type
+	 * lookups, as predicted from its merged bean definition and by
+	 * SmartInstantiationAwareBeanPostProcessors.
+	 *
+	 * @param beanName the name of the bean definition to check
+	 * @return the predicted bean type, or {@code void.class} if it cannot be
+	 * predicted or may be exposed through a FactoryBean
+	 */
+	private Class<?> determineIndexedType(String beanName) {
+		try {
+			Class<?> beanType = predictBeanType(beanName, getMergedLocalBeanDefinition(beanName));
+			if (beanType != null && !beanType.isArray() && !FactoryBean.class.isAssignableFrom(beanType)) {
+				return beanType;
+			}
+		} catch (BeansException ex) {
+			// Unresolvable bean class or metadata: cannot be predicted.
+			if (logger.isTraceEnabled()) {
+				logger.trace("Cannot predict type of bean '" + beanName + "' for by-type lookups", ex);
+			}
+		}
+		return void.class;
+	}
+
 
 	//---------------------------------------------------------------------
 	// Dependency resolution functionality
@@ -98,6 +98,43 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/** Map between depending bean names: bean name to Set of bean names for the bean's dependencies. */
 	private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<>(64);
 
+	/** Whether singletons may be created concurrently, guarded per bean name. */
+	private volatile boolean concurrentSingletonCreation = false;
+
+	/** Threads creating singletons in concurrent mode: bean name to creating thread. */
+	private final Map<String, Thread> singletonCreationThreads = new HashMap<>(16);
+
+	/** Threads waiting for singletons in concurrent mode: waiting thread to bean name. */
+	private final Map<Thread, String> singletonCreationWaits = new HashMap<>(16);
+
+
+	/**
+	 * Set whether singletons may be created concurrently in multiple threads.
+	 * <p>Default is "false": a singleton is created while holding the registry-wide
+	 * {@link #getSingletonMutex() singleton mutex}, serializing all singleton creation.
+	 * <p>Switch this to "true" to guard singleton creation per bean name instead:
+	 * fully initialized singletons are returned without locking, different singletons
+	 * may be created in parallel, and a thread asking for a singleton that is being
+	 * created by another thread waits for that creation to complete. A circular
+	 * reference spanning several threads is resolved through the early singleton
+	 * reference of the blocked thread, just like within a single thread.
+	 * <p>Note that suppressed exceptions are not collected as related causes
+	 * of a {@link BeanCreationException} in concurrent mode.
+	 * @since 5.1.12
+	 * @see #getSingleton(String, ObjectFactory)
+	 */
+	public void setConcurrentSingletonCreation(boolean concurrentSingletonCreation) {
+		this.concurrentSingletonCreation = concurrentSingletonCreation;
+	}
+
+	/**
+	 * Return whether singletons may be created concurrently in multiple threads.
+	 * @since 5.1.12
+	 */
+	public boolean isConcurrentSingletonCreation() {
+		return this.concurrentSingletonCreation;
+	}
+
 
 	@Override
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
@@ -190,6 +227,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		 */
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
 			synchronized (this.singletonObjects) {
+				if (this.concurrentSingletonCreation && isSingletonCreatedByOtherThread(beanName)) {
+					// Never expose another thread's early reference outside of a circular reference:
+					// let the caller wait for the fully initialized singleton instead.
+					return this.singletonObjects.get(beanName);
+				}
 				/**
 				 * 循环依赖这里首次会获取为null
 				 * 再次调用会得到早期引用
@@ -232,6 +274,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
+		if (this.concurrentSingletonCreation) {
+			return getSingletonConcurrently(beanName, singletonFactory);
+		}
 		synchronized (this.singletonObjects) {
 			Object singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
@@ -307,6 +352,166 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 	}
 
+	/**
+	 * Concurrent variant of {@link #getSingleton(String, ObjectFactory)}, holding the
+	 * singleton mutex for bookkeeping only rather than for the entire creation.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to lazily create the singleton
+	 * with, if necessary
+	 * @return the registered singleton object
+	 * @see #setConcurrentSingletonCreation
+	 */
+	private Object getSingletonConcurrently(String beanName, ObjectFactory<?> singletonFactory) {
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+
+		Thread currentThread = Thread.currentThread();
+		boolean creationThread;
+		synchronized (this.singletonObjects) {
+			while (true) {
+				singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject != null) {
+					return singletonObject;
+				}
+				Thread otherThread = this.singletonCreationThreads.get(beanName);
+				if (otherThread == null || otherThread == currentThread) {
+					break;
+				}
+				if (isWaitingForThread(otherThread, currentThread)) {
+					// Circular reference across threads: the other thread is blocked on a singleton
+					// that we are creating, so its early reference is stable and may be exposed.
+					singletonObject = getEarlySingletonReference(beanName);
+					if (singletonObject == null) {
+						throw new BeanCurrentlyInCreationException(beanName);
+					}
+					return singletonObject;
+				}
+				awaitSingletonCreation(beanName, currentThread);
+			}
+			if (this.singletonsCurrentlyInDestruction) {
+				throw new BeanCreationNotAllowedException(beanName,
+						"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+						"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+			}
+			creationThread = (this.singletonCreationThreads.putIfAbsent(beanName, currentThread) == null);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+		}
+		try {
+			beforeSingletonCreation(beanName);
+			boolean newSingleton = false;
+			try {
+				singletonObject = singletonFactory.getObject();
+				newSingleton = true;
+			}
+			catch (IllegalStateException ex) {
+				// Has the singleton object implicitly appeared in the meantime ->
+				// if yes, proceed with it since the exception indicates that state.
+				singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject == null) {
+					throw ex;
+				}
+			}
+			finally {
+				afterSingletonCreation(beanName);
+			}
+			if (newSingleton) {
+				addSingleton(beanName, singletonObject);
+			}
+			return singletonObject;
+		}
+		finally {
+			if (creationThread) {
+				synchronized (this.singletonObjects) {
+					this.singletonCreationThreads.remove(beanName);
+					this.singletonObjects.notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the given singleton is currently being created
+	 * by a thread other than the current one (in concurrent mode only).
+	 * <p>To be called while holding the singleton mutex.
+	 * @param beanName the name of the bean
+	 */
+	private boolean isSingletonCreatedByOtherThread(String beanName) {
+		Thread creationThread = this.singletonCreationThreads.get(beanName);
+		return (creationThread != null && creationThread != Thread.currentThread());
+	}
+
+	/**
+	 * Determine whether the given thread is (transitively) waiting for a
+	 * singleton that is being created by the specified target thread.
+	 * <p>To be called while holding the singleton mutex.
+	 * @param thread the thread to start from
+	 * @param targetThread the thread to look for in the chain of waits
+	 */
+	private boolean isWaitingForThread(Thread thread, Thread targetThread) {
+		Thread current = thread;
+		for (int i = 0; i <= this.singletonCreationWaits.size(); i++) {
+			String awaitedBeanName = this.singletonCreationWaits.get(current);
+			if (awaitedBeanName == null) {
+				return false;
+			}
+			current = this.singletonCreationThreads.get(awaitedBeanName);
+			if (current == null) {
+				return false;
+			}
+			if (current == targetThread) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Wait for another thread to complete the creation of the given singleton,
+	 * temporarily releasing the singleton mutex.
+	 * <p>To be called while holding the singleton mutex.
+	 * @param beanName the name of the bean
+	 * @param currentThread the current (waiting) thread
+	 */
+	private void awaitSingletonCreation(String beanName, Thread currentThread) {
+		this.singletonCreationWaits.put(currentThread, beanName);
+		try {
+			this.singletonObjects.wait();
+		}
+		catch (InterruptedException ex) {
+			currentThread.interrupt();
+			throw new BeanCreationException(beanName,
+					"Interrupted while waiting for singleton creation in another thread", ex);
+		}
+		finally {
+			this.singletonCreationWaits.remove(currentThread);
+		}
+	}
+
+	/**
+	 * Obtain the early reference for the given singleton, if exposed already.
+	 * <p>To be called while holding the singleton mutex.
+	 * @param beanName the name of the bean
+	 * @return the early singleton reference, or {@code null} if none available
+	 */
+	@Nullable
+	private Object getEarlySingletonReference(String beanName) {
+		Object singletonObject = this.earlySingletonObjects.get(beanName);
+		if (singletonObject == null) {
+			ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+			if (singletonFactory != null) {
+				singletonObject = singletonFactory.getObject();
+				this.earlySingletonObjects.put(beanName, singletonObject);
+				this.singletonFactories.remove(beanName);
+			}
+		}
+		return singletonObject;
+	}
+
 	/**
 	 * Register an Exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
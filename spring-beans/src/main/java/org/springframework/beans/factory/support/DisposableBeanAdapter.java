@@ -80,6 +80,12 @@ class DisposableBeanAdapter implements DisposableBean, Runnable, Serializable {
 	@Nullable
 	private List<DestructionAwareBeanPostProcessor> beanPostProcessors;
 
+	@Nullable
+	private transient AbstractBeanFactory beanFactory;
+
+	@Nullable
+	private transient RootBeanDefinition beanDefinition;
+
 
 	/**
 	 * Create a new DisposableBeanAdapter for the given bean.
@@ -225,6 +231,18 @@ class DisposableBeanAdapter implements DisposableBean, Runnable, Serializable {
 		return filteredPostProcessors;
 	}
 
+	/**
+	 * Invoke the custom destroy method through the given factory's
+	 * {@link AbstractBeanFactory#invokeBeanMethod} instead of reflection.
+	 * @param beanFactory the factory that created the bean
+	 * @param beanDefinition the merged bean definition
+	 * @since 5.1.12
+	 */
+	void setBeanMethodInvocation(AbstractBeanFactory beanFactory, RootBeanDefinition beanDefinition) {
+		this.beanFactory = beanFactory;
+		this.beanDefinition = beanDefinition;
+	}
+
 
 	@Override
 	public void run() {
@@ -330,6 +348,10 @@ class DisposableBeanAdapter implements DisposableBean, Runnable, Serializable {
 					throw (InvocationTargetException) pax.getException();
 				}
 			}
+			else if (this.beanFactory != null && this.beanDefinition != null) {
+				ReflectionUtils.makeAccessible(destroyMethod);
+				this.beanFactory.invokeBeanMethod(this.beanDefinition, this.bean, destroyMethod, args);
+			}
 			else {
 				ReflectionUtils.makeAccessible(destroyMethod);
 				destroyMethod.invoke(this.bean, args);
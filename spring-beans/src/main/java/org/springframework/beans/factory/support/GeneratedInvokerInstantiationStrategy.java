@@ -0,0 +1,419 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.KotlinDetector;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Instantiation strategy that replaces reflective constructor, factory method
+ * and bean method calls for non-singleton beans with generated bytecode.
+ *
+ * <p>The first instantiation of a prototype (or otherwise scoped) bean goes through
+ * the regular reflective path. Once a constructor or factory method has been used
+ * successfully, a small {@link Invoker} class calling it directly is generated
+ * with ASM and used for all subsequent instantiations. Singletons are always
+ * instantiated reflectively since they are only created once.
+ *
+ * <p>The same applies to methods that the owning
+ * {@link AbstractAutowireCapableBeanFactory} invokes on such beans through
+ * {@link AbstractAutowireCapableBeanFactory#invokeBeanMethod invokeBeanMethod}:
+ * init and destroy methods as well as {@code @Autowired} methods and
+ * {@code @PostConstruct} / {@code @PreDestroy} methods. Bean properties are
+ * written through {@link org.springframework.beans.BeanWrapperImpl}, which uses
+ * generated accessors of its own. Injected fields are typically private and
+ * therefore not accessible to generated code, so they are set reflectively.
+ *
+ * <p>Generated invokers are only used for public constructors and methods on
+ * public classes with public parameter types, and only if the arguments match
+ * the parameter types; in all other cases, as well as for Kotlin classes and
+ * beans with method overrides, this strategy falls back to reflection.
+ *
+ * @since 5.1.12
+ * @see AbstractAutowireCapableBeanFactory#setInstantiationStrategy
+ */
+public class GeneratedInvokerInstantiationStrategy extends CglibSubclassingInstantiationStrategy {
+
+	private static final Log logger = LogFactory.getLog(GeneratedInvokerInstantiationStrategy.class);
+
+	private static final String INVOKER_SUFFIX = "$$SpringInvoker$$";
+
+	private static final Object UNSUPPORTED = new Object();
+
+	private static final Object FIRST_USE = new Object();
+
+
+	/** Cache of generated invokers, keyed by constructor or method. */
+	private final Map<Executable, Object> invokerCache = new ConcurrentReferenceHashMap<>(64);
+
+	/** Child ClassLoaders used to define the invoker classes, keyed by bean ClassLoader. */
+	private final Map<ClassLoader, InvokerClassLoader> classLoaderCache = new ConcurrentReferenceHashMap<>(8);
+
+	private final AtomicInteger suffixId = new AtomicInteger();
+
+
+	@Override
+	protected Object instantiateClass(RootBeanDefinition bd, Constructor<?> ctor, Object... args) {
+		Invoker invoker = getInvoker(bd, ctor, args);
+		if (invoker == null) {
+			return super.instantiateClass(bd, ctor, args);
+		}
+		try {
+			return invoker.invoke(null, args);
+		}
+		catch (Throwable ex) {
+			throw new BeanInstantiationException(ctor, "Constructor threw exception", ex);
+		}
+	}
+
+	@Override
+	@Nullable
+	protected Object invokeFactoryMethod(RootBeanDefinition bd, @Nullable Object factoryBean,
+			Method factoryMethod, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		Invoker invoker = getInvoker(bd, factoryMethod, args);
+		if (invoker == null || (factoryBean == null && !Modifier.isStatic(factoryMethod.getModifiers()))) {
+			return super.invokeFactoryMethod(bd, factoryBean, factoryMethod, args);
+		}
+		if (factoryBean != null && !factoryMethod.getDeclaringClass().isInstance(factoryBean)) {
+			return super.invokeFactoryMethod(bd, factoryBean, factoryMethod, args);
+		}
+		try {
+			return invoker.invoke(factoryBean, args);
+		}
+		catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+	/**
+	 * Invoke the given method on a bean instance of the given bean definition,
+	 * e.g. an init or destroy method or an injection method, through a
+	 * generated invoker if possible.
+	 * <p>Follows the same rules as instantiation: the first invocation of a method
+	 * for a non-singleton bean goes through reflection, subsequent invocations
+	 * go through a generated invoker if the method qualifies for one.
+	 * @param bd the bean definition of the bean
+	 * @param bean the bean instance to invoke the method on
+	 * @param method the method to invoke
+	 * @param args the arguments to pass
+	 * @return the method return value
+	 * @throws IllegalAccessException if the method is not accessible
+	 * @throws InvocationTargetException if the method itself threw an exception
+	 * @see AbstractAutowireCapableBeanFactory#invokeBeanMethod
+	 */
+	@Nullable
+	public Object invokeMethod(RootBeanDefinition bd, Object bean, Method method, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		Invoker invoker = (method.getDeclaringClass().isInstance(bean) && !Modifier.isStatic(method.getModifiers()) ?
+				getInvoker(bd, method, args) : null);
+		if (invoker == null) {
+			return method.invoke(bean, args);
+		}
+		try {
+			return invoker.invoke(bean, args);
+		}
+		catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+	/**
+	 * Return the number of generated invokers currently cached.
+	 */
+	public int getInvokerCount() {
+		int count = 0;
+		for (Object candidate : this.invokerCache.values()) {
+			if (candidate instanceof Invoker) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Clear all cached invokers, e.g. after the bean definitions of the
+	 * owning factory have been replaced. Subsequent instantiations start
+	 * over with the reflective path.
+	 */
+	public void clearInvokerCache() {
+		this.invokerCache.clear();
+		this.classLoaderCache.clear();
+	}
+
+
+	/**
+	 * Obtain a generated invoker for the given constructor or method,
+	 * generating it on second use.
+	 * @return the invoker, or {@code null} if the reflective path should be used
+	 */
+	@Nullable
+	private Invoker getInvoker(RootBeanDefinition bd, Executable executable, Object[] args) {
+		if (bd.isSingleton() || bd.hasMethodOverrides() || !isCompatible(executable, args)) {
+			return null;
+		}
+		Object cached = this.invokerCache.get(executable);
+		if (cached instanceof Invoker) {
+			return (Invoker) cached;
+		}
+		if (cached == null) {
+			if (this.invokerCache.putIfAbsent(executable, (isSupported(executable) ? FIRST_USE : UNSUPPORTED)) == null) {
+				// First use: go through reflection, generate on the next call.
+				return null;
+			}
+			cached = this.invokerCache.get(executable);
+		}
+		if (cached != FIRST_USE) {
+			return (cached instanceof Invoker ? (Invoker) cached : null);
+		}
+		Invoker invoker = generateInvoker(executable);
+		this.invokerCache.put(executable, (invoker != null ? invoker : UNSUPPORTED));
+		return invoker;
+	}
+
+	/**
+	 * Determine whether a generated invoker can be used for the given
+	 * constructor or method at all.
+	 */
+	private boolean isSupported(Executable executable) {
+		Class<?> declaringClass = executable.getDeclaringClass();
+		if (!Modifier.isPublic(executable.getModifiers()) || !isPublic(declaringClass) ||
+				KotlinDetector.isKotlinType(declaringClass)) {
+			return false;
+		}
+		if (executable instanceof Constructor && Modifier.isAbstract(declaringClass.getModifiers())) {
+			return false;
+		}
+		for (Class<?> paramType : executable.getParameterTypes()) {
+			if (!isPublic(paramType)) {
+				return false;
+			}
+		}
+		ClassLoader classLoader = declaringClass.getClassLoader();
+		return (classLoader != null && ClassUtils.isVisible(Invoker.class, classLoader));
+	}
+
+	private static boolean isPublic(Class<?> clazz) {
+		Class<?> current = clazz;
+		while (current.isArray()) {
+			current = current.getComponentType();
+		}
+		while (current != null) {
+			if (!Modifier.isPublic(current.getModifiers())) {
+				return false;
+			}
+			current = current.getEnclosingClass();
+		}
+		return true;
+	}
+
+	/**
+	 * Check whether the given arguments can be passed to the generated invoker
+	 * without failing on unboxing or casting, in which case the reflective path
+	 * is used in order to preserve its error reporting.
+	 */
+	private static boolean isCompatible(Executable executable, Object[] args) {
+		Class<?>[] paramTypes = executable.getParameterTypes();
+		if (paramTypes.length != args.length) {
+			return false;
+		}
+		for (int i = 0; i < args.length; i++) {
+			Object arg = args[i];
+			Class<?> paramType = paramTypes[i];
+			if (arg == null ? paramType.isPrimitive() : !ClassUtils.isAssignableValue(paramType, arg)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Nullable
+	private Invoker generateInvoker(Executable executable) {
+		Class<?> declaringClass = executable.getDeclaringClass();
+		String className = declaringClass.getName();
+		if (className.startsWith("java.")) {
+			className = Invoker.class.getName();
+		}
+		className = className + INVOKER_SUFFIX + this.suffixId.incrementAndGet();
+		try {
+			byte[] bytes = generateInvokerClass(className.replace('.', '/'), executable);
+			ClassLoader beanClassLoader = declaringClass.getClassLoader();
+			InvokerClassLoader classLoader =
+					this.classLoaderCache.computeIfAbsent(beanClassLoader, InvokerClassLoader::new);
+			Class<?> invokerClass = classLoader.defineClass(className, bytes);
+			Invoker invoker = (Invoker) BeanUtils.instantiateClass(invokerClass);
+			if (logger.isTraceEnabled()) {
+				logger.trace("Generated invoker [" + className + "] for " + executable);
+			}
+			return invoker;
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate invoker for " + executable + " - using reflection instead", ex);
+			}
+			return null;
+		}
+	}
+
+	private static byte[] generateInvokerClass(String internalName, Executable executable) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, internalName, null,
+				"java/lang/Object", new String[] {Type.getInternalName(Invoker.class)});
+
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "invoke", "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;",
+				null, new String[] {"java/lang/Exception"});
+		mv.visitCode();
+		String owner = Type.getInternalName(executable.getDeclaringClass());
+		if (executable instanceof Constructor) {
+			Constructor<?> ctor = (Constructor<?>) executable;
+			mv.visitTypeInsn(Opcodes.NEW, owner);
+			mv.visitInsn(Opcodes.DUP);
+			loadArguments(mv, ctor.getParameterTypes());
+			mv.visitMethodInsn(Opcodes.INVOKESPECIAL, owner, "<init>",
+					Type.getConstructorDescriptor(ctor), false);
+		}
+		else {
+			Method method = (Method) executable;
+			boolean isStatic = Modifier.isStatic(method.getModifiers());
+			boolean isInterface = method.getDeclaringClass().isInterface();
+			if (!isStatic) {
+				mv.visitVarInsn(Opcodes.ALOAD, 1);
+				mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+			}
+			loadArguments(mv, method.getParameterTypes());
+			int opcode = (isStatic ? Opcodes.INVOKESTATIC :
+					(isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL));
+			mv.visitMethodInsn(opcode, owner, method.getName(), Type.getMethodDescriptor(method), isInterface);
+			Class<?> returnType = method.getReturnType();
+			if (returnType == void.class) {
+				mv.visitInsn(Opcodes.ACONST_NULL);
+			}
+			else if (returnType.isPrimitive()) {
+				Type boxed = Type.getType(ClassUtils.resolvePrimitiveIfNecessary(returnType));
+				mv.visitMethodInsn(Opcodes.INVOKESTATIC, boxed.getInternalName(), "valueOf",
+						"(" + Type.getDescriptor(returnType) + ")" + boxed.getDescriptor(), false);
+			}
+		}
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void loadArguments(MethodVisitor mv, Class<?>[] paramTypes) {
+		for (int i = 0; i < paramTypes.length; i++) {
+			Class<?> paramType = paramTypes[i];
+			mv.visitVarInsn(Opcodes.ALOAD, 2);
+			mv.visitLdcInsn(i);
+			mv.visitInsn(Opcodes.AALOAD);
+			if (paramType == Object.class) {
+				continue;
+			}
+			if (paramType.isPrimitive()) {
+				String descriptor = Type.getDescriptor(paramType);
+				if (paramType == boolean.class) {
+					mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Boolean");
+					mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z", false);
+				}
+				else if (paramType == char.class) {
+					mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Character");
+					mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Character", "charValue", "()C", false);
+				}
+				else {
+					mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Number");
+					mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Number",
+							paramType.getName() + "Value", "()" + descriptor, false);
+				}
+			}
+			else {
+				mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(paramType));
+			}
+		}
+	}
+
+
+	/**
+	 * Contract implemented by generated invoker classes.
+	 * <p>Public in order to be visible to the child ClassLoader that the
+	 * generated classes are defined in; not intended for use in user code.
+	 */
+	public interface Invoker {
+
+		/**
+		 * Invoke the underlying constructor or method.
+		 * @param target the target instance, or {@code null} for constructors
+		 * and static methods
+		 * @param args the arguments to pass
+		 * @return the new instance or method return value, with primitive
+		 * values boxed and {@code null} for void methods
+		 * @throws Exception any exception thrown by the underlying code
+		 */
+		@Nullable
+		Object invoke(@Nullable Object target, Object[] args) throws Exception;
+	}
+
+
+	/**
+	 * Child ClassLoader that the generated invoker classes are defined in.
+	 */
+	private static class InvokerClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		public InvokerClassLoader(ClassLoader parent) {
+			super(NO_URLS, parent);
+		}
+
+		public Class<?> defineClass(String name, byte[] bytes) {
+			return super.defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.BeanReference;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Helper for pre-instantiating non-lazy singletons in parallel, used by
+ * {@link DefaultListableBeanFactory#preInstantiateSingletons()} when configured
+ * with a {@link DefaultListableBeanFactory#setPreInstantiationParallelism
+ * pre-instantiation parallelism} higher than 1.
+ *
+ * <p>Builds a dependency graph from the merged bean definitions: "depends-on"
+ * declarations, factory bean references, bean references in property values and
+ * constructor arguments, as well as autowiring candidates for constructor, factory
+ * method and {@code @Autowired} field injection points. Beans involved in circular
+ * references (strongly connected components of that graph) are created sequentially
+ * in registration order within a single task; all other beans are created on a
+ * {@link ForkJoinPool} as soon as their dependencies are available.
+ *
+ * <p>The graph does not need to be complete: a dependency that it misses is simply
+ * created (or waited for) on demand through the factory's concurrent singleton
+ * creation support.
+ *
+ * @since 5.1.12
+ * @see DefaultSingletonBeanRegistry#setConcurrentSingletonCreation
+ */
+final class ParallelSingletonPreInstantiator {
+
+	private static final Log logger = LogFactory.getLog(ParallelSingletonPreInstantiator.class);
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final int parallelism;
+
+
+	ParallelSingletonPreInstantiator(DefaultListableBeanFactory beanFactory, int parallelism) {
+		this.beanFactory = beanFactory;
+		this.parallelism = parallelism;
+	}
+
+
+	/**
+	 * Pre-instantiate the given singletons, respecting their dependencies.
+	 * @param beanNames the names of the non-lazy singletons to pre-instantiate,
+	 * in registration order
+	 * @param instantiator the callback for instantiating a single bean
+	 * @throws BeansException if any bean could not be created
+	 */
+	public void preInstantiate(List<String> beanNames, Consumer<String> instantiator) throws BeansException {
+		long startTime = System.nanoTime();
+		Map<String, Set<String>> graph = buildDependencyGraph(beanNames);
+		List<Component> components = new ComponentCollector(graph).collect();
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+		try {
+			List<CompletableFuture<Void>> futures = new ArrayList<>(components.size());
+			for (Component component : components) {
+				// Dependencies come first in the collected order, so their futures are available
+				CompletableFuture<?>[] dependencies = new CompletableFuture<?>[component.dependencies.size()];
+				int i = 0;
+				for (Component dependency : component.dependencies) {
+					dependencies[i++] = dependency.future;
+				}
+				component.future = CompletableFuture.allOf(dependencies).thenRunAsync(
+						() -> component.instantiate(instantiator, classLoader), pool);
+				futures.add(component.future);
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		}
+		catch (CompletionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw ex;
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug(buildReport(components, System.nanoTime() - startTime));
+		}
+	}
+
+
+	/**
+	 * Build the dependency graph for the given beans: bean name to the names of
+	 * the (pre-instantiated) beans that it depends on, in registration order.
+	 */
+	private Map<String, Set<String>> buildDependencyGraph(List<String> beanNames) {
+		Map<String, Set<String>> graph = new LinkedHashMap<>(beanNames.size() * 2);
+		for (String beanName : beanNames) {
+			graph.put(beanName, new LinkedHashSet<>());
+		}
+		for (String beanName : beanNames) {
+			Set<String> dependencies = graph.get(beanName);
+			for (String candidate : collectDependencies(beanName)) {
+				String dependency = this.beanFactory.transformedBeanName(candidate);
+				if (graph.containsKey(dependency)) {
+					dependencies.add(dependency);
+				}
+			}
+		}
+		return graph;
+	}
+
+	private Set<String> collectDependencies(String beanName) {
+		RootBeanDefinition mbd = this.beanFactory.getMergedLocalBeanDefinition(beanName);
+		Set<String> dependencies = new LinkedHashSet<>();
+		String[] dependsOn = mbd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependsOnBean : dependsOn) {
+				dependencies.add(dependsOnBean);
+			}
+		}
+		String factoryBeanName = mbd.getFactoryBeanName();
+		if (factoryBeanName != null) {
+			dependencies.add(factoryBeanName);
+		}
+		collectReferences(mbd, dependencies);
+
+		try {
+			for (Executable executable : determineInjectionExecutables(beanName, mbd)) {
+				for (int i = 0; i < executable.getParameterCount(); i++) {
+					collectCandidates(ResolvableType.forMethodParameter(
+							MethodParameter.forExecutable(executable, i)), dependencies);
+				}
+			}
+			Class<?> beanClass = (mbd.getFactoryMethodName() == null && mbd.hasBeanClass() ? mbd.getBeanClass() : null);
+			if (beanClass != null) {
+				ReflectionUtils.doWithFields(beanClass, field -> collectCandidates(ResolvableType.forField(field), dependencies),
+						field -> (!Modifier.isStatic(field.getModifiers()) && isAutowired(field)));
+			}
+		}
+		catch (Throwable ex) {
+			// Incomplete metadata only costs parallelism: the dependency gets created on demand.
+			if (logger.isTraceEnabled()) {
+				logger.trace("Could not introspect injection points of bean '" + beanName + "'", ex);
+			}
+		}
+		return dependencies;
+	}
+
+	private List<Executable> determineInjectionExecutables(String beanName, RootBeanDefinition mbd) {
+		List<Executable> executables = new ArrayList<>();
+		String factoryMethodName = mbd.getFactoryMethodName();
+		if (factoryMethodName != null) {
+			Class<?> factoryClass;
+			String factoryBeanName = mbd.getFactoryBeanName();
+			if (factoryBeanName != null) {
+				factoryClass = this.beanFactory.getType(factoryBeanName);
+			}
+			else {
+				factoryClass = this.beanFactory.resolveBeanClass(mbd, beanName);
+			}
+			if (factoryClass != null) {
+				for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(factoryClass))) {
+					if (method.getName().equals(factoryMethodName)) {
+						executables.add(method);
+					}
+				}
+			}
+		}
+		else {
+			Class<?> beanClass = this.beanFactory.resolveBeanClass(mbd, beanName);
+			if (beanClass != null) {
+				Constructor<?>[] ctors = this.beanFactory.determineConstructorsFromBeanPostProcessors(beanClass, beanName);
+				if (ctors == null && (mbd.getResolvedAutowireMode() == AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR ||
+						beanClass.getDeclaredConstructors().length == 1)) {
+					ctors = beanClass.getDeclaredConstructors();
+				}
+				if (ctors != null) {
+					for (Constructor<?> ctor : ctors) {
+						executables.add(ctor);
+					}
+				}
+			}
+		}
+		return executables;
+	}
+
+	private boolean isAutowired(Field field) {
+		return AnnotatedElementUtils.hasAnnotation(field, Autowired.class);
+	}
+
+	private void collectCandidates(ResolvableType type, Set<String> dependencies) {
+		Class<?> rawType = type.resolve();
+		if (rawType == null || ObjectFactory.class.isAssignableFrom(rawType) ||
+				BeanFactory.class.isAssignableFrom(rawType) || rawType.getName().equals("javax.inject.Provider")) {
+			// Lazy or infrastructure lookup: no need to create the target upfront
+			return;
+		}
+		if (rawType.isArray()) {
+			collectCandidates(type.getComponentType(), dependencies);
+			return;
+		}
+		if (Collection.class.isAssignableFrom(rawType) || rawType.getName().equals("java.util.Optional")) {
+			collectCandidates(type.getGeneric(0), dependencies);
+			return;
+		}
+		if (Map.class.isAssignableFrom(rawType)) {
+			collectCandidates(type.getGeneric(1), dependencies);
+			return;
+		}
+		if (!BeanUtils.isSimpleValueType(rawType)) {
+			for (String candidate : this.beanFactory.getBeanNamesForType(rawType, true, false)) {
+				dependencies.add(candidate);
+			}
+		}
+	}
+
+	private void collectReferences(RootBeanDefinition mbd, Set<String> references) {
+		for (PropertyValue pv : mbd.getPropertyValues().getPropertyValues()) {
+			collectReferences(pv.getValue(), references);
+		}
+		ConstructorArgumentValues cav = mbd.getConstructorArgumentValues();
+		for (ConstructorArgumentValues.ValueHolder valueHolder : cav.getIndexedArgumentValues().values()) {
+			collectReferences(valueHolder.getValue(), references);
+		}
+		for (ConstructorArgumentValues.ValueHolder valueHolder : cav.getGenericArgumentValues()) {
+			collectReferences(valueHolder.getValue(), references);
+		}
+	}
+
+	private void collectReferences(@Nullable Object value, Set<String> references) {
+		if (value instanceof BeanReference) {
+			references.add(((BeanReference) value).getBeanName());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			collectReferences(new RootBeanDefinition(((BeanDefinitionHolder) value).getBeanDefinition()), references);
+		}
+		else if (value instanceof BeanDefinition) {
+			collectReferences(new RootBeanDefinition((BeanDefinition) value), references);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				collectReferences(element, references);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				collectReferences(entry.getKey(), references);
+				collectReferences(entry.getValue(), references);
+			}
+		}
+		else if (value instanceof Object[]) {
+			for (Object element : (Object[]) value) {
+				collectReferences(element, references);
+			}
+		}
+	}
+
+	/**
+	 * Build a summary of the pre-instantiation run, including its critical path:
+	 * the most expensive chain of dependent components.
+	 */
+	private String buildReport(List<Component> components, long elapsedNanos) {
+		Map<Component, Long> pathNanos = new HashMap<>(components.size() * 2);
+		Map<Component, Component> pathPredecessor = new HashMap<>(components.size() * 2);
+		Component last = null;
+		for (Component component : components) {
+			long longest = 0;
+			for (Component dependency : component.dependencies) {
+				long dependencyNanos = pathNanos.get(dependency);
+				if (dependencyNanos > longest) {
+					longest = dependencyNanos;
+					pathPredecessor.put(component, dependency);
+				}
+			}
+			long total = longest + component.durationNanos;
+			pathNanos.put(component, total);
+			if (last == null || total > pathNanos.get(last)) {
+				last = component;
+			}
+		}
+
+		List<String> criticalPath = new ArrayList<>();
+		for (Component current = last; current != null; current = pathPredecessor.get(current)) {
+			criticalPath.add(0, String.join("+", current.beanNames));
+		}
+		int beanCount = 0;
+		for (Component component : components) {
+			beanCount += component.beanNames.size();
+		}
+		return "Pre-instantiated " + beanCount + " singletons in " + components.size() +
+				" components using " + this.parallelism + " threads in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) +
+				" ms; critical path (" + (last != null ? TimeUnit.NANOSECONDS.toMillis(pathNanos.get(last)) : 0) +
+				" ms): " + String.join(" -> ", criticalPath);
+	}
+
+
+	/**
+	 * A strongly connected component of the dependency graph: a single bean,
+	 * or a set of beans with circular references between them.
+	 */
+	private static final class Component {
+
+		final List<String> beanNames = new ArrayList<>(1);
+
+		final Set<Component> dependencies = new LinkedHashSet<>();
+
+		volatile long durationNanos;
+
+		CompletableFuture<Void> future;
+
+		void instantiate(Consumer<String> instantiator, @Nullable ClassLoader classLoader) {
+			Thread currentThread = Thread.currentThread();
+			ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+			currentThread.setContextClassLoader(classLoader);
+			long startTime = System.nanoTime();
+			try {
+				for (String beanName : this.beanNames) {
+					instantiator.accept(beanName);
+				}
+			}
+			finally {
+				this.durationNanos = System.nanoTime() - startTime;
+				currentThread.setContextClassLoader(previousClassLoader);
+			}
+		}
+	}
+
+
+	/**
+	 * Tarjan's algorithm for collecting the strongly connected components of the
+	 * dependency graph, with every component following all of its dependencies.
+	 */
+	private static final class ComponentCollector {
+
+		private final Map<String, Set<String>> graph;
+
+		private final Map<String, Integer> indexes = new HashMap<>();
+
+		private final Map<String, Integer> lowLinks = new HashMap<>();
+
+		private final List<String> stack = new ArrayList<>();
+
+		private final Set<String> onStack = new LinkedHashSet<>();
+
+		private final Map<String, Integer> registrationOrder = new HashMap<>();
+
+		private final Map<String, Component> componentsByBeanName = new HashMap<>();
+
+		private final List<Component> components = new ArrayList<>();
+
+		private int index = 0;
+
+		ComponentCollector(Map<String, Set<String>> graph) {
+			this.graph = graph;
+			for (String beanName : graph.keySet()) {
+				this.registrationOrder.put(beanName, this.registrationOrder.size());
+			}
+		}
+
+		List<Component> collect() {
+			for (String beanName : this.graph.keySet()) {
+				if (!this.indexes.containsKey(beanName)) {
+					visit(beanName);
+				}
+			}
+			for (Component component : this.components) {
+				for (String beanName : component.beanNames) {
+					for (String dependency : this.graph.get(beanName)) {
+						Component target = this.componentsByBeanName.get(dependency);
+						if (target != component) {
+							component.dependencies.add(target);
+						}
+					}
+				}
+			}
+			return this.components;
+		}
+
+		private void visit(String beanName) {
+			this.indexes.put(beanName, this.index);
+			this.lowLinks.put(beanName, this.index);
+			this.index++;
+			this.stack.add(beanName);
+			this.onStack.add(beanName);
+
+			for (String dependency : this.graph.get(beanName)) {
+				if (!this.indexes.containsKey(dependency)) {
+					visit(dependency);
+					this.lowLinks.put(beanName, Math.min(this.lowLinks.get(beanName), this.lowLinks.get(dependency)));
+				}
+				else if (this.onStack.contains(dependency)) {
+					this.lowLinks.put(beanName, Math.min(this.lowLinks.get(beanName), this.indexes.get(dependency)));
+				}
+			}
+
+			if (this.lowLinks.get(beanName).equals(this.indexes.get(beanName))) {
+				Component component = new Component();
+				String member;
+				do {
+					member = this.stack.remove(this.stack.size() - 1);
+					this.onStack.remove(member);
+					component.beanNames.add(member);
+					this.componentsByBeanName.put(member, component);
+				}
+				while (!member.equals(beanName));
+				// Create circular beans in registration order, as in sequential mode
+				component.beanNames.sort(Comparator.comparing(this.registrationOrder::get));
+				this.components.add(component);
+			}
+		}
+	}
+
+}
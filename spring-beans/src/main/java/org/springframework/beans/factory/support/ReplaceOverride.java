@@ -69,6 +69,13 @@ public class ReplaceOverride extends MethodOverride {
 		this.typeIdentifiers.add(identifier);
 	}
 
+	/**
+	 * Return the type identifiers added so far.
+	 */
+	List<String> getTypeIdentifiers() {
+		return this.typeIdentifiers;
+	}
+
 	@Override
 	public boolean matches(Method method) {
 		if (!method.getName().equals(getMethodName())) {
@@ -116,7 +116,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 			 * 注意，只是new出实例，不是完整的bean
 			 * 这个相当简单就是使用反射实例化一个对象出来
 			 */
-			return BeanUtils.instantiateClass(constructorToUse);
+			return instantiateClass(bd, constructorToUse);
 		}
 		else {
 			// Must generate CGLIB subclass.
@@ -146,7 +146,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 					return null;
 				});
 			}
-			return BeanUtils.instantiateClass(ctor, args);
+			return instantiateClass(bd, ctor, args);
 		}
 		else {
 			return instantiateWithMethodInjection(bd, beanName, owner, ctor, args);
@@ -189,7 +189,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 				/**
 				 * 调用反射执行方法
 				 */
-				Object result = factoryMethod.invoke(factoryBean, args);
+				Object result = invokeFactoryMethod(bd, factoryBean, factoryMethod, args);
 				if (result == null) {
 					result = new NullBean();
 				}
@@ -224,4 +224,41 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 		}
 	}
 
+	/**
+	 * Instantiate the bean class through the given constructor.
+	 * <p>The default implementation delegates to
+	 * {@link BeanUtils#instantiateClass(Constructor, Object...)}.
+	 * Subclasses may override this to use a faster invocation mechanism.
+	 * @param bd the bean definition
+	 * @param ctor the constructor to use
+	 * @param args the constructor arguments to apply
+	 * @return the new instance
+	 * @throws BeanInstantiationException if the bean cannot be instantiated
+	 * @since 5.1.12
+	 */
+	protected Object instantiateClass(RootBeanDefinition bd, Constructor<?> ctor, Object... args) {
+		return BeanUtils.instantiateClass(ctor, args);
+	}
+
+	/**
+	 * Invoke the given factory method on the given factory bean.
+	 * <p>The default implementation uses reflection. Subclasses may override this
+	 * to use a faster invocation mechanism, as long as exceptions thrown by the
+	 * factory method itself are still wrapped in an {@link InvocationTargetException}.
+	 * @param bd the bean definition
+	 * @param factoryBean the factory bean instance to call the factory method on,
+	 * or {@code null} in case of a static factory method
+	 * @param factoryMethod the factory method to invoke
+	 * @param args the factory method arguments to apply
+	 * @return the factory method's return value (may be {@code null})
+	 * @since 5.1.12
+	 */
+	@Nullable
+	protected Object invokeFactoryMethod(RootBeanDefinition bd, @Nullable Object factoryBean,
+			Method factoryMethod, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		return factoryMethod.invoke(factoryBean, args);
+	}
+
 }
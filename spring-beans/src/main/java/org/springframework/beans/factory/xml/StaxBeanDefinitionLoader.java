@@ -0,0 +1,567 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Streaming alternative to the DOM-based document loading in
+ * {@link XmlBeanDefinitionReader}, reading XML bean definition files
+ * through a StAX {@link XMLStreamReader}.
+ *
+ * <p>Only the root element and one top-level element at a time are turned
+ * into DOM nodes, which are then handed to the regular
+ * {@link BeanDefinitionParserDelegate} and namespace handlers and discarded
+ * right after. This produces the same bean definitions as the DOM-based
+ * reader, in the same order, without materializing the entire document.
+ *
+ * <p>With an import parallelism higher than 1, each run of consecutive
+ * {@code <import>} elements triggers concurrent parsing of the imported files
+ * into DOM documents, reading each of them exactly once. Their bean definitions
+ * are still registered on the calling thread in declaration order.
+ *
+ * @since 5.1.12
+ * @see XmlBeanDefinitionReader#setStreaming
+ * @see XmlBeanDefinitionReader#setImportParallelism
+ */
+final class StaxBeanDefinitionLoader {
+
+	private static final Log logger = LogFactory.getLog(StaxBeanDefinitionLoader.class);
+
+	private final XmlBeanDefinitionReader reader;
+
+	private final int importParallelism;
+
+	private final XMLInputFactory inputFactory;
+
+	private final DOMImplementation domImplementation;
+
+	private final Map<Resource, CompletableFuture<Document>> prefetchedDocuments = new ConcurrentHashMap<>();
+
+	private final AtomicInteger loadDepth = new AtomicInteger();
+
+	@Nullable
+	private volatile ForkJoinPool importPool;
+
+
+	StaxBeanDefinitionLoader(XmlBeanDefinitionReader reader, int importParallelism) {
+		this.reader = reader;
+		this.importParallelism = importParallelism;
+		this.inputFactory = createInputFactory();
+		this.domImplementation = createDomImplementation();
+	}
+
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return inputFactory;
+	}
+
+	private static DOMImplementation createDomImplementation() {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		try {
+			return factory.newDocumentBuilder().getDOMImplementation();
+		}
+		catch (ParserConfigurationException ex) {
+			throw new IllegalStateException("Failed to create DOM implementation for streaming XML parsing", ex);
+		}
+	}
+
+
+	/**
+	 * Load bean definitions from the given XML input, streaming through it.
+	 * @return the number of bean definitions found
+	 */
+	public int loadBeanDefinitions(InputSource inputSource, Resource resource) throws BeanDefinitionStoreException {
+		this.loadDepth.incrementAndGet();
+		try {
+			int countBefore = this.reader.getRegistry().getBeanDefinitionCount();
+			XMLStreamReader streamReader = createStreamReader(inputSource, resource);
+			try {
+				new StreamingDocumentReader(this, streamReader).registerBeanDefinitions(
+						this.reader.createReaderContext(resource));
+			}
+			finally {
+				closeStreamReader(streamReader);
+			}
+			return this.reader.getRegistry().getBeanDefinitionCount() - countBefore;
+		}
+		finally {
+			endLoad();
+		}
+	}
+
+	/**
+	 * Load bean definitions from the document prefetched for the given resource,
+	 * if any, without opening the resource again.
+	 * @return the number of bean definitions found, or -1 if no document
+	 * has been prefetched for the given resource
+	 */
+	public int loadPrefetchedBeanDefinitions(Resource resource) throws BeanDefinitionStoreException {
+		Document prefetched = obtainPrefetchedDocument(resource);
+		if (prefetched == null) {
+			return -1;
+		}
+		this.loadDepth.incrementAndGet();
+		try {
+			int countBefore = this.reader.getRegistry().getBeanDefinitionCount();
+			new StreamingDocumentReader(this, null).registerBeanDefinitions(
+					prefetched, this.reader.createReaderContext(resource));
+			return this.reader.getRegistry().getBeanDefinitionCount() - countBefore;
+		}
+		finally {
+			endLoad();
+		}
+	}
+
+	private void endLoad() {
+		if (this.loadDepth.decrementAndGet() == 0) {
+			this.prefetchedDocuments.clear();
+			ForkJoinPool pool = this.importPool;
+			if (pool != null) {
+				this.importPool = null;
+				pool.shutdown();
+			}
+		}
+	}
+
+	private XMLStreamReader createStreamReader(InputSource inputSource, Resource resource) {
+		try {
+			if (inputSource.getCharacterStream() != null) {
+				return this.inputFactory.createXMLStreamReader(inputSource.getCharacterStream());
+			}
+			if (inputSource.getEncoding() != null) {
+				return this.inputFactory.createXMLStreamReader(inputSource.getByteStream(), inputSource.getEncoding());
+			}
+			return this.inputFactory.createXMLStreamReader(inputSource.getByteStream());
+		}
+		catch (XMLStreamException ex) {
+			throw invalidDocument(resource, ex);
+		}
+	}
+
+	private static void closeStreamReader(XMLStreamReader streamReader) {
+		try {
+			streamReader.close();
+		}
+		catch (XMLStreamException ex) {
+			logger.trace("Could not close XMLStreamReader", ex);
+		}
+	}
+
+	/**
+	 * Turn the given StAX exception into a BeanDefinitionStoreException.
+	 */
+	static BeanDefinitionStoreException invalidDocument(Resource resource, XMLStreamException ex) {
+		Location location = ex.getLocation();
+		return new BeanDefinitionStoreException(resource.getDescription(),
+				(location != null ? "Line " + location.getLineNumber() + " in XML document from " :
+						"XML document from ") + resource + " is invalid", ex);
+	}
+
+
+	/**
+	 * Start parsing the given imported resources in the background,
+	 * if import parallelism is enabled.
+	 * @return the resources that have been scheduled for parsing
+	 */
+	List<Resource> prefetch(List<Resource> resources) {
+		if (this.importParallelism <= 1 || resources.size() < 2) {
+			return Collections.emptyList();
+		}
+		ForkJoinPool pool = obtainImportPool();
+		List<Resource> scheduled = new ArrayList<>(resources.size());
+		for (Resource resource : resources) {
+			if (!this.prefetchedDocuments.containsKey(resource)) {
+				this.prefetchedDocuments.put(resource,
+						CompletableFuture.supplyAsync(() -> readDocument(resource), pool));
+				scheduled.add(resource);
+			}
+		}
+		return scheduled;
+	}
+
+	/**
+	 * Discard any prefetched documents for the given resources that have not
+	 * been picked up, e.g. since the corresponding imports got skipped.
+	 */
+	void discardPrefetched(List<Resource> resources) {
+		for (Resource resource : resources) {
+			this.prefetchedDocuments.remove(resource);
+		}
+	}
+
+	private ForkJoinPool obtainImportPool() {
+		ForkJoinPool pool = this.importPool;
+		if (pool == null) {
+			synchronized (this) {
+				pool = this.importPool;
+				if (pool == null) {
+					pool = new ForkJoinPool(this.importParallelism);
+					this.importPool = pool;
+				}
+			}
+		}
+		return pool;
+	}
+
+	@Nullable
+	private Document obtainPrefetchedDocument(Resource resource) {
+		CompletableFuture<Document> future = this.prefetchedDocuments.remove(resource);
+		if (future == null) {
+			return null;
+		}
+		try {
+			return future.get();
+		}
+		catch (ExecutionException ex) {
+			// Report the error right away rather than reading the resource again
+			Throwable cause = ex.getCause();
+			if (cause instanceof BeanDefinitionStoreException) {
+				throw (BeanDefinitionStoreException) cause;
+			}
+			throw new BeanDefinitionStoreException(resource.getDescription(),
+					"Failed to parse XML document from " + resource, cause);
+		}
+		catch (InterruptedException ex) {
+			// Fall back to regular reading on the calling thread
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private Document readDocument(Resource resource) {
+		try (InputStream inputStream = resource.getInputStream()) {
+			XMLStreamReader streamReader = this.inputFactory.createXMLStreamReader(inputStream);
+			try {
+				Document doc = createDocument();
+				doc.appendChild(readRootElement(streamReader, doc));
+				readChildNodes(streamReader, doc, doc.getDocumentElement());
+				return doc;
+			}
+			finally {
+				closeStreamReader(streamReader);
+			}
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException("IOException parsing XML document from " + resource, ex);
+		}
+		catch (XMLStreamException ex) {
+			throw invalidDocument(resource, ex);
+		}
+	}
+
+
+	Document createDocument() {
+		return this.domImplementation.createDocument(null, null, null);
+	}
+
+	/**
+	 * Advance the given reader to the root element and turn it into
+	 * a DOM element, without any child nodes.
+	 */
+	static Element readRootElement(XMLStreamReader streamReader, Document doc) throws XMLStreamException {
+		while (streamReader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+			if (!streamReader.hasNext()) {
+				throw new XMLStreamException("No root element found", streamReader.getLocation());
+			}
+			streamReader.next();
+		}
+		return createElement(streamReader, doc);
+	}
+
+	/**
+	 * Read the child nodes of the current element into the given DOM element,
+	 * up to and including the end tag of the current element.
+	 */
+	static void readChildNodes(XMLStreamReader streamReader, Document doc, Element parent)
+			throws XMLStreamException {
+
+		while (true) {
+			switch (streamReader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					Element element = createElement(streamReader, doc);
+					parent.appendChild(element);
+					readChildNodes(streamReader, doc, element);
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.SPACE:
+				case XMLStreamConstants.ENTITY_REFERENCE:
+					parent.appendChild(doc.createTextNode(streamReader.getText()));
+					break;
+				case XMLStreamConstants.CDATA:
+					parent.appendChild(doc.createCDATASection(streamReader.getText()));
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					return;
+				case XMLStreamConstants.END_DOCUMENT:
+					throw new XMLStreamException("Unexpected end of document", streamReader.getLocation());
+				default:
+					// Comments and processing instructions are not relevant for bean definitions
+			}
+		}
+	}
+
+	/**
+	 * Read the next child element of the current element into the given DOM
+	 * element, skipping any text in between.
+	 * @return the child element, or {@code null} if the end tag of the
+	 * current element has been reached
+	 */
+	@Nullable
+	static Element readNextChildElement(XMLStreamReader streamReader, Document doc, Element parent)
+			throws XMLStreamException {
+
+		while (true) {
+			switch (streamReader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					Element element = createElement(streamReader, doc);
+					parent.appendChild(element);
+					readChildNodes(streamReader, doc, element);
+					return element;
+				case XMLStreamConstants.END_ELEMENT:
+					return null;
+				case XMLStreamConstants.END_DOCUMENT:
+					throw new XMLStreamException("Unexpected end of document", streamReader.getLocation());
+				default:
+					// Text between top-level elements is not relevant for bean definitions
+			}
+		}
+	}
+
+	private static Element createElement(XMLStreamReader streamReader, Document doc) {
+		Element element = doc.createElementNS(emptyToNull(streamReader.getNamespaceURI()),
+				qualifiedName(streamReader.getPrefix(), streamReader.getLocalName()));
+		for (int i = 0; i < streamReader.getNamespaceCount(); i++) {
+			String prefix = streamReader.getNamespacePrefix(i);
+			String namespaceUri = streamReader.getNamespaceURI(i);
+			element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+					(StringUtils.hasLength(prefix) ? XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix :
+							XMLConstants.XMLNS_ATTRIBUTE),
+					(namespaceUri != null ? namespaceUri : ""));
+		}
+		for (int i = 0; i < streamReader.getAttributeCount(); i++) {
+			element.setAttributeNS(emptyToNull(streamReader.getAttributeNamespace(i)),
+					qualifiedName(streamReader.getAttributePrefix(i), streamReader.getAttributeLocalName(i)),
+					streamReader.getAttributeValue(i));
+		}
+		return element;
+	}
+
+	private static String qualifiedName(@Nullable String prefix, String localName) {
+		return (StringUtils.hasLength(prefix) ? prefix + ":" + localName : localName);
+	}
+
+	@Nullable
+	private static String emptyToNull(@Nullable String namespaceUri) {
+		return (StringUtils.hasLength(namespaceUri) ? namespaceUri : null);
+	}
+
+
+	/**
+	 * {@link DefaultBeanDefinitionDocumentReader} variant which pulls the
+	 * top-level elements of the document from a StAX stream, one at a time,
+	 * if created with an {@link XMLStreamReader}. Also operates on prefetched
+	 * DOM documents, prefetching their imports in turn.
+	 */
+	private static class StreamingDocumentReader extends DefaultBeanDefinitionDocumentReader {
+
+		private final StaxBeanDefinitionLoader loader;
+
+		@Nullable
+		private final XMLStreamReader streamReader;
+
+		@Nullable
+		private Element streamingRoot;
+
+		StreamingDocumentReader(StaxBeanDefinitionLoader loader, @Nullable XMLStreamReader streamReader) {
+			this.loader = loader;
+			this.streamReader = streamReader;
+		}
+
+		public void registerBeanDefinitions(XmlReaderContext readerContext) {
+			if (this.streamReader == null) {
+				throw new IllegalStateException("No XMLStreamReader available");
+			}
+			Document doc = this.loader.createDocument();
+			try {
+				this.streamingRoot = readRootElement(this.streamReader, doc);
+			}
+			catch (XMLStreamException ex) {
+				throw invalidDocument(readerContext.getResource(), ex);
+			}
+			doc.appendChild(this.streamingRoot);
+			registerBeanDefinitions(doc, readerContext);
+		}
+
+		@Override
+		protected void parseBeanDefinitions(Element root, BeanDefinitionParserDelegate delegate) {
+			try {
+				boolean streaming = (root == this.streamingRoot);
+				if (!delegate.isDefaultNamespace(root)) {
+					if (streaming) {
+						readChildNodes(this.streamReader, root.getOwnerDocument(), root);
+					}
+					super.parseBeanDefinitions(root, delegate);
+					return;
+				}
+				Element ele = nextElement(root, null, streaming);
+				while (ele != null) {
+					if (isImportElement(ele, delegate)) {
+						List<Element> imports = new ArrayList<>();
+						while (ele != null && isImportElement(ele, delegate)) {
+							imports.add(ele);
+							ele = nextElement(root, ele, streaming);
+						}
+						List<Resource> prefetched = this.loader.prefetch(resolveImportResources(imports));
+						try {
+							for (Element importEle : imports) {
+								parseElement(importEle, delegate, streaming);
+							}
+						}
+						finally {
+							this.loader.discardPrefetched(prefetched);
+						}
+					}
+					else {
+						Element current = ele;
+						ele = (streaming ? null : nextElement(root, current, false));
+						parseElement(current, delegate, streaming);
+						if (streaming) {
+							ele = nextElement(root, null, true);
+						}
+					}
+				}
+			}
+			catch (XMLStreamException ex) {
+				throw invalidDocument(getReaderContext().getResource(), ex);
+			}
+		}
+
+		@Nullable
+		private Element nextElement(Element root, @Nullable Element current, boolean streaming)
+				throws XMLStreamException {
+
+			if (streaming) {
+				return readNextChildElement(this.streamReader, root.getOwnerDocument(), root);
+			}
+			Node node = (current != null ? current.getNextSibling() : root.getFirstChild());
+			while (node != null && !(node instanceof Element)) {
+				node = node.getNextSibling();
+			}
+			return (Element) node;
+		}
+
+		private void parseElement(Element ele, BeanDefinitionParserDelegate delegate, boolean streaming) {
+			if (delegate.isDefaultNamespace(ele)) {
+				parseDefaultElement(ele, delegate);
+			}
+			else {
+				delegate.parseCustomElement(ele);
+			}
+			if (streaming) {
+				// Done with this element: release it for garbage collection
+				Node parent = ele.getParentNode();
+				if (parent != null) {
+					parent.removeChild(ele);
+				}
+			}
+		}
+
+		private boolean isImportElement(Element ele, BeanDefinitionParserDelegate delegate) {
+			return (delegate.isDefaultNamespace(ele) && delegate.nodeNameEquals(ele, IMPORT_ELEMENT));
+		}
+
+		/**
+		 * Resolve the resources for the given import elements upfront, for prefetching
+		 * purposes. Anything unusual is left up to regular import processing.
+		 */
+		private List<Resource> resolveImportResources(List<Element> imports) {
+			List<Resource> resources = new ArrayList<>(imports.size());
+			XmlReaderContext readerContext = getReaderContext();
+			for (Element ele : imports) {
+				String location = ele.getAttribute(RESOURCE_ATTRIBUTE);
+				if (!StringUtils.hasText(location)) {
+					continue;
+				}
+				try {
+					location = readerContext.getEnvironment().resolveRequiredPlaceholders(location);
+					if (ResourcePatternUtils.isUrl(location) || ResourceUtils.toURI(location).isAbsolute()) {
+						ResourceLoader resourceLoader = readerContext.getResourceLoader();
+						if (resourceLoader instanceof ResourcePatternResolver) {
+							Collections.addAll(resources, ((ResourcePatternResolver) resourceLoader).getResources(location));
+						}
+						else if (resourceLoader != null) {
+							resources.add(resourceLoader.getResource(location));
+						}
+					}
+					else {
+						Resource relativeResource = readerContext.getResource().createRelative(location);
+						if (relativeResource.exists()) {
+							resources.add(relativeResource);
+						}
+					}
+				}
+				catch (IOException | URISyntaxException | RuntimeException ex) {
+					// Not resolvable upfront - to be handled by regular import processing
+				}
+			}
+			return resources;
+		}
+	}
+
+}
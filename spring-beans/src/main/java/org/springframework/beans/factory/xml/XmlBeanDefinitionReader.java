@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -125,6 +125,13 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 
 	private ErrorHandler errorHandler = new SimpleSaxErrorHandler(logger);
 
+	private boolean streaming = false;
+
+	private int importParallelism = 1;
+
+	@Nullable
+	private volatile StaxBeanDefinitionLoader staxLoader;
+
 	private final XmlValidationModeDetector validationModeDetector = new XmlValidationModeDetector();
 
 	private final ThreadLocal<Set<EncodedResource>> resourcesCurrentlyBeingLoaded =
@@ -293,6 +300,50 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 		this.documentReaderClass = documentReaderClass;
 	}
 
+	/**
+	 * Set whether to read XML files through a StAX stream instead of loading
+	 * them into a DOM document first. Default is "false".
+	 * <p>In streaming mode, only one top-level element at a time is turned into
+	 * DOM nodes for the regular parser delegate and namespace handlers, which
+	 * keeps memory consumption low for large XML files. Note that streaming
+	 * implies that no XML validation takes place and that no entity resolution
+	 * is performed, so default attribute values from schemas do not apply -
+	 * just like with {@link #setValidating validation} turned off.
+	 * <p>Streaming mode only applies with the default
+	 * {@link #setDocumentReaderClass document reader class}.
+	 * @since 5.1.12
+	 * @see #setImportParallelism
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+		this.staxLoader = null;
+	}
+
+	/**
+	 * Return whether XML files are read through a StAX stream.
+	 * @since 5.1.12
+	 */
+	public boolean isStreaming() {
+		return this.streaming;
+	}
+
+	/**
+	 * Set the number of threads to use for parsing imported XML files in
+	 * {@link #setStreaming streaming mode}. Default is 1, reading each imported
+	 * file when its {@code <import>} element is being processed.
+	 * <p>A higher value parses the files referenced by each run of consecutive
+	 * {@code <import>} elements concurrently on a
+	 * {@link java.util.concurrent.ForkJoinPool}, keeping them in memory until
+	 * their turn comes. Bean definitions are still registered sequentially on
+	 * the calling thread, in declaration order.
+	 * @since 5.1.12
+	 */
+	public void setImportParallelism(int importParallelism) {
+		Assert.isTrue(importParallelism > 0, "Import parallelism must be greater than 0");
+		this.importParallelism = importParallelism;
+		this.staxLoader = null;
+	}
+
 
 	/**
 	 * Load bean definitions from the specified XML file.
@@ -328,6 +379,17 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 					"Detected cyclic loading of " + encodedResource + " - check your import definitions!");
 		}
 		try {
+			StaxBeanDefinitionLoader staxLoader = this.staxLoader;
+			if (staxLoader != null && encodedResource.getEncoding() == null) {
+				// Parsed in the background already -> no need to open the resource again
+				int count = staxLoader.loadPrefetchedBeanDefinitions(encodedResource.getResource());
+				if (count >= 0) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Loaded " + count + " bean definitions from " + encodedResource.getResource());
+					}
+					return count;
+				}
+			}
 			InputStream inputStream = encodedResource.getResource().getInputStream();
 			try {
 				InputSource inputSource = new InputSource(inputStream);
@@ -390,8 +452,14 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 			throws BeanDefinitionStoreException {
 
 		try {
-			Document doc = doLoadDocument(inputSource, resource);
-			int count = registerBeanDefinitions(doc, resource);
+			int count;
+			if (this.streaming && this.documentReaderClass == DefaultBeanDefinitionDocumentReader.class) {
+				count = getStaxLoader().loadBeanDefinitions(inputSource, resource);
+			}
+			else {
+				Document doc = doLoadDocument(inputSource, resource);
+				count = registerBeanDefinitions(doc, resource);
+			}
 			if (logger.isDebugEnabled()) {
 				logger.debug("Loaded " + count + " bean definitions from " + resource);
 			}
@@ -422,6 +490,15 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 		}
 	}
 
+	private StaxBeanDefinitionLoader getStaxLoader() {
+		StaxBeanDefinitionLoader staxLoader = this.staxLoader;
+		if (staxLoader == null) {
+			staxLoader = new StaxBeanDefinitionLoader(this, this.importParallelism);
+			this.staxLoader = staxLoader;
+		}
+		return staxLoader;
+	}
+
 	/**
 	 * Actually load the specified document using the configured DocumentLoader.
 	 * @param inputSource the SAX InputSource to read from
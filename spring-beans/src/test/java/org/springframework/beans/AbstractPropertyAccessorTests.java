@@ -471,6 +471,20 @@ public abstract class AbstractPropertyAccessorTests {
 		assertEquals("9", target.listOfMaps.get(0).get("luckyNumber"));
 	}
 
+	@Test
+	public void setPropertyWithCustomConversionService() {
+		TestBean target = new TestBean();
+		AbstractPropertyAccessor accessor = createAccessor(target);
+		accessor.setConversionService(new DefaultConversionService() {
+			@Override
+			public Object convert(@Nullable Object source, @Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
+				return (targetType.getType() == int.class ? 42 : super.convert(source, sourceType, targetType));
+			}
+		});
+		accessor.setPropertyValue("age", "7");
+		assertEquals(42, target.getAge());
+	}
+
 
 	@Test
 	public void setEmptyPropertyValues() {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -218,6 +218,47 @@ public class BeanWrapperTests extends AbstractPropertyAccessorTests {
 		}
 	}
 
+	@Test
+	public void repeatedPropertyAccess() {
+		TestBean target = new TestBean();
+		BeanWrapper accessor = createAccessor(target);
+		for (int i = 0; i < 3; i++) {
+			accessor.setPropertyValue("name", "name" + i);
+			accessor.setPropertyValue("age", String.valueOf(i));
+			accessor.setPropertyValue("touchy", "");
+			assertEquals("name" + i, target.getName());
+			assertEquals(i, target.getAge());
+			assertEquals("name" + i, accessor.getPropertyValue("name"));
+			assertEquals(i, accessor.getPropertyValue("age"));
+		}
+	}
+
+	@Test
+	public void repeatedPropertyAccessWithException() {
+		TestBean target = new TestBean();
+		BeanWrapper accessor = createAccessor(target);
+		accessor.setPropertyValue("touchy", "");
+		accessor.setPropertyValue("touchy", "");
+		try {
+			accessor.setPropertyValue("touchy", ".");
+			fail("Should have thrown MethodInvocationException");
+		}
+		catch (MethodInvocationException ex) {
+			assertTrue(ex.getCause() instanceof Exception);
+			assertEquals("Can't contain a .", ex.getCause().getMessage());
+		}
+	}
+
+	@Test
+	public void repeatedPropertyAccessWithPropertyTypeMismatch() {
+		PropertyTypeMismatch target = new PropertyTypeMismatch();
+		BeanWrapper accessor = createAccessor(target);
+		for (int i = 0; i < 3; i++) {
+			accessor.setPropertyValue("object", "a String");
+			assertEquals(8, accessor.getPropertyValue("object"));
+		}
+	}
+
 
 	private interface BaseProperty {
 
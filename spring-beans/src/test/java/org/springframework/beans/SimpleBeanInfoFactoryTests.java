@@ -0,0 +1,157 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+
+import org.junit.Test;
+
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link SimpleBeanInfoFactory}.
+ */
+public class SimpleBeanInfoFactoryTests {
+
+	private final SimpleBeanInfoFactory factory = new SimpleBeanInfoFactory();
+
+
+	@Test
+	public void sameBasicPropertiesAsIntrospector() throws IntrospectionException {
+		BeanInfo beanInfo = factory.getBeanInfo(TestBean.class);
+		PropertyDescriptor[] expected = Introspector.getBeanInfo(TestBean.class).getPropertyDescriptors();
+		PropertyDescriptor[] actual = beanInfo.getPropertyDescriptors();
+
+		assertEquals(TestBean.class, beanInfo.getBeanDescriptor().getBeanClass());
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i].getName(), actual[i].getName());
+			assertEquals(expected[i].getName(), expected[i].getReadMethod(), actual[i].getReadMethod());
+			assertEquals(expected[i].getName(), expected[i].getWriteMethod(), actual[i].getWriteMethod());
+			assertEquals(expected[i].getName(), expected[i].getPropertyType(), actual[i].getPropertyType());
+		}
+	}
+
+	@Test
+	public void nonVoidReturningSetter() throws Exception {
+		PropertyDescriptor pd = getPropertyDescriptor(FluentBean.class, "name");
+		assertEquals(FluentBean.class.getMethod("getName"), pd.getReadMethod());
+		assertEquals(FluentBean.class.getMethod("setName", String.class), pd.getWriteMethod());
+		assertEquals(String.class, pd.getPropertyType());
+	}
+
+	@Test
+	public void booleanPropertyPrefersIsAccessor() throws Exception {
+		PropertyDescriptor pd = getPropertyDescriptor(FluentBean.class, "active");
+		assertEquals(FluentBean.class.getMethod("isActive"), pd.getReadMethod());
+		assertEquals(FluentBean.class.getMethod("setActive", boolean.class), pd.getWriteMethod());
+	}
+
+	@Test
+	public void writeMethodMatchingReadMethod() throws Exception {
+		PropertyDescriptor pd = getPropertyDescriptor(FluentBean.class, "value");
+		assertEquals(FluentBean.class.getMethod("setValue", Integer.class), pd.getWriteMethod());
+		assertEquals(Integer.class, pd.getPropertyType());
+	}
+
+	@Test
+	public void writeOnlyAndUppercaseProperties() throws Exception {
+		assertEquals(FluentBean.class.getMethod("setWriteOnly", String.class),
+				getPropertyDescriptor(FluentBean.class, "writeOnly").getWriteMethod());
+		assertNotNull(getPropertyDescriptor(FluentBean.class, "URL").getReadMethod());
+	}
+
+	@Test
+	public void beanWrapperWithSimpleBeanInfo() throws IntrospectionException {
+		FluentBean target = new FluentBean();
+		BeanWrapperImpl accessor = new BeanWrapperImpl(target);
+		for (PropertyDescriptor pd : factory.getBeanInfo(FluentBean.class).getPropertyDescriptors()) {
+			assertNotNull(pd.getName(), accessor.getPropertyDescriptor(pd.getName()));
+		}
+		accessor.setPropertyValue("name", "fluent");
+		assertEquals("fluent", target.getName());
+	}
+
+
+	private PropertyDescriptor getPropertyDescriptor(Class<?> beanClass, String name)
+			throws IntrospectionException {
+
+		for (PropertyDescriptor pd : factory.getBeanInfo(beanClass).getPropertyDescriptors()) {
+			if (pd.getName().equals(name)) {
+				return pd;
+			}
+		}
+		throw new IllegalStateException("No property '" + name + "' found");
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class FluentBean {
+
+		private String name;
+
+		private boolean active;
+
+		private Integer value;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public FluentBean setName(String name) {
+			this.name = name;
+			return this;
+		}
+
+		public boolean getActive() {
+			return this.active;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+
+		public Integer getValue() {
+			return this.value;
+		}
+
+		public void setValue(String value) {
+			this.value = Integer.valueOf(value);
+		}
+
+		public void setValue(Integer value) {
+			this.value = value;
+		}
+
+		public void setWriteOnly(String writeOnly) {
+		}
+
+		public String getURL() {
+			return "";
+		}
+	}
+
+}
@@ -26,7 +26,9 @@ import java.security.Principal;
 import java.security.PrivilegedAction;
 import java.text.NumberFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -2922,6 +2924,145 @@ public class DefaultListableBeanFactoryTests {
 	}
 
 
+	@Test
+	public void testGetBeanNamesForTypeAfterIncrementalRegistration() {
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		lbf.freezeConfiguration();
+		String[] testBeanNames = lbf.getBeanNamesForType(ITestBean.class);
+		assertArrayEquals(new String[] {"tb"}, testBeanNames);
+		assertEquals(0, lbf.getBeanNamesForType(NestedTestBean.class).length);
+
+		// Unrelated registration keeps by-type mappings for ITestBean
+		lbf.registerSingleton("nested", new NestedTestBean());
+		assertSame(testBeanNames, lbf.getBeanNamesForType(ITestBean.class));
+		assertArrayEquals(new String[] {"nested"}, lbf.getBeanNamesForType(NestedTestBean.class));
+
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(DerivedTestBean.class));
+		assertArrayEquals(new String[] {"tb", "tb2"}, lbf.getBeanNamesForType(ITestBean.class));
+		assertArrayEquals(new String[] {"tb", "tb2", "nested"}, lbf.getBeanNamesForType(Object.class));
+
+		lbf.removeBeanDefinition("tb");
+		assertArrayEquals(new String[] {"tb2"}, lbf.getBeanNamesForType(ITestBean.class));
+		lbf.destroySingleton("nested");
+		assertEquals(0, lbf.getBeanNamesForType(NestedTestBean.class).length);
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeAfterIncrementalRegistrationWithPredictedType() {
+		lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessorAdapter() {
+			@Override
+			public Class<?> predictBeanType(Class<?> beanClass, String beanName) {
+				return ("predicted".equals(beanName) ? NestedTestBean.class : null);
+			}
+		});
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		lbf.freezeConfiguration();
+		assertEquals(0, lbf.getBeanNamesForType(NestedTestBean.class).length);
+
+		lbf.registerBeanDefinition("predicted", new RootBeanDefinition(TestBean.class));
+		assertArrayEquals(new String[] {"predicted"}, lbf.getBeanNamesForType(NestedTestBean.class));
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeAfterUnrelatedRegistrationWithPredictedType() {
+		lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessorAdapter() {
+			@Override
+			public Class<?> predictBeanType(Class<?> beanClass, String beanName) {
+				return ("predicted".equals(beanName) ? NestedTestBean.class : null);
+			}
+		});
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("predicted", new RootBeanDefinition(TestBean.class));
+		lbf.freezeConfiguration();
+		String[] testBeanNames = lbf.getBeanNamesForType(ITestBean.class);
+		assertArrayEquals(new String[] {"tb"}, testBeanNames);
+		assertArrayEquals(new String[] {"predicted"}, lbf.getBeanNamesForType(NestedTestBean.class));
+
+		// Unrelated registration keeps by-type mappings for ITestBean
+		lbf.registerBeanDefinition("nested", new RootBeanDefinition(NestedTestBean.class));
+		lbf.clearMetadataCache();
+		assertSame(testBeanNames, lbf.getBeanNamesForType(ITestBean.class));
+		assertArrayEquals(new String[] {"predicted", "nested"}, lbf.getBeanNamesForType(NestedTestBean.class));
+
+		lbf.removeBeanDefinition("predicted");
+		assertSame(testBeanNames, lbf.getBeanNamesForType(ITestBean.class));
+		assertArrayEquals(new String[] {"nested"}, lbf.getBeanNamesForType(NestedTestBean.class));
+	}
+
+	@Test
+	public void testParallelPreInstantiation() {
+		lbf.setPreInstantiationParallelism(4);
+		assertTrue(lbf.isConcurrentSingletonCreation());
+		RootBeanDefinition spouse = new RootBeanDefinition(TestBean.class);
+		spouse.getPropertyValues().add("name", "spouse");
+		lbf.registerBeanDefinition("spouse", spouse);
+		RootBeanDefinition dependency = new RootBeanDefinition(ConstructorDependency.class);
+		dependency.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("spouse"));
+		lbf.registerBeanDefinition("dependency", dependency);
+		RootBeanDefinition tb1 = new RootBeanDefinition(TestBean.class);
+		tb1.getPropertyValues().add("spouse", new RuntimeBeanReference("tb2"));
+		lbf.registerBeanDefinition("tb1", tb1);
+		RootBeanDefinition tb2 = new RootBeanDefinition(TestBean.class);
+		tb2.getPropertyValues().add("spouse", new RuntimeBeanReference("tb1"));
+		lbf.registerBeanDefinition("tb2", tb2);
+		RootBeanDefinition lazy = new RootBeanDefinition(TestBean.class);
+		lazy.setLazyInit(true);
+		lbf.registerBeanDefinition("lazy", lazy);
+		lbf.registerBeanDefinition("eager", new RootBeanDefinition(EagerInitFactory.class));
+		for (int i = 0; i < 20; i++) {
+			lbf.registerBeanDefinition("independent" + i, new RootBeanDefinition(TestBean.class));
+		}
+
+		lbf.preInstantiateSingletons();
+
+		assertTrue(lbf.containsSingleton("spouse"));
+		assertTrue(lbf.containsSingleton("dependency"));
+		assertTrue(lbf.containsSingleton("independent19"));
+		assertFalse(lbf.containsSingleton("lazy"));
+		assertSame(lbf.getBean("spouse"), lbf.getBean("dependency", ConstructorDependency.class).spouse);
+		assertSame(lbf.getBean("tb2"), lbf.getBean("tb1", TestBean.class).getSpouse());
+		assertSame(lbf.getBean("tb1"), lbf.getBean("tb2", TestBean.class).getSpouse());
+		assertTrue(((EagerInitFactory) lbf.getBean("&eager")).initialized);
+	}
+
+	@Test
+	public void testParallelPreInstantiationWithDependsOn() {
+		List<String> initialized = Collections.synchronizedList(new ArrayList<>());
+		lbf.addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				initialized.add(beanName);
+				return bean;
+			}
+		});
+		lbf.setPreInstantiationParallelism(4);
+		for (int i = 0; i < 10; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			if (i > 0) {
+				bd.setDependsOn("chain" + (i - 1));
+			}
+			lbf.registerBeanDefinition("chain" + i, bd);
+		}
+
+		lbf.preInstantiateSingletons();
+
+		assertEquals(10, initialized.size());
+		for (int i = 1; i < 10; i++) {
+			assertTrue(initialized.indexOf("chain" + (i - 1)) < initialized.indexOf("chain" + i));
+		}
+	}
+
+	@Test(expected = UnsatisfiedDependencyException.class)
+	public void testParallelPreInstantiationWithFailingBean() {
+		lbf.setPreInstantiationParallelism(4);
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition(UnsatisfiedConstructorDependency.class);
+		bd.setAutowireMode(RootBeanDefinition.AUTOWIRE_CONSTRUCTOR);
+		lbf.registerBeanDefinition("unsatisfied", bd);
+		lbf.preInstantiateSingletons();
+	}
+
+
 	static class A { }
 
 	static class B { }
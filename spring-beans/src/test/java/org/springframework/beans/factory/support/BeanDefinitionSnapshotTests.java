@@ -0,0 +1,261 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.StandardAnnotationMetadata;
+import org.springframework.core.type.StandardMethodMetadata;
+import org.springframework.tests.sample.beans.HasMap;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+public class BeanDefinitionSnapshotTests {
+
+	@Test
+	public void roundtripXmlBeanDefinitions() throws IOException {
+		DefaultListableBeanFactory original = new DefaultListableBeanFactory();
+		new XmlBeanDefinitionReader(original).loadBeanDefinitions(
+				new ClassPathResource("collections.xml", XmlBeanDefinitionReader.class));
+		new XmlBeanDefinitionReader(original).loadBeanDefinitions(
+				new ClassPathResource("lookupMethodTests.xml", getClass()));
+		original.registerAlias("jenny", "jen");
+
+		DefaultListableBeanFactory restored = new DefaultListableBeanFactory();
+		assertTrue(BeanDefinitionSnapshot.read(snapshot(original, "fp"), "fp", restored));
+
+		assertArrayEquals(original.getBeanDefinitionNames(), restored.getBeanDefinitionNames());
+		for (String beanName : original.getBeanDefinitionNames()) {
+			BeanDefinition bd = restored.getBeanDefinition(beanName);
+			assertEquals(Boolean.TRUE, bd.removeAttribute(BeanDefinitionSnapshot.RESTORED_ATTRIBUTE));
+			assertEquivalent(beanName, original.getBeanDefinition(beanName), bd);
+			assertEquals(original.getBeanDefinition(beanName).getResourceDescription(), bd.getResourceDescription());
+		}
+		assertArrayEquals(new String[] {"jen"}, restored.getAliases("jenny"));
+
+		TestBean jenny = (TestBean) restored.getBean("jen");
+		assertEquals("Jenny", jenny.getName());
+		assertSame(restored.getBean("david"), jenny.getSpouse());
+		List<?> friends = (List<?>) ((TestBean) restored.getBean("rod")).getFriends();
+		assertEquals(2, friends.size());
+		Map<?, ?> map = ((HasMap) restored.getBean("mixedMap")).getMap();
+		assertEquals(original.getBean("mixedMap", HasMap.class).getMap().size(), map.size());
+	}
+
+	@Test
+	public void roundtripProgrammaticBeanDefinitions() throws IOException {
+		DefaultListableBeanFactory original = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.setPrimary(true);
+		bd.setDependsOn("other");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "juergen");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(1, 42, "int");
+		bd.getPropertyValues().add("spouse", new RootBeanDefinition(TestBean.class));
+		bd.getPropertyValues().add("someIntegerArray", new Integer[] {1, 2});
+		bd.addQualifier(new AutowireCandidateQualifier(Deprecated.class, "value"));
+		bd.setAttribute("order", 5);
+		bd.setAttribute("type", TestBean.class);
+		original.registerBeanDefinition("tb", bd);
+		original.registerBeanDefinition("other", new RootBeanDefinition(TestBean.class));
+
+		DefaultListableBeanFactory restored = new DefaultListableBeanFactory();
+		assertTrue(BeanDefinitionSnapshot.read(snapshot(original, "fp"), "fp", restored));
+		BeanDefinition restoredBd = restored.getBeanDefinition("tb");
+		restoredBd.removeAttribute(BeanDefinitionSnapshot.RESTORED_ATTRIBUTE);
+		assertEquivalent("tb", bd, restoredBd);
+
+		TestBean tb = (TestBean) restored.getBean("tb");
+		assertEquals("juergen", tb.getName());
+		assertEquals(42, tb.getAge());
+		assertNotNull(tb.getSpouse());
+		assertEquals(2, tb.getSomeIntegerArray().length);
+		assertNotSame(tb, restored.getBean("tb"));
+	}
+
+	@Test
+	public void roundtripAnnotatedBeanDefinitions() throws Exception {
+		DefaultListableBeanFactory original = new DefaultListableBeanFactory();
+		original.registerBeanDefinition("factory", new AnnotatedGenericBeanDefinition(OverloadedFactory.class));
+		MarkedFactoryMethodBeanDefinition bd = new MarkedFactoryMethodBeanDefinition(
+				OverloadedFactory.class.getMethod("create", Object.class));
+		bd.setFactoryBeanName("factory");
+		bd.setFactoryMethodName("create");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "tb");
+		original.registerBeanDefinition("tb", bd);
+		assertEquals("marked tb", original.getBean("tb", TestBean.class).getName());
+
+		DefaultListableBeanFactory restored = new DefaultListableBeanFactory();
+		assertTrue(BeanDefinitionSnapshot.read(snapshot(original, "fp"), "fp", restored));
+		AnnotatedBeanDefinition restoredFactory = (AnnotatedBeanDefinition) restored.getBeanDefinition("factory");
+		assertEquals(OverloadedFactory.class.getName(), restoredFactory.getMetadata().getClassName());
+		assertTrue(restoredFactory.getMetadata().hasAnnotatedMethods(FactoryMethod.class.getName()));
+		assertNull(restoredFactory.getFactoryMethodMetadata());
+		AnnotatedBeanDefinition restoredBd = (AnnotatedBeanDefinition) restored.getBeanDefinition("tb");
+		assertEquals(OverloadedFactory.class.getName(), restoredBd.getMetadata().getClassName());
+		MethodMetadata factoryMethodMetadata = restoredBd.getFactoryMethodMetadata();
+		assertNotNull(factoryMethodMetadata);
+		assertEquals("create", factoryMethodMetadata.getMethodName());
+		assertTrue(factoryMethodMetadata.isAnnotated(FactoryMethod.class.getName()));
+		assertEquals("marked tb", restored.getBean("tb", TestBean.class).getName());
+	}
+
+	@Test
+	public void readWithDifferentFingerprint() throws IOException {
+		DefaultListableBeanFactory original = new DefaultListableBeanFactory();
+		original.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+
+		DefaultListableBeanFactory restored = new DefaultListableBeanFactory();
+		assertFalse(BeanDefinitionSnapshot.read(snapshot(original, "fp"), "other", restored));
+		assertEquals(0, restored.getBeanDefinitionCount());
+	}
+
+	@Test
+	public void readReplacesExistingBeanDefinitions() throws IOException {
+		DefaultListableBeanFactory original = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getPropertyValues().add("name", "snapshot");
+		original.registerBeanDefinition("tb", bd);
+
+		DefaultListableBeanFactory restored = new DefaultListableBeanFactory();
+		restored.setAllowBeanDefinitionOverriding(false);
+		restored.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		assertTrue(BeanDefinitionSnapshot.read(snapshot(original, "fp"), "fp", restored));
+		assertEquals("snapshot", restored.getBean("tb", TestBean.class).getName());
+	}
+
+	@Test(expected = BeanDefinitionStoreException.class)
+	public void writeWithInstanceSupplier() throws IOException {
+		DefaultListableBeanFactory original = new DefaultListableBeanFactory();
+		original.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class, TestBean::new));
+		snapshot(original, "fp");
+	}
+
+	@Test(expected = BeanDefinitionStoreException.class)
+	public void writeWithUnsupportedValue() throws IOException {
+		DefaultListableBeanFactory original = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getPropertyValues().add("touchy", new Object());
+		original.registerBeanDefinition("tb", bd);
+		snapshot(original, "fp");
+	}
+
+	@Test
+	public void classpathFingerprintIsStable() throws IOException {
+		String fingerprint = BeanDefinitionSnapshot.computeClasspathFingerprint(getClass().getClassLoader());
+		assertEquals(fingerprint, BeanDefinitionSnapshot.computeClasspathFingerprint(getClass().getClassLoader()));
+	}
+
+
+	/**
+	 * Empty constructor argument and property values are only written if present,
+	 * so initialize them on both sides before comparing the bean definitions.
+	 */
+	private static void assertEquivalent(String message, BeanDefinition expected, BeanDefinition actual) {
+		expected.getConstructorArgumentValues();
+		expected.getPropertyValues();
+		actual.getConstructorArgumentValues();
+		actual.getPropertyValues();
+		assertEquals(message, expected, actual);
+	}
+
+	private static ByteArrayInputStream snapshot(BeanDefinitionRegistry registry, String fingerprint)
+			throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BeanDefinitionSnapshot.write(registry, fingerprint, out);
+		return new ByteArrayInputStream(out.toByteArray());
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface FactoryMethod {
+	}
+
+
+	public static class OverloadedFactory {
+
+		@FactoryMethod
+		public TestBean create(Object name) {
+			return new TestBean("marked " + name);
+		}
+
+		public TestBean create(String name) {
+			return new TestBean("unmarked " + name);
+		}
+	}
+
+
+	/**
+	 * Only accepts factory methods with a {@link FactoryMethod} annotation,
+	 * like a bean definition for a {@code @Bean} method.
+	 */
+	@SuppressWarnings("serial")
+	private static class MarkedFactoryMethodBeanDefinition extends RootBeanDefinition
+			implements AnnotatedBeanDefinition {
+
+		private final Method factoryMethod;
+
+		MarkedFactoryMethodBeanDefinition(Method factoryMethod) {
+			this.factoryMethod = factoryMethod;
+		}
+
+		MarkedFactoryMethodBeanDefinition(MarkedFactoryMethodBeanDefinition original) {
+			super(original);
+			this.factoryMethod = original.factoryMethod;
+		}
+
+		@Override
+		public AnnotationMetadata getMetadata() {
+			return new StandardAnnotationMetadata(this.factoryMethod.getDeclaringClass(), true);
+		}
+
+		@Override
+		public MethodMetadata getFactoryMethodMetadata() {
+			return new StandardMethodMetadata(this.factoryMethod, true);
+		}
+
+		@Override
+		public boolean isFactoryMethod(Method candidate) {
+			return (super.isFactoryMethod(candidate) && candidate.isAnnotationPresent(FactoryMethod.class));
+		}
+
+		@Override
+		public MarkedFactoryMethodBeanDefinition cloneBeanDefinition() {
+			return new MarkedFactoryMethodBeanDefinition(this);
+		}
+	}
+
+}
@@ -16,10 +16,18 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.tests.sample.beans.DerivedTestBean;
 import org.springframework.tests.sample.beans.TestBean;
 
@@ -101,4 +109,77 @@ public class DefaultSingletonBeanRegistryTests {
 		assertTrue(beanRegistry.isDependent("c", "c"));
 	}
 
+	@Test
+	public void testConcurrentSingletonCreation() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		CountDownLatch bothInCreation = new CountDownLatch(2);
+		AtomicInteger creationCount = new AtomicInteger();
+		ObjectFactory<Object> factory = () -> {
+			creationCount.incrementAndGet();
+			bothInCreation.countDown();
+			try {
+				// Only completes if the other singleton is being created in parallel
+				assertTrue(bothInCreation.await(5, TimeUnit.SECONDS));
+			}
+			catch (InterruptedException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return new TestBean();
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<Object> tb1 = executor.submit(() -> beanRegistry.getSingleton("tb1", factory));
+			Future<Object> tb2 = executor.submit(() -> beanRegistry.getSingleton("tb2", factory));
+			Future<Object> tb1Again = executor.submit(() -> beanRegistry.getSingleton("tb1", factory));
+			assertSame(tb1.get(5, TimeUnit.SECONDS), tb1Again.get(5, TimeUnit.SECONDS));
+			assertNotSame(tb1.get(), tb2.get(5, TimeUnit.SECONDS));
+			assertSame(tb1.get(), beanRegistry.getSingleton("tb1"));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertEquals(2, creationCount.get());
+		assertEquals(2, beanRegistry.getSingletonCount());
+	}
+
+	@Test
+	public void testConcurrentSingletonCreationWithCircularReferenceAcrossThreads() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.setConcurrentSingletonCreation(true);
+		// Both constructors only complete once both singletons are in creation
+		CountDownLatch bothInCreation = new CountDownLatch(2);
+		RootBeanDefinition bd1 = new RootBeanDefinition(LatchedTestBean.class);
+		bd1.getConstructorArgumentValues().addGenericArgumentValue(bothInCreation);
+		bd1.getPropertyValues().add("spouse", new RuntimeBeanReference("tb2"));
+		RootBeanDefinition bd2 = new RootBeanDefinition(LatchedTestBean.class);
+		bd2.getConstructorArgumentValues().addGenericArgumentValue(bothInCreation);
+		bd2.getPropertyValues().add("spouse", new RuntimeBeanReference("tb1"));
+		beanFactory.registerBeanDefinition("tb1", bd1);
+		beanFactory.registerBeanDefinition("tb2", bd2);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> tb1 = executor.submit(() -> beanFactory.getBean("tb1"));
+			Future<Object> tb2 = executor.submit(() -> beanFactory.getBean("tb2"));
+			TestBean tb1Instance = (TestBean) tb1.get(5, TimeUnit.SECONDS);
+			TestBean tb2Instance = (TestBean) tb2.get(5, TimeUnit.SECONDS);
+			assertSame(tb2Instance, tb1Instance.getSpouse());
+			assertSame(tb1Instance, tb2Instance.getSpouse());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	public static class LatchedTestBean extends TestBean {
+
+		public LatchedTestBean(CountDownLatch bothInCreation) throws InterruptedException {
+			bothInCreation.countDown();
+			assertTrue(bothInCreation.await(5, TimeUnit.SECONDS));
+		}
+	}
+
 }
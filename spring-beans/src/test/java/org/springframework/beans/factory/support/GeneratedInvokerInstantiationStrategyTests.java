@@ -0,0 +1,237 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+public class GeneratedInvokerInstantiationStrategyTests {
+
+	private DefaultListableBeanFactory lbf;
+
+	private GeneratedInvokerInstantiationStrategy strategy;
+
+
+	@Before
+	public void setup() {
+		this.lbf = new DefaultListableBeanFactory();
+		this.strategy = new GeneratedInvokerInstantiationStrategy();
+		this.lbf.setInstantiationStrategy(this.strategy);
+	}
+
+
+	@Test
+	public void prototypeWithConstructorArguments() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "juergen");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(1, "42");
+		lbf.registerBeanDefinition("tb", bd);
+
+		for (int i = 0; i < 3; i++) {
+			TestBean tb = (TestBean) lbf.getBean("tb");
+			assertEquals("juergen", tb.getName());
+			assertEquals(42, tb.getAge());
+		}
+		assertNotSame(lbf.getBean("tb"), lbf.getBean("tb"));
+		assertEquals(1, strategy.getInvokerCount());
+	}
+
+	@Test
+	public void prototypeWithDefaultConstructor() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.getPropertyValues().add("name", "juergen");
+		lbf.registerBeanDefinition("tb", bd);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals("juergen", ((TestBean) lbf.getBean("tb")).getName());
+		}
+		assertEquals(1, strategy.getInvokerCount());
+	}
+
+	@Test
+	public void prototypeWithStaticFactoryMethod() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBeanFactory.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.setFactoryMethodName("createStatic");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "juergen");
+		lbf.registerBeanDefinition("tb", bd);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals("juergen", ((TestBean) lbf.getBean("tb")).getName());
+		}
+		assertEquals(1, strategy.getInvokerCount());
+	}
+
+	@Test
+	public void prototypeWithInstanceFactoryMethod() {
+		lbf.registerBeanDefinition("factory", new RootBeanDefinition(TestBeanFactory.class));
+		RootBeanDefinition bd = new RootBeanDefinition();
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.setFactoryBeanName("factory");
+		bd.setFactoryMethodName("create");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "7");
+		lbf.registerBeanDefinition("tb", bd);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(7, ((TestBean) lbf.getBean("tb")).getAge());
+		}
+		assertEquals(3, lbf.getBean("factory", TestBeanFactory.class).count);
+		assertEquals(1, strategy.getInvokerCount());
+	}
+
+	@Test
+	public void prototypeWithNullFactoryMethodResult() {
+		lbf.registerBeanDefinition("factory", new RootBeanDefinition(TestBeanFactory.class));
+		RootBeanDefinition bd = new RootBeanDefinition();
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.setFactoryBeanName("factory");
+		bd.setFactoryMethodName("createNull");
+		lbf.registerBeanDefinition("tb", bd);
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(lbf.getBean("tb") instanceof NullBean);
+		}
+	}
+
+	@Test
+	public void prototypeWithFailingFactoryMethod() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBeanFactory.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.setFactoryMethodName("createFailing");
+		lbf.registerBeanDefinition("tb", bd);
+
+		for (int i = 0; i < 3; i++) {
+			try {
+				lbf.getBean("tb");
+				fail("Should have thrown BeanCreationException");
+			}
+			catch (BeanCreationException ex) {
+				assertTrue(ex.getMostSpecificCause() instanceof IllegalStateException);
+			}
+		}
+	}
+
+	@Test
+	public void singletonNotGenerated() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setLazyInit(true);
+		lbf.registerBeanDefinition("tb", bd);
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(TestBean.class));
+
+		lbf.getBean("tb");
+		lbf.getBean("tb2");
+		assertEquals(0, strategy.getInvokerCount());
+	}
+
+	@Test
+	public void prototypeWithLifecycleAndInjectionMethods() {
+		AutowiredAnnotationBeanPostProcessor bpp = new AutowiredAnnotationBeanPostProcessor();
+		bpp.setBeanFactory(lbf);
+		lbf.addBeanPostProcessor(bpp);
+		lbf.registerBeanDefinition("spouse", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition(LifecycleBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.setInitMethodName("init");
+		bd.setDestroyMethodName("destroy");
+		lbf.registerBeanDefinition("bean", bd);
+
+		for (int i = 0; i < 3; i++) {
+			LifecycleBean bean = (LifecycleBean) lbf.getBean("bean");
+			assertSame(lbf.getBean("spouse"), bean.spouse);
+			assertTrue(bean.initialized);
+			lbf.destroyBean("bean", bean);
+			assertTrue(bean.destroyed);
+		}
+		// constructor, @Autowired method, init method, destroy method
+		assertEquals(4, strategy.getInvokerCount());
+	}
+
+	@Test
+	public void nonPublicClassNotGenerated() {
+		RootBeanDefinition bd = new RootBeanDefinition(PackagePrivateBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		lbf.registerBeanDefinition("bean", bd);
+
+		for (int i = 0; i < 3; i++) {
+			assertNotNull(lbf.getBean("bean"));
+		}
+		assertEquals(0, strategy.getInvokerCount());
+	}
+
+
+	public static class TestBeanFactory {
+
+		int count;
+
+		public static TestBean createStatic(String name) {
+			return new TestBean(name);
+		}
+
+		public static TestBean createFailing() {
+			throw new IllegalStateException("failed");
+		}
+
+		public TestBean create(int age) {
+			this.count++;
+			TestBean tb = new TestBean();
+			tb.setAge(age);
+			return tb;
+		}
+
+		public TestBean createNull() {
+			return null;
+		}
+	}
+
+
+	public static class LifecycleBean {
+
+		TestBean spouse;
+
+		boolean initialized;
+
+		boolean destroyed;
+
+		@Autowired
+		public void setSpouse(TestBean spouse) {
+			this.spouse = spouse;
+		}
+
+		public void init() {
+			this.initialized = true;
+		}
+
+		public void destroy() {
+			this.destroyed = true;
+		}
+	}
+
+
+	static class PackagePrivateBean {
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.StringUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link XmlBeanDefinitionReader} in streaming mode, comparing the
+ * results with regular DOM-based parsing.
+ */
+public class StreamingXmlBeanDefinitionReaderTests {
+
+	@Test
+	public void withDtdBasedFile() {
+		assertSameAsDom("test.xml", 1);
+	}
+
+	@Test
+	public void withCollections() {
+		assertSameAsDom("collections.xml", 1);
+	}
+
+	@Test
+	public void withUtilNamespace() {
+		assertSameAsDom("testUtilNamespace.xml", 1);
+	}
+
+	@Test
+	public void withPropertyAndConstructorNamespaces() {
+		assertSameAsDom("simplePropertyNamespaceHandlerTests.xml", 1);
+		assertSameAsDom("simpleConstructorNamespaceHandlerTests.xml", 1);
+	}
+
+	@Test
+	public void withNestedBeansElements() {
+		assertSameAsDom("NestedBeansElementTests-context.xml", 1);
+		assertSameAsDom("NestedBeansElementAttributeRecursionTests-merge-context.xml", 1);
+	}
+
+	@Test
+	public void withGeneratedBeanNames() {
+		assertSameAsDom("beanNameGeneration.xml", 1);
+	}
+
+	@Test
+	public void withImports() {
+		DefaultListableBeanFactory bf = assertSameAsDom("StreamingXmlBeanDefinitionReaderTests-imports.xml", 1);
+		assertEquals("after & <more>", bf.getBean("afterImports", TestBean.class).getName());
+	}
+
+	@Test
+	public void withParallelImports() {
+		assertSameAsDom("StreamingXmlBeanDefinitionReaderTests-imports.xml", 4);
+		assertSameAsDom("import.xml", 4);
+		assertSameAsDom("importPattern.xml", 4);
+	}
+
+	@Test
+	public void withParallelImportsReadOnce() {
+		Map<String, AtomicInteger> openCounts = new ConcurrentHashMap<>();
+		XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(new DefaultListableBeanFactory());
+		reader.setStreaming(true);
+		reader.setImportParallelism(4);
+		reader.loadBeanDefinitions(new CountingResource(
+				"org/springframework/beans/factory/xml/StreamingXmlBeanDefinitionReaderTests-imports.xml", openCounts));
+
+		assertEquals(4, openCounts.size());
+		openCounts.forEach((path, count) -> assertEquals(path, 1, count.get()));
+	}
+
+	@Test(expected = BeanDefinitionStoreException.class)
+	public void withMalformedDocument() {
+		XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(new DefaultListableBeanFactory());
+		reader.setStreaming(true);
+		reader.loadBeanDefinitions(new ByteArrayResource("<beans><bean id=\"a\"></beans>".getBytes()));
+	}
+
+
+	private DefaultListableBeanFactory assertSameAsDom(String resourceName, int importParallelism) {
+		DefaultListableBeanFactory expected = new DefaultListableBeanFactory();
+		new XmlBeanDefinitionReader(expected).loadBeanDefinitions(new ClassPathResource(resourceName, getClass()));
+
+		DefaultListableBeanFactory actual = new DefaultListableBeanFactory();
+		XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(actual);
+		reader.setStreaming(true);
+		reader.setImportParallelism(importParallelism);
+		int count = reader.loadBeanDefinitions(new ClassPathResource(resourceName, getClass()));
+
+		assertEquals(expected.getBeanDefinitionCount(), count);
+		assertArrayEquals(expected.getBeanDefinitionNames(), actual.getBeanDefinitionNames());
+		for (String beanName : expected.getBeanDefinitionNames()) {
+			assertEquivalent(beanName, expected.getBeanDefinition(beanName), actual.getBeanDefinition(beanName));
+			assertArrayEquals(expected.getAliases(beanName), actual.getAliases(beanName));
+		}
+		return actual;
+	}
+
+	private static void assertEquivalent(String beanName, BeanDefinition expected, BeanDefinition actual) {
+		if (expected.equals(actual)) {
+			return;
+		}
+		// Inner bean names contain identity hash codes: compare string representations instead
+		assertEquals(beanName, expected.toString(), actual.toString());
+		assertEquals(beanName, expected.getConstructorArgumentValues().getArgumentCount(),
+				actual.getConstructorArgumentValues().getArgumentCount());
+		expected.getConstructorArgumentValues().getIndexedArgumentValues().forEach((index, holder) ->
+				assertEquals(beanName + "[" + index + "]", normalize(holder.getValue()), normalize(
+						actual.getConstructorArgumentValues().getIndexedArgumentValue(index, null).getValue())));
+		for (PropertyValue pv : expected.getPropertyValues().getPropertyValues()) {
+			PropertyValue actualPv = actual.getPropertyValues().getPropertyValue(pv.getName());
+			assertNotNull(beanName + "." + pv.getName(), actualPv);
+			assertEquals(beanName + "." + pv.getName(), normalize(pv.getValue()), normalize(actualPv.getValue()));
+		}
+	}
+
+	private static String normalize(Object value) {
+		return String.valueOf(value).replaceAll("#[0-9a-f]+", "#");
+	}
+
+
+	private static class CountingResource extends ClassPathResource {
+
+		private final Map<String, AtomicInteger> openCounts;
+
+		CountingResource(String path, Map<String, AtomicInteger> openCounts) {
+			super(path);
+			this.openCounts = openCounts;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			this.openCounts.computeIfAbsent(getPath(), key -> new AtomicInteger()).incrementAndGet();
+			return super.getInputStream();
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) {
+			return new CountingResource(StringUtils.applyRelativePath(getPath(), relativePath), this.openCounts);
+		}
+	}
+
+}
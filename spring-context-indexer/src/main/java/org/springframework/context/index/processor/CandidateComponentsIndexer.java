@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.processing.Completion;
@@ -40,6 +41,15 @@ import javax.lang.model.element.TypeElement;
  * Annotation {@link Processor} that writes {@link CandidateComponentsMetadata}
  * file for spring components.
  *
+ * <p>As of 5.1.12, this processor also writes precomputed class metadata for
+ * all types with class file retained annotations (typically configuration
+ * classes) to {@code META-INF/spring.configurations}, allowing for building
+ * bean definitions from that metadata without reading class files at runtime.
+ * The parameter names of the methods and constructors declared by such types
+ * and by candidate components are written to {@code META-INF/spring.parameter-names},
+ * for resolution by {@code IndexedParameterNameDiscoverer} without reading class
+ * files when compiling without the "-parameters" flag.
+ *
  * @author Stephane Nicoll
  * @author Juergen Hoeller
  * @since 5.0
@@ -55,6 +65,10 @@ public class CandidateComponentsIndexer implements Processor {
 
 	private TypeHelper typeHelper;
 
+	private ConfigurationMetadataEncoder configurationEncoder;
+
+	private ParameterNamesEncoder parameterNamesEncoder;
+
 	private List<StereotypesProvider> stereotypesProviders;
 
 
@@ -78,7 +92,10 @@ public class CandidateComponentsIndexer implements Processor {
 		this.stereotypesProviders = getStereotypesProviders(env);
 		this.typeHelper = new TypeHelper(env);
 		this.metadataStore = new MetadataStore(env);
-		this.metadataCollector = new MetadataCollector(env, this.metadataStore.readMetadata());
+		this.configurationEncoder = new ConfigurationMetadataEncoder(env);
+		this.parameterNamesEncoder = new ParameterNamesEncoder(env);
+		this.metadataCollector = new MetadataCollector(env, this.metadataStore.readMetadata(),
+				this.metadataStore.readConfigurations(), this.metadataStore.readParameterNames());
 	}
 
 	@Override
@@ -119,6 +136,16 @@ public class CandidateComponentsIndexer implements Processor {
 		if (!stereotypes.isEmpty()) {
 			this.metadataCollector.add(new ItemMetadata(this.typeHelper.getType(element), stereotypes));
 		}
+		if (TYPE_KINDS.contains(element.getKind())) {
+			TypeElement type = (TypeElement) element;
+			String encodedMetadata = this.configurationEncoder.encode(type);
+			if (encodedMetadata != null) {
+				this.metadataCollector.addConfiguration(this.configurationEncoder.getBinaryName(type), encodedMetadata);
+			}
+			if (encodedMetadata != null || !stereotypes.isEmpty()) {
+				this.metadataCollector.addParameterNames(this.parameterNamesEncoder.encode(type));
+			}
+		}
 	}
 
 	private void writeMetaData() {
@@ -131,6 +158,24 @@ public class CandidateComponentsIndexer implements Processor {
 				throw new IllegalStateException("Failed to write metadata", ex);
 			}
 		}
+		Map<String, String> configurations = this.metadataCollector.getConfigurations();
+		if (!configurations.isEmpty()) {
+			try {
+				this.metadataStore.writeConfigurations(configurations);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to write configuration metadata", ex);
+			}
+		}
+		Map<String, String> parameterNames = this.metadataCollector.getParameterNames();
+		if (!parameterNames.isEmpty()) {
+			try {
+				this.metadataStore.writeParameterNames(parameterNames);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to write parameter names", ex);
+			}
+		}
 	}
 
 	private static List<TypeElement> staticTypesIn(Iterable<? extends Element> elements) {
@@ -0,0 +1,529 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Encode the metadata of a type as seen by Spring's ASM-based class metadata
+ * reading: class header, enclosing and member classes, class-level annotations
+ * and annotated methods, including all explicitly specified attribute values.
+ *
+ * <p>The encoding mirrors the recorded ASM visitor events of the persistent
+ * metadata cache in {@code spring-core}, prefixed with a format version byte
+ * and Base64-encoded for storage in a properties file. This allows for
+ * replaying the metadata at runtime without reading the class file.
+ *
+ * <p>Only top-level and static nested types get encoded, as for the candidate
+ * components index: non-static inner classes cannot be instantiated as
+ * configuration classes or components and are skipped by the indexer.
+ *
+ * @since 5.1.12
+ */
+class ConfigurationMetadataEncoder {
+
+	static final int FORMAT_VERSION = 1;
+
+	private static final int CLASS_FILE_VERSION = 52;
+
+	private static final int ACC_PUBLIC = 0x0001;
+
+	private static final int ACC_PRIVATE = 0x0002;
+
+	private static final int ACC_PROTECTED = 0x0004;
+
+	private static final int ACC_STATIC = 0x0008;
+
+	private static final int ACC_FINAL = 0x0010;
+
+	private static final int ACC_SYNCHRONIZED = 0x0020;
+
+	private static final int ACC_NATIVE = 0x0100;
+
+	private static final int ACC_INTERFACE = 0x0200;
+
+	private static final int ACC_ABSTRACT = 0x0400;
+
+	private static final int ACC_ANNOTATION = 0x2000;
+
+	private static final int ACC_ENUM = 0x4000;
+
+	private static final byte END = 0;
+
+	private static final byte VISIT = 1;
+
+	private static final byte INNER_CLASS = 3;
+
+	private static final byte ANNOTATION = 4;
+
+	private static final byte METHOD = 5;
+
+	private static final byte ANNOTATION_VALUE = 1;
+
+	private static final byte ANNOTATION_ENUM = 2;
+
+	private static final byte ANNOTATION_NESTED = 3;
+
+	private static final byte ANNOTATION_ARRAY = 4;
+
+
+	private final Elements elements;
+
+	private final Types types;
+
+
+	public ConfigurationMetadataEncoder(ProcessingEnvironment env) {
+		this.elements = env.getElementUtils();
+		this.types = env.getTypeUtils();
+	}
+
+
+	/**
+	 * Encode the metadata of the given type, if worth indexing.
+	 * @param type the type to encode
+	 * @return the encoded metadata, or {@code null} if the type does not carry
+	 * any class file retained annotations or could not be fully resolved
+	 */
+	public String encode(TypeElement type) {
+		List<AnnotationMirror> typeAnnotations = getRetainedAnnotations(type);
+		boolean annotatedMethods = false;
+		for (Element member : type.getEnclosedElements()) {
+			List<AnnotationMirror> methodAnnotations = (isMethod(member) ? getRetainedAnnotations(member) : null);
+			if (methodAnnotations != null && !methodAnnotations.isEmpty()) {
+				annotatedMethods = true;
+				break;
+			}
+		}
+		if (typeAnnotations == null || (typeAnnotations.isEmpty() && !annotatedMethods)) {
+			return null;
+		}
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+		try (DataOutputStream out = new DataOutputStream(bos)) {
+			out.writeByte(FORMAT_VERSION);
+			writeType(out, type, typeAnnotations);
+		}
+		catch (IOException | IllegalArgumentException ex) {
+			// Unresolvable type or annotation value -> not indexed
+			return null;
+		}
+		return Base64.getEncoder().encodeToString(bos.toByteArray());
+	}
+
+	/**
+	 * Return the binary name of the given type, i.e. the class name that
+	 * its encoded metadata is to be looked up with at runtime.
+	 */
+	public String getBinaryName(TypeElement type) {
+		return this.elements.getBinaryName(type).toString();
+	}
+
+
+	private void writeType(DataOutputStream out, TypeElement type, List<AnnotationMirror> annotations)
+			throws IOException {
+
+		String[] interfaces = new String[type.getInterfaces().size()];
+		for (int i = 0; i < interfaces.length; i++) {
+			interfaces[i] = getInternalName(type.getInterfaces().get(i));
+		}
+		out.writeByte(VISIT);
+		out.writeInt(CLASS_FILE_VERSION);
+		out.writeInt(getClassAccess(type));
+		writeString(out, getInternalName(type));
+		out.writeInt(-1);  // no generic signature
+		writeString(out, (type.getSuperclass().getKind() == TypeKind.DECLARED ?
+				getInternalName(type.getSuperclass()) : "java/lang/Object"));
+		out.writeInt(interfaces.length);
+		for (String name : interfaces) {
+			writeString(out, name);
+		}
+
+		if (type.getNestingKind() == NestingKind.MEMBER) {
+			writeInnerClass(out, type);
+		}
+		List<TypeElement> memberTypes = new ArrayList<>();
+		for (Element member : type.getEnclosedElements()) {
+			if (member instanceof TypeElement) {
+				memberTypes.add((TypeElement) member);
+			}
+		}
+		// javac lists member classes in reverse declaration order
+		for (int i = memberTypes.size() - 1; i >= 0; i--) {
+			writeInnerClass(out, memberTypes.get(i));
+		}
+
+		for (AnnotationMirror annotation : annotations) {
+			writeAnnotation(out, annotation);
+		}
+
+		for (Element member : type.getEnclosedElements()) {
+			if (isMethod(member)) {
+				List<AnnotationMirror> methodAnnotations = getRetainedAnnotations(member);
+				if (methodAnnotations == null) {
+					throw new IllegalArgumentException("Unresolvable annotation on " + member);
+				}
+				if (!methodAnnotations.isEmpty()) {
+					ExecutableElement method = (ExecutableElement) member;
+					out.writeByte(METHOD);
+					out.writeInt(getMethodAccess(method));
+					writeString(out, method.getSimpleName().toString());
+					writeString(out, getMethodDescriptor(type, method));
+					out.writeInt(-1);  // no generic signature
+					out.writeInt(-1);  // no exceptions
+					for (AnnotationMirror annotation : methodAnnotations) {
+						writeAnnotation(out, annotation);
+					}
+					out.writeByte(END);
+				}
+			}
+		}
+		out.writeByte(END);
+	}
+
+	private void writeInnerClass(DataOutputStream out, TypeElement type) throws IOException {
+		out.writeByte(INNER_CLASS);
+		writeString(out, getInternalName(type));
+		writeString(out, getInternalName((TypeElement) type.getEnclosingElement()));
+		writeString(out, type.getSimpleName().toString());
+		out.writeInt(getModifierAccess(type.getModifiers()) | getKindAccess(type));
+	}
+
+	private void writeAnnotation(DataOutputStream out, AnnotationMirror annotation) throws IOException {
+		out.writeByte(ANNOTATION);
+		writeString(out, getDescriptor(annotation.getAnnotationType()));
+		out.writeBoolean(getRetention(annotation) == RetentionPolicy.RUNTIME);
+		writeAnnotationValues(out, annotation);
+	}
+
+	private void writeAnnotationValues(DataOutputStream out, AnnotationMirror annotation) throws IOException {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+				annotation.getElementValues().entrySet()) {
+			writeAnnotationValue(out, entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+		}
+		out.writeByte(END);
+	}
+
+	private void writeAnnotationValue(DataOutputStream out, String name, Object value) throws IOException {
+		if (value instanceof VariableElement) {
+			VariableElement enumConstant = (VariableElement) value;
+			out.writeByte(ANNOTATION_ENUM);
+			writeNullableString(out, name);
+			writeString(out, getDescriptor(enumConstant.asType()));
+			writeString(out, enumConstant.getSimpleName().toString());
+		}
+		else if (value instanceof AnnotationMirror) {
+			AnnotationMirror nested = (AnnotationMirror) value;
+			out.writeByte(ANNOTATION_NESTED);
+			writeNullableString(out, name);
+			writeString(out, getDescriptor(nested.getAnnotationType()));
+			writeAnnotationValues(out, nested);
+		}
+		else if (value instanceof List) {
+			List<?> values = (List<?>) value;
+			List<Object> elementValues = new ArrayList<>(values.size());
+			for (Object element : values) {
+				elementValues.add(((AnnotationValue) element).getValue());
+			}
+			if (!elementValues.isEmpty() && getPrimitiveDescriptor(elementValues.get(0)) != 0) {
+				// Non-empty primitive arrays get reported as a single value by ASM
+				out.writeByte(ANNOTATION_VALUE);
+				writeNullableString(out, name);
+				out.writeByte('[');
+				out.writeByte(getPrimitiveDescriptor(elementValues.get(0)));
+				out.writeInt(elementValues.size());
+				for (Object element : elementValues) {
+					writeValue(out, element);
+				}
+			}
+			else {
+				out.writeByte(ANNOTATION_ARRAY);
+				writeNullableString(out, name);
+				for (Object element : elementValues) {
+					writeAnnotationValue(out, null, element);
+				}
+				out.writeByte(END);
+			}
+		}
+		else {
+			out.writeByte(ANNOTATION_VALUE);
+			writeNullableString(out, name);
+			writeValue(out, value);
+		}
+	}
+
+	private void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value instanceof String) {
+			out.writeByte('s');
+			writeString(out, (String) value);
+		}
+		else if (value instanceof TypeMirror) {
+			out.writeByte('T');
+			writeString(out, getDescriptor((TypeMirror) value));
+		}
+		else if (value instanceof Integer) {
+			out.writeByte('I');
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte('Z');
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte('J');
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Byte) {
+			out.writeByte('B');
+			out.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			out.writeByte('C');
+			out.writeChar((Character) value);
+		}
+		else if (value instanceof Short) {
+			out.writeByte('S');
+			out.writeShort((Short) value);
+		}
+		else if (value instanceof Float) {
+			out.writeByte('F');
+			out.writeFloat((Float) value);
+		}
+		else if (value instanceof Double) {
+			out.writeByte('D');
+			out.writeDouble((Double) value);
+		}
+		else {
+			throw new IllegalArgumentException("Unsupported annotation value: " + value);
+		}
+	}
+
+	private static char getPrimitiveDescriptor(Object value) {
+		if (value instanceof Integer) {
+			return 'I';
+		}
+		else if (value instanceof Boolean) {
+			return 'Z';
+		}
+		else if (value instanceof Long) {
+			return 'J';
+		}
+		else if (value instanceof Byte) {
+			return 'B';
+		}
+		else if (value instanceof Character) {
+			return 'C';
+		}
+		else if (value instanceof Short) {
+			return 'S';
+		}
+		else if (value instanceof Float) {
+			return 'F';
+		}
+		else if (value instanceof Double) {
+			return 'D';
+		}
+		return 0;
+	}
+
+
+	/**
+	 * Return the annotations on the given element that are retained in the
+	 * class file, runtime-visible ones first (as reported by ASM).
+	 * @return the annotations, or {@code null} if an annotation type is unresolvable
+	 */
+	private List<AnnotationMirror> getRetainedAnnotations(Element element) {
+		List<AnnotationMirror> visible = new ArrayList<>();
+		List<AnnotationMirror> invisible = new ArrayList<>();
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (annotation.getAnnotationType().getKind() != TypeKind.DECLARED) {
+				return null;
+			}
+			RetentionPolicy retention = getRetention(annotation);
+			if (retention == RetentionPolicy.RUNTIME) {
+				visible.add(annotation);
+			}
+			else if (retention == RetentionPolicy.CLASS) {
+				invisible.add(annotation);
+			}
+		}
+		visible.addAll(invisible);
+		return visible;
+	}
+
+	private RetentionPolicy getRetention(AnnotationMirror annotation) {
+		Element annotationType = annotation.getAnnotationType().asElement();
+		for (AnnotationMirror metaAnnotation : annotationType.getAnnotationMirrors()) {
+			if (getBinaryName((TypeElement) metaAnnotation.getAnnotationType().asElement())
+					.equals("java.lang.annotation.Retention")) {
+				for (AnnotationValue value : metaAnnotation.getElementValues().values()) {
+					return RetentionPolicy.valueOf(((VariableElement) value.getValue()).getSimpleName().toString());
+				}
+			}
+		}
+		return RetentionPolicy.CLASS;
+	}
+
+	private static boolean isMethod(Element element) {
+		return (element.getKind() == ElementKind.METHOD || element.getKind() == ElementKind.CONSTRUCTOR);
+	}
+
+	private int getClassAccess(TypeElement type) {
+		Set<Modifier> modifiers = type.getModifiers();
+		// Class files only know public and package-visible top-level classes
+		int access = (modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.PROTECTED) ? ACC_PUBLIC : 0);
+		if (modifiers.contains(Modifier.FINAL)) {
+			access |= ACC_FINAL;
+		}
+		if (modifiers.contains(Modifier.ABSTRACT)) {
+			access |= ACC_ABSTRACT;
+		}
+		return (access | getKindAccess(type));
+	}
+
+	private static int getKindAccess(TypeElement type) {
+		switch (type.getKind()) {
+			case INTERFACE:
+				return (ACC_INTERFACE | ACC_ABSTRACT);
+			case ANNOTATION_TYPE:
+				return (ACC_ANNOTATION | ACC_INTERFACE | ACC_ABSTRACT);
+			case ENUM:
+				return ACC_ENUM;
+			default:
+				return 0;
+		}
+	}
+
+	private static int getMethodAccess(ExecutableElement method) {
+		int access = getModifierAccess(method.getModifiers());
+		if (method.getModifiers().contains(Modifier.SYNCHRONIZED)) {
+			access |= ACC_SYNCHRONIZED;
+		}
+		if (method.getModifiers().contains(Modifier.NATIVE)) {
+			access |= ACC_NATIVE;
+		}
+		return access;
+	}
+
+	private static int getModifierAccess(Set<Modifier> modifiers) {
+		int access = 0;
+		if (modifiers.contains(Modifier.PUBLIC)) {
+			access |= ACC_PUBLIC;
+		}
+		if (modifiers.contains(Modifier.PRIVATE)) {
+			access |= ACC_PRIVATE;
+		}
+		if (modifiers.contains(Modifier.PROTECTED)) {
+			access |= ACC_PROTECTED;
+		}
+		if (modifiers.contains(Modifier.STATIC)) {
+			access |= ACC_STATIC;
+		}
+		if (modifiers.contains(Modifier.FINAL)) {
+			access |= ACC_FINAL;
+		}
+		if (modifiers.contains(Modifier.ABSTRACT)) {
+			access |= ACC_ABSTRACT;
+		}
+		return access;
+	}
+
+	private String getMethodDescriptor(TypeElement declaringType, ExecutableElement method) {
+		StringBuilder sb = new StringBuilder("(");
+		if (method.getKind() == ElementKind.CONSTRUCTOR && declaringType.getNestingKind() == NestingKind.MEMBER &&
+				!declaringType.getModifiers().contains(Modifier.STATIC) && declaringType.getKind() == ElementKind.CLASS) {
+			// Implicit outer instance parameter of an inner class constructor
+			sb.append(getDescriptor(declaringType.getEnclosingElement().asType()));
+		}
+		for (VariableElement parameter : method.getParameters()) {
+			sb.append(getDescriptor(parameter.asType()));
+		}
+		sb.append(')');
+		sb.append(method.getKind() == ElementKind.CONSTRUCTOR ? "V" : getDescriptor(method.getReturnType()));
+		return sb.toString();
+	}
+
+	private String getDescriptor(TypeMirror type) {
+		TypeMirror erasure = this.types.erasure(type);
+		switch (erasure.getKind()) {
+			case BOOLEAN: return "Z";
+			case BYTE: return "B";
+			case SHORT: return "S";
+			case INT: return "I";
+			case LONG: return "J";
+			case CHAR: return "C";
+			case FLOAT: return "F";
+			case DOUBLE: return "D";
+			case VOID: return "V";
+			case ARRAY: return "[" + getDescriptor(((ArrayType) erasure).getComponentType());
+			case DECLARED: return "L" + getInternalName(erasure) + ";";
+			default: throw new IllegalArgumentException("Unsupported type: " + type);
+		}
+	}
+
+	private String getInternalName(TypeMirror type) {
+		TypeMirror erasure = this.types.erasure(type);
+		if (erasure.getKind() != TypeKind.DECLARED) {
+			throw new IllegalArgumentException("Unresolvable type: " + type);
+		}
+		return getInternalName((TypeElement) ((DeclaredType) erasure).asElement());
+	}
+
+	private String getInternalName(TypeElement type) {
+		return getBinaryName(type).replace('.', '/');
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+		if (value != null) {
+			writeString(out, value);
+		}
+		else {
+			out.writeInt(-1);
+		}
+	}
+
+}
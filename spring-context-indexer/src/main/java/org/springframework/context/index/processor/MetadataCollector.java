@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,7 +18,9 @@ package org.springframework.context.index.processor;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.processing.ProcessingEnvironment;
@@ -40,6 +42,14 @@ class MetadataCollector {
 
 	private final CandidateComponentsMetadata previousMetadata;
 
+	private final Map<String, String> configurations = new LinkedHashMap<>();
+
+	private final Map<String, String> previousConfigurations;
+
+	private final Map<String, String> parameterNames = new LinkedHashMap<>();
+
+	private final Map<String, String> previousParameterNames;
+
 	private final TypeHelper typeHelper;
 
 	private final Set<String> processedSourceTypes = new HashSet<>();
@@ -49,12 +59,17 @@ class MetadataCollector {
 	 * Create a new {@code MetadataProcessor} instance.
 	 * @param processingEnvironment the processing environment of the build
 	 * @param previousMetadata any previous metadata or {@code null}
+	 * @param previousConfigurations any previous configuration metadata or {@code null}
+	 * @param previousParameterNames any previous parameter names or {@code null}
 	 */
 	public MetadataCollector(ProcessingEnvironment processingEnvironment,
-			CandidateComponentsMetadata previousMetadata) {
+			CandidateComponentsMetadata previousMetadata, Map<String, String> previousConfigurations,
+			Map<String, String> previousParameterNames) {
 
 		this.processingEnvironment = processingEnvironment;
 		this.previousMetadata = previousMetadata;
+		this.previousConfigurations = previousConfigurations;
+		this.previousParameterNames = previousParameterNames;
 		this.typeHelper = new TypeHelper(processingEnvironment);
 	}
 
@@ -75,6 +90,14 @@ class MetadataCollector {
 		this.metadataItems.add(metadata);
 	}
 
+	public void addConfiguration(String type, String encodedMetadata) {
+		this.configurations.put(type, encodedMetadata);
+	}
+
+	public void addParameterNames(Map<String, String> parameterNames) {
+		this.parameterNames.putAll(parameterNames);
+	}
+
 	public CandidateComponentsMetadata getMetadata() {
 		CandidateComponentsMetadata metadata = new CandidateComponentsMetadata();
 		for (ItemMetadata item : this.metadataItems) {
@@ -91,6 +114,48 @@ class MetadataCollector {
 		return metadata;
 	}
 
+	/**
+	 * Return the encoded configuration metadata per type, merged with
+	 * still valid entries from a previous (incremental) build.
+	 * @since 5.1.12
+	 */
+	public Map<String, String> getConfigurations() {
+		Map<String, String> configurations = new LinkedHashMap<>(this.configurations);
+		if (this.previousConfigurations != null) {
+			this.previousConfigurations.forEach((type, encodedMetadata) -> {
+				if (shouldConfigurationBeMerged(type)) {
+					configurations.putIfAbsent(type, encodedMetadata);
+				}
+			});
+		}
+		return configurations;
+	}
+
+	/**
+	 * Return the parameter names per method or constructor key, merged with
+	 * still valid entries from a previous (incremental) build.
+	 * @since 5.1.12
+	 */
+	public Map<String, String> getParameterNames() {
+		Map<String, String> parameterNames = new LinkedHashMap<>(this.parameterNames);
+		if (this.previousParameterNames != null) {
+			this.previousParameterNames.forEach((key, names) -> {
+				if (shouldConfigurationBeMerged(key.substring(0, key.indexOf('#')))) {
+					parameterNames.putIfAbsent(key, names);
+				}
+			});
+		}
+		return parameterNames;
+	}
+
+	private boolean shouldConfigurationBeMerged(String binaryName) {
+		// Nested types are re-encoded along with their top-level type
+		int nestedIndex = binaryName.indexOf('$');
+		String topLevelType = (nestedIndex != -1 ? binaryName.substring(0, nestedIndex) : binaryName);
+		return (!deletedInCurrentBuild(binaryName.replace('$', '.')) &&
+				!processedInCurrentBuild(topLevelType));
+	}
+
 	private boolean shouldBeMerged(ItemMetadata itemMetadata) {
 		String sourceType = itemMetadata.getType();
 		return (sourceType != null && !deletedInCurrentBuild(sourceType)
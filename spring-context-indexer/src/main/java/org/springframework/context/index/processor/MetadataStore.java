@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,9 @@ package org.springframework.context.index.processor;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.tools.FileObject;
@@ -34,6 +37,10 @@ class MetadataStore {
 
 	static final String METADATA_PATH = "META-INF/spring.components";
 
+	static final String CONFIGURATIONS_PATH = "META-INF/spring.configurations";
+
+	static final String PARAMETER_NAMES_PATH = "META-INF/spring.parameter-names";
+
 	private final ProcessingEnvironment environment;
 
 
@@ -60,6 +67,46 @@ class MetadataStore {
 		}
 	}
 
+	public Map<String, String> readConfigurations() {
+		return readProperties(CONFIGURATIONS_PATH);
+	}
+
+	public void writeConfigurations(Map<String, String> configurations) throws IOException {
+		writeProperties(CONFIGURATIONS_PATH, configurations);
+	}
+
+	public Map<String, String> readParameterNames() {
+		return readProperties(PARAMETER_NAMES_PATH);
+	}
+
+	public void writeParameterNames(Map<String, String> parameterNames) throws IOException {
+		writeProperties(PARAMETER_NAMES_PATH, parameterNames);
+	}
+
+
+	private Map<String, String> readProperties(String path) {
+		try (InputStream in = getResource(path).openInputStream()) {
+			Properties props = new Properties();
+			props.load(in);
+			Map<String, String> entries = new LinkedHashMap<>();
+			props.forEach((key, value) -> entries.put((String) key, (String) value));
+			return entries;
+		}
+		catch (IOException ex) {
+			// Failed to read previous entries -> ignore.
+			return null;
+		}
+	}
+
+	private void writeProperties(String path, Map<String, String> entries) throws IOException {
+		if (!entries.isEmpty()) {
+			try (OutputStream outputStream = createResource(path).openOutputStream()) {
+				Properties props = new Properties();
+				props.putAll(entries);
+				props.store(outputStream, "");
+			}
+		}
+	}
 
 	private CandidateComponentsMetadata readMetadata(InputStream in) throws IOException {
 		try {
@@ -71,11 +118,19 @@ class MetadataStore {
 	}
 
 	private FileObject getMetadataResource() throws IOException {
-		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+		return getResource(METADATA_PATH);
 	}
 
 	private FileObject createMetadataResource() throws IOException {
-		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+		return createResource(METADATA_PATH);
+	}
+
+	private FileObject getResource(String path) throws IOException {
+		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
+	}
+
+	private FileObject createResource(String path) throws IOException {
+		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
 	}
 
 }
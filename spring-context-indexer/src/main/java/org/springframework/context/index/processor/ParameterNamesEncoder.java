@@ -0,0 +1,133 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Encode the parameter names of the methods and constructors declared by a type,
+ * keyed the way {@code IndexedParameterNameDiscoverer} in {@code spring-core}
+ * looks them up: {@code com.example.MyType#myMethod(java.lang.String,int[])},
+ * with "&lt;init&gt;" as method name for constructors.
+ *
+ * <p>Like the rest of the index, parameter names are only encoded for top-level
+ * and static nested types. Constructors of non-static inner classes would be
+ * skipped since their runtime signature has an implicit outer instance parameter.
+ *
+ * @since 5.1.12
+ */
+class ParameterNamesEncoder {
+
+	private static final String CONSTRUCTOR_NAME = "<init>";
+
+	private final Elements elements;
+
+	private final Types types;
+
+
+	public ParameterNamesEncoder(ProcessingEnvironment env) {
+		this.elements = env.getElementUtils();
+		this.types = env.getTypeUtils();
+	}
+
+
+	/**
+	 * Encode the parameter names of all methods and constructors with
+	 * parameters that are declared by the given type.
+	 * @param type the type to introspect
+	 * @return the comma-separated parameter names per key (possibly empty)
+	 */
+	public Map<String, String> encode(TypeElement type) {
+		Map<String, String> parameterNames = new LinkedHashMap<>();
+		String typeName = this.elements.getBinaryName(type).toString();
+		for (Element member : type.getEnclosedElements()) {
+			if (member.getKind() == ElementKind.METHOD ||
+					(member.getKind() == ElementKind.CONSTRUCTOR && !hasImplicitConstructorParameters(type))) {
+				ExecutableElement executable = (ExecutableElement) member;
+				List<? extends VariableElement> parameters = executable.getParameters();
+				if (parameters.isEmpty()) {
+					continue;
+				}
+				String name = (member.getKind() == ElementKind.CONSTRUCTOR ?
+						CONSTRUCTOR_NAME : executable.getSimpleName().toString());
+				StringBuilder key = new StringBuilder(typeName).append('#').append(name).append('(');
+				StringBuilder value = new StringBuilder();
+				try {
+					for (int i = 0; i < parameters.size(); i++) {
+						if (i > 0) {
+							key.append(',');
+							value.append(',');
+						}
+						key.append(getTypeName(this.types.erasure(parameters.get(i).asType())));
+						value.append(parameters.get(i).getSimpleName());
+					}
+				}
+				catch (IllegalArgumentException ex) {
+					// Unresolvable parameter type -> not indexed
+					continue;
+				}
+				parameterNames.put(key.append(')').toString(), value.toString());
+			}
+		}
+		return parameterNames;
+	}
+
+	/**
+	 * Determine whether the runtime constructors of the given type declare
+	 * parameters that are not present in the source, i.e. for inner classes.
+	 */
+	private boolean hasImplicitConstructorParameters(TypeElement type) {
+		return (type.getNestingKind() != NestingKind.TOP_LEVEL &&
+				!type.getModifiers().contains(Modifier.STATIC));
+	}
+
+	/**
+	 * Return the name of the given erased type as returned by
+	 * {@link Class#getTypeName()} at runtime.
+	 */
+	private String getTypeName(TypeMirror type) {
+		if (type.getKind() == TypeKind.ARRAY) {
+			return getTypeName(((ArrayType) type).getComponentType()) + "[]";
+		}
+		if (type.getKind() == TypeKind.DECLARED) {
+			return this.elements.getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+		}
+		if (type.getKind().isPrimitive()) {
+			return type.getKind().name().toLowerCase(Locale.ENGLISH);
+		}
+		throw new IllegalArgumentException("Unresolvable parameter type: " + type);
+	}
+
+}
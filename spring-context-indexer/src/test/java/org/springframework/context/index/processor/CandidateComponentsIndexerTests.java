@@ -19,6 +19,12 @@ package org.springframework.context.index.processor;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
 import javax.annotation.ManagedBean;
 import javax.inject.Named;
@@ -34,6 +40,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.index.sample.AbstractController;
 import org.springframework.context.index.sample.MetaControllerIndexed;
 import org.springframework.context.index.sample.SampleComponent;
@@ -46,6 +53,7 @@ import org.springframework.context.index.sample.SampleNone;
 import org.springframework.context.index.sample.SampleRepository;
 import org.springframework.context.index.sample.SampleService;
 import org.springframework.context.index.sample.cdi.SampleManagedBean;
+import org.springframework.context.index.sample.config.SampleConfiguration;
 import org.springframework.context.index.sample.cdi.SampleNamed;
 import org.springframework.context.index.sample.cdi.SampleTransactional;
 import org.springframework.context.index.sample.jpa.SampleConverter;
@@ -59,6 +67,15 @@ import org.springframework.context.index.sample.type.SampleSpecializedRepo;
 import org.springframework.context.index.sample.type.SmartRepo;
 import org.springframework.context.index.sample.type.SpecializedRepo;
 import org.springframework.context.index.test.TestCompiler;
+import org.springframework.core.IndexedParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ClassUtils;
 
@@ -230,6 +247,70 @@ public class CandidateComponentsIndexerTests {
 		assertThat(metadata.getItems(), hasSize(0));
 	}
 
+	@Test
+	public void configurationMetadata() throws IOException {
+		Properties configurations = compileConfigurations(SampleConfiguration.class);
+		assertThat(configurations.stringPropertyNames(), hasItems(SampleConfiguration.class.getName(),
+				SampleConfiguration.NestedConfiguration.class.getName()));
+
+		CachingMetadataReaderFactory indexedFactory = new CachingMetadataReaderFactory(new UnreadableResourceLoader());
+		indexedFactory.setPrecomputedMetadata(configurations::getProperty);
+		SimpleMetadataReaderFactory parsingFactory = new SimpleMetadataReaderFactory();
+		for (Class<?> type : new Class<?>[] {SampleConfiguration.class, SampleConfiguration.NestedConfiguration.class}) {
+			assertSameMetadata(parsingFactory.getMetadataReader(type.getName()).getAnnotationMetadata(),
+					indexedFactory.getMetadataReader(type.getName()).getAnnotationMetadata());
+		}
+	}
+
+	@Test
+	public void configurationMetadataForOtherOrMissingClassIgnored() throws IOException {
+		Properties configurations = compileConfigurations(SampleConfiguration.class);
+		String encodedMetadata = configurations.getProperty(SampleConfiguration.class.getName());
+		Properties staleConfigurations = new Properties();
+		staleConfigurations.setProperty(SampleConfiguration.NestedConfiguration.class.getName(), encodedMetadata);
+		staleConfigurations.setProperty("org.springframework.context.index.sample.Removed", encodedMetadata);
+
+		CachingMetadataReaderFactory indexedFactory = new CachingMetadataReaderFactory(new UnreadableResourceLoader());
+		indexedFactory.setPrecomputedMetadata(staleConfigurations::getProperty);
+		for (String className : staleConfigurations.stringPropertyNames()) {
+			try {
+				indexedFactory.getMetadataReader(className);
+				fail("Should have attempted to parse class file for " + className);
+			}
+			catch (IOException ex) {
+				assertThat(ex.getMessage(), startsWith("Unexpected parsing"));
+			}
+		}
+	}
+
+	@Test
+	public void configurationMetadataWithoutAnnotations() throws IOException {
+		Properties configurations = compileConfigurations(SampleEmbedded.class);
+		assertThat(configurations.stringPropertyNames(), hasItems(
+				SampleEmbedded.PublicCandidate.class.getName(),
+				SampleEmbedded.Another.AnotherPublicCandidate.class.getName()));
+		assertThat(configurations.getProperty(SampleEmbedded.class.getName()), nullValue());
+		assertThat(configurations.getProperty(SampleEmbedded.Another.class.getName()), nullValue());
+	}
+
+	@Test
+	public void parameterNames() throws Exception {
+		Properties parameterNames = compileProperties(MetadataStore.PARAMETER_NAMES_PATH, SampleConfiguration.class);
+		assertThat(parameterNames.getProperty(SampleConfiguration.class.getName() + "#sampleArray(int[],char)"),
+				is("values,separator"));
+		assertThat(parameterNames.size(), is(1));
+
+		ParameterNameDiscoverer discoverer = new IndexedParameterNameDiscoverer(parameterNames::getProperty);
+		assertThat(discoverer.getParameterNames(SampleConfiguration.class.getDeclaredMethod(
+				"sampleArray", int[].class, char.class)), is(new String[] {"values", "separator"}));
+	}
+
+	@Test
+	public void noParameterNamesWithoutParameters() throws IOException {
+		Properties parameterNames = compileProperties(MetadataStore.PARAMETER_NAMES_PATH, SampleNone.class);
+		assertThat(parameterNames.isEmpty(), is(true));
+	}
+
 	private void testComponent(Class<?>... classes) {
 		CandidateComponentsMetadata metadata = compile(classes);
 		for (Class<?> c : classes) {
@@ -256,6 +337,70 @@ public class CandidateComponentsIndexerTests {
 		return readGeneratedMetadata(this.compiler.getOutputLocation());
 	}
 
+	private Properties compileConfigurations(Class<?>... types) throws IOException {
+		return compileProperties(MetadataStore.CONFIGURATIONS_PATH, types);
+	}
+
+	private Properties compileProperties(String path, Class<?>... types) throws IOException {
+		CandidateComponentsIndexer processor = new CandidateComponentsIndexer();
+		this.compiler.getTask(types).call(processor);
+		Properties properties = new Properties();
+		File propertiesFile = new File(this.compiler.getOutputLocation(), path);
+		if (propertiesFile.isFile()) {
+			try (InputStream in = new FileInputStream(propertiesFile)) {
+				properties.load(in);
+			}
+		}
+		return properties;
+	}
+
+	private static void assertSameMetadata(AnnotationMetadata expected, AnnotationMetadata actual) {
+		assertThat(actual.getClassName(), is(expected.getClassName()));
+		assertThat(actual.getSuperClassName(), is(expected.getSuperClassName()));
+		assertThat(actual.getInterfaceNames(), is(expected.getInterfaceNames()));
+		assertThat(actual.getMemberClassNames(), is(expected.getMemberClassNames()));
+		assertThat(actual.getEnclosingClassName(), is(expected.getEnclosingClassName()));
+		assertThat(actual.isIndependent(), is(expected.isIndependent()));
+		assertThat(actual.isConcrete(), is(expected.isConcrete()));
+		assertThat(actual.getAnnotationTypes(), is(expected.getAnnotationTypes()));
+		for (String annotationType : expected.getAnnotationTypes()) {
+			assertThat(actual.getMetaAnnotationTypes(annotationType), is(expected.getMetaAnnotationTypes(annotationType)));
+			assertSameValue(annotationType, expected.getAnnotationAttributes(annotationType, true),
+					actual.getAnnotationAttributes(annotationType, true));
+		}
+		Set<MethodMetadata> expectedMethods = expected.getAnnotatedMethods(Bean.class.getName());
+		Set<MethodMetadata> actualMethods = actual.getAnnotatedMethods(Bean.class.getName());
+		assertThat(actualMethods, hasSize(expectedMethods.size()));
+		Iterator<MethodMetadata> it = actualMethods.iterator();
+		for (MethodMetadata expectedMethod : expectedMethods) {
+			MethodMetadata actualMethod = it.next();
+			assertThat(actualMethod.getMethodName(), is(expectedMethod.getMethodName()));
+			assertThat(actualMethod.getReturnTypeName(), is(expectedMethod.getReturnTypeName()));
+			assertThat(actualMethod.isStatic(), is(expectedMethod.isStatic()));
+			assertThat(actualMethod.isOverridable(), is(expectedMethod.isOverridable()));
+			assertSameValue(expectedMethod.getMethodName(), expectedMethod.getAnnotationAttributes(Bean.class.getName(), true),
+					actualMethod.getAnnotationAttributes(Bean.class.getName(), true));
+		}
+	}
+
+	private static void assertSameValue(String name, Object expected, Object actual) {
+		if (expected instanceof Map) {
+			Map<?, ?> expectedMap = (Map<?, ?>) expected;
+			Map<?, ?> actualMap = (Map<?, ?>) actual;
+			assertThat(name, actualMap.keySet(), is(expectedMap.keySet()));
+			expectedMap.forEach((key, value) -> assertSameValue(name + "." + key, value, actualMap.get(key)));
+		}
+		else if (expected != null && expected.getClass().isArray()) {
+			assertThat(name, Array.getLength(actual), is(Array.getLength(expected)));
+			for (int i = 0; i < Array.getLength(expected); i++) {
+				assertSameValue(name + "[" + i + "]", Array.get(expected, i), Array.get(actual, i));
+			}
+		}
+		else {
+			assertThat(name, actual, is(expected));
+		}
+	}
+
 	private CandidateComponentsMetadata readGeneratedMetadata(File outputLocation) {
 		try {
 			File metadataFile = new File(outputLocation,
@@ -272,4 +417,23 @@ public class CandidateComponentsIndexerTests {
 		}
 	}
 
+
+
+	/**
+	 * ResourceLoader for class files that must not be read.
+	 */
+	private static class UnreadableResourceLoader extends DefaultResourceLoader {
+
+		@Override
+		public Resource getResource(String location) {
+			String path = location.substring(CLASSPATH_URL_PREFIX.length());
+			return new ClassPathResource(path, getClassLoader()) {
+				@Override
+				public InputStream getInputStream() throws IOException {
+					throw new IOException("Unexpected parsing of " + path);
+				}
+			};
+		}
+	}
+
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.sample.config;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+import org.springframework.context.index.sample.SampleComponent;
+import org.springframework.context.index.sample.SampleNone;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Test configuration class with bean methods, imports and conditions.
+ */
+@Configuration
+@Import({SampleNone.class, SampleConfiguration.NestedConfiguration.class})
+@ComponentScan(basePackageClasses = SampleComponent.class, lazyInit = true,
+		includeFilters = @ComponentScan.Filter(classes = SampleNone.class))
+@Profile({"dev", "test"})
+@Order(5)
+public class SampleConfiguration implements Callable<String> {
+
+	@Bean(name = {"sample", "alias"}, initMethod = "init")
+	@Lazy
+	public SampleComponent sampleComponent() {
+		return new SampleComponent();
+	}
+
+	@Bean
+	@Scope(scopeName = "prototype", proxyMode = ScopedProxyMode.TARGET_CLASS)
+	static List<String>[] sampleArray(int[] values, char separator) {
+		return null;
+	}
+
+	@Override
+	public String call() {
+		return "";
+	}
+
+
+	@Configuration
+	public static class NestedConfiguration {
+
+		@Bean
+		public int nestedValue() {
+			return 0;
+		}
+	}
+
+
+	public static class PlainNested {
+	}
+
+}
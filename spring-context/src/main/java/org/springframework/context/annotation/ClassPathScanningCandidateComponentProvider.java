@@ -51,6 +51,9 @@ import org.springframework.util.ClassUtils;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * A component provider that provides candidate components from a base package. Can
@@ -104,6 +107,8 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	private int scanParallelism = PathMatchingResourcePatternResolver.getDefaultScanParallelism();
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -260,8 +265,12 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Override
 	public void setResourceLoader(@Nullable ResourceLoader resourceLoader) {
 		this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
-		this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+		CachingMetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
 		this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(this.resourcePatternResolver.getClassLoader());
+		if (this.componentsIndex != null && this.componentsIndex.hasConfigurationMetadata()) {
+			metadataReaderFactory.setPrecomputedMetadata(this.componentsIndex::getConfigurationMetadata);
+		}
+		this.metadataReaderFactory = metadataReaderFactory;
 	}
 
 	/**
@@ -273,7 +282,9 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	private ResourcePatternResolver getResourcePatternResolver() {
 		if (this.resourcePatternResolver == null) {
-			this.resourcePatternResolver = new PathMatchingResourcePatternResolver();
+			PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+			resolver.setScanParallelism(this.scanParallelism);
+			this.resourcePatternResolver = resolver;
 		}
 		return this.resourcePatternResolver;
 	}
@@ -299,6 +310,33 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return this.metadataReaderFactory;
 	}
 
+	/**
+	 * Set the number of threads to use for reading the metadata of scanned
+	 * class files in parallel.
+	 * <p>Default is 1, reading one class file after the other, unless specified
+	 * otherwise through the {@link PathMatchingResourcePatternResolver#SCAN_PARALLELISM_PROPERTY_NAME}
+	 * system property. A pool with the given number of threads is used per base
+	 * package and shut down afterwards; candidate components are determined in
+	 * the same order as with sequential scanning. The configured
+	 * {@link MetadataReaderFactory} needs to be thread-safe in that case.
+	 * <p>Parallel scanning of root directories and jar files is a matter of the
+	 * {@link PathMatchingResourcePatternResolver#setScanParallelism resource pattern resolver};
+	 * this setting is only applied to the resolver if the component provider creates it itself.
+	 * @since 5.1.12
+	 */
+	public void setScanParallelism(int scanParallelism) {
+		Assert.isTrue(scanParallelism > 0, "Scan parallelism must be at least 1");
+		this.scanParallelism = scanParallelism;
+	}
+
+	/**
+	 * Return the number of threads to use for reading class file metadata in parallel.
+	 * @since 5.1.12
+	 */
+	public int getScanParallelism() {
+		return this.scanParallelism;
+	}
+
 
 	/**
 	 * 扫描包下的需要解析的类
@@ -433,7 +471,9 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			/** 是否开启日志记录 */
 			boolean traceEnabled = logger.isTraceEnabled();
 			boolean debugEnabled = logger.isDebugEnabled();
-			for (Resource resource : resources) {
+			MetadataReader[] prefetchedReaders = readMetadataInParallel(resources);
+			for (int i = 0; i < resources.length; i++) {
+				Resource resource = resources[i];
 				if (traceEnabled) {
 					logger.trace("Scanning " + resource);
 				}
@@ -441,7 +481,8 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 				if (resource.isReadable()) {
 					try {
 						/** 将.class文件转为一个类元信息 */
-						MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+						MetadataReader metadataReader = (prefetchedReaders[i] != null ? prefetchedReaders[i] :
+								getMetadataReaderFactory().getMetadataReader(resource));
 
 						/** 验证当前类是否需要跳过解析 */
 						if (isCandidateComponent(metadataReader)) {
@@ -487,6 +528,55 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	}
 
 
+	/**
+	 * Read the metadata for the given resources on a pool of {@link #setScanParallelism}
+	 * threads, if scan parallelism is enabled.
+	 * @return the MetadataReader per resource (in resource order), with {@code null}
+	 * for resources to be read in the regular way (e.g. for reporting a read failure)
+	 */
+	private MetadataReader[] readMetadataInParallel(Resource[] resources) {
+		MetadataReader[] metadataReaders = new MetadataReader[resources.length];
+		if (this.scanParallelism <= 1 || resources.length < 2) {
+			return metadataReaders;
+		}
+		MetadataReaderFactory metadataReaderFactory = getMetadataReaderFactory();
+		ForkJoinPool pool = new ForkJoinPool(Math.min(this.scanParallelism, resources.length));
+		try {
+			List<Future<?>> futures = new ArrayList<>(resources.length);
+			for (int i = 0; i < resources.length; i++) {
+				int index = i;
+				futures.add(pool.submit(() -> {
+					Resource resource = resources[index];
+					try {
+						if (resource.isReadable()) {
+							metadataReaders[index] = metadataReaderFactory.getMetadataReader(resource);
+						}
+					}
+					catch (Throwable ex) {
+						// Leave it to the sequential pass to read the resource again and report the failure
+						if (logger.isTraceEnabled()) {
+							logger.trace("Failed to read metadata for " + resource + " in parallel", ex);
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException("Unexpected failure during parallel classpath scanning", ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new BeanDefinitionStoreException("Interrupted during parallel classpath scanning", ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+		return metadataReaders;
+	}
+
 	/**
 	 * Resolve the specified base package into a pattern specification for
 	 * the package search path.
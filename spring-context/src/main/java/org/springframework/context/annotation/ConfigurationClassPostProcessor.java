@@ -30,11 +30,13 @@ import org.springframework.beans.factory.parsing.ProblemReporter;
 import org.springframework.beans.factory.parsing.SourceExtractor;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionSnapshot;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
+import org.springframework.core.Conventions;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.env.Environment;
@@ -48,6 +50,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 
+import java.io.IOException;
 import java.util.*;
 
 import static org.springframework.context.annotation.AnnotationConfigUtils.CONFIGURATION_BEAN_NAME_GENERATOR;
@@ -76,6 +79,9 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	private static final String IMPORT_REGISTRY_BEAN_NAME =
 			ConfigurationClassPostProcessor.class.getName() + ".importRegistry";
 
+	private static final String IMPORTING_CLASS_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(ConfigurationClassPostProcessor.class, "importingClass");
+
 
 	private final Log logger = LogFactory.getLog(getClass());
 
@@ -188,7 +194,8 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		Assert.notNull(resourceLoader, "ResourceLoader must not be null");
 		this.resourceLoader = resourceLoader;
 		if (!this.setMetadataReaderFactoryCalled) {
-			this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+			this.metadataReaderFactory = ConfigurationClassUtils.applyPrecomputedMetadata(
+					new CachingMetadataReaderFactory(resourceLoader), resourceLoader.getClassLoader());
 		}
 	}
 
@@ -196,7 +203,8 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	public void setBeanClassLoader(ClassLoader beanClassLoader) {
 		this.beanClassLoader = beanClassLoader;
 		if (!this.setMetadataReaderFactoryCalled) {
-			this.metadataReaderFactory = new CachingMetadataReaderFactory(beanClassLoader);
+			this.metadataReaderFactory = ConfigurationClassUtils.applyPrecomputedMetadata(
+					new CachingMetadataReaderFactory(beanClassLoader), beanClassLoader);
 		}
 	}
 
@@ -272,6 +280,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	 */
 	public void processConfigBeanDefinitions(BeanDefinitionRegistry registry) {
 		List<BeanDefinitionHolder> configCandidates = new ArrayList<>();
+		boolean restored = false;
 
 		/** 获取所有BeanDefinition的名字，这里面有之前注册配置类 后面主要就是解析这个配置类*/
 		String[] candidateNames = registry.getBeanDefinitionNames();
@@ -279,6 +288,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		/** 根据beanName从工厂里面取出对应的BeanDefinition */
 		for (String beanName : candidateNames) {
 			BeanDefinition beanDef = registry.getBeanDefinition(beanName);
+			restored |= beanDef.hasAttribute(BeanDefinitionSnapshot.RESTORED_ATTRIBUTE);
 
 			/**
 			 * 如果BeanDefinition被加了full或lite则表示被处理过
@@ -291,6 +301,13 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 					logger.debug("Bean definition has already been processed as a configuration class: " + beanDef);
 				}
 			}
+			else if (beanDef.hasAttribute(BeanDefinitionSnapshot.RESTORED_ATTRIBUTE)) {
+				// Restored from a snapshot taken after configuration class processing:
+				// no need to introspect the class again.
+				if (logger.isTraceEnabled()) {
+					logger.trace("Bean definition has been restored from a snapshot: " + beanDef);
+				}
+			}
 
 			/**
 			 * 检查当前Class是否加了@Configuration
@@ -305,6 +322,13 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 
 		// Return immediately if no @Configuration classes were found
 		if (configCandidates.isEmpty()) {
+			// Restored from a snapshot: ImportAware beans obtain their import
+			// metadata from the importing classes recorded in the snapshot.
+			if (restored && registry instanceof SingletonBeanRegistry &&
+					!((SingletonBeanRegistry) registry).containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
+				((SingletonBeanRegistry) registry).registerSingleton(IMPORT_REGISTRY_BEAN_NAME,
+						new RestoredImportRegistry(registry, null, this.metadataReaderFactory));
+			}
 			return;
 		}
 
@@ -437,6 +461,18 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 		while (!candidates.isEmpty());
 
+		// Record the importing class of each imported configuration class, so that
+		// it remains available to ImportAware beans after a snapshot restore.
+		ImportRegistry importRegistry = parser.getImportRegistry();
+		for (ConfigurationClass configClass : alreadyParsed) {
+			String beanName = configClass.getBeanName();
+			AnnotationMetadata importingClass =
+					importRegistry.getImportingClassFor(configClass.getMetadata().getClassName());
+			if (beanName != null && importingClass != null && registry.containsBeanDefinition(beanName)) {
+				registry.getBeanDefinition(beanName).setAttribute(IMPORTING_CLASS_ATTRIBUTE, importingClass.getClassName());
+			}
+		}
+
 		/**
 		 * 手动注册一个单例对象
 		 * {@link #org.springframework.context.annotation.ConfigurationClassPostProcessor.importRegistry}
@@ -444,7 +480,8 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		 */
 		// Register the ImportRegistry as a bean in order to support ImportAware @Configuration classes
 		if (sbr != null && !sbr.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
-			sbr.registerSingleton(IMPORT_REGISTRY_BEAN_NAME, parser.getImportRegistry());
+			sbr.registerSingleton(IMPORT_REGISTRY_BEAN_NAME, (restored ?
+					new RestoredImportRegistry(registry, importRegistry, this.metadataReaderFactory) : importRegistry));
 		}
 		// 清除缓存
 		if (this.metadataReaderFactory instanceof CachingMetadataReaderFactory) {
@@ -551,6 +588,67 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	}
 
 
+	/**
+	 * {@link ImportRegistry} for a bean definition registry restored from a snapshot,
+	 * serving the importing classes recorded on restored configuration classes in
+	 * addition to the imports of any configuration classes parsed after the restore.
+	 */
+	private static class RestoredImportRegistry implements ImportRegistry {
+
+		private final Map<String, String> importingClassNames = new HashMap<>();
+
+		@Nullable
+		private final ImportRegistry parsedImports;
+
+		private final MetadataReaderFactory metadataReaderFactory;
+
+		public RestoredImportRegistry(BeanDefinitionRegistry registry, @Nullable ImportRegistry parsedImports,
+				MetadataReaderFactory metadataReaderFactory) {
+
+			for (String beanName : registry.getBeanDefinitionNames()) {
+				BeanDefinition bd = registry.getBeanDefinition(beanName);
+				Object importingClassName = bd.getAttribute(IMPORTING_CLASS_ATTRIBUTE);
+				if (importingClassName instanceof String && bd.getBeanClassName() != null &&
+						bd.hasAttribute(BeanDefinitionSnapshot.RESTORED_ATTRIBUTE)) {
+					this.importingClassNames.put(bd.getBeanClassName(), (String) importingClassName);
+				}
+			}
+			this.parsedImports = parsedImports;
+			this.metadataReaderFactory = metadataReaderFactory;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationMetadata getImportingClassFor(String importedClass) {
+			if (this.parsedImports != null) {
+				AnnotationMetadata importingClass = this.parsedImports.getImportingClassFor(importedClass);
+				if (importingClass != null) {
+					return importingClass;
+				}
+			}
+			String importingClassName = this.importingClassNames.get(importedClass);
+			if (importingClassName == null) {
+				return null;
+			}
+			try {
+				return this.metadataReaderFactory.getMetadataReader(importingClassName).getAnnotationMetadata();
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(
+						"Failed to read import metadata of class [" + importingClassName + "]", ex);
+			}
+		}
+
+		@Override
+		public void removeImportingClass(String importingClass) {
+			if (this.parsedImports != null) {
+				this.parsedImports.removeImportingClass(importingClass);
+			}
+			this.importingClassNames.values().removeIf(importingClass::equals);
+		}
+	}
+
+
 	private static class ImportAwareBeanPostProcessor extends InstantiationAwareBeanPostProcessorAdapter {
 
 		private final BeanFactory beanFactory;
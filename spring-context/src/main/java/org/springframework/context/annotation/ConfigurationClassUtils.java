@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,12 +21,15 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.context.index.CandidateComponentsIndex;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
 import org.springframework.core.Conventions;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.StandardAnnotationMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.lang.Nullable;
@@ -242,4 +245,23 @@ abstract class ConfigurationClassUtils {
 		return (order != null ? order : Ordered.LOWEST_PRECEDENCE);
 	}
 
+	/**
+	 * Let the given MetadataReaderFactory use the class metadata precomputed
+	 * by the candidate components indexer, if available for the given ClassLoader.
+	 * @param metadataReaderFactory the factory to configure
+	 * @param classLoader the ClassLoader to load the index with
+	 * @return the given factory
+	 * @since 5.1.12
+	 * @see CandidateComponentsIndexLoader#CONFIGURATIONS_RESOURCE_LOCATION
+	 */
+	public static CachingMetadataReaderFactory applyPrecomputedMetadata(
+			CachingMetadataReaderFactory metadataReaderFactory, @Nullable ClassLoader classLoader) {
+
+		CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(classLoader);
+		if (index != null && index.hasConfigurationMetadata()) {
+			metadataReaderFactory.setPrecomputedMetadata(index::getConfigurationMetadata);
+		}
+		return metadataReaderFactory;
+	}
+
 }
@@ -39,6 +39,7 @@ import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.Order;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.MethodHandleInvoker;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
@@ -258,7 +259,8 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		Object bean = getTargetBean();
 		ReflectionUtils.makeAccessible(this.method);
 		try {
-			return this.method.invoke(bean, args);
+			return (MethodHandleInvoker.isEnabled() ?
+					MethodHandleInvoker.forMethod(this.method).invoke(bean, args) : this.method.invoke(bean, args));
 		}
 		catch (IllegalArgumentException ex) {
 			assertTargetBean(this.method, bean, args);
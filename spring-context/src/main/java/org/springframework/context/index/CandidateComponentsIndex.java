@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,11 +17,14 @@
 package org.springframework.context.index;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.lang.Nullable;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
@@ -43,6 +46,10 @@ import org.springframework.util.MultiValueMap;
  * not a rule. Similarly, the {@code stereotype} is usually the fully qualified name of
  * a target type but it can be any marker really.
  *
+ * <p>As of 5.1.12, the index may also provide class metadata precomputed at
+ * build time, as defined in {@code META-INF/spring.configurations}: see
+ * {@link #getConfigurationMetadata(String)}.
+ *
  * @author Stephane Nicoll
  * @since 5.0
  */
@@ -52,9 +59,16 @@ public class CandidateComponentsIndex {
 
 	private final MultiValueMap<String, Entry> index;
 
+	private final Map<String, String> configurationMetadata;
+
 
 	CandidateComponentsIndex(List<Properties> content) {
+		this(content, Collections.emptyList());
+	}
+
+	CandidateComponentsIndex(List<Properties> content, List<Properties> configurations) {
 		this.index = parseIndex(content);
+		this.configurationMetadata = parseConfigurations(configurations);
 	}
 
 
@@ -76,6 +90,29 @@ public class CandidateComponentsIndex {
 		return Collections.emptySet();
 	}
 
+	/**
+	 * Return whether this index provides any precomputed class metadata.
+	 * @since 5.1.12
+	 * @see #getConfigurationMetadata(String)
+	 */
+	public boolean hasConfigurationMetadata() {
+		return !this.configurationMetadata.isEmpty();
+	}
+
+	/**
+	 * Return the precomputed class metadata for the specified type, if any.
+	 * <p>The returned value is an opaque encoding of the class metadata, to be
+	 * passed on to a {@link org.springframework.core.type.classreading.CachingMetadataReaderFactory}.
+	 * @param type the fully qualified class name
+	 * @return the encoded metadata, or {@code null} if none is available
+	 * @since 5.1.12
+	 * @see org.springframework.core.type.classreading.CachingMetadataReaderFactory#setPrecomputedMetadata
+	 */
+	@Nullable
+	public String getConfigurationMetadata(String type) {
+		return this.configurationMetadata.get(type);
+	}
+
 	private static MultiValueMap<String, Entry> parseIndex(List<Properties> content) {
 		MultiValueMap<String, Entry> index = new LinkedMultiValueMap<>();
 		for (Properties entry : content) {
@@ -89,6 +126,15 @@ public class CandidateComponentsIndex {
 		return index;
 	}
 
+	private static Map<String, String> parseConfigurations(List<Properties> content) {
+		Map<String, String> configurations = new HashMap<>();
+		for (Properties entry : content) {
+			// First entry wins, in line with class path order
+			entry.forEach((type, value) -> configurations.putIfAbsent((String) type, (String) value));
+		}
+		return configurations;
+	}
+
 	private static class Entry {
 		private final String type;
 		private final String packageName;
@@ -837,7 +837,8 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		 *
 		 * {@link PostProcessorRegistrationDelegate#invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory, List)}
 		 */
-		PostProcessorRegistrationDelegate.invokeBeanFactoryPostProcessors(beanFactory, getBeanFactoryPostProcessors());
+		PostProcessorRegistrationDelegate.invokeBeanFactoryPostProcessors(
+				beanFactory, getBeanFactoryPostProcessors(), getBeanDefinitionSnapshotHandler());
 
 		// Detect a LoadTimeWeaver and prepare for weaving, if found in the meantime
 		// (e.g. through an @Bean method registered by ConfigurationClassPostProcessor)
@@ -847,6 +848,15 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		}
 	}
 
+	/**
+	 * Return the handler for restoring and capturing a bean definition snapshot
+	 * around registry post-processing, if supported by this context.
+	 */
+	@Nullable
+	BeanDefinitionSnapshotHandler getBeanDefinitionSnapshotHandler() {
+		return null;
+	}
+
 	/**
 	 * Instantiate and register all BeanPostProcessor beans,
 	 * respecting explicit order if given.
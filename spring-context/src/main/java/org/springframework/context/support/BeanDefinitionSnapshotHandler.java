@@ -0,0 +1,317 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.BeanDefinitionSnapshot;
+import org.springframework.context.annotation.ConfigurationClassPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Restores and captures a {@link BeanDefinitionSnapshot} file around the
+ * {@code BeanDefinitionRegistryPostProcessor} phase of an application context.
+ *
+ * <p>A snapshot only stands in for {@link ConfigurationClassPostProcessor}:
+ * other registry post-processors are invoked on every startup, and the bean
+ * definitions they register are not written to the snapshot.
+ *
+ * <p>The snapshot fingerprint combines the given fingerprint (or the classpath
+ * fingerprint) with the active and default profiles, the bean definitions
+ * registered before refresh, and the values of all Environment properties
+ * that have been consulted during registry post-processing. The names of
+ * those properties are stored in the snapshot file for the next startup.
+ *
+ * <p>Failures are logged rather than propagated: an unreadable snapshot leads
+ * to regular registry post-processing, and a registry that cannot be captured
+ * simply does not get a snapshot.
+ *
+ * @since 5.1.12
+ * @see GenericApplicationContext#setBeanDefinitionSnapshotFile
+ */
+final class BeanDefinitionSnapshotHandler {
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final Log logger = LogFactory.getLog(BeanDefinitionSnapshotHandler.class);
+
+	private final File snapshotFile;
+
+	@Nullable
+	private final String fingerprint;
+
+	private final ConfigurableEnvironment environment;
+
+	@Nullable
+	private String baseFingerprint;
+
+	private boolean restored;
+
+	private final Set<String> excludedBeanNames = new HashSet<>();
+
+	@Nullable
+	private PropertyNameRecorder propertyNameRecorder;
+
+	private final List<PropertySource<?>> initialPropertySources = new ArrayList<>();
+
+
+	BeanDefinitionSnapshotHandler(File snapshotFile, @Nullable String fingerprint,
+			ConfigurableEnvironment environment) {
+
+		this.snapshotFile = snapshotFile;
+		this.fingerprint = fingerprint;
+		this.environment = environment;
+	}
+
+
+	/**
+	 * Restore the snapshot into the given registry, if present and up to date.
+	 * Otherwise start recording Environment access for a subsequent capture.
+	 * @return {@code true} if the registry has been restored, in which case
+	 * configuration class processing is to be skipped
+	 */
+	public boolean restore(ConfigurableListableBeanFactory beanFactory, BeanDefinitionRegistry registry) {
+		try {
+			this.baseFingerprint = computeBaseFingerprint(beanFactory, registry);
+			if (this.snapshotFile.isFile()) {
+				try (InputStream in = new BufferedInputStream(Files.newInputStream(this.snapshotFile.toPath()))) {
+					DataInputStream dis = new DataInputStream(in);
+					if (dis.readInt() == FORMAT_VERSION) {
+						Set<String> propertyNames = new LinkedHashSet<>();
+						int count = dis.readInt();
+						for (int i = 0; i < count; i++) {
+							propertyNames.add(dis.readUTF());
+						}
+						String fingerprint = computeFingerprint(
+								this.baseFingerprint, propertyNames, this.environment.getPropertySources());
+						this.restored = BeanDefinitionSnapshot.read(in, fingerprint, registry);
+					}
+				}
+				if (logger.isDebugEnabled()) {
+					logger.debug(this.restored ? "Restored " + registry.getBeanDefinitionCount() +
+							" bean definitions from snapshot [" + this.snapshotFile + "]" :
+							"Ignoring outdated bean definition snapshot [" + this.snapshotFile + "]");
+				}
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Failed to read bean definition snapshot [" + this.snapshotFile + "]", ex);
+			}
+		}
+		if (!this.restored) {
+			startRecording();
+		}
+		return this.restored;
+	}
+
+	/**
+	 * Invoke the given registry post-processor, unless its outcome is part of
+	 * the restored snapshot. While capturing, the bean definitions registered by
+	 * post-processors that are not covered by the snapshot are excluded from it.
+	 */
+	public void postProcessBeanDefinitionRegistry(
+			BeanDefinitionRegistryPostProcessor postProcessor, BeanDefinitionRegistry registry) {
+
+		if (isCoveredBySnapshot(postProcessor)) {
+			if (!this.restored) {
+				postProcessor.postProcessBeanDefinitionRegistry(registry);
+			}
+		}
+		else if (this.restored) {
+			postProcessor.postProcessBeanDefinitionRegistry(registry);
+		}
+		else {
+			Set<String> existingBeanNames = new HashSet<>(Arrays.asList(registry.getBeanDefinitionNames()));
+			postProcessor.postProcessBeanDefinitionRegistry(registry);
+			for (String beanName : registry.getBeanDefinitionNames()) {
+				if (!existingBeanNames.contains(beanName)) {
+					this.excludedBeanNames.add(beanName);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write the current state of the given registry to the snapshot file.
+	 */
+	public void capture(ConfigurableListableBeanFactory beanFactory, BeanDefinitionRegistry registry) {
+		Set<String> propertyNames = stopRecording();
+		String baseFingerprint = this.baseFingerprint;
+		if (baseFingerprint == null) {
+			// Fingerprint could not be computed on restore - already logged
+			return;
+		}
+		List<String> beanNames = new ArrayList<>(registry.getBeanDefinitionCount());
+		for (String beanName : registry.getBeanDefinitionNames()) {
+			if (!this.excludedBeanNames.contains(beanName)) {
+				beanNames.add(beanName);
+			}
+		}
+		File tempFile = new File(this.snapshotFile.getPath() + ".tmp");
+		try {
+			File parent = this.snapshotFile.getAbsoluteFile().getParentFile();
+			if (parent != null) {
+				Files.createDirectories(parent.toPath());
+			}
+			try (OutputStream out = Files.newOutputStream(tempFile.toPath())) {
+				DataOutputStream dos = new DataOutputStream(out);
+				dos.writeInt(FORMAT_VERSION);
+				dos.writeInt(propertyNames.size());
+				for (String propertyName : propertyNames) {
+					dos.writeUTF(propertyName);
+				}
+				BeanDefinitionSnapshot.write(registry, StringUtils.toStringArray(beanNames),
+						computeFingerprint(baseFingerprint, propertyNames, this.initialPropertySources), dos);
+			}
+			Files.move(tempFile.toPath(), this.snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Wrote " + beanNames.size() + " bean definitions to snapshot [" +
+						this.snapshotFile + "]");
+			}
+		}
+		catch (IOException | BeanDefinitionStoreException ex) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Could not write bean definition snapshot [" + this.snapshotFile + "]: " +
+						ex.getMessage());
+			}
+			tempFile.delete();
+		}
+	}
+
+
+	/**
+	 * Only configuration class processing is skipped on restore; other registry
+	 * post-processors may have effects beyond the registered bean definitions.
+	 */
+	private static boolean isCoveredBySnapshot(BeanDefinitionRegistryPostProcessor postProcessor) {
+		return (postProcessor instanceof ConfigurationClassPostProcessor);
+	}
+
+	/**
+	 * Fingerprint the inputs to registry post-processing that are known upfront:
+	 * classpath (or given fingerprint), profiles and initial bean definitions.
+	 */
+	private String computeBaseFingerprint(ConfigurableListableBeanFactory beanFactory,
+			BeanDefinitionRegistry registry) throws IOException {
+
+		StringBuilder sb = new StringBuilder(this.fingerprint != null ? this.fingerprint :
+				BeanDefinitionSnapshot.computeClasspathFingerprint(beanFactory.getBeanClassLoader()));
+		sb.append("\nactive:").append(StringUtils.arrayToCommaDelimitedString(this.environment.getActiveProfiles()));
+		sb.append("\ndefault:").append(StringUtils.arrayToCommaDelimitedString(this.environment.getDefaultProfiles()));
+		for (String beanName : registry.getBeanDefinitionNames()) {
+			sb.append('\n').append(beanName).append(':').append(registry.getBeanDefinition(beanName).getBeanClassName());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Add the current values of the given properties to the base fingerprint,
+	 * looking them up in the given property sources only.
+	 */
+	private static String computeFingerprint(String baseFingerprint, Collection<String> propertyNames,
+			Iterable<PropertySource<?>> propertySources) {
+
+		StringBuilder sb = new StringBuilder(baseFingerprint);
+		for (String propertyName : new TreeSet<>(propertyNames)) {
+			sb.append('\n').append(propertyName);
+			for (PropertySource<?> propertySource : propertySources) {
+				Object value = propertySource.getProperty(propertyName);
+				if (value != null) {
+					sb.append('=').append(value);
+					break;
+				}
+			}
+		}
+		return DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Record the names of all properties looked up in the Environment from now on,
+	 * remembering the property sources present before registry post-processing:
+	 * property sources added by configuration classes are not available on restore.
+	 */
+	private void startRecording() {
+		MutablePropertySources propertySources = this.environment.getPropertySources();
+		for (PropertySource<?> propertySource : propertySources) {
+			this.initialPropertySources.add(propertySource);
+		}
+		this.propertyNameRecorder = new PropertyNameRecorder();
+		propertySources.addFirst(this.propertyNameRecorder);
+	}
+
+	private Set<String> stopRecording() {
+		PropertyNameRecorder recorder = this.propertyNameRecorder;
+		if (recorder == null) {
+			return new LinkedHashSet<>();
+		}
+		this.environment.getPropertySources().remove(recorder.getName());
+		this.propertyNameRecorder = null;
+		return recorder.getSource();
+	}
+
+
+	/**
+	 * PropertySource without any properties, recording the names of the
+	 * properties that are looked up through it.
+	 */
+	private static class PropertyNameRecorder extends PropertySource<Set<String>> {
+
+		PropertyNameRecorder() {
+			super(PropertyNameRecorder.class.getName(), new LinkedHashSet<>());
+		}
+
+		@Override
+		@Nullable
+		public Object getProperty(String name) {
+			synchronized (this.source) {
+				this.source.add(name);
+			}
+			return null;
+		}
+	}
+
+}
@@ -34,6 +34,7 @@ import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -100,6 +101,12 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 
 	private boolean customClassLoader = false;
 
+	@Nullable
+	private File beanDefinitionSnapshotFile;
+
+	@Nullable
+	private String beanDefinitionSnapshotFingerprint;
+
 	private final AtomicBoolean refreshed = new AtomicBoolean();
 
 
@@ -207,6 +214,40 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 		this.resourceLoader = resourceLoader;
 	}
 
+	/**
+	 * Set a file to snapshot the bean definition registry to, once all
+	 * {@link org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor
+	 * BeanDefinitionRegistryPostProcessors} have been applied.
+	 * <p>On refresh, an existing snapshot with a matching fingerprint is restored
+	 * instead of processing configuration classes, skipping configuration class
+	 * parsing, component scanning and condition evaluation. Otherwise the registry is
+	 * post-processed as usual and the snapshot file is (re)written, unless the
+	 * registry contains bean definitions that cannot be represented in a snapshot.
+	 * <p>Other registry post-processors are invoked on every startup, and the bean
+	 * definitions they register are not part of the snapshot.
+	 * @since 5.1.12
+	 * @see #setBeanDefinitionSnapshotFingerprint
+	 * @see org.springframework.beans.factory.support.BeanDefinitionSnapshot
+	 */
+	public void setBeanDefinitionSnapshotFile(@Nullable File beanDefinitionSnapshotFile) {
+		this.beanDefinitionSnapshotFile = beanDefinitionSnapshotFile;
+	}
+
+	/**
+	 * Set the fingerprint that a bean definition snapshot needs to match in order
+	 * to be restored, e.g. a build identifier.
+	 * <p>Default is a fingerprint of the bean ClassLoader's classpath. In either case,
+	 * the active and default profiles, the bean definitions registered before refresh
+	 * and the Environment properties consulted during configuration class processing
+	 * need to match as well.
+	 * @since 5.1.12
+	 * @see #setBeanDefinitionSnapshotFile
+	 * @see org.springframework.beans.factory.support.BeanDefinitionSnapshot#computeClasspathFingerprint
+	 */
+	public void setBeanDefinitionSnapshotFingerprint(@Nullable String beanDefinitionSnapshotFingerprint) {
+		this.beanDefinitionSnapshotFingerprint = beanDefinitionSnapshotFingerprint;
+	}
+
 
 	//---------------------------------------------------------------------
 	// ResourceLoader / ResourcePatternResolver override if necessary
@@ -278,6 +319,13 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 		this.beanFactory.setSerializationId(getId());
 	}
 
+	@Override
+	@Nullable
+	BeanDefinitionSnapshotHandler getBeanDefinitionSnapshotHandler() {
+		return (this.beanDefinitionSnapshotFile != null ? new BeanDefinitionSnapshotHandler(
+				this.beanDefinitionSnapshotFile, this.beanDefinitionSnapshotFingerprint, getEnvironment()) : null);
+	}
+
 	@Override
 	protected void cancelRefresh(BeansException ex) {
 		this.beanFactory.setSerializationId(null);
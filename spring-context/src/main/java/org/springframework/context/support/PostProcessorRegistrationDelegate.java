@@ -45,6 +45,19 @@ final class PostProcessorRegistrationDelegate {
 	public static void invokeBeanFactoryPostProcessors(
 			ConfigurableListableBeanFactory beanFactory, List<BeanFactoryPostProcessor> beanFactoryPostProcessors) {
 
+		invokeBeanFactoryPostProcessors(beanFactory, beanFactoryPostProcessors, null);
+	}
+
+	/**
+	 * Invoke the given BeanFactoryPostProcessors as well as the ones defined in the
+	 * bean factory, optionally restoring the bean definition registry from a snapshot
+	 * instead of processing configuration classes, or capturing a snapshot right
+	 * after all registry post-processors have been invoked.
+	 */
+	public static void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory,
+			List<BeanFactoryPostProcessor> beanFactoryPostProcessors,
+			@Nullable BeanDefinitionSnapshotHandler snapshotHandler) {
+
 		// Invoke BeanDefinitionRegistryPostProcessors first, if any.
 		Set<String> processedBeans = new HashSet<>();
 		/**
@@ -54,6 +67,8 @@ final class PostProcessorRegistrationDelegate {
 		 */
 		if (beanFactory instanceof BeanDefinitionRegistry) {
 			BeanDefinitionRegistry registry = (BeanDefinitionRegistry) beanFactory;
+			// A restored snapshot already reflects configuration class processing.
+			boolean restored = (snapshotHandler != null && snapshotHandler.restore(beanFactory, registry));
 			/**
 			 * regularPostProcessors：存放实现了BeanFactoryPostProcessor的类
 			 * registryProcessors：存放是实现了子接口BeanDefinitionRegistryPostProcessor的类
@@ -74,7 +89,8 @@ final class PostProcessorRegistrationDelegate {
 					BeanDefinitionRegistryPostProcessor registryProcessor =
 							(BeanDefinitionRegistryPostProcessor) postProcessor;
 					/** 是BeanDefinitionRegistryPostProcessor接口实现类，先执行，在存放 */
-					registryProcessor.postProcessBeanDefinitionRegistry(registry);
+					invokeBeanDefinitionRegistryPostProcessors(
+							Collections.singletonList(registryProcessor), registry, snapshotHandler);
 					registryProcessors.add(registryProcessor);
 				} else {
 					regularPostProcessors.add(postProcessor);
@@ -132,9 +148,9 @@ final class PostProcessorRegistrationDelegate {
 			 * 执行方法为postProcessBeanDefinitionRegistry()
 			 * 注意：此处执行的是spring内部的，包括使用@Component交给spring的
 			 * 使用addBeanFactoryPostProcessor()手动添加的已经执行完了
-			 * {@link #invokeBeanDefinitionRegistryPostProcessors(Collection, BeanDefinitionRegistry)}
+			 * {@link #invokeBeanDefinitionRegistryPostProcessors(Collection, BeanDefinitionRegistry, BeanDefinitionSnapshotHandler)}
 			 */
-			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, snapshotHandler);
 
 			/** 清空集合，释放内存 */
 			currentRegistryProcessors.clear();
@@ -165,7 +181,7 @@ final class PostProcessorRegistrationDelegate {
 			/**
 			 * 执行没有实现PriorityOrder并且实现了Ordered没有处理的后置处理器
 			 */
-			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, snapshotHandler);
 			currentRegistryProcessors.clear();
 
 			// Finally, invoke all other BeanDefinitionRegistryPostProcessors until no further ones appear.
@@ -187,10 +203,14 @@ final class PostProcessorRegistrationDelegate {
 				sortPostProcessors(currentRegistryProcessors, beanFactory);
 				registryProcessors.addAll(currentRegistryProcessors);
 				// 执行postProcessBeanDefinitionRegistry()
-				invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+				invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, snapshotHandler);
 				currentRegistryProcessors.clear();
 			}
 
+			if (!restored && snapshotHandler != null) {
+				snapshotHandler.capture(beanFactory, registry);
+			}
+
 			// Now, invoke the postProcessBeanFactory callback of all processors handled so far.
 			/**
 			 * 调用所有实现了BeanDefinitionRegistryPostProcessor接口的类
@@ -418,7 +438,8 @@ final class PostProcessorRegistrationDelegate {
 	 * Invoke the given BeanDefinitionRegistryPostProcessor beans.
 	 */
 	private static void invokeBeanDefinitionRegistryPostProcessors(
-			Collection<? extends BeanDefinitionRegistryPostProcessor> postProcessors, BeanDefinitionRegistry registry) {
+			Collection<? extends BeanDefinitionRegistryPostProcessor> postProcessors, BeanDefinitionRegistry registry,
+			@Nullable BeanDefinitionSnapshotHandler snapshotHandler) {
 
 		/**
 		 * 循环调用实现类的postProcessBeanDefinitionRegistry()
@@ -426,7 +447,12 @@ final class PostProcessorRegistrationDelegate {
 		 *    {@link org.springframework.context.annotation.ConfigurationClassPostProcessor#postProcessBeanDefinitionRegistry(BeanDefinitionRegistry)}
 		 */
 		for (BeanDefinitionRegistryPostProcessor postProcessor : postProcessors) {
-			postProcessor.postProcessBeanDefinitionRegistry(registry);
+			if (snapshotHandler != null) {
+				snapshotHandler.postProcessBeanDefinitionRegistry(postProcessor, registry);
+			}
+			else {
+				postProcessor.postProcessBeanDefinitionRegistry(registry);
+			}
 		}
 	}
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import org.springframework.util.Assert;
+
+/**
+ * Policy for adapting the core pool size of a {@link ThreadPoolTaskExecutor}
+ * to the measured queue latency, i.e. the time that tasks spend waiting in the
+ * queue before a thread picks them up.
+ *
+ * <p>At every {@link #setAdjustmentIntervalMillis adjustment interval}, the
+ * executor determines the mean queue latency of the tasks started within the
+ * interval. If it exceeds the {@link #setTargetQueueLatencyMillis target queue
+ * latency}, the core pool size grows in proportion to the excess; if it stays
+ * below half of the target with an empty queue, the core pool size shrinks by one
+ * thread. The core pool size always remains within the configured
+ * {@link #setMinCorePoolSize minimum} and {@link #setMaxCorePoolSize maximum},
+ * and never exceeds the executor's max pool size.
+ *
+ * <p>This is primarily useful with the default unbounded queue, where the
+ * executor never creates more than the core number of threads otherwise.
+ *
+ * @since 5.1.12
+ * @see ThreadPoolTaskExecutor#setPoolSizingPolicy
+ */
+public class AdaptivePoolSizingPolicy {
+
+	private long targetQueueLatencyMillis = 100;
+
+	private int minCorePoolSize = 1;
+
+	private int maxCorePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+
+	private long adjustmentIntervalMillis = 1000;
+
+
+	/**
+	 * Set the mean queue latency to aim for, in milliseconds.
+	 * Default is 100.
+	 */
+	public void setTargetQueueLatencyMillis(long targetQueueLatencyMillis) {
+		Assert.isTrue(targetQueueLatencyMillis > 0, "Target queue latency must be positive");
+		this.targetQueueLatencyMillis = targetQueueLatencyMillis;
+	}
+
+	/**
+	 * Return the mean queue latency to aim for, in milliseconds.
+	 */
+	public long getTargetQueueLatencyMillis() {
+		return this.targetQueueLatencyMillis;
+	}
+
+	/**
+	 * Set the core pool size to never shrink below.
+	 * Default is 1.
+	 */
+	public void setMinCorePoolSize(int minCorePoolSize) {
+		Assert.isTrue(minCorePoolSize >= 0, "Min core pool size must not be negative");
+		this.minCorePoolSize = minCorePoolSize;
+	}
+
+	/**
+	 * Return the core pool size to never shrink below.
+	 */
+	public int getMinCorePoolSize() {
+		return this.minCorePoolSize;
+	}
+
+	/**
+	 * Set the core pool size to never grow beyond.
+	 * Default is twice the number of available processors.
+	 */
+	public void setMaxCorePoolSize(int maxCorePoolSize) {
+		Assert.isTrue(maxCorePoolSize > 0, "Max core pool size must be positive");
+		this.maxCorePoolSize = maxCorePoolSize;
+	}
+
+	/**
+	 * Return the core pool size to never grow beyond.
+	 */
+	public int getMaxCorePoolSize() {
+		return this.maxCorePoolSize;
+	}
+
+	/**
+	 * Set the minimum interval between core pool size adjustments, in milliseconds.
+	 * Default is 1000.
+	 */
+	public void setAdjustmentIntervalMillis(long adjustmentIntervalMillis) {
+		Assert.isTrue(adjustmentIntervalMillis > 0, "Adjustment interval must be positive");
+		this.adjustmentIntervalMillis = adjustmentIntervalMillis;
+	}
+
+	/**
+	 * Return the minimum interval between core pool size adjustments, in milliseconds.
+	 */
+	public long getAdjustmentIntervalMillis() {
+		return this.adjustmentIntervalMillis;
+	}
+
+
+	/**
+	 * Determine the core pool size for the next interval.
+	 * @param currentCorePoolSize the current core pool size
+	 * @param meanQueueLatencyMillis the mean queue latency of the tasks started
+	 * within the last interval ({@code Double.POSITIVE_INFINITY} if queued tasks
+	 * have not been picked up at all)
+	 * @param queueSize the current number of tasks in the queue
+	 * @return the new core pool size (may be the same as the current one)
+	 */
+	public int determineCorePoolSize(int currentCorePoolSize, double meanQueueLatencyMillis, int queueSize) {
+		int corePoolSize = currentCorePoolSize;
+		if (meanQueueLatencyMillis > this.targetQueueLatencyMillis) {
+			double factor = Math.min(meanQueueLatencyMillis / this.targetQueueLatencyMillis, 2);
+			corePoolSize = Math.max(currentCorePoolSize + 1, (int) Math.ceil(currentCorePoolSize * factor));
+		}
+		else if (meanQueueLatencyMillis < this.targetQueueLatencyMillis / 2d && queueSize == 0) {
+			corePoolSize = currentCorePoolSize - 1;
+		}
+		return Math.max(Math.min(corePoolSize, this.maxCorePoolSize), this.minCorePoolSize);
+	}
+
+}
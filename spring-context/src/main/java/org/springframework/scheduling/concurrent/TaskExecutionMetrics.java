@@ -0,0 +1,331 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedMetric;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.support.MetricType;
+
+/**
+ * Task execution statistics for a {@link ThreadPoolTaskExecutor} or
+ * {@link ThreadPoolTaskScheduler}: submitted, completed, failed and rejected
+ * task counts as well as histograms of the time that tasks spent waiting in
+ * the queue and the time that they took to execute.
+ *
+ * <p>To be set up as a separate bean and passed to the executor's
+ * {@link ThreadPoolTaskExecutor#setMetrics "metrics"} property. An
+ * {@link org.springframework.jmx.export.annotation.AnnotationMBeanExporter}
+ * (as registered through {@code @EnableMBeanExport} or
+ * {@code <context:mbean-export/>}) automatically exports such a bean via JMX;
+ * a plain {@link org.springframework.jmx.export.MBeanExporter} can export it
+ * through its {@link org.springframework.jmx.export.MBeanExporter#setBeans "beans"} map.
+ *
+ * <p>Times are recorded in histograms with fixed bucket boundaries from 1 ms to
+ * 10 s (see {@link #getHistogramBucketBoundsMillis()}), with percentiles being
+ * approximated by the upper boundary of the bucket that they fall into.
+ *
+ * @since 5.1.12
+ * @see ThreadPoolTaskExecutor#setMetrics
+ * @see ThreadPoolTaskScheduler#setMetrics
+ */
+@ManagedResource(description = "Task execution metrics")
+public class TaskExecutionMetrics {
+
+	private static final long[] BUCKET_BOUNDS_MILLIS =
+			{1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+
+	private final LongAdder submittedCount = new LongAdder();
+
+	private final LongAdder rejectedCount = new LongAdder();
+
+	private final LongAdder failedCount = new LongAdder();
+
+	private final Histogram queueLatency = new Histogram();
+
+	private final Histogram executionTime = new Histogram();
+
+
+	/**
+	 * Record the submission of a task, whether accepted or rejected.
+	 */
+	void taskSubmitted() {
+		this.submittedCount.increment();
+	}
+
+	/**
+	 * Record the rejection of a task.
+	 */
+	void taskRejected() {
+		this.rejectedCount.increment();
+	}
+
+	/**
+	 * Record the start of a task's execution.
+	 * @param queueLatencyNanos the time that the task spent in the queue
+	 */
+	void taskStarted(long queueLatencyNanos) {
+		this.queueLatency.record(queueLatencyNanos);
+	}
+
+	/**
+	 * Record the completion of a task's execution.
+	 * @param executionTimeNanos the time that the task took to execute
+	 * @param failed whether the task terminated with an exception
+	 */
+	void taskCompleted(long executionTimeNanos, boolean failed) {
+		this.executionTime.record(executionTimeNanos);
+		if (failed) {
+			this.failedCount.increment();
+		}
+	}
+
+	/**
+	 * Decorate the given {@link RejectedExecutionHandler} to record rejections.
+	 */
+	RejectedExecutionHandler recordRejections(RejectedExecutionHandler rejectedExecutionHandler) {
+		return (task, executor) -> {
+			taskRejected();
+			rejectedExecutionHandler.rejectedExecution(task, executor);
+		};
+	}
+
+	/**
+	 * Return the number of tasks started so far.
+	 */
+	long getStartedTaskCount() {
+		return this.queueLatency.getCount();
+	}
+
+	/**
+	 * Return the total queue latency of all tasks started so far, in nanoseconds.
+	 */
+	long getTotalQueueLatencyNanos() {
+		return this.queueLatency.getTotal();
+	}
+
+
+	@ManagedMetric(description = "Number of tasks submitted, including rejected tasks",
+			metricType = MetricType.COUNTER)
+	public long getSubmittedTaskCount() {
+		return this.submittedCount.sum();
+	}
+
+	@ManagedMetric(description = "Number of tasks rejected", metricType = MetricType.COUNTER)
+	public long getRejectedTaskCount() {
+		return this.rejectedCount.sum();
+	}
+
+	@ManagedMetric(description = "Number of tasks completed, including failed tasks",
+			metricType = MetricType.COUNTER)
+	public long getCompletedTaskCount() {
+		return this.executionTime.getCount();
+	}
+
+	@ManagedMetric(description = "Number of tasks that terminated with an exception",
+			metricType = MetricType.COUNTER)
+	public long getFailedTaskCount() {
+		return this.failedCount.sum();
+	}
+
+	@ManagedMetric(description = "Mean time that tasks spent in the queue", unit = "ms")
+	public double getMeanQueueLatencyMillis() {
+		return this.queueLatency.getMeanMillis();
+	}
+
+	@ManagedMetric(description = "Maximum time that a task spent in the queue", unit = "ms")
+	public double getMaxQueueLatencyMillis() {
+		return this.queueLatency.getMaxMillis();
+	}
+
+	@ManagedMetric(description = "Approximate 99th percentile of the time that tasks spent in the queue",
+			unit = "ms")
+	public long getQueueLatency99thPercentileMillis() {
+		return this.queueLatency.getPercentileMillis(0.99);
+	}
+
+	@ManagedMetric(description = "Number of tasks per queue latency bucket")
+	public long[] getQueueLatencyHistogram() {
+		return this.queueLatency.getBucketCounts();
+	}
+
+	@ManagedMetric(description = "Mean time that tasks took to execute", unit = "ms")
+	public double getMeanExecutionTimeMillis() {
+		return this.executionTime.getMeanMillis();
+	}
+
+	@ManagedMetric(description = "Maximum time that a task took to execute", unit = "ms")
+	public double getMaxExecutionTimeMillis() {
+		return this.executionTime.getMaxMillis();
+	}
+
+	@ManagedMetric(description = "Approximate 99th percentile of the time that tasks took to execute",
+			unit = "ms")
+	public long getExecutionTime99thPercentileMillis() {
+		return this.executionTime.getPercentileMillis(0.99);
+	}
+
+	@ManagedMetric(description = "Number of tasks per execution time bucket")
+	public long[] getExecutionTimeHistogram() {
+		return this.executionTime.getBucketCounts();
+	}
+
+	/**
+	 * Return the upper boundaries of the histogram buckets in milliseconds,
+	 * with the histograms containing an additional bucket for larger values.
+	 * @see #getQueueLatencyHistogram()
+	 * @see #getExecutionTimeHistogram()
+	 */
+	@ManagedMetric(description = "Upper boundaries of the histogram buckets", unit = "ms")
+	public long[] getHistogramBucketBoundsMillis() {
+		return BUCKET_BOUNDS_MILLIS.clone();
+	}
+
+	/**
+	 * Return the approximate queue latency percentile in milliseconds.
+	 * @param percentile the percentile between 0.0 and 1.0 (e.g. 0.5 for the median)
+	 */
+	@ManagedOperation(description = "Approximate queue latency percentile (0.0 to 1.0) in milliseconds")
+	public long getQueueLatencyPercentileMillis(double percentile) {
+		return this.queueLatency.getPercentileMillis(percentile);
+	}
+
+	/**
+	 * Return the approximate execution time percentile in milliseconds.
+	 * @param percentile the percentile between 0.0 and 1.0 (e.g. 0.5 for the median)
+	 */
+	@ManagedOperation(description = "Approximate execution time percentile (0.0 to 1.0) in milliseconds")
+	public long getExecutionTimePercentileMillis(double percentile) {
+		return this.executionTime.getPercentileMillis(percentile);
+	}
+
+
+	/**
+	 * Determine whether the given task, after its execution,
+	 * is a {@link Future} that completed with an exception.
+	 */
+	static boolean hasFailed(Object task) {
+		if (task instanceof Future && ((Future<?>) task).isDone() && !((Future<?>) task).isCancelled()) {
+			try {
+				((Future<?>) task).get();
+			}
+			catch (ExecutionException ex) {
+				return true;
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return "TaskExecutionMetrics: submitted=" + getSubmittedTaskCount() +
+				", rejected=" + getRejectedTaskCount() + ", completed=" + getCompletedTaskCount() +
+				", failed=" + getFailedTaskCount() + ", meanQueueLatency=" + getMeanQueueLatencyMillis() +
+				"ms, meanExecutionTime=" + getMeanExecutionTimeMillis() + "ms";
+	}
+
+
+	/**
+	 * Lock-free histogram of durations, with fixed bucket boundaries.
+	 */
+	private static class Histogram {
+
+		private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder total = new LongAdder();
+
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+		public Histogram() {
+			for (int i = 0; i < this.buckets.length; i++) {
+				this.buckets[i] = new LongAdder();
+			}
+		}
+
+		public void record(long nanos) {
+			long duration = Math.max(nanos, 0);
+			long millis = TimeUnit.NANOSECONDS.toMillis(duration);
+			int bucket = 0;
+			while (bucket < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[bucket]) {
+				bucket++;
+			}
+			this.buckets[bucket].increment();
+			this.total.add(duration);
+			this.max.accumulate(duration);
+			this.count.increment();
+		}
+
+		public long getCount() {
+			return this.count.sum();
+		}
+
+		public long getTotal() {
+			return this.total.sum();
+		}
+
+		public double getMeanMillis() {
+			long count = this.count.sum();
+			return (count > 0 ? this.total.sum() / (double) count / 1_000_000 : 0);
+		}
+
+		public double getMaxMillis() {
+			return this.max.get() / 1_000_000d;
+		}
+
+		public long[] getBucketCounts() {
+			long[] counts = new long[this.buckets.length];
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = this.buckets[i].sum();
+			}
+			return counts;
+		}
+
+		public long getPercentileMillis(double percentile) {
+			long[] counts = getBucketCounts();
+			long total = 0;
+			for (long count : counts) {
+				total += count;
+			}
+			if (total == 0) {
+				return 0;
+			}
+			long threshold = Math.max((long) Math.ceil(total * Math.min(Math.max(percentile, 0), 1)), 1);
+			long cumulative = 0;
+			for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+				cumulative += counts[i];
+				if (cumulative >= threshold) {
+					return BUCKET_BOUNDS_MILLIS[i];
+				}
+			}
+			return (long) Math.ceil(getMaxMillis());
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -46,7 +46,13 @@ import org.springframework.util.concurrent.ListenableFutureTask;
  * properties) and exposing it as a Spring {@link org.springframework.core.task.TaskExecutor}.
  * This class is also well suited for management and monitoring (e.g. through JMX),
  * providing several useful attributes: "corePoolSize", "maxPoolSize", "keepAliveSeconds"
- * (all supporting updates at runtime); "poolSize", "activeCount" (for introspection only).
+ * (all supporting updates at runtime); "poolSize", "activeCount", "queueSize"
+ * (for introspection only).
+ *
+ * <p>As of 5.1.12, detailed task execution statistics can be collected through a
+ * {@link TaskExecutionMetrics} instance (see {@link #setMetrics "metrics"}), and the
+ * core pool size can be adapted to the measured queue latency through an
+ * {@link AdaptivePoolSizingPolicy} (see {@link #setPoolSizingPolicy "poolSizingPolicy"}).
  *
  * <p>The default configuration is a core pool size of 1, with unlimited max pool size
  * and unlimited queue capacity. This is roughly equivalent to
@@ -97,6 +103,18 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport
 	@Nullable
 	private TaskDecorator taskDecorator;
 
+	@Nullable
+	private TaskExecutionMetrics metrics;
+
+	@Nullable
+	private AdaptivePoolSizingPolicy poolSizingPolicy;
+
+	private volatile long nextPoolSizeAdjustment;
+
+	private long lastStartedTaskCount;
+
+	private long lastTotalQueueLatency;
+
 	@Nullable
 	private ThreadPoolExecutor threadPoolExecutor;
 
@@ -211,6 +229,42 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport
 		this.taskDecorator = taskDecorator;
 	}
 
+	/**
+	 * Specify a {@link TaskExecutionMetrics} instance to record task execution
+	 * statistics in: submitted, completed, failed and rejected tasks as well as
+	 * queue latency and execution time histograms.
+	 * <p>Note that tasks are wrapped for measuring their queue latency in such
+	 * a scenario, as visible in the {@link #getThreadPoolExecutor() native
+	 * ThreadPoolExecutor's} queue.
+	 * @since 5.1.12
+	 */
+	public void setMetrics(TaskExecutionMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Return the {@link TaskExecutionMetrics} that this executor records
+	 * task execution statistics in, if any.
+	 * @since 5.1.12
+	 * @see #setMetrics
+	 */
+	@Nullable
+	public TaskExecutionMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Specify an {@link AdaptivePoolSizingPolicy} for growing and shrinking the
+	 * core pool size at runtime, based on the measured queue latency.
+	 * <p>Requires {@link #setMetrics metrics} to be collected: a local
+	 * {@link TaskExecutionMetrics} instance will be created if none specified.
+	 * The "corePoolSize" setting serves as the initial core pool size then.
+	 * @since 5.1.12
+	 */
+	public void setPoolSizingPolicy(AdaptivePoolSizingPolicy poolSizingPolicy) {
+		this.poolSizingPolicy = poolSizingPolicy;
+	}
+
 
 	/**
 	 * Note: This method exposes an {@link ExecutorService} to its base class
@@ -224,8 +278,26 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport
 
 		BlockingQueue<Runnable> queue = createQueue(this.queueCapacity);
 
+		if (this.metrics == null && this.poolSizingPolicy != null) {
+			this.metrics = new TaskExecutionMetrics();
+		}
+		TaskExecutionMetrics metrics = this.metrics;
+
 		ThreadPoolExecutor executor;
-		if (this.taskDecorator != null) {
+		if (metrics != null) {
+			executor = new ThreadPoolExecutor(
+					this.corePoolSize, this.maxPoolSize, this.keepAliveSeconds, TimeUnit.SECONDS,
+					queue, threadFactory, metrics.recordRejections(rejectedExecutionHandler)) {
+				@Override
+				public void execute(Runnable command) {
+					Runnable decorated = (taskDecorator != null ? taskDecorator.decorate(command) : command);
+					metrics.taskSubmitted();
+					super.execute(new MeasuredTask(decorated, command, metrics));
+					adjustPoolSizeIfNecessary(metrics);
+				}
+			};
+		}
+		else if (this.taskDecorator != null) {
 			executor = new ThreadPoolExecutor(
 					this.corePoolSize, this.maxPoolSize, this.keepAliveSeconds, TimeUnit.SECONDS,
 					queue, threadFactory, rejectedExecutionHandler) {
@@ -250,10 +322,52 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport
 			executor.allowCoreThreadTimeOut(true);
 		}
 
+		if (this.poolSizingPolicy != null) {
+			this.nextPoolSizeAdjustment = System.nanoTime() +
+					TimeUnit.MILLISECONDS.toNanos(this.poolSizingPolicy.getAdjustmentIntervalMillis());
+		}
+
 		this.threadPoolExecutor = executor;
 		return executor;
 	}
 
+	/**
+	 * Apply the {@link AdaptivePoolSizingPolicy} (if any) once its adjustment
+	 * interval has elapsed, based on the mean queue latency within the interval.
+	 */
+	private void adjustPoolSizeIfNecessary(TaskExecutionMetrics metrics) {
+		AdaptivePoolSizingPolicy policy = this.poolSizingPolicy;
+		ThreadPoolExecutor executor = this.threadPoolExecutor;
+		if (policy == null || executor == null || System.nanoTime() - this.nextPoolSizeAdjustment < 0) {
+			return;
+		}
+		synchronized (this.poolSizeMonitor) {
+			long now = System.nanoTime();
+			if (now - this.nextPoolSizeAdjustment < 0) {
+				return;
+			}
+			this.nextPoolSizeAdjustment = now + TimeUnit.MILLISECONDS.toNanos(policy.getAdjustmentIntervalMillis());
+			long startedTaskCount = metrics.getStartedTaskCount();
+			long totalQueueLatency = metrics.getTotalQueueLatencyNanos();
+			long startedTasks = startedTaskCount - this.lastStartedTaskCount;
+			int queueSize = executor.getQueue().size();
+			double meanQueueLatencyMillis = (startedTasks > 0 ?
+					(totalQueueLatency - this.lastTotalQueueLatency) / (double) startedTasks / 1_000_000 :
+					(queueSize > 0 ? Double.POSITIVE_INFINITY : 0));
+			this.lastStartedTaskCount = startedTaskCount;
+			this.lastTotalQueueLatency = totalQueueLatency;
+			int corePoolSize = Math.min(
+					policy.determineCorePoolSize(this.corePoolSize, meanQueueLatencyMillis, queueSize), this.maxPoolSize);
+			if (corePoolSize != this.corePoolSize) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Adjusting core pool size from " + this.corePoolSize + " to " +
+							corePoolSize + " for mean queue latency of " + meanQueueLatencyMillis + " ms");
+				}
+				setCorePoolSize(corePoolSize);
+			}
+		}
+	}
+
 	/**
 	 * Create the BlockingQueue to use for the ThreadPoolExecutor.
 	 * <p>A LinkedBlockingQueue instance will be created for a positive
@@ -306,6 +420,19 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport
 		return this.threadPoolExecutor.getActiveCount();
 	}
 
+	/**
+	 * Return the number of tasks currently waiting in the queue.
+	 * @since 5.1.12
+	 * @see java.util.concurrent.ThreadPoolExecutor#getQueue()
+	 */
+	public int getQueueSize() {
+		if (this.threadPoolExecutor == null) {
+			// Not initialized yet: assume no queued tasks.
+			return 0;
+		}
+		return this.threadPoolExecutor.getQueue().size();
+	}
+
 
 	@Override
 	public void execute(Runnable task) {
@@ -375,10 +502,53 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport
 	protected void cancelRemainingTask(Runnable task) {
 		super.cancelRemainingTask(task);
 		// Cancel associated user-level Future handle as well
-		Object original = this.decoratedTaskMap.get(task);
+		Object original = (task instanceof MeasuredTask ?
+				((MeasuredTask) task).original : this.decoratedTaskMap.get(task));
 		if (original instanceof Future) {
 			((Future<?>) original).cancel(true);
 		}
 	}
 
+
+	/**
+	 * Wrapper for a task, recording its queue latency and execution time
+	 * and applying the {@link AdaptivePoolSizingPolicy} (if any) on completion.
+	 */
+	private class MeasuredTask implements Runnable {
+
+		private final Runnable task;
+
+		private final Runnable original;
+
+		private final TaskExecutionMetrics metrics;
+
+		private final long submitTime = System.nanoTime();
+
+		public MeasuredTask(Runnable task, Runnable original, TaskExecutionMetrics metrics) {
+			this.task = task;
+			this.original = original;
+			this.metrics = metrics;
+		}
+
+		@Override
+		public void run() {
+			long startTime = System.nanoTime();
+			this.metrics.taskStarted(startTime - this.submitTime);
+			boolean failed = true;
+			try {
+				this.task.run();
+				failed = TaskExecutionMetrics.hasFailed(this.original);
+			}
+			finally {
+				this.metrics.taskCompleted(System.nanoTime() - startTime, failed);
+				adjustPoolSizeIfNecessary(this.metrics);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return this.original.toString();
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,11 +19,13 @@ package org.springframework.scheduling.concurrent;
 import java.util.Date;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableScheduledFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -66,6 +68,9 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 	@Nullable
 	private volatile ErrorHandler errorHandler;
 
+	@Nullable
+	private TaskExecutionMetrics metrics;
+
 	@Nullable
 	private ScheduledExecutorService scheduledExecutor;
 
@@ -110,11 +115,43 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 		this.errorHandler = errorHandler;
 	}
 
+	/**
+	 * Specify a {@link TaskExecutionMetrics} instance to record task execution
+	 * statistics in: submitted, completed, failed and rejected tasks as well as
+	 * queue latency and execution time histograms.
+	 * <p>The queue latency of a scheduled task is the delay between its scheduled
+	 * execution time and its actual start. Each execution of a periodic or
+	 * trigger-based task counts as a completed task, whereas its submission counts
+	 * only once. An execution counts as failed if the task throws an exception,
+	 * even if the {@link #setErrorHandler ErrorHandler} suppresses it (as the
+	 * default ErrorHandler for periodic and trigger-based tasks does).
+	 * <p>Requires an underlying {@link ScheduledThreadPoolExecutor}
+	 * as created by the default {@link #createExecutor} implementation.
+	 * @since 5.1.12
+	 */
+	public void setMetrics(TaskExecutionMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Return the {@link TaskExecutionMetrics} that this scheduler records
+	 * task execution statistics in, if any.
+	 * @since 5.1.12
+	 * @see #setMetrics
+	 */
+	@Nullable
+	public TaskExecutionMetrics getMetrics() {
+		return this.metrics;
+	}
+
 
 	@Override
 	protected ExecutorService initializeExecutor(
 			ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
 
+		if (this.metrics != null) {
+			rejectedExecutionHandler = this.metrics.recordRejections(rejectedExecutionHandler);
+		}
 		this.scheduledExecutor = createExecutor(this.poolSize, threadFactory, rejectedExecutionHandler);
 
 		if (this.removeOnCancelPolicy) {
@@ -131,7 +168,8 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 
 	/**
 	 * Create a new {@link ScheduledExecutorService} instance.
-	 * <p>The default implementation creates a {@link ScheduledThreadPoolExecutor}.
+	 * <p>The default implementation creates a {@link ScheduledThreadPoolExecutor},
+	 * recording task execution statistics if {@link #setMetrics metrics} have been specified.
 	 * Can be overridden in subclasses to provide custom {@link ScheduledExecutorService} instances.
 	 * @param poolSize the specified pool size
 	 * @param threadFactory the ThreadFactory to use
@@ -143,6 +181,10 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 	protected ScheduledExecutorService createExecutor(
 			int poolSize, ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
 
+		if (this.metrics != null) {
+			return new MeasuringScheduledThreadPoolExecutor(
+					poolSize, threadFactory, rejectedExecutionHandler, this.metrics);
+		}
 		return new ScheduledThreadPoolExecutor(poolSize, threadFactory, rejectedExecutionHandler);
 	}
 
@@ -306,11 +348,11 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 	public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
 		ScheduledExecutorService executor = getScheduledExecutor();
 		try {
-			ErrorHandler errorHandler = this.errorHandler;
-			if (errorHandler == null) {
-				errorHandler = TaskUtils.getDefaultErrorHandler(true);
+			if (executor instanceof MeasuringScheduledThreadPoolExecutor) {
+				// Counted once here rather than for each rescheduling
+				((MeasuringScheduledThreadPoolExecutor) executor).metrics.taskSubmitted();
 			}
-			return new ReschedulingRunnable(task, trigger, executor, errorHandler).schedule();
+			return new ReschedulingRunnable(task, trigger, executor, taskErrorHandler(true)).schedule();
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -377,7 +419,19 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 
 
 	private Runnable errorHandlingTask(Runnable task, boolean isRepeatingTask) {
-		return TaskUtils.decorateTaskWithErrorHandler(task, this.errorHandler, isRepeatingTask);
+		return TaskUtils.decorateTaskWithErrorHandler(task, taskErrorHandler(isRepeatingTask), isRepeatingTask);
+	}
+
+	private ErrorHandler taskErrorHandler(boolean isRepeatingTask) {
+		ErrorHandler errorHandler = this.errorHandler;
+		if (errorHandler == null) {
+			errorHandler = TaskUtils.getDefaultErrorHandler(isRepeatingTask);
+		}
+		if (this.scheduledExecutor instanceof MeasuringScheduledThreadPoolExecutor) {
+			// Record failures even if the ErrorHandler suppresses them
+			errorHandler = ((MeasuringScheduledThreadPoolExecutor) this.scheduledExecutor).recordFailures(errorHandler);
+		}
+		return errorHandler;
 	}
 
 
@@ -405,4 +459,62 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 		}
 	}
 
+
+	/**
+	 * ScheduledThreadPoolExecutor that records task execution statistics
+	 * in a given {@link TaskExecutionMetrics} instance.
+	 */
+	private static class MeasuringScheduledThreadPoolExecutor extends ScheduledThreadPoolExecutor {
+
+		private final TaskExecutionMetrics metrics;
+
+		private final ThreadLocal<long[]> startTime = ThreadLocal.withInitial(() -> new long[1]);
+
+		private final ThreadLocal<boolean[]> failure = ThreadLocal.withInitial(() -> new boolean[1]);
+
+		public MeasuringScheduledThreadPoolExecutor(int poolSize, ThreadFactory threadFactory,
+				RejectedExecutionHandler rejectedExecutionHandler, TaskExecutionMetrics metrics) {
+
+			super(poolSize, threadFactory, rejectedExecutionHandler);
+			this.metrics = metrics;
+		}
+
+		public ErrorHandler recordFailures(ErrorHandler errorHandler) {
+			return ex -> {
+				this.failure.get()[0] = true;
+				errorHandler.handleError(ex);
+			};
+		}
+
+		@Override
+		protected <V> RunnableScheduledFuture<V> decorateTask(Runnable runnable, RunnableScheduledFuture<V> task) {
+			// A ReschedulingRunnable schedules itself for each execution: counted on initial scheduling
+			if (!(runnable instanceof ReschedulingRunnable)) {
+				this.metrics.taskSubmitted();
+			}
+			return task;
+		}
+
+		@Override
+		protected <V> RunnableScheduledFuture<V> decorateTask(Callable<V> callable, RunnableScheduledFuture<V> task) {
+			this.metrics.taskSubmitted();
+			return task;
+		}
+
+		@Override
+		protected void beforeExecute(Thread thread, Runnable task) {
+			long queueLatency = (task instanceof Delayed ? -((Delayed) task).getDelay(TimeUnit.NANOSECONDS) : 0);
+			this.metrics.taskStarted(queueLatency);
+			this.failure.get()[0] = false;
+			this.startTime.get()[0] = System.nanoTime();
+		}
+
+		@Override
+		protected void afterExecute(Runnable task, @Nullable Throwable ex) {
+			long executionTime = System.nanoTime() - this.startTime.get()[0];
+			boolean failed = (ex != null || this.failure.get()[0] || TaskExecutionMetrics.hasFailed(task));
+			this.metrics.taskCompleted(executionTime, failed);
+		}
+	}
+
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.core.OverridingClassLoader;
+import org.springframework.tests.aop.interceptor.NopInterceptor;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CglibAopProxy} with a pregenerated class location.
+ */
+public class CglibAopProxyPregeneratedLocationTests {
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+	@Test
+	public void proxyClassStoredAndReused() throws Exception {
+		File location = this.temporaryFolder.newFolder();
+		NopInterceptor interceptor = new NopInterceptor();
+
+		Object proxy = createProxy(location, interceptor);
+		assertTrue(AopUtils.isCglibProxy(proxy));
+		assertEquals("tb", proxy.getClass().getMethod("getName").invoke(proxy));
+		assertEquals(1, interceptor.getCount());
+		String className = proxy.getClass().getName();
+		File classFile = new File(location, className.replace('.', File.separatorChar) + ".class");
+		assertTrue(classFile.isFile());
+		assertTrue(new File(location, className.replace('.', File.separatorChar) + ".key").isFile());
+		assertTrue(classFile.setLastModified(0));
+
+		Object otherProxy = createProxy(location, interceptor);
+		assertNotSame(proxy.getClass(), otherProxy.getClass());
+		assertEquals(className, otherProxy.getClass().getName());
+		assertEquals("Stored class should have been loaded", 0, classFile.lastModified());
+		assertEquals("tb", otherProxy.getClass().getMethod("getName").invoke(otherProxy));
+		assertEquals(2, interceptor.getCount());
+	}
+
+
+	/**
+	 * Create a proxy for a {@link TestBean} of a freshly loaded class, so that
+	 * the deterministic proxy class name is not taken yet.
+	 */
+	private static Object createProxy(File location, NopInterceptor interceptor) throws Exception {
+		OverridingClassLoader classLoader = new OverridingClassLoader(
+				CglibAopProxyPregeneratedLocationTests.class.getClassLoader()) {
+			@Override
+			protected boolean isEligibleForOverriding(String className) {
+				return className.equals(TestBean.class.getName());
+			}
+		};
+		Object target = classLoader.loadClass(TestBean.class.getName()).getConstructor(String.class).newInstance("tb");
+
+		AdvisedSupport as = new AdvisedSupport();
+		as.setTarget(target);
+		as.addAdvice(interceptor);
+		CglibAopProxy aopProxy = new CglibAopProxy(as) {
+			@Override
+			protected Enhancer createEnhancer() {
+				Enhancer enhancer = new Enhancer();
+				enhancer.setPregeneratedLocation(location);
+				return enhancer;
+			}
+		};
+		Object proxy = aopProxy.getProxy(classLoader);
+		assertSame(classLoader, proxy.getClass().getClassLoader());
+		return proxy;
+	}
+
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.BeanDefinitionSnapshot;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Integration tests for restoring an {@link AnnotationConfigApplicationContext}
+ * from a bean definition snapshot.
+ */
+public class BeanDefinitionSnapshotIntegrationTests {
+
+	private File snapshotFile;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.snapshotFile = File.createTempFile("beans", ".snapshot");
+		this.snapshotFile.delete();
+		CountingRegistryPostProcessor.invocationCount = 0;
+	}
+
+	@After
+	public void cleanup() {
+		this.snapshotFile.delete();
+	}
+
+
+	@Test
+	public void snapshotWrittenAndRestored() {
+		AnnotationConfigApplicationContext ctx = createContext("fp");
+		assertTrue(this.snapshotFile.isFile());
+		assertEquals(1, CountingRegistryPostProcessor.invocationCount);
+		assertBeans(ctx);
+		assertFalse(isRestored(ctx, "importedBean"));
+		ctx.close();
+
+		ctx = createContext("fp");
+		assertBeans(ctx);
+		assertTrue(isRestored(ctx, "importedBean"));
+		// Registry post-processors other than configuration class processing still run
+		assertEquals(2, CountingRegistryPostProcessor.invocationCount);
+		assertFalse(isRestored(ctx, "registeredBean"));
+		ctx.close();
+	}
+
+	@Test
+	public void snapshotIgnoredWithDifferentFingerprint() {
+		createContext("fp").close();
+
+		AnnotationConfigApplicationContext ctx = createContext("other");
+		assertBeans(ctx);
+		assertFalse(isRestored(ctx, "importedBean"));
+		ctx.close();
+
+		ctx = createContext("other");
+		assertTrue(isRestored(ctx, "importedBean"));
+		ctx.close();
+	}
+
+	@Test
+	public void snapshotIgnoredWithDifferentProfiles() {
+		createContext("fp").close();
+
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+		ctx.getEnvironment().setActiveProfiles("other");
+		ctx.setBeanDefinitionSnapshotFile(this.snapshotFile);
+		ctx.setBeanDefinitionSnapshotFingerprint("fp");
+		ctx.register(SnapshotConfig.class);
+		ctx.refresh();
+		assertBeans(ctx);
+		assertFalse(isRestored(ctx, "importedBean"));
+		ctx.close();
+	}
+
+	@Test
+	public void snapshotIgnoredWithDifferentConsultedProperty() {
+		AnnotationConfigApplicationContext ctx = createContextWithProperty("fp", null, ConditionalConfig.class);
+		assertFalse(ctx.containsBean("conditionalBean"));
+		ctx.close();
+
+		ctx = createContextWithProperty("fp", "unrelated", ConditionalConfig.class);
+		assertTrue(isRestored(ctx, "importedBean"));
+		assertFalse(ctx.containsBean("conditionalBean"));
+		ctx.close();
+
+		ctx = createContextWithProperty("fp", PropertyCondition.PROPERTY_NAME, ConditionalConfig.class);
+		assertFalse(isRestored(ctx, "importedBean"));
+		assertTrue(ctx.containsBean("conditionalBean"));
+		ctx.close();
+	}
+
+	@Test
+	public void snapshotNotWrittenForInstanceSupplier() {
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+		ctx.setBeanDefinitionSnapshotFile(this.snapshotFile);
+		ctx.register(SnapshotConfig.class);
+		ctx.registerBean("supplied", TestBean.class, () -> new TestBean());
+		ctx.refresh();
+		assertFalse(this.snapshotFile.exists());
+		assertBeans(ctx);
+		ctx.close();
+	}
+
+
+	@Test
+	public void snapshotRestoredWithImportAwareFactoryMethod() {
+		createContext("fp", ImportAwareConfig.class).close();
+		assertTrue(this.snapshotFile.isFile());
+
+		AnnotationConfigApplicationContext ctx = createContext("fp", ImportAwareConfig.class);
+		assertTrue(isRestored(ctx, "importAwareBean"));
+		assertTrue(ctx.getBean("importAwareBean") instanceof ImportAware);
+		ctx.close();
+	}
+
+	@Test
+	public void snapshotRestoredWithImportMetadata() {
+		AnnotationConfigApplicationContext ctx = createContext("fp", ImportingConfig.class);
+		assertEquals(ImportingConfig.class.getName(),
+				ctx.getBean(ImportAwareConfiguration.class).importMetadata.getClassName());
+		ctx.close();
+
+		ctx = createContext("fp", ImportingConfig.class);
+		assertTrue(isRestored(ctx, ImportAwareConfiguration.class.getName()));
+		assertEquals(ImportingConfig.class.getName(),
+				ctx.getBean(ImportAwareConfiguration.class).importMetadata.getClassName());
+		ctx.close();
+	}
+
+	@Test
+	public void snapshotRestoredWithUndeclaredImportAwareBean() {
+		createContext("fp", UndeclaredImportAwareConfig.class).close();
+		assertTrue(this.snapshotFile.isFile());
+
+		AnnotationConfigApplicationContext ctx = createContext("fp", UndeclaredImportAwareConfig.class);
+		assertTrue(isRestored(ctx, "importAwareBean"));
+		assertTrue(ctx.getBean("importAwareBean") instanceof ImportAware);
+		ctx.close();
+	}
+
+	@Test
+	public void snapshotRestoredWithOverloadedBeanMethod() {
+		AnnotationConfigApplicationContext ctx = createContext("fp", OverloadedConfig.class);
+		assertEquals("bean method", ctx.getBean("overloaded", TestBean.class).getName());
+		ctx.close();
+
+		ctx = createContext("fp", OverloadedConfig.class);
+		assertTrue(isRestored(ctx, "overloaded"));
+		assertTrue(ctx.getBeanFactory().getBeanDefinition("overloaded") instanceof AnnotatedBeanDefinition);
+		assertEquals("bean method", ctx.getBean("overloaded", TestBean.class).getName());
+		ctx.close();
+	}
+
+
+	private AnnotationConfigApplicationContext createContext(String fingerprint, Class<?>... componentClasses) {
+		return createContextWithProperty(fingerprint, null, componentClasses);
+	}
+
+	private AnnotationConfigApplicationContext createContextWithProperty(
+			String fingerprint, @Nullable String property, Class<?>... componentClasses) {
+
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+		if (property != null) {
+			ctx.getEnvironment().getPropertySources().addFirst(
+					new MapPropertySource("test", Collections.singletonMap(property, "true")));
+		}
+		ctx.setBeanDefinitionSnapshotFile(this.snapshotFile);
+		ctx.setBeanDefinitionSnapshotFingerprint(fingerprint);
+		ctx.register(SnapshotConfig.class);
+		for (Class<?> componentClass : componentClasses) {
+			ctx.register(componentClass);
+		}
+		ctx.refresh();
+		return ctx;
+	}
+
+	private static boolean isRestored(AnnotationConfigApplicationContext ctx, String beanName) {
+		return ctx.getBeanFactory().getBeanDefinition(beanName).hasAttribute(BeanDefinitionSnapshot.RESTORED_ATTRIBUTE);
+	}
+
+	private static void assertBeans(AnnotationConfigApplicationContext ctx) {
+		TestBean testBean = ctx.getBean("testBean", TestBean.class);
+		assertEquals("snapshot", testBean.getName());
+		assertSame(ctx.getBean("importedBean"), testBean.getSpouse());
+		assertTrue(ctx.containsBean("registeredBean"));
+	}
+
+
+	@Import(ImportedConfig.class)
+	static class SnapshotConfig {
+
+		@Bean
+		public static CountingRegistryPostProcessor countingRegistryPostProcessor() {
+			return new CountingRegistryPostProcessor();
+		}
+
+		@Bean
+		public TestBean testBean(TestBean importedBean) {
+			TestBean testBean = new TestBean("snapshot");
+			testBean.setSpouse(importedBean);
+			return testBean;
+		}
+	}
+
+
+	static class ImportedConfig {
+
+		@Bean
+		public TestBean importedBean() {
+			return new TestBean("imported");
+		}
+	}
+
+
+	static class ImportAwareConfig {
+
+		@Bean
+		public ImportAwareBean importAwareBean() {
+			return new ImportAwareBean();
+		}
+	}
+
+
+	@Import(ImportAwareConfiguration.class)
+	static class ImportingConfig {
+	}
+
+
+	@Configuration
+	static class ImportAwareConfiguration implements ImportAware {
+
+		AnnotationMetadata importMetadata;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importMetadata = importMetadata;
+		}
+	}
+
+
+	static class ConditionalConfig {
+
+		@Bean
+		@Conditional(PropertyCondition.class)
+		public TestBean conditionalBean() {
+			return new TestBean("conditional");
+		}
+	}
+
+
+	static class PropertyCondition implements Condition {
+
+		static final String PROPERTY_NAME = "snapshot.conditional";
+
+		@Override
+		public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			return context.getEnvironment().containsProperty(PROPERTY_NAME);
+		}
+	}
+
+
+	static class UndeclaredImportAwareConfig {
+
+		@Bean
+		public Object importAwareBean() {
+			return new ImportAwareBean();
+		}
+	}
+
+
+	static class OverloadedConfig {
+
+		@Bean
+		public TestBean overloaded() {
+			return new TestBean("bean method");
+		}
+
+		public TestBean overloaded(ImportedConfig importedConfig) {
+			return new TestBean("plain method");
+		}
+	}
+
+
+	static class ImportAwareBean implements ImportAware {
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+		}
+	}
+
+
+	static class CountingRegistryPostProcessor implements BeanDefinitionRegistryPostProcessor {
+
+		static int invocationCount;
+
+		@Override
+		public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+			invocationCount++;
+			registry.registerBeanDefinition("registeredBean", new RootBeanDefinition(TestBean.class));
+		}
+
+		@Override
+		public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.springframework.context.annotation;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -104,6 +106,29 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		assertBeanDefinitionType(candidates, expectedBeanDefinitionType);
 	}
 
+	@Test
+	public void defaultsWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setScanParallelism(4);
+		testDefault(provider, ScannedGenericBeanDefinition.class);
+
+		ClassPathScanningCandidateComponentProvider sequentialProvider =
+				new ClassPathScanningCandidateComponentProvider(true);
+		sequentialProvider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		List<String> expected = new ArrayList<>();
+		for (BeanDefinition candidate : sequentialProvider.findCandidateComponents(TEST_BASE_PACKAGE)) {
+			expected.add(candidate.getBeanClassName());
+		}
+		List<String> actual = new ArrayList<>();
+		for (BeanDefinition candidate : provider.findCandidateComponents(TEST_BASE_PACKAGE)) {
+			actual.add(candidate.getBeanClassName());
+		}
+		assertEquals(expected, actual);
+	}
+
 	@Test
 	public void antStylePackageWithScan() {
 		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
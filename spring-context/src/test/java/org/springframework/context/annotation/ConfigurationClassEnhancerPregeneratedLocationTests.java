@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.core.OverridingClassLoader;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ConfigurationClassEnhancer} with a pregenerated class location,
+ * specified through the "cglib.pregeneratedLocation" system property.
+ */
+public class ConfigurationClassEnhancerPregeneratedLocationTests {
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File location;
+
+
+	@Before
+	public void setup() throws Exception {
+		this.location = this.temporaryFolder.newFolder();
+		System.setProperty("cglib.pregeneratedLocation", this.location.getPath());
+	}
+
+	@After
+	public void cleanup() {
+		System.clearProperty("cglib.pregeneratedLocation");
+	}
+
+
+	@Test
+	public void enhancedClassStoredAndReused() throws Exception {
+		AnnotationConfigApplicationContext ctx = createContext();
+		Object config = ctx.getBean("config");
+		assertTrue(config instanceof ConfigurationClassEnhancer.EnhancedConfiguration);
+		String className = config.getClass().getName();
+		File classFile = new File(this.location, className.replace('.', File.separatorChar) + ".class");
+		assertTrue(classFile.isFile());
+		assertTrue(new File(this.location, className.replace('.', File.separatorChar) + ".key").isFile());
+		assertTrue(classFile.setLastModified(0));
+		ctx.close();
+
+		ctx = createContext();
+		Object otherConfig = ctx.getBean("config");
+		assertNotSame(config.getClass(), otherConfig.getClass());
+		assertEquals(className, otherConfig.getClass().getName());
+		assertEquals("Stored class should have been loaded", 0, classFile.lastModified());
+		// Bean method interception still in place for the loaded class
+		assertSame(ctx.getBean("testBean"), otherConfig.getClass().getMethod("testBean").invoke(otherConfig));
+		ctx.close();
+	}
+
+
+	/**
+	 * Create a context for a freshly loaded {@link Config} class, so that the
+	 * deterministic enhanced class name is not taken yet.
+	 */
+	private static AnnotationConfigApplicationContext createContext() throws Exception {
+		OverridingClassLoader classLoader = new OverridingClassLoader(
+				ConfigurationClassEnhancerPregeneratedLocationTests.class.getClassLoader()) {
+			@Override
+			protected boolean isEligibleForOverriding(String className) {
+				return className.equals(Config.class.getName());
+			}
+		};
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+		ctx.setClassLoader(classLoader);
+		ctx.registerBean("config", classLoader.loadClass(Config.class.getName()));
+		ctx.refresh();
+		return ctx;
+	}
+
+
+	@Configuration
+	public static class Config {
+
+		@Bean
+		public TestBean testBean() {
+			return new TestBean("tb");
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -77,6 +77,25 @@ public class CandidateComponentsIndexTests {
 				contains("com.example.Foo"));
 	}
 
+	@Test
+	public void getConfigurationMetadata() {
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonList(createSampleProperties()), Arrays.asList(
+						createProperties("com.example.service.One", "first"),
+						createProperties("com.example.service.One", "second")));
+		assertTrue(index.hasConfigurationMetadata());
+		assertThat(index.getConfigurationMetadata("com.example.service.One"), is("first"));
+		assertThat(index.getConfigurationMetadata("com.example.service.Three"), is(nullValue()));
+	}
+
+	@Test
+	public void noConfigurationMetadata() {
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonList(createSampleProperties()));
+		assertFalse(index.hasConfigurationMetadata());
+		assertThat(index.getConfigurationMetadata("com.example.service.One"), is(nullValue()));
+	}
+
 	private static Properties createProperties(String key, String stereotypes) {
 		Properties properties = new Properties();
 		properties.put(key, String.join(",", stereotypes));
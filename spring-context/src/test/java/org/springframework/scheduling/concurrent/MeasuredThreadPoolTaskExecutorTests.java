@@ -0,0 +1,227 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jmx.export.annotation.AnnotationMBeanExporter;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 5.1.12
+ */
+public class MeasuredThreadPoolTaskExecutorTests extends AbstractSchedulingTaskExecutorTests {
+
+	private final TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+
+
+	@Override
+	protected AsyncListenableTaskExecutor buildExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setMetrics(this.metrics);
+		executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+		executor.setMaxPoolSize(1);
+		executor.afterPropertiesSet();
+		return executor;
+	}
+
+
+	@Test
+	public void metricsForCompletedAndFailedTasks() throws Exception {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setMetrics(this.metrics);
+		executor.afterPropertiesSet();
+		Future<?> success = executor.submit(() -> "success");
+		Future<?> failure = executor.submit(() -> {
+			throw new IllegalStateException("failure");
+		});
+		assertEquals("success", success.get(1000, TimeUnit.MILLISECONDS));
+		try {
+			failure.get(1000, TimeUnit.MILLISECONDS);
+			fail("Should have thrown ExecutionException");
+		}
+		catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof IllegalStateException);
+		}
+		awaitTermination(executor);
+
+		assertEquals(2, this.metrics.getSubmittedTaskCount());
+		assertEquals(2, this.metrics.getCompletedTaskCount());
+		assertEquals(1, this.metrics.getFailedTaskCount());
+		assertEquals(0, this.metrics.getRejectedTaskCount());
+		assertEquals(2, sum(this.metrics.getQueueLatencyHistogram()));
+		assertEquals(2, sum(this.metrics.getExecutionTimeHistogram()));
+		assertEquals(this.metrics.getHistogramBucketBoundsMillis().length + 1,
+				this.metrics.getExecutionTimeHistogram().length);
+	}
+
+	@Test
+	public void metricsForRejectedTasks() throws Exception {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setMetrics(this.metrics);
+		executor.setMaxPoolSize(1);
+		executor.setQueueCapacity(0);
+		executor.afterPropertiesSet();
+		CountDownLatch latch = new CountDownLatch(1);
+		executor.execute(() -> await(latch));
+		try {
+			executor.execute(() -> {});
+			fail("Should have thrown TaskRejectedException");
+		}
+		catch (TaskRejectedException ex) {
+			// expected
+		}
+		finally {
+			latch.countDown();
+		}
+		awaitTermination(executor);
+
+		assertEquals(2, this.metrics.getSubmittedTaskCount());
+		assertEquals(1, this.metrics.getRejectedTaskCount());
+		assertEquals(1, this.metrics.getCompletedTaskCount());
+	}
+
+	@Test
+	public void queueLatencyPercentiles() throws Exception {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setMetrics(this.metrics);
+		executor.setMaxPoolSize(1);
+		executor.afterPropertiesSet();
+		CountDownLatch latch = new CountDownLatch(1);
+		executor.execute(() -> await(latch));
+		for (int i = 0; i < 9; i++) {
+			executor.execute(() -> {});
+		}
+		Thread.sleep(30);
+		latch.countDown();
+		awaitTermination(executor);
+
+		assertEquals(10, this.metrics.getCompletedTaskCount());
+		assertTrue(this.metrics.getMaxQueueLatencyMillis() >= 25);
+		assertTrue(this.metrics.getQueueLatency99thPercentileMillis() >= 50);
+		assertTrue(this.metrics.getQueueLatencyPercentileMillis(0.5) >= 50);
+		assertTrue(this.metrics.getQueueLatencyPercentileMillis(0.0) < 50);
+		assertTrue(this.metrics.getExecutionTimePercentileMillis(1.0) >= 50);
+	}
+
+	@Test
+	public void adaptivePoolSizing() throws Exception {
+		AdaptivePoolSizingPolicy policy = new AdaptivePoolSizingPolicy();
+		policy.setTargetQueueLatencyMillis(20);
+		policy.setAdjustmentIntervalMillis(1);
+		policy.setMaxCorePoolSize(4);
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setPoolSizingPolicy(policy);
+		executor.setCorePoolSize(1);
+		executor.afterPropertiesSet();
+		assertNotNull(executor.getMetrics());
+
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch latch = new CountDownLatch(1);
+		executor.execute(() -> {
+			started.countDown();
+			await(latch);
+		});
+		await(started);
+		Thread.sleep(10);
+		executor.execute(() -> await(latch));
+		Thread.sleep(50);
+		executor.execute(() -> await(latch));
+		assertTrue(executor.getCorePoolSize() > 1);
+		assertTrue(executor.getCorePoolSize() <= 4);
+		latch.countDown();
+		awaitTermination(executor);
+	}
+
+	@Test
+	public void adaptivePoolSizingPolicy() {
+		AdaptivePoolSizingPolicy policy = new AdaptivePoolSizingPolicy();
+		policy.setTargetQueueLatencyMillis(100);
+		policy.setMinCorePoolSize(2);
+		policy.setMaxCorePoolSize(10);
+		assertEquals(5, policy.determineCorePoolSize(4, 110, 10));
+		assertEquals(8, policy.determineCorePoolSize(4, 1000, 10));
+		assertEquals(10, policy.determineCorePoolSize(8, Double.POSITIVE_INFINITY, 10));
+		assertEquals(4, policy.determineCorePoolSize(4, 75, 0));
+		assertEquals(4, policy.determineCorePoolSize(4, 10, 1));
+		assertEquals(3, policy.determineCorePoolSize(4, 10, 0));
+		assertEquals(2, policy.determineCorePoolSize(2, 0, 0));
+	}
+
+	@Test
+	public void metricsExportedViaJmx() throws Exception {
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		ObjectName objectName = ObjectName.getInstance("spring:type=TaskExecutionMetrics,name=test");
+		AnnotationMBeanExporter exporter = new AnnotationMBeanExporter();
+		exporter.setServer(server);
+		exporter.setBeans(Collections.singletonMap(objectName.toString(), this.metrics));
+		exporter.afterPropertiesSet();
+		exporter.afterSingletonsInstantiated();
+		try {
+			this.metrics.taskSubmitted();
+			this.metrics.taskRejected();
+			assertEquals(1L, server.getAttribute(objectName, "SubmittedTaskCount"));
+			assertEquals(1L, server.getAttribute(objectName, "RejectedTaskCount"));
+			assertEquals(0L, server.getAttribute(objectName, "CompletedTaskCount"));
+			assertNotNull(server.getAttribute(objectName, "QueueLatencyHistogram"));
+			assertEquals(0L, server.invoke(objectName, "getQueueLatencyPercentileMillis",
+					new Object[] {0.5}, new String[] {double.class.getName()}));
+		}
+		finally {
+			exporter.destroy();
+			MBeanServerFactory.releaseMBeanServer(server);
+		}
+	}
+
+
+	private static void awaitTermination(ThreadPoolTaskExecutor executor) throws InterruptedException {
+		ThreadPoolExecutor threadPoolExecutor = executor.getThreadPoolExecutor();
+		threadPoolExecutor.shutdown();
+		assertTrue(threadPoolExecutor.awaitTermination(1000, TimeUnit.MILLISECONDS));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(1000, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static long sum(long[] counts) {
+		long sum = 0;
+		for (long count : counts) {
+			sum += count;
+		}
+		return sum;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -137,6 +137,62 @@ public class ThreadPoolTaskSchedulerTests extends AbstractSchedulingTaskExecutor
 		}
 	}
 
+	@Test
+	public void scheduleOneTimeTasksWithMetrics() throws Exception {
+		TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setMetrics(metrics);
+		scheduler.afterPropertiesSet();
+		Future<?> future = scheduler.schedule(new TestTask(1), new Date());
+		Future<?> failingFuture = scheduler.schedule(new TestTask(0), new Date());
+		assertNull(future.get(1000, TimeUnit.MILLISECONDS));
+		try {
+			failingFuture.get(1000, TimeUnit.MILLISECONDS);
+			fail("Should have thrown ExecutionException");
+		}
+		catch (ExecutionException ex) {
+			// expected
+		}
+		scheduler.getScheduledExecutor().shutdown();
+		assertTrue(scheduler.getScheduledExecutor().awaitTermination(1000, TimeUnit.MILLISECONDS));
+
+		assertEquals(2, metrics.getSubmittedTaskCount());
+		assertEquals(2, metrics.getCompletedTaskCount());
+		assertEquals(1, metrics.getFailedTaskCount());
+		assertEquals(0, metrics.getRejectedTaskCount());
+	}
+
+	@Test
+	public void scheduleTriggerTaskWithMetrics() throws Exception {
+		TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setMetrics(metrics);
+		scheduler.afterPropertiesSet();
+		scheduler.schedule(new TestTask(1), new TestTrigger(3));
+		awaitCompletedTasks(metrics, 3);
+		scheduler.destroy();
+		assertTrue(scheduler.getScheduledExecutor().awaitTermination(1000, TimeUnit.MILLISECONDS));
+
+		assertEquals(1, metrics.getSubmittedTaskCount());
+		assertEquals(3, metrics.getCompletedTaskCount());
+		assertEquals(2, metrics.getFailedTaskCount());
+	}
+
+	@Test
+	public void scheduleFixedRateTaskWithMetrics() throws Exception {
+		TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setMetrics(metrics);
+		scheduler.afterPropertiesSet();
+		scheduler.scheduleAtFixedRate(new TestTask(0), 10);
+		awaitCompletedTasks(metrics, 2);
+		scheduler.destroy();
+		assertTrue(scheduler.getScheduledExecutor().awaitTermination(1000, TimeUnit.MILLISECONDS));
+
+		assertEquals(1, metrics.getSubmittedTaskCount());
+		assertEquals(metrics.getCompletedTaskCount(), metrics.getFailedTaskCount());
+	}
+
 
 	private void assertThreadNamePrefix(TestTask task) {
 		assertEquals(THREAD_NAME_PREFIX, task.lastThread.getName().substring(0, THREAD_NAME_PREFIX.length()));
@@ -160,6 +216,13 @@ public class ThreadPoolTaskSchedulerTests extends AbstractSchedulingTaskExecutor
 		assertEquals("latch did not count down,", 0, latch.getCount());
 	}
 
+	private void awaitCompletedTasks(TaskExecutionMetrics metrics, int count) throws InterruptedException {
+		for (int i = 0; i < 100 && metrics.getCompletedTaskCount() < count; i++) {
+			Thread.sleep(10);
+		}
+		assertTrue("tasks did not complete", metrics.getCompletedTaskCount() >= count);
+	}
+
 
 	private static class TestTask implements Runnable {
 
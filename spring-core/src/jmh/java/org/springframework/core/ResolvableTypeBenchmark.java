@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.core.codec.ByteArrayDecoder;
+import org.springframework.core.codec.ByteBufferDecoder;
+import org.springframework.core.codec.DataBufferDecoder;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.ResourceDecoder;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Benchmarks for repeated {@link ResolvableType} lookups for the same
+ * field, method parameter and class, including generic resolution and
+ * {@link ResolvableType#as} projections, as well as a typical codec lookup.
+ * Run with {@code -PjmhProfilers=gc} to compare allocations per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ResolvableTypeBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public Field field;
+
+		public MethodParameter methodParameter;
+
+		public List<Decoder<?>> decoders;
+
+		public MimeType mimeType = MimeTypeUtils.TEXT_PLAIN;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.field = Sample.class.getField("values");
+			Method method = Sample.class.getMethod("handle", Map.class);
+			this.methodParameter = new MethodParameter(method, 0);
+			this.decoders = Arrays.asList(new ByteArrayDecoder(), new ByteBufferDecoder(),
+					new DataBufferDecoder(), new ResourceDecoder(), StringDecoder.allMimeTypes());
+		}
+	}
+
+	@Benchmark
+	public void forFieldWithGeneric(BenchmarkState state, Blackhole bh) {
+		ResolvableType type = ResolvableType.forField(state.field);
+		bh.consume(type.getGeneric(0).resolve());
+	}
+
+	@Benchmark
+	public void forMethodParameterWithGenerics(BenchmarkState state, Blackhole bh) {
+		ResolvableType type = ResolvableType.forMethodParameter(state.methodParameter);
+		bh.consume(type.resolveGenerics());
+	}
+
+	@Benchmark
+	public void forClassAsSupertype(BenchmarkState state, Blackhole bh) {
+		ResolvableType type = ResolvableType.forClass(StringList.class);
+		bh.consume(type.as(List.class).resolveGeneric(0));
+	}
+
+	@Benchmark
+	public void codecLookup(BenchmarkState state, Blackhole bh) {
+		ResolvableType elementType = ResolvableType.forClass(String.class);
+		for (Decoder<?> decoder : state.decoders) {
+			if (decoder.canDecode(elementType, state.mimeType)) {
+				bh.consume(decoder);
+				return;
+			}
+		}
+	}
+
+
+	public static class Sample {
+
+		public List<String> values;
+
+		public void handle(Map<String, Integer> counts) {
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	public static class StringList extends ArrayList<String> {
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link AntPathMatcher#match}, matching a set of request paths
+ * against a typical set of handler mapping patterns.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AntPathMatcherBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"true", "false"})
+		public boolean cachePatterns;
+
+		public AntPathMatcher pathMatcher;
+
+		public final List<String> patterns = new ArrayList<>();
+
+		public final List<String> paths = new ArrayList<>();
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.pathMatcher = new AntPathMatcher();
+			this.pathMatcher.setCachePatterns(this.cachePatterns);
+			this.patterns.add("/");
+			this.patterns.add("/static/**");
+			this.patterns.add("/resources/*.css");
+			this.patterns.add("/api/users");
+			this.patterns.add("/api/users/{id}");
+			this.patterns.add("/api/users/{id}/orders/{orderId:\\d+}");
+			this.patterns.add("/api/*/search");
+			this.patterns.add("/api/**/items/?");
+			this.patterns.add("/admin/**/*.html");
+			this.paths.add("/");
+			this.paths.add("/static/js/app/main.js");
+			this.paths.add("/resources/site.css");
+			this.paths.add("/api/users/42");
+			this.paths.add("/api/users/42/orders/1000");
+			this.paths.add("/api/products/search");
+			this.paths.add("/api/catalog/spring/items/a");
+			this.paths.add("/admin/reports/daily/index.html");
+		}
+	}
+
+	@Benchmark
+	public void matchAll(BenchmarkState state, Blackhole bh) {
+		for (String path : state.paths) {
+			for (String pattern : state.patterns) {
+				bh.consume(state.pathMatcher.match(pattern, path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void extractUriTemplateVariables(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.pathMatcher.extractUriTemplateVariables(
+				"/api/users/{id}/orders/{orderId:\\d+}", "/api/users/42/orders/1000"));
+	}
+
+}
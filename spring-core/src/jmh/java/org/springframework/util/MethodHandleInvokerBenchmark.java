@@ -0,0 +1,75 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the per-call cost of {@link MethodHandleInvoker#invoke}
+ * compared to {@link Method#invoke}, for a typical handler-style method
+ * with a reference and a primitive argument.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class MethodHandleInvokerBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public final Handler handler = new Handler();
+
+		public final Object[] args = new Object[] {"spring", 42};
+
+		public Method method;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.method = Handler.class.getMethod("handle", String.class, int.class);
+		}
+	}
+
+	@Benchmark
+	public Object reflection(BenchmarkState state) throws Exception {
+		return state.method.invoke(state.handler, state.args);
+	}
+
+	@Benchmark
+	public Object methodHandleInvoker(BenchmarkState state) throws Exception {
+		return MethodHandleInvoker.forMethod(state.method).invoke(state.handler, state.args);
+	}
+
+	@Benchmark
+	public Object direct(BenchmarkState state) {
+		return state.handler.handle((String) state.args[0], (Integer) state.args[1]);
+	}
+
+
+	public static class Handler {
+
+		public String handle(String name, int count) {
+			return (count > 0 ? name : null);
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Properties;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for repeated {@link PropertyPlaceholderHelper#replacePlaceholders}
+ * calls for the same value, as for {@code @Value} injection into prototype beans.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class PropertyPlaceholderHelperBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"${app.name}", "jdbc:${db.host:localhost}:${db.port}/${app.name}", "${app.${env}.url:none}"})
+		public String value;
+
+		public final PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper("${", "}", ":", false);
+
+		public final Properties properties = new Properties();
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.properties.setProperty("app.name", "spring");
+			this.properties.setProperty("db.port", "5432");
+			this.properties.setProperty("env", "prod");
+			this.properties.setProperty("app.prod.url", "https://${app.name}.example.com");
+		}
+	}
+
+	@Benchmark
+	public String replacePlaceholders(BenchmarkState state) {
+		return state.helper.replacePlaceholders(state.value, state.properties);
+	}
+
+}
@@ -16,8 +16,16 @@
 
 package org.springframework.cglib.core;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.ProtectionDomain;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +51,18 @@ abstract public class AbstractClassGenerator<T> implements ClassGenerator {
 	private static final boolean DEFAULT_USE_CACHE =
 			Boolean.parseBoolean(System.getProperty("cglib.useCache", "true"));
 
+	// SPRING PATCH BEGIN
+	private static final String PREGENERATED_LOCATION_PROPERTY = "cglib.pregeneratedLocation";
+
+	private static final String KEY_FILE_SUFFIX = ".key";
+
+	private static final Predicate NO_RESERVED_NAMES = new Predicate() {
+		public boolean evaluate(Object name) {
+			return false;
+		}
+	};
+	// SPRING PATCH END
+
 
 	private GeneratorStrategy strategy = DefaultGeneratorStrategy.INSTANCE;
 
@@ -64,6 +84,10 @@ abstract public class AbstractClassGenerator<T> implements ClassGenerator {
 
 	private boolean attemptLoad;
 
+	// SPRING PATCH BEGIN
+	private File pregeneratedLocation = getDefaultPregeneratedLocation();
+	// SPRING PATCH END
+
 
 	protected static class ClassLoaderData {
 
@@ -242,6 +266,55 @@ abstract public class AbstractClassGenerator<T> implements ClassGenerator {
 		return attemptLoad;
 	}
 
+	// SPRING PATCH BEGIN
+	/**
+	 * Set a directory for pregenerated classes: if set, generators which are able to
+	 * describe their class in a stable fashion (see {@link #getPregenerationKey()})
+	 * derive a deterministic class name from that description, load the bytecode
+	 * of a previously generated class of that name from the directory, and only
+	 * fall back to actual class generation if not found, storing the generated
+	 * bytecode in the directory for subsequent runs.
+	 * <p>The directory follows the regular class file layout, so it may be
+	 * populated at build time (e.g. through a training run of the application
+	 * or its integration tests) and shipped along with the application, or
+	 * get populated on first boot. Each class file is accompanied by a ".key"
+	 * file holding SHA-256 digests of the class description and of the bytecode:
+	 * a class file is only reused if both match, since the class name is only
+	 * derived from the hash code of the description. The default is the location
+	 * specified through the "cglib.pregeneratedLocation" system property at the
+	 * time of generator creation, if any.
+	 * @param pregeneratedLocation the directory, or null to always generate classes
+	 * @since 5.1.12
+	 */
+	public void setPregeneratedLocation(File pregeneratedLocation) {
+		this.pregeneratedLocation = pregeneratedLocation;
+	}
+
+	/**
+	 * @see #setPregeneratedLocation
+	 */
+	public File getPregeneratedLocation() {
+		return pregeneratedLocation;
+	}
+
+	/**
+	 * Return a stable description of the class to be generated, covering
+	 * everything that the generated bytecode depends on apart from its name,
+	 * or null if the generated class cannot be reused across runs.
+	 * <p>Only called with a {@link #setPregeneratedLocation pregenerated location}
+	 * being set. The default implementation returns null.
+	 * @since 5.1.12
+	 */
+	protected String getPregenerationKey() {
+		return null;
+	}
+
+	private static File getDefaultPregeneratedLocation() {
+		String location = System.getProperty(PREGENERATED_LOCATION_PROPERTY);
+		return (location != null ? new File(location) : null);
+	}
+	// SPRING PATCH END
+
 	/**
 	 * Set the strategy to use to create the bytecode from this generator.
 	 * By default an instance of {@see DefaultGeneratorStrategy} is used.
@@ -341,11 +414,28 @@ abstract public class AbstractClassGenerator<T> implements ClassGenerator {
 						getClassName() + ". It seems that the loader has been expired from a weak reference somehow. " +
 						"Please file an issue at cglib's issue tracker.");
 			}
+			// SPRING PATCH BEGIN
+			String pregenerationKey = (pregeneratedLocation != null ? getPregenerationKey() : null);
+			File classFile = null;
 			synchronized (classLoader) {
-				String name = generateClassName(data.getUniqueNamePredicate());
+				String name = null;
+				if (pregenerationKey != null) {
+					// Deterministic name, unless already taken within this ClassLoader
+					name = namingPolicy.getClassName(namePrefix, source.name, pregenerationKey, NO_RESERVED_NAMES);
+					if (data.getUniqueNamePredicate().evaluate(name)) {
+						name = null;
+					}
+					else {
+						classFile = new File(pregeneratedLocation, name.replace('.', File.separatorChar) + ".class");
+					}
+				}
+				if (name == null) {
+					name = generateClassName(data.getUniqueNamePredicate());
+				}
 				data.reserveName(name);
 				this.setClassName(name);
 			}
+			// SPRING PATCH END
 			if (attemptLoad) {
 				try {
 					gen = classLoader.loadClass(getClassName());
@@ -355,7 +445,13 @@ abstract public class AbstractClassGenerator<T> implements ClassGenerator {
 					// ignore
 				}
 			}
-			byte[] b = strategy.generate(this);
+			// SPRING PATCH BEGIN
+			byte[] b = (classFile != null ? readClassFile(classFile, getClassName(), pregenerationKey) : null);
+			boolean pregenerated = (b != null);
+			if (!pregenerated) {
+				b = strategy.generate(this);
+			}
+			// SPRING PATCH END
 			String className = ClassNameReader.getClassName(new ClassReader(b));
 			ProtectionDomain protectionDomain = getProtectionDomain();
 			synchronized (classLoader) { // just in case
@@ -363,6 +459,11 @@ abstract public class AbstractClassGenerator<T> implements ClassGenerator {
 				gen = ReflectUtils.defineClass(className, b, classLoader, protectionDomain, contextClass);
 				// SPRING PATCH END
 			}
+			// SPRING PATCH BEGIN
+			if (classFile != null && !pregenerated) {
+				writeClassFile(classFile, b, pregenerationKey);
+			}
+			// SPRING PATCH END
 			return gen;
 		}
 		catch (RuntimeException | Error ex) {
@@ -376,6 +477,85 @@ abstract public class AbstractClassGenerator<T> implements ClassGenerator {
 		}
 	}
 
+	// SPRING PATCH BEGIN
+	private static byte[] readClassFile(File classFile, String className, String pregenerationKey) {
+		File keyFile = getKeyFile(classFile);
+		if (!classFile.isFile() || !keyFile.isFile()) {
+			return null;
+		}
+		try {
+			// Read the key file first: it gets written after the class file
+			byte[] expectedDigests = Files.readAllBytes(keyFile.toPath());
+			byte[] b = Files.readAllBytes(classFile.toPath());
+			// Only accept a class file for the very same class description (not just
+			// the same name), with unmodified bytecode for the expected class
+			if (!Arrays.equals(expectedDigests, digests(pregenerationKey, b))) {
+				return null;
+			}
+			return (className.equals(ClassNameReader.getClassName(new ClassReader(b))) ? b : null);
+		}
+		catch (IOException | RuntimeException ex) {
+			// Not readable: generate the class instead
+			return null;
+		}
+	}
+
+	private static void writeClassFile(File classFile, byte[] b, String pregenerationKey) {
+		try {
+			File dir = classFile.getParentFile();
+			dir.mkdirs();
+			writeAtomically(classFile, b);
+			writeAtomically(getKeyFile(classFile), digests(pregenerationKey, b));
+		}
+		catch (IOException ex) {
+			// Best effort: a read-only location simply leads to regular class generation
+		}
+	}
+
+	private static void writeAtomically(File file, byte[] content) throws IOException {
+		// Write to a temporary file first: concurrently starting applications may share the directory
+		File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+		try {
+			Files.write(tempFile.toPath(), content);
+			Files.move(tempFile.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			tempFile.delete();
+		}
+	}
+
+	private static File getKeyFile(File classFile) {
+		String name = classFile.getName();
+		return new File(classFile.getParentFile(),
+				name.substring(0, name.length() - ".class".length()) + KEY_FILE_SUFFIX);
+	}
+
+	/**
+	 * Return the key file content for the given class description and bytecode:
+	 * the hex-encoded SHA-256 digests of both, one per line.
+	 */
+	private static byte[] digests(String pregenerationKey, byte[] b) {
+		String content = sha256Hex(pregenerationKey.getBytes(StandardCharsets.UTF_8)) + '\n' + sha256Hex(b) + '\n';
+		return content.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static String sha256Hex(byte[] bytes) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 not supported", ex);
+		}
+		StringBuilder sb = new StringBuilder(64);
+		for (byte value : digest.digest(bytes)) {
+			sb.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+		}
+		return sb.toString();
+	}
+	// SPRING PATCH END
+
 	abstract protected Object firstInstance(Class type) throws Exception;
 
 	abstract protected Object nextInstance(Object instance) throws Exception;
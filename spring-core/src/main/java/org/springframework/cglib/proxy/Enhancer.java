@@ -24,6 +24,7 @@ import java.lang.reflect.Method;
 import java.security.ProtectionDomain;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -582,6 +583,57 @@ public class Enhancer extends AbstractClassGenerator {
 		return super.generate(data);
 	}
 
+	// SPRING PATCH BEGIN
+	/**
+	 * Describe the superclass and interface structure, the callback types and the
+	 * callback index chosen by the filter for each method, plus all generation flags.
+	 * Filter instances are not stable across runs; their decisions are.
+	 */
+	@Override
+	protected String getPregenerationKey() {
+		if (currentData != null) {
+			return null;
+		}
+		Class sc = (superclass == null) ? Object.class : superclass;
+		StringBuilder sb = new StringBuilder(getClass().getName());
+		String version = Enhancer.class.getPackage().getImplementationVersion();
+		sb.append(':').append(version).append(':').append(getStrategy().getClass().getName());
+		sb.append(':').append(sc.getName());
+		if (interfaces != null) {
+			for (Class intf : interfaces) {
+				sb.append(',').append(intf.getName());
+			}
+		}
+		sb.append(':').append(useFactory).append(',').append(interceptDuringConstruction);
+		sb.append(',').append(serialVersionUID).append(':');
+		for (Type callbackType : callbackTypes) {
+			sb.append(callbackType.getDescriptor());
+		}
+
+		List constructors = new ArrayList(Arrays.asList(sc.getDeclaredConstructors()));
+		filterConstructors(sc, constructors);
+		List entries = new ArrayList();
+		for (Iterator it = constructors.iterator(); it.hasNext();) {
+			Constructor constructor = (Constructor) it.next();
+			entries.add(constructor.getModifiers() + Type.getConstructorDescriptor(constructor) +
+					Arrays.toString(constructor.getExceptionTypes()));
+		}
+		List methods = new ArrayList();
+		getMethods(sc, interfaces, methods, new ArrayList(), new HashSet());
+		for (Iterator it = methods.iterator(); it.hasNext();) {
+			Method method = (Method) it.next();
+			entries.add(method.getDeclaringClass().getName() + '.' + method.getName() +
+					Type.getMethodDescriptor(method) + method.getModifiers() +
+					Arrays.toString(method.getExceptionTypes()) + '=' + filter.accept(method));
+		}
+		Collections.sort(entries);
+		for (Iterator it = entries.iterator(); it.hasNext();) {
+			sb.append(';').append(it.next());
+		}
+		return sb.toString();
+	}
+	// SPRING PATCH END
+
 	protected ClassLoader getDefaultClassLoader() {
 		if (superclass != null) {
 			return superclass.getClassLoader();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,11 @@ package org.springframework.core;
  * to the ASM-based {@link LocalVariableTableParameterNameDiscoverer} for checking
  * debug information in the class file.
  *
+ * <p>As of 5.1.12, an {@link IndexedParameterNameDiscoverer} is consulted before
+ * reading class files, resolving parameter names from a build-time index if present.
+ * Note that class file information is cached across discoverer instances, so there
+ * is no need to share a {@code DefaultParameterNameDiscoverer} between components.
+ *
  * <p>If a Kotlin reflection implementation is present,
  * {@link KotlinReflectionParameterNameDiscoverer} is added first in the list and used
  * for Kotlin classes and interfaces. When compiling or running as a Graal native image,
@@ -33,6 +38,7 @@ package org.springframework.core;
  * @author Sebastien Deleuze
  * @since 4.0
  * @see StandardReflectionParameterNameDiscoverer
+ * @see IndexedParameterNameDiscoverer
  * @see LocalVariableTableParameterNameDiscoverer
  * @see KotlinReflectionParameterNameDiscoverer
  */
@@ -44,6 +50,7 @@ public class DefaultParameterNameDiscoverer extends PrioritizedParameterNameDisc
 				addDiscoverer(new KotlinReflectionParameterNameDiscoverer());
 			}
 			addDiscoverer(new StandardReflectionParameterNameDiscoverer());
+			addDiscoverer(new IndexedParameterNameDiscoverer());
 			addDiscoverer(new LocalVariableTableParameterNameDiscoverer());
 		}
 	}
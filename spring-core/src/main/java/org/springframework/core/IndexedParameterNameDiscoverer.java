@@ -0,0 +1,185 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link ParameterNameDiscoverer} implementation which looks up parameter names
+ * in an index captured at build time, typically by the annotation processor in
+ * the {@code spring-context-indexer} module, for classes compiled without the
+ * "-parameters" compiler flag.
+ *
+ * <p>The index is loaded from all {@value #INDEX_RESOURCE_LOCATION} files
+ * visible to the ClassLoader of the declaring class, once per ClassLoader.
+ * Each entry maps a key of the form {@code com.example.MyType#myMethod(java.lang.String,int[])}
+ * (with "&lt;init&gt;" as method name for constructors) to the comma-separated
+ * parameter names. Like the components index, the parameter names index is
+ * ignored if the "spring.index.ignore" property is set to "true".
+ *
+ * <p>Since the key contains the full signature, an entry only applies to a
+ * method or constructor with the same parameter types; an entry with a different
+ * number of names is ignored as stale. In both cases, this discoverer returns
+ * {@code null}, letting {@link DefaultParameterNameDiscoverer} fall back to
+ * reading the class file. Renamed parameters in a class recompiled without
+ * the annotation processor are not detected though, just like other changes
+ * that the index does not reflect yet.
+ *
+ * @since 5.1.12
+ * @see DefaultParameterNameDiscoverer
+ * @see LocalVariableTableParameterNameDiscoverer
+ */
+public class IndexedParameterNameDiscoverer implements ParameterNameDiscoverer {
+
+	/**
+	 * The location to look for parameter names.
+	 * <p>Can be present in multiple JAR files.
+	 */
+	public static final String INDEX_RESOURCE_LOCATION = "META-INF/spring.parameter-names";
+
+	private static final String CONSTRUCTOR_NAME = "<init>";
+
+	private static final Function<String, String> EMPTY_INDEX = key -> null;
+
+	private static final boolean shouldIgnoreIndex = SpringProperties.getFlag("spring.index.ignore");
+
+	private static final Log logger = LogFactory.getLog(IndexedParameterNameDiscoverer.class);
+
+	private static final Map<ClassLoader, Function<String, String>> indexCache = new ConcurrentReferenceHashMap<>();
+
+
+	@Nullable
+	private final Function<String, String> index;
+
+
+	/**
+	 * Create a new {@code IndexedParameterNameDiscoverer} for the
+	 * {@value #INDEX_RESOURCE_LOCATION} files in the class path.
+	 */
+	public IndexedParameterNameDiscoverer() {
+		this.index = null;
+	}
+
+	/**
+	 * Create a new {@code IndexedParameterNameDiscoverer} for the given index.
+	 * @param index a function returning the comma-separated parameter names for
+	 * a given key, or {@code null} if not indexed
+	 */
+	public IndexedParameterNameDiscoverer(Function<String, String> index) {
+		Assert.notNull(index, "Index function must not be null");
+		this.index = index;
+	}
+
+
+	@Override
+	@Nullable
+	public String[] getParameterNames(Method method) {
+		Method originalMethod = BridgeMethodResolver.findBridgedMethod(method);
+		return getParameterNames(originalMethod, originalMethod.getName());
+	}
+
+	@Override
+	@Nullable
+	public String[] getParameterNames(Constructor<?> ctor) {
+		return getParameterNames(ctor, CONSTRUCTOR_NAME);
+	}
+
+	@Nullable
+	private String[] getParameterNames(Executable executable, String name) {
+		Class<?> declaringClass = executable.getDeclaringClass();
+		Function<String, String> index = this.index;
+		if (index == null) {
+			ClassLoader classLoader = declaringClass.getClassLoader();
+			if (classLoader == null || shouldIgnoreIndex) {
+				return null;
+			}
+			index = indexCache.computeIfAbsent(classLoader, IndexedParameterNameDiscoverer::loadIndex);
+			if (index == EMPTY_INDEX) {
+				return null;
+			}
+		}
+		String parameterNames = index.apply(getKey(declaringClass, name, executable.getParameterTypes()));
+		if (parameterNames == null) {
+			return null;
+		}
+		String[] result = StringUtils.commaDelimitedListToStringArray(parameterNames);
+		return (result.length == executable.getParameterCount() ? result : null);
+	}
+
+
+	/**
+	 * Build the index key for the given method or constructor.
+	 * @param declaringClass the declaring class
+	 * @param name the method name, or "&lt;init&gt;" for a constructor
+	 * @param parameterTypes the parameter types
+	 * @return the key, as also written by an index generator
+	 */
+	public static String getKey(Class<?> declaringClass, String name, Class<?>... parameterTypes) {
+		StringBuilder sb = new StringBuilder(declaringClass.getName()).append('#').append(name).append('(');
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(parameterTypes[i].getTypeName());
+		}
+		return sb.append(')').toString();
+	}
+
+	private static Function<String, String> loadIndex(ClassLoader classLoader) {
+		Properties index = new Properties();
+		try {
+			Enumeration<URL> urls = classLoader.getResources(INDEX_RESOURCE_LOCATION);
+			while (urls.hasMoreElements()) {
+				try (InputStream is = urls.nextElement().openStream()) {
+					index.load(is);
+				}
+			}
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to load parameter names index from location [" +
+						INDEX_RESOURCE_LOCATION + "]", ex);
+			}
+			return EMPTY_INDEX;
+		}
+		if (index.isEmpty()) {
+			return EMPTY_INDEX;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Loaded parameter names index with " + index.size() + " entries");
+		}
+		return index::getProperty;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,15 +37,20 @@ import org.springframework.asm.SpringAsmInfo;
 import org.springframework.asm.Type;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * Implementation of {@link ParameterNameDiscoverer} that uses the LocalVariableTable
  * information in the method attributes to discover parameter names. Returns
  * {@code null} if the class file was compiled without debug information.
  *
- * <p>Uses ObjectWeb's ASM library for analyzing class files. Each discoverer instance
- * caches the ASM discovered information for each introspected Class, in a thread-safe
- * manner. It is recommended to reuse ParameterNameDiscoverer instances as far as possible.
+ * <p>Uses ObjectWeb's ASM library for analyzing class files. As of 5.1.12, the ASM
+ * discovered information for each introspected Class is cached in a thread-safe manner
+ * across all discoverer instances. Each class file is therefore typically read just once
+ * per application, even if many components create their own discoverer. Note that the
+ * cache entries are softly referenced: they keep their Class (and its ClassLoader)
+ * reachable until they get cleared under memory pressure, which may delay the unloading
+ * of classes from a discarded ClassLoader.
  *
  * @author Adrian Colyer
  * @author Costin Leau
@@ -60,8 +65,10 @@ public class LocalVariableTableParameterNameDiscoverer implements ParameterNameD
 	// marker object for classes that do not have any debug info
 	private static final Map<Member, String[]> NO_DEBUG_INFO_MAP = Collections.emptyMap();
 
-	// the cache uses a nested index (value is a map) to keep the top level cache relatively small in size
-	private final Map<Class<?>, Map<Member, String[]>> parameterNamesCache = new ConcurrentHashMap<>(32);
+	// the cache uses a nested index (value is a map) to keep the top level cache relatively small in size;
+	// shared across discoverer instances, with soft entries only cleared under memory pressure
+	private static final Map<Class<?>, Map<Member, String[]>> parameterNamesCache =
+			new ConcurrentReferenceHashMap<>(256);
 
 
 	@Override
@@ -69,10 +76,10 @@ public class LocalVariableTableParameterNameDiscoverer implements ParameterNameD
 	public String[] getParameterNames(Method method) {
 		Method originalMethod = BridgeMethodResolver.findBridgedMethod(method);
 		Class<?> declaringClass = originalMethod.getDeclaringClass();
-		Map<Member, String[]> map = this.parameterNamesCache.get(declaringClass);
+		Map<Member, String[]> map = parameterNamesCache.get(declaringClass);
 		if (map == null) {
 			map = inspectClass(declaringClass);
-			this.parameterNamesCache.put(declaringClass, map);
+			parameterNamesCache.put(declaringClass, map);
 		}
 		if (map != NO_DEBUG_INFO_MAP) {
 			return map.get(originalMethod);
@@ -84,10 +91,10 @@ public class LocalVariableTableParameterNameDiscoverer implements ParameterNameD
 	@Nullable
 	public String[] getParameterNames(Constructor<?> ctor) {
 		Class<?> declaringClass = ctor.getDeclaringClass();
-		Map<Member, String[]> map = this.parameterNamesCache.get(declaringClass);
+		Map<Member, String[]> map = parameterNamesCache.get(declaringClass);
 		if (map == null) {
 			map = inspectClass(declaringClass);
-			this.parameterNamesCache.put(declaringClass, map);
+			parameterNamesCache.put(declaringClass, map);
 		}
 		if (map != NO_DEBUG_INFO_MAP) {
 			return map.get(ctor);
@@ -93,6 +93,9 @@ public class ResolvableType implements Serializable {
 	private static final ConcurrentReferenceHashMap<ResolvableType, ResolvableType> cache =
 			new ConcurrentReferenceHashMap<>(256);
 
+	private static final ConcurrentReferenceHashMap<Class<?>, ResolvableType> classCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 
 	/**
 	 * The underlying Java type being managed.
@@ -124,13 +127,13 @@ public class ResolvableType implements Serializable {
 	private Class<?> resolved;
 
 	@Nullable
-	private volatile ResolvableType superType;
+	private transient volatile ResolvableType superType;
 
 	@Nullable
-	private volatile ResolvableType[] interfaces;
+	private transient volatile ResolvableType[] interfaces;
 
 	@Nullable
-	private volatile ResolvableType[] generics;
+	private transient volatile ResolvableType[] generics;
 
 
 	/**
@@ -981,6 +984,8 @@ public class ResolvableType implements Serializable {
 	 * Return a {@link ResolvableType} for the specified {@link Class},
 	 * using the full generic type information for assignability checks.
 	 * For example: {@code ResolvableType.forClass(MyArrayList.class)}.
+	 * <p>As of 5.1.12, the returned instance is shared for a given class,
+	 * along with its lazily resolved supertype, interfaces and generics.
 	 * @param clazz the class to introspect ({@code null} is semantically
 	 * equivalent to {@code Object.class} for typical use cases here}
 	 * @return a {@link ResolvableType} for the specified class
@@ -988,7 +993,7 @@ public class ResolvableType implements Serializable {
 	 * @see #forClassWithGenerics(Class, Class...)
 	 */
 	public static ResolvableType forClass(@Nullable Class<?> clazz) {
-		return new ResolvableType(clazz);
+		return classCache.computeIfAbsent((clazz != null ? clazz : Object.class), ResolvableType::new);
 	}
 
 	/**
@@ -1405,8 +1410,11 @@ public class ResolvableType implements Serializable {
 		}
 
 		// For simple Class references, build the wrapper right away -
-		// no expensive resolution necessary, so not worth caching...
+		// no expensive resolution necessary, only sharing plain Class wrappers...
 		if (type instanceof Class) {
+			if (typeProvider == null && variableResolver == null) {
+				return forClass((Class<?>) type);
+			}
 			return new ResolvableType(type, typeProvider, variableResolver, (ResolvableType) null);
 		}
 
@@ -1420,16 +1428,37 @@ public class ResolvableType implements Serializable {
 			cachedType = new ResolvableType(type, typeProvider, variableResolver, resultType.hash);
 			cache.put(cachedType, cachedType);
 		}
+
+		// Share the cached instance, including its lazily resolved supertype, interfaces
+		// and generics, unless it would expose a different source to the caller...
+		if (typeProvider == null || hasSameSource(typeProvider, cachedType.typeProvider)) {
+			return cachedType;
+		}
 		resultType.resolved = cachedType.resolved;
 		return resultType;
 	}
 
+	/**
+	 * Determine whether the given type providers expose the same source.
+	 * Fields are immutable and therefore interchangeable when equal, whereas
+	 * other sources such as {@link MethodParameter} need to be identical.
+	 */
+	private static boolean hasSameSource(TypeProvider typeProvider, @Nullable TypeProvider otherTypeProvider) {
+		if (otherTypeProvider == null) {
+			return false;
+		}
+		Object source = typeProvider.getSource();
+		Object otherSource = otherTypeProvider.getSource();
+		return (source == otherSource || (source instanceof Field && source.equals(otherSource)));
+	}
+
 	/**
 	 * Clear the internal {@code ResolvableType}/{@code SerializableTypeWrapper} cache.
 	 * @since 4.2
 	 */
 	public static void clearCache() {
 		cache.clear();
+		classCache.clear();
 		SerializableTypeWrapper.cache.clear();
 	}
 
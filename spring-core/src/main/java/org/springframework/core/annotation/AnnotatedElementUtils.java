@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,20 +18,28 @@ package org.springframework.core.annotation;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
@@ -86,6 +94,14 @@ import org.springframework.util.MultiValueMap;
  * search algorithm manually traverses type and method hierarchies and thereby
  * implicitly supports annotation inheritance without a need for {@code @Inherited}.
  *
+ * <h3>Merged Annotation Index</h3>
+ * <p>For the common lookups of merged annotations and merged annotation attributes
+ * (with Class values and nested annotations as-is) as well as for presence checks,
+ * all annotations in the hierarchy of a class, method, field, constructor or
+ * parameter are indexed in a single traversal per search algorithm, with their
+ * merged attributes and synthesized annotations being resolved lazily and cached
+ * per annotated element. Other elements are searched on every lookup.
+ *
  * @author Phillip Webb
  * @author Juergen Hoeller
  * @author Sam Brannen
@@ -107,6 +123,12 @@ public abstract class AnnotatedElementUtils {
 
 	private static final Processor<Boolean> alwaysTrueAnnotationProcessor = new AlwaysTrueBooleanAnnotationProcessor();
 
+	private static final Map<AnnotatedElement, MergedAnnotationIndex> getSemanticsIndexCache =
+			new ConcurrentReferenceHashMap<>(256);
+
+	private static final Map<AnnotatedElement, MergedAnnotationIndex> findSemanticsIndexCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 
 	/**
 	 * Build an adapted {@link AnnotatedElement} for the given annotations,
@@ -261,6 +283,10 @@ public abstract class AnnotatedElementUtils {
 		if (element.isAnnotationPresent(annotationType)) {
 			return true;
 		}
+		MergedAnnotationIndex index = getMergedAnnotationIndex(element, false);
+		if (index != null && index.isIndexed(annotationType)) {
+			return index.isPresent(annotationType);
+		}
 		return Boolean.TRUE.equals(searchWithGetSemantics(element, annotationType, null, alwaysTrueAnnotationProcessor));
 	}
 
@@ -277,6 +303,10 @@ public abstract class AnnotatedElementUtils {
 	 * @return {@code true} if a matching annotation is present
 	 */
 	public static boolean isAnnotated(AnnotatedElement element, String annotationName) {
+		MergedAnnotationIndex index = getMergedAnnotationIndex(element, false);
+		if (index != null) {
+			return index.isPresent(annotationName);
+		}
 		return Boolean.TRUE.equals(searchWithGetSemantics(element, null, annotationName, alwaysTrueAnnotationProcessor));
 	}
 
@@ -301,6 +331,11 @@ public abstract class AnnotatedElementUtils {
 	public static AnnotationAttributes getMergedAnnotationAttributes(
 			AnnotatedElement element, Class<? extends Annotation> annotationType) {
 
+		MergedAnnotationIndex index = getMergedAnnotationIndex(element, false);
+		if (index != null && index.isIndexed(annotationType)) {
+			return index.getMergedAnnotationAttributes(annotationType);
+		}
+
 		AnnotationAttributes attributes = searchWithGetSemantics(element, annotationType, null,
 				new MergedAnnotationAttributesProcessor());
 		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, false, false);
@@ -360,6 +395,13 @@ public abstract class AnnotatedElementUtils {
 	public static AnnotationAttributes getMergedAnnotationAttributes(AnnotatedElement element,
 			String annotationName, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
+		if (!classValuesAsString && !nestedAnnotationsAsMap) {
+			MergedAnnotationIndex index = getMergedAnnotationIndex(element, false);
+			if (index != null) {
+				return index.getMergedAnnotationAttributes(annotationName);
+			}
+		}
+
 		AnnotationAttributes attributes = searchWithGetSemantics(element, null, annotationName,
 				new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap));
 		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
@@ -397,6 +439,12 @@ public abstract class AnnotatedElementUtils {
 			return null;
 		}
 
+		// Indexed retrieval of the merged, synthesized annotation...
+		MergedAnnotationIndex index = getMergedAnnotationIndex(element, false);
+		if (index != null && index.isIndexed(annotationType)) {
+			return index.getMergedAnnotation(annotationType);
+		}
+
 		// Exhaustive retrieval of merged annotation attributes...
 		AnnotationAttributes attributes = getMergedAnnotationAttributes(element, annotationType);
 		return (attributes != null ? AnnotationUtils.synthesizeAnnotation(attributes, annotationType, element) : null);
@@ -599,6 +647,10 @@ public abstract class AnnotatedElementUtils {
 		if (element.isAnnotationPresent(annotationType)) {
 			return true;
 		}
+		MergedAnnotationIndex index = getMergedAnnotationIndex(element, true);
+		if (index != null && index.isIndexed(annotationType)) {
+			return index.isPresent(annotationType);
+		}
 		return Boolean.TRUE.equals(searchWithFindSemantics(element, annotationType, null, alwaysTrueAnnotationProcessor));
 	}
 
@@ -633,6 +685,13 @@ public abstract class AnnotatedElementUtils {
 	public static AnnotationAttributes findMergedAnnotationAttributes(AnnotatedElement element,
 			Class<? extends Annotation> annotationType, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
+		if (!classValuesAsString && !nestedAnnotationsAsMap) {
+			MergedAnnotationIndex index = getMergedAnnotationIndex(element, true);
+			if (index != null && index.isIndexed(annotationType)) {
+				return index.getMergedAnnotationAttributes(annotationType);
+			}
+		}
+
 		AnnotationAttributes attributes = searchWithFindSemantics(element, annotationType, null,
 				new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap));
 		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
@@ -670,6 +729,13 @@ public abstract class AnnotatedElementUtils {
 	public static AnnotationAttributes findMergedAnnotationAttributes(AnnotatedElement element,
 			String annotationName, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
+		if (!classValuesAsString && !nestedAnnotationsAsMap) {
+			MergedAnnotationIndex index = getMergedAnnotationIndex(element, true);
+			if (index != null) {
+				return index.getMergedAnnotationAttributes(annotationName);
+			}
+		}
+
 		AnnotationAttributes attributes = searchWithFindSemantics(element, null, annotationName,
 				new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap));
 		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
@@ -707,6 +773,12 @@ public abstract class AnnotatedElementUtils {
 			return null;
 		}
 
+		// Indexed retrieval of the merged, synthesized annotation...
+		MergedAnnotationIndex index = getMergedAnnotationIndex(element, true);
+		if (index != null && index.isIndexed(annotationType)) {
+			return index.getMergedAnnotation(annotationType);
+		}
+
 		// Exhaustive retrieval of merged annotation attributes...
 		AnnotationAttributes attributes = findMergedAnnotationAttributes(element, annotationType, false, false);
 		return (attributes != null ? AnnotationUtils.synthesizeAnnotation(attributes, annotationType, element) : null);
@@ -832,6 +904,62 @@ public abstract class AnnotatedElementUtils {
 		return postProcessAndSynthesizeAggregatedResults(element, processor.getAggregatedResults());
 	}
 
+	/**
+	 * Obtain the index of all annotations within the annotation hierarchy
+	 * <em>above</em> the supplied {@code element}, building it in a single
+	 * traversal on first access.
+	 * <p>Only classes, methods, fields, constructors and parameters are indexed;
+	 * for other elements such as {@link #forAnnotations adapted annotations},
+	 * which are usually created per lookup, a targeted search is cheaper than
+	 * building an index that would never be reused.
+	 * @param element the annotated element
+	 * @param findSemantics whether to follow <em>find semantics</em>
+	 * (or <em>get semantics</em> otherwise)
+	 * @return the index, or {@code null} if the element is not indexed
+	 * @since 5.1.12
+	 */
+	@Nullable
+	private static MergedAnnotationIndex getMergedAnnotationIndex(AnnotatedElement element, boolean findSemantics) {
+		if (!isIndexable(element)) {
+			return null;
+		}
+		Map<AnnotatedElement, MergedAnnotationIndex> indexCache =
+				(findSemantics ? findSemanticsIndexCache : getSemanticsIndexCache);
+		MergedAnnotationIndex index = indexCache.get(element);
+		if (index == null) {
+			IndexingAnnotationProcessor processor = new IndexingAnnotationProcessor();
+			if (findSemantics) {
+				searchWithFindSemantics(element, Collections.emptySet(), null, null, processor);
+			}
+			else {
+				searchWithGetSemantics(element, Collections.emptySet(), null, null, processor);
+			}
+			index = processor.buildIndex(element, findSemantics);
+			indexCache.put(element, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Determine whether the given element is worth indexing, i.e. whether it
+	 * is a stable reflection object that is likely to be looked up again.
+	 * @since 5.1.12
+	 */
+	private static boolean isIndexable(AnnotatedElement element) {
+		return (element instanceof Class || element instanceof Method || element instanceof Field ||
+				element instanceof Constructor || element instanceof Parameter);
+	}
+
+	/**
+	 * Clear the internal merged annotation index.
+	 * @since 5.1.12
+	 * @see AnnotationUtils#clearCache()
+	 */
+	static void clearCache() {
+		getSemanticsIndexCache.clear();
+		findSemanticsIndexCache.clear();
+	}
+
 	/**
 	 * Search for annotations of the specified {@code annotationName} or
 	 * {@code annotationType} on the specified {@code element}, following
@@ -1641,4 +1769,244 @@ public abstract class AnnotatedElementUtils {
 		}
 	}
 
+
+	/**
+	 * {@link Processor} that records every annotation within an annotation
+	 * hierarchy, along with the annotation that it is declared on, for
+	 * building a {@link MergedAnnotationIndex}.
+	 * <p>Relies on the search algorithms visiting each annotation type at most
+	 * once: the annotation declaring a meta-annotation is always the most
+	 * recently processed annotation of that type at the next lower meta-depth.
+	 * @since 5.1.12
+	 */
+	private static class IndexingAnnotationProcessor extends SimpleAnnotationProcessor<Object> {
+
+		private final Map<String, AnnotationNode> nodes = new LinkedHashMap<>();
+
+		private final Set<String> ambiguousNames = new HashSet<>(1);
+
+		private final List<Map<AnnotatedElement, AnnotationNode>> nodesByMetaDepth = new ArrayList<>();
+
+		public IndexingAnnotationProcessor() {
+			super(true);
+		}
+
+		@Override
+		@Nullable
+		public Object process(@Nullable AnnotatedElement annotatedElement, Annotation annotation, int metaDepth) {
+			AnnotationNode parent = (metaDepth > 0 ? this.nodesByMetaDepth.get(metaDepth - 1).get(annotatedElement) : null);
+			AnnotationNode node = new AnnotationNode(annotatedElement, annotation, metaDepth, parent);
+			while (this.nodesByMetaDepth.size() <= metaDepth) {
+				this.nodesByMetaDepth.add(new HashMap<>());
+			}
+			Class<? extends Annotation> annotationType = annotation.annotationType();
+			this.nodesByMetaDepth.get(metaDepth).put(annotationType, node);
+			// The first annotation of a given type wins, as with a targeted search
+			AnnotationNode existing = this.nodes.putIfAbsent(annotationType.getName(), node);
+			if (existing != null && existing.annotation.annotationType() != annotationType) {
+				// Same annotation type name from different ClassLoaders
+				this.ambiguousNames.add(annotationType.getName());
+			}
+			return CONTINUE;
+		}
+
+		public MergedAnnotationIndex buildIndex(AnnotatedElement element, boolean findSemantics) {
+			return (this.nodes.isEmpty() ? MergedAnnotationIndex.EMPTY :
+					new MergedAnnotationIndex(element, findSemantics, this.nodes, this.ambiguousNames));
+		}
+	}
+
+
+	/**
+	 * An annotation within an annotation hierarchy, as recorded by the
+	 * {@link IndexingAnnotationProcessor}.
+	 * @since 5.1.12
+	 */
+	private static final class AnnotationNode {
+
+		@Nullable
+		final AnnotatedElement annotatedElement;
+
+		final Annotation annotation;
+
+		final int metaDepth;
+
+		@Nullable
+		final AnnotationNode parent;
+
+		AnnotationNode(@Nullable AnnotatedElement annotatedElement, Annotation annotation, int metaDepth,
+				@Nullable AnnotationNode parent) {
+
+			this.annotatedElement = annotatedElement;
+			this.annotation = annotation;
+			this.metaDepth = metaDepth;
+			this.parent = parent;
+		}
+	}
+
+
+	/**
+	 * Index of all annotations within the annotation hierarchy above an
+	 * {@code AnnotatedElement}, following either <em>get semantics</em> or
+	 * <em>find semantics</em>, with the first annotation of each type
+	 * being the one that a targeted search would find.
+	 * <p>Merged attributes are resolved lazily per annotation type, applying
+	 * the same {@link MergedAnnotationAttributesProcessor} steps as a targeted
+	 * search, and cached along with the synthesized annotation. Callers receive
+	 * a copy of the cached attributes. If merging fails, lookups for the affected
+	 * annotation type fall back to the targeted search, reporting the failure
+	 * the same way.
+	 * @since 5.1.12
+	 */
+	private static final class MergedAnnotationIndex {
+
+		static final MergedAnnotationIndex EMPTY = new MergedAnnotationIndex(
+				null, false, Collections.emptyMap(), Collections.emptySet());
+
+		@Nullable
+		private final AnnotatedElement element;
+
+		private final boolean findSemantics;
+
+		private final Map<String, AnnotationNode> nodes;
+
+		private final Set<String> ambiguousNames;
+
+		private final Map<String, MergedAnnotation> mergedAnnotations = new ConcurrentHashMap<>(8);
+
+		MergedAnnotationIndex(@Nullable AnnotatedElement element, boolean findSemantics,
+				Map<String, AnnotationNode> nodes, Set<String> ambiguousNames) {
+
+			this.element = element;
+			this.findSemantics = findSemantics;
+			this.nodes = nodes;
+			this.ambiguousNames = ambiguousNames;
+		}
+
+		/**
+		 * Determine whether lookups for the given annotation type can be
+		 * answered by this index, i.e. whether its name is unambiguous.
+		 */
+		public boolean isIndexed(Class<? extends Annotation> annotationType) {
+			return !this.ambiguousNames.contains(annotationType.getName());
+		}
+
+		public boolean isPresent(Class<? extends Annotation> annotationType) {
+			AnnotationNode node = this.nodes.get(annotationType.getName());
+			return (node != null && node.annotation.annotationType() == annotationType);
+		}
+
+		public boolean isPresent(String annotationName) {
+			return this.nodes.containsKey(annotationName);
+		}
+
+		@Nullable
+		public AnnotationAttributes getMergedAnnotationAttributes(Class<? extends Annotation> annotationType) {
+			return (isPresent(annotationType) ? getMergedAnnotationAttributes(annotationType.getName()) : null);
+		}
+
+		@Nullable
+		public AnnotationAttributes getMergedAnnotationAttributes(String annotationName) {
+			MergedAnnotation mergedAnnotation = getMergedAnnotation(annotationName);
+			if (mergedAnnotation == null) {
+				return null;
+			}
+			if (mergedAnnotation.attributes == null) {
+				return searchMergedAnnotationAttributes(annotationName);
+			}
+			return new AnnotationAttributes(mergedAnnotation.attributes);
+		}
+
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public <A extends Annotation> A getMergedAnnotation(Class<A> annotationType) {
+			if (!isPresent(annotationType)) {
+				return null;
+			}
+			MergedAnnotation mergedAnnotation = getMergedAnnotation(annotationType.getName());
+			Assert.state(mergedAnnotation != null, "No merged annotation");
+			if (mergedAnnotation.attributes == null) {
+				AnnotationAttributes attributes = searchMergedAnnotationAttributes(annotationType.getName());
+				return (attributes != null ?
+						AnnotationUtils.synthesizeAnnotation(attributes, annotationType, this.element) : null);
+			}
+			Annotation synthesizedAnnotation = mergedAnnotation.synthesizedAnnotation;
+			if (synthesizedAnnotation == null) {
+				synthesizedAnnotation = AnnotationUtils.synthesizeAnnotation(
+						mergedAnnotation.attributes, annotationType, this.element);
+				mergedAnnotation.synthesizedAnnotation = synthesizedAnnotation;
+			}
+			return (A) synthesizedAnnotation;
+		}
+
+		@Nullable
+		private MergedAnnotation getMergedAnnotation(String annotationName) {
+			AnnotationNode node = this.nodes.get(annotationName);
+			if (node == null) {
+				return null;
+			}
+			MergedAnnotation mergedAnnotation = this.mergedAnnotations.get(annotationName);
+			if (mergedAnnotation == null) {
+				mergedAnnotation = new MergedAnnotation(mergeAnnotationAttributes(node));
+				this.mergedAnnotations.put(annotationName, mergedAnnotation);
+			}
+			return mergedAnnotation;
+		}
+
+		/**
+		 * Merge the attributes of the given annotation with matching attributes
+		 * from the annotations it is declared on, from the closest one down to
+		 * the annotated element.
+		 * @return the merged attributes, or {@code null} if merging failed
+		 */
+		@Nullable
+		private AnnotationAttributes mergeAnnotationAttributes(AnnotationNode node) {
+			try {
+				MergedAnnotationAttributesProcessor processor = new MergedAnnotationAttributesProcessor();
+				AnnotationAttributes attributes = processor.process(node.annotatedElement, node.annotation, node.metaDepth);
+				Assert.state(attributes != null, "No annotation attributes");
+				for (AnnotationNode current = node.parent; current != null; current = current.parent) {
+					processor.postProcess((this.findSemantics ? current.annotation.annotationType() :
+							current.annotatedElement), current.annotation, attributes);
+				}
+				AnnotationUtils.postProcessAnnotationAttributes(this.element, attributes, false, false);
+				return attributes;
+			}
+			catch (Throwable ex) {
+				// Let the targeted search handle or report the failure
+				return null;
+			}
+		}
+
+		@Nullable
+		private AnnotationAttributes searchMergedAnnotationAttributes(String annotationName) {
+			Assert.state(this.element != null, "No annotated element");
+			MergedAnnotationAttributesProcessor processor = new MergedAnnotationAttributesProcessor();
+			AnnotationAttributes attributes = (this.findSemantics ?
+					searchWithFindSemantics(this.element, null, annotationName, processor) :
+					searchWithGetSemantics(this.element, null, annotationName, processor));
+			AnnotationUtils.postProcessAnnotationAttributes(this.element, attributes, false, false);
+			return attributes;
+		}
+	}
+
+
+	/**
+	 * Merged attributes and synthesized annotation for an annotation type
+	 * within a {@link MergedAnnotationIndex}.
+	 * @since 5.1.12
+	 */
+	private static final class MergedAnnotation {
+
+		@Nullable
+		final AnnotationAttributes attributes;
+
+		@Nullable
+		volatile Annotation synthesizedAnnotation;
+
+		MergedAnnotation(@Nullable AnnotationAttributes attributes) {
+			this.attributes = attributes;
+		}
+	}
+
 }
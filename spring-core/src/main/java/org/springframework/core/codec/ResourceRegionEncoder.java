@@ -18,6 +18,7 @@ package org.springframework.core.codec;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.OptionalLong;
 
@@ -56,8 +57,12 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 	 */
 	public static final String BOUNDARY_STRING_HINT = ResourceRegionEncoder.class.getName() + ".boundaryString";
 
+	private static final int MAPPED_REGION_SIZE = 4 * 1024 * 1024;
+
 	private final int bufferSize;
 
+	private long mappedFileThreshold = -1;
+
 
 	public ResourceRegionEncoder() {
 		this(DEFAULT_BUFFER_SIZE);
@@ -69,6 +74,30 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 		this.bufferSize = bufferSize;
 	}
 
+
+	/**
+	 * Set the minimum region size from which on file resources are read
+	 * through memory-mapped file regions instead of being copied into
+	 * buffers of the configured buffer size.
+	 * <p>Default is -1, always copying. Note that mapped regions are not
+	 * subject to the given {@code DataBufferFactory}: they get unmapped on
+	 * garbage collection once the target server does not hold on to them anymore.
+	 * @since 5.1.12
+	 * @see DataBufferUtils#readMappedFile
+	 */
+	public void setMappedFileThreshold(long mappedFileThreshold) {
+		this.mappedFileThreshold = mappedFileThreshold;
+	}
+
+	/**
+	 * Return the minimum region size for reading file resources through
+	 * memory-mapped file regions, or -1 if not enabled.
+	 * @since 5.1.12
+	 */
+	public long getMappedFileThreshold() {
+		return this.mappedFileThreshold;
+	}
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		return super.canEncode(elementType, mimeType)
@@ -129,6 +158,16 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 					"Writing region " + position + "-" + (position + count) + " of [" + resource + "]");
 		}
 
+		if (this.mappedFileThreshold >= 0 && count >= this.mappedFileThreshold && resource.isFile()) {
+			try {
+				Path path = resource.getFile().toPath();
+				return DataBufferUtils.readMappedFile(path, position, count, MAPPED_REGION_SIZE);
+			}
+			catch (IOException ex) {
+				// fall back to regular reading below
+			}
+		}
+
 		Flux<DataBuffer> in = DataBufferUtils.read(resource, position, bufferFactory, this.bufferSize);
 		return DataBufferUtils.takeUntilByteCount(in, count);
 	}
@@ -16,6 +16,8 @@
 
 package org.springframework.core.codec;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -25,17 +27,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.function.Consumer;
 
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
-import org.springframework.core.io.buffer.LimitedDataBufferList;
 import org.springframework.core.io.buffer.PooledDataBuffer;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.lang.Nullable;
@@ -44,9 +44,10 @@ import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 
 /**
- * Decode from a data buffer stream to a {@code String} stream. Before decoding, this decoder
- * realigns the incoming data buffers so that each buffer ends with a newline.
- * This is to make sure that multibyte characters are decoded properly, and do not cross buffer
+ * Decode from a data buffer stream to a {@code String} stream, splitting the input
+ * on delimiters. Lines within a data buffer are decoded straight from the buffer,
+ * whereas lines across buffer boundaries are aggregated before decoding. This is
+ * to make sure that multibyte characters are decoded properly, and do not cross buffer
  * boundaries. The default delimiters ({@code \n}, {@code \r\n})can be customized.
  *
  * <p>Partially inspired by Netty's {@code DelimiterBasedFrameDecoder}.
@@ -60,8 +61,6 @@ import org.springframework.util.MimeTypeUtils;
  */
 public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 
-	private static final DataBuffer END_FRAME = new DefaultDataBufferFactory().wrap(new byte[0]);
-
 	/** The default charset to use, i.e. "UTF-8". */
 	public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
 
@@ -73,7 +72,7 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 
 	private final boolean stripDelimiter;
 
-	private final ConcurrentMap<Charset, List<byte[]>> delimitersCache = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Charset, DelimiterMatcher> delimiterMatchers = new ConcurrentHashMap<>();
 
 
 	private StringDecoder(List<String> delimiters, boolean stripDelimiter, MimeType... mimeTypes) {
@@ -93,123 +92,19 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 	public Flux<String> decode(Publisher<DataBuffer> input, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		List<byte[]> delimiterBytes = getDelimiterBytes(mimeType);
-
-		// TODO: Drop Consumer and use bufferUntil with Supplier<LimistedDataBufferList> (reactor-core#1925)
-		// TODO: Drop doOnDiscard(LimitedDataBufferList.class, ...) (reactor-core#1924)
-		LimitedDataBufferConsumer limiter = new LimitedDataBufferConsumer(getMaxInMemorySize());
-
-		Flux<DataBuffer> inputFlux = Flux.from(input)
-				.flatMapIterable(buffer -> splitOnDelimiter(buffer, delimiterBytes))
-				.doOnNext(limiter)
-				.bufferUntil(buffer -> buffer == END_FRAME)
-				.map(StringDecoder::joinUntilEndFrame)
-				.doOnDiscard(LimitedDataBufferList.class, LimitedDataBufferList::releaseAndClear)
-				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
-
-		return super.decode(inputFlux, elementType, mimeType, hints);
-	}
-
-	private List<byte[]> getDelimiterBytes(@Nullable MimeType mimeType) {
-		return this.delimitersCache.computeIfAbsent(getCharset(mimeType), charset -> {
-			List<byte[]> list = new ArrayList<>();
-			for (String delimiter : this.delimiters) {
-				byte[] bytes = delimiter.getBytes(charset);
-				list.add(bytes);
-			}
-			return list;
+		Charset charset = getCharset(mimeType);
+		DelimiterMatcher matcher = this.delimiterMatchers.computeIfAbsent(charset,
+				cs -> new DelimiterMatcher(this.delimiters, cs));
+
+		return Flux.defer(() -> {
+			LineDecoder lineDecoder = new LineDecoder(matcher, charset, hints);
+			return Flux.from(input)
+					.concatMapIterable(lineDecoder::decode)
+					.concatWith(Mono.fromSupplier(lineDecoder::decodeRemainder))
+					.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 		});
 	}
 
-	/**
-	 * Split the given data buffer on delimiter boundaries.
-	 * The returned Flux contains an {@link #END_FRAME} buffer after each delimiter.
-	 */
-	private List<DataBuffer> splitOnDelimiter(DataBuffer buffer, List<byte[]> delimiterBytes) {
-		List<DataBuffer> frames = new ArrayList<>();
-		try {
-			do {
-				int length = Integer.MAX_VALUE;
-				byte[] matchingDelimiter = null;
-				for (byte[] delimiter : delimiterBytes) {
-					int index = indexOf(buffer, delimiter);
-					if (index >= 0 && index < length) {
-						length = index;
-						matchingDelimiter = delimiter;
-					}
-				}
-				DataBuffer frame;
-				int readPosition = buffer.readPosition();
-				if (matchingDelimiter != null) {
-					frame = this.stripDelimiter ?
-							buffer.slice(readPosition, length) :
-							buffer.slice(readPosition, length + matchingDelimiter.length);
-					buffer.readPosition(readPosition + length + matchingDelimiter.length);
-					frames.add(DataBufferUtils.retain(frame));
-					frames.add(END_FRAME);
-				}
-				else {
-					frame = buffer.slice(readPosition, buffer.readableByteCount());
-					buffer.readPosition(readPosition + buffer.readableByteCount());
-					frames.add(DataBufferUtils.retain(frame));
-				}
-			}
-			while (buffer.readableByteCount() > 0);
-		}
-		catch (Throwable ex) {
-			for (DataBuffer frame : frames) {
-				DataBufferUtils.release(frame);
-			}
-			throw ex;
-		}
-		finally {
-			DataBufferUtils.release(buffer);
-		}
-		return frames;
-	}
-
-	/**
-	 * Find the given delimiter in the given data buffer.
-	 * @return the index of the delimiter, or -1 if not found.
-	 */
-	private static int indexOf(DataBuffer buffer, byte[] delimiter) {
-		for (int i = buffer.readPosition(); i < buffer.writePosition(); i++) {
-			int bufferPos = i;
-			int delimiterPos = 0;
-			while (delimiterPos < delimiter.length) {
-				if (buffer.getByte(bufferPos) != delimiter[delimiterPos]) {
-					break;
-				}
-				else {
-					bufferPos++;
-					boolean endOfBuffer = bufferPos == buffer.writePosition();
-					boolean endOfDelimiter = delimiterPos == delimiter.length - 1;
-					if (endOfBuffer && !endOfDelimiter) {
-						return -1;
-					}
-				}
-				delimiterPos++;
-			}
-			if (delimiterPos == delimiter.length) {
-				return i - buffer.readPosition();
-			}
-		}
-		return -1;
-	}
-
-	/**
-	 * Join the given list of buffers into a single buffer.
-	 */
-	private static DataBuffer joinUntilEndFrame(List<DataBuffer> dataBuffers) {
-		if (!dataBuffers.isEmpty()) {
-			int lastIdx = dataBuffers.size() - 1;
-			if (dataBuffers.get(lastIdx) == END_FRAME) {
-				dataBuffers.remove(lastIdx);
-			}
-		}
-		return dataBuffers.get(0).factory().join(dataBuffers);
-	}
-
 	@Override
 	protected String decodeDataBuffer(DataBuffer dataBuffer, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
@@ -218,11 +113,15 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 		CharBuffer charBuffer = charset.decode(dataBuffer.asByteBuffer());
 		DataBufferUtils.release(dataBuffer);
 		String value = charBuffer.toString();
+		logValue(value, hints);
+		return value;
+	}
+
+	private void logValue(String value, @Nullable Map<String, Object> hints) {
 		LogFormatUtils.traceDebug(logger, traceOn -> {
 			String formatted = LogFormatUtils.formatValue(value, !traceOn);
 			return Hints.getLogPrefix(hints) + "Decoded " + formatted;
 		});
-		return value;
 	}
 
 	private static Charset getCharset(@Nullable MimeType mimeType) {
@@ -294,33 +193,176 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 
 
 	/**
-	 * Temporary measure for reactor-core#1925.
-	 * Consumer that adds to a {@link LimitedDataBufferList} to enforce limits.
+	 * Delimiters encoded with a specific charset, indexed by their first byte
+	 * in order to match all delimiters in a single pass over the input.
 	 */
-	private static class LimitedDataBufferConsumer implements Consumer<DataBuffer> {
+	private static final class DelimiterMatcher {
+
+		private final byte[][] delimiters;
+
+		/** Per first byte: the indexes of the delimiters starting with it, in declaration order. */
+		private final int[][] candidates = new int[256][];
+
+		public DelimiterMatcher(List<String> delimiters, Charset charset) {
+			this.delimiters = new byte[delimiters.size()][];
+			for (int i = 0; i < this.delimiters.length; i++) {
+				byte[] bytes = delimiters.get(i).getBytes(charset);
+				this.delimiters[i] = bytes;
+				if (bytes.length > 0) {
+					int firstByte = bytes[0] & 0xFF;
+					int[] existing = this.candidates[firstByte];
+					int[] indexes = (existing != null ? Arrays.copyOf(existing, existing.length + 1) : new int[1]);
+					indexes[indexes.length - 1] = i;
+					this.candidates[firstByte] = indexes;
+				}
+			}
+		}
+
+		/**
+		 * Match the delimiters at the given index of the given bytes.
+		 * @return the length of the first matching delimiter, or 0 if none matches
+		 * completely before the given end index
+		 */
+		public int match(ByteBuffer bytes, int index, int end) {
+			int[] indexes = this.candidates[bytes.get(index) & 0xFF];
+			if (indexes != null) {
+				for (int candidate : indexes) {
+					byte[] delimiter = this.delimiters[candidate];
+					if (index + delimiter.length <= end && matches(bytes, index, delimiter)) {
+						return delimiter.length;
+					}
+				}
+			}
+			return 0;
+		}
+
+		private static boolean matches(ByteBuffer bytes, int index, byte[] delimiter) {
+			for (int i = 1; i < delimiter.length; i++) {
+				if (bytes.get(index + i) != delimiter[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+
+	/**
+	 * Splits the data buffers of a single input stream into lines. Lines within
+	 * a buffer are decoded straight from the buffer's content, whereas the remainder
+	 * of a buffer is copied into an array until the rest of its line arrives.
+	 * The {@link #getMaxInMemorySize() limit} applies to the byte count of each line.
+	 */
+	private class LineDecoder {
+
+		private final DelimiterMatcher matcher;
+
+		private final Charset charset;
+
+		private final int maxLineLength;
 
-		private final LimitedDataBufferList bufferList;
+		@Nullable
+		private final Map<String, Object> hints;
 
+		private byte[] pending = new byte[0];
 
-		public LimitedDataBufferConsumer(int maxInMemorySize) {
-			this.bufferList = new LimitedDataBufferList(maxInMemorySize);
+		private int pendingLength;
+
+		private boolean hasPending;
+
+		public LineDecoder(DelimiterMatcher matcher, Charset charset, @Nullable Map<String, Object> hints) {
+			this.matcher = matcher;
+			this.charset = charset;
+			this.maxLineLength = getMaxInMemorySize();
+			this.hints = hints;
+		}
+
+		public List<String> decode(DataBuffer buffer) {
+			try {
+				ByteBuffer bytes = buffer.asByteBuffer(buffer.readPosition(), buffer.readableByteCount());
+				int start = bytes.position();
+				int end = bytes.limit();
+				List<String> lines = new ArrayList<>();
+				int lineStart = start;
+				int index = start;
+				while (index < end) {
+					int delimiterLength = this.matcher.match(bytes, index, end);
+					if (delimiterLength > 0) {
+						int lineEnd = (stripDelimiter ? index : index + delimiterLength);
+						lines.add(decodeLine(bytes, lineStart, lineEnd, end));
+						index += delimiterLength;
+						lineStart = index;
+					}
+					else {
+						index++;
+					}
+				}
+				if (lineStart < end || start == end) {
+					append(bytes, lineStart, end, end);
+				}
+				return lines;
+			}
+			finally {
+				DataBufferUtils.release(buffer);
+			}
 		}
 
+		@Nullable
+		public String decodeRemainder() {
+			if (!this.hasPending) {
+				return null;
+			}
+			String line = new String(this.pending, 0, this.pendingLength, this.charset);
+			this.pendingLength = 0;
+			this.hasPending = false;
+			logValue(line, this.hints);
+			return line;
+		}
 
-		@Override
-		public void accept(DataBuffer buffer) {
-			if (buffer == END_FRAME) {
-				this.bufferList.clear();
+		private String decodeLine(ByteBuffer bytes, int from, int to, int limit) {
+			String line;
+			if (this.hasPending) {
+				append(bytes, from, to, limit);
+				line = new String(this.pending, 0, this.pendingLength, this.charset);
+				this.pendingLength = 0;
+				this.hasPending = false;
 			}
 			else {
-				try {
-					this.bufferList.add(buffer);
+				checkLineLength(to - from);
+				if (bytes.hasArray()) {
+					line = new String(bytes.array(), bytes.arrayOffset() + from, to - from, this.charset);
 				}
-				catch (DataBufferLimitException ex) {
-					DataBufferUtils.release(buffer);
-					throw ex;
+				else {
+					// Explicit access via Buffer base type for compatibility
+					// with covariant return type on JDK 9's ByteBuffer...
+					((Buffer) bytes).limit(to).position(from);
+					line = this.charset.decode(bytes).toString();
+					((Buffer) bytes).limit(limit);
 				}
 			}
+			logValue(line, this.hints);
+			return line;
+		}
+
+		private void append(ByteBuffer bytes, int from, int to, int limit) {
+			int length = to - from;
+			int newLength = this.pendingLength + length;
+			checkLineLength(newLength);
+			if (newLength > this.pending.length) {
+				this.pending = Arrays.copyOf(this.pending, Math.max(newLength, this.pending.length * 2));
+			}
+			((Buffer) bytes).limit(to).position(from);
+			bytes.get(this.pending, this.pendingLength, length);
+			((Buffer) bytes).limit(limit);
+			this.pendingLength = newLength;
+			this.hasPending = true;
+		}
+
+		private void checkLineLength(int length) {
+			if (this.maxLineLength >= 0 && (length > this.maxLineLength || length < 0)) {
+				throw new DataBufferLimitException("Exceeded limit on max bytes to buffer : " + this.maxLineLength);
+			}
 		}
 	}
+
 }
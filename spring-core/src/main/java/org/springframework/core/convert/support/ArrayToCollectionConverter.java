@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.lang.reflect.Array;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.springframework.core.CollectionFactory;
 import org.springframework.core.convert.ConversionService;
@@ -63,6 +64,24 @@ final class ArrayToCollectionConverter implements ConditionalGenericConverter {
 	@Override
 	@Nullable
 	public Object convert(@Nullable Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+		TypeDescriptor elementDesc = targetType.getElementTypeDescriptor();
+		return convert(source, targetType, (elementDesc != null ? sourceElement -> this.conversionService.convert(
+				sourceElement, sourceType.elementTypeDescriptor(sourceElement), elementDesc) : null));
+	}
+
+	/**
+	 * Convert the given source array, applying the given function to each element.
+	 * @param source the source array
+	 * @param targetType the target collection type
+	 * @param elementConverter the element conversion function,
+	 * or {@code null} if the target type does not declare an element type
+	 * @return the target collection
+	 * @since 5.1.12
+	 */
+	@Nullable
+	Object convert(@Nullable Object source, TypeDescriptor targetType,
+			@Nullable Function<Object, Object> elementConverter) {
+
 		if (source == null) {
 			return null;
 		}
@@ -72,7 +91,7 @@ final class ArrayToCollectionConverter implements ConditionalGenericConverter {
 		Collection<Object> target = CollectionFactory.createCollection(targetType.getType(),
 				(elementDesc != null ? elementDesc.getType() : null), length);
 
-		if (elementDesc == null) {
+		if (elementConverter == null) {
 			for (int i = 0; i < length; i++) {
 				Object sourceElement = Array.get(source, i);
 				target.add(sourceElement);
@@ -81,12 +100,14 @@ final class ArrayToCollectionConverter implements ConditionalGenericConverter {
 		else {
 			for (int i = 0; i < length; i++) {
 				Object sourceElement = Array.get(source, i);
-				Object targetElement = this.conversionService.convert(sourceElement,
-						sourceType.elementTypeDescriptor(sourceElement), elementDesc);
-				target.add(targetElement);
+				target.add(elementConverter.apply(sourceElement));
 			}
 		}
 		return target;
 	}
 
+	ConversionService getConversionService() {
+		return this.conversionService;
+	}
+
 }
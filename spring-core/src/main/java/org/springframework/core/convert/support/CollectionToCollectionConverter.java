@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.core.convert.support;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.springframework.core.CollectionFactory;
 import org.springframework.core.convert.ConversionService;
@@ -62,6 +63,24 @@ final class CollectionToCollectionConverter implements ConditionalGenericConvert
 	@Override
 	@Nullable
 	public Object convert(@Nullable Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+		TypeDescriptor elementDesc = targetType.getElementTypeDescriptor();
+		return convert(source, targetType, (elementDesc != null ? sourceElement -> this.conversionService.convert(
+				sourceElement, sourceType.elementTypeDescriptor(sourceElement), elementDesc) : null));
+	}
+
+	/**
+	 * Convert the given source collection, applying the given function to each element.
+	 * @param source the source collection
+	 * @param targetType the target collection type
+	 * @param elementConverter the element conversion function,
+	 * or {@code null} if the target type does not declare an element type
+	 * @return the target collection (possibly the source collection itself)
+	 * @since 5.1.12
+	 */
+	@Nullable
+	Object convert(@Nullable Object source, TypeDescriptor targetType,
+			@Nullable Function<Object, Object> elementConverter) {
+
 		if (source == null) {
 			return null;
 		}
@@ -72,22 +91,21 @@ final class CollectionToCollectionConverter implements ConditionalGenericConvert
 		if (!copyRequired && sourceCollection.isEmpty()) {
 			return source;
 		}
-		TypeDescriptor elementDesc = targetType.getElementTypeDescriptor();
-		if (elementDesc == null && !copyRequired) {
+		if (elementConverter == null && !copyRequired) {
 			return source;
 		}
 
 		// At this point, we need a collection copy in any case, even if just for finding out about element copies...
+		TypeDescriptor elementDesc = targetType.getElementTypeDescriptor();
 		Collection<Object> target = CollectionFactory.createCollection(targetType.getType(),
 				(elementDesc != null ? elementDesc.getType() : null), sourceCollection.size());
 
-		if (elementDesc == null) {
+		if (elementConverter == null) {
 			target.addAll(sourceCollection);
 		}
 		else {
 			for (Object sourceElement : sourceCollection) {
-				Object targetElement = this.conversionService.convert(sourceElement,
-						sourceType.elementTypeDescriptor(sourceElement), elementDesc);
+				Object targetElement = elementConverter.apply(sourceElement);
 				target.add(targetElement);
 				if (sourceElement != targetElement) {
 					copyRequired = true;
@@ -98,4 +116,8 @@ final class CollectionToCollectionConverter implements ConditionalGenericConvert
 		return (copyRequired ? target : source);
 	}
 
+	ConversionService getConversionService() {
+		return this.conversionService;
+	}
+
 }
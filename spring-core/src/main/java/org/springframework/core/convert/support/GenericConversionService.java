@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.core.convert.support;
 
 import java.lang.reflect.Array;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -27,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.springframework.core.DecoratingProxy;
 import org.springframework.core.ResolvableType;
@@ -46,6 +48,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -73,11 +76,22 @@ public class GenericConversionService implements ConfigurableConversionService {
 	 */
 	private static final GenericConverter NO_MATCH = new NoOpConverter("NO_MATCH");
 
+	/**
+	 * Used as a compiled converter cache entry when no converter is available.
+	 * This converter is never returned.
+	 */
+	private static final Converter<Object, Object> NO_MATCH_COMPILED = source -> null;
+
 
 	private final Converters converters = new Converters();
 
 	private final Map<ConverterCacheKey, GenericConverter> converterCache = new ConcurrentReferenceHashMap<>(64);
 
+	private final Map<ConverterCacheKey, Converter<Object, Object>> compiledConverterCache =
+			new ConcurrentReferenceHashMap<>(64);
+
+	private final boolean compiledConversionEnabled = !overridesConversion(getClass());
+
 
 	// ConverterRegistry implementation
 
@@ -212,6 +226,56 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return convert(source, TypeDescriptor.forObject(source), targetType);
 	}
 
+	/**
+	 * Obtain a reusable converter for the given source type and target type,
+	 * with the converter lookup performed upfront rather than for every value.
+	 * <p>For conversions between collections, from arrays to collections and
+	 * between maps, the returned converter also keeps the element (or key and
+	 * value) converters resolved, only looking them up again when encountering
+	 * a different runtime element type. Conversion results are the same as
+	 * for {@link #convert(Object, TypeDescriptor, TypeDescriptor)} with the
+	 * given source and target type, including its exception behavior.
+	 * <p>Converters are cached per source and target type, until the
+	 * registered converters change.
+	 * @param sourceType context about the source type to convert from
+	 * @param targetType context about the target type to convert to
+	 * @return the converter, or {@code null} if no conversion between the given
+	 * types is possible (i.e. if {@link #canConvert} would return {@code false})
+	 * @since 5.1.12
+	 * @see #getConverter(TypeDescriptor, TypeDescriptor)
+	 * @see #isCompiledConversionEnabled()
+	 */
+	@Nullable
+	public Converter<Object, Object> getCompiledConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		Assert.notNull(sourceType, "Source type to convert from cannot be null");
+		Assert.notNull(targetType, "Target type to convert to cannot be null");
+		ConverterCacheKey key = new ConverterCacheKey(sourceType, targetType);
+		Converter<Object, Object> compiledConverter = this.compiledConverterCache.get(key);
+		if (compiledConverter == null) {
+			GenericConverter converter = getConverter(sourceType, targetType);
+			compiledConverter = (converter != null ?
+					compileConverter(converter, sourceType, targetType) : NO_MATCH_COMPILED);
+			this.compiledConverterCache.put(key, compiledConverter);
+		}
+		return (compiledConverter != NO_MATCH_COMPILED ? compiledConverter : null);
+	}
+
+	/**
+	 * Return whether callers may use {@link #getCompiledConverter} in place of
+	 * {@link #canConvert(TypeDescriptor, TypeDescriptor)} and
+	 * {@link #convert(Object, TypeDescriptor, TypeDescriptor)}.
+	 * <p>The default implementation returns {@code true} unless a subclass overrides
+	 * either of those methods, since compiled converters would bypass such custom
+	 * conversion logic. Subclasses which customize these methods in a way that
+	 * compiled converters reflect (e.g. only for logging) may override this method
+	 * in order to opt in.
+	 * @since 5.1.12
+	 * @see #getCompiledConverter
+	 */
+	public boolean isCompiledConversionEnabled() {
+		return this.compiledConversionEnabled;
+	}
+
 	@Override
 	public String toString() {
 		return this.converters.toString();
@@ -304,6 +368,61 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private void invalidateCache() {
 		this.converterCache.clear();
+		this.compiledConverterCache.clear();
+	}
+
+	/**
+	 * Check whether the given subclass customizes conversion through
+	 * {@code canConvert} or {@code convert} with type descriptors.
+	 */
+	private static boolean overridesConversion(Class<?> serviceClass) {
+		Method canConvert = ReflectionUtils.findMethod(
+				serviceClass, "canConvert", TypeDescriptor.class, TypeDescriptor.class);
+		Method convert = ReflectionUtils.findMethod(
+				serviceClass, "convert", Object.class, TypeDescriptor.class, TypeDescriptor.class);
+		return (canConvert == null || canConvert.getDeclaringClass() != GenericConversionService.class ||
+				convert == null || convert.getDeclaringClass() != GenericConversionService.class);
+	}
+
+	private Converter<Object, Object> compileConverter(
+			GenericConverter converter, TypeDescriptor sourceType, TypeDescriptor targetType) {
+
+		Function<Object, Object> conversion = null;
+		if (converter instanceof CollectionToCollectionConverter &&
+				((CollectionToCollectionConverter) converter).getConversionService() == this) {
+			Function<Object, Object> elementConverter =
+					compileElementConverter(sourceType::elementTypeDescriptor, targetType.getElementTypeDescriptor());
+			conversion = source -> ((CollectionToCollectionConverter) converter).convert(
+					source, targetType, elementConverter);
+		}
+		else if (converter instanceof ArrayToCollectionConverter &&
+				((ArrayToCollectionConverter) converter).getConversionService() == this) {
+			Function<Object, Object> elementConverter =
+					compileElementConverter(sourceType::elementTypeDescriptor, targetType.getElementTypeDescriptor());
+			conversion = source -> ((ArrayToCollectionConverter) converter).convert(
+					source, targetType, elementConverter);
+		}
+		else if (converter instanceof MapToMapConverter &&
+				((MapToMapConverter) converter).getConversionService() == this) {
+			Function<Object, Object> keyConverter =
+					compileElementConverter(sourceType::getMapKeyTypeDescriptor, targetType.getMapKeyTypeDescriptor());
+			Function<Object, Object> valueConverter =
+					compileElementConverter(sourceType::getMapValueTypeDescriptor, targetType.getMapValueTypeDescriptor());
+			conversion = source -> ((MapToMapConverter) converter).convert(
+					source, targetType, (keyConverter != null ? keyConverter : Function.identity()),
+					(valueConverter != null ? valueConverter : Function.identity()));
+		}
+		if (conversion == null) {
+			conversion = source -> converter.convert(source, sourceType, targetType);
+		}
+		return new CompiledConverter(sourceType, targetType, conversion);
+	}
+
+	@Nullable
+	private Function<Object, Object> compileElementConverter(
+			Function<Object, TypeDescriptor> sourceTypeResolver, @Nullable TypeDescriptor targetType) {
+
+		return (targetType != null ? new ElementConverter(sourceTypeResolver, targetType) : null);
 	}
 
 	@Nullable
@@ -337,6 +456,108 @@ public class GenericConversionService implements ConfigurableConversionService {
 	}
 
 
+	/**
+	 * Converter for a fixed source and target type, as returned from
+	 * {@link #getCompiledConverter}.
+	 */
+	private final class CompiledConverter implements Converter<Object, Object> {
+
+		private final TypeDescriptor sourceType;
+
+		private final TypeDescriptor targetType;
+
+		private final Function<Object, Object> conversion;
+
+		public CompiledConverter(TypeDescriptor sourceType, TypeDescriptor targetType,
+				Function<Object, Object> conversion) {
+
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+			this.conversion = conversion;
+		}
+
+		@Override
+		@Nullable
+		public Object convert(@Nullable Object source) {
+			if (source == null || !this.sourceType.getObjectType().isInstance(source)) {
+				// Regular null handling and argument assertions
+				return GenericConversionService.this.convert(source, this.sourceType, this.targetType);
+			}
+			Object result;
+			try {
+				result = this.conversion.apply(source);
+			}
+			catch (ConversionFailedException ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new ConversionFailedException(this.sourceType, this.targetType, source, ex);
+			}
+			return handleResult(this.sourceType, this.targetType, result);
+		}
+
+		@Override
+		public String toString() {
+			return this.sourceType + " -> " + this.targetType;
+		}
+	}
+
+
+	/**
+	 * Element conversion function for a compiled collection or map converter,
+	 * keeping the compiled converter for the most recent element type.
+	 */
+	private final class ElementConverter implements Function<Object, Object> {
+
+		private final Function<Object, TypeDescriptor> sourceTypeResolver;
+
+		private final TypeDescriptor targetType;
+
+		@Nullable
+		private volatile ElementTarget lastTarget;
+
+		public ElementConverter(Function<Object, TypeDescriptor> sourceTypeResolver, TypeDescriptor targetType) {
+			this.sourceTypeResolver = sourceTypeResolver;
+			this.targetType = targetType;
+		}
+
+		@Override
+		@Nullable
+		public Object apply(@Nullable Object sourceElement) {
+			if (sourceElement == null) {
+				return convert(null, this.sourceTypeResolver.apply(null), this.targetType);
+			}
+			ElementTarget target = this.lastTarget;
+			if (target == null || target.elementClass != sourceElement.getClass()) {
+				// Source type descriptor depends on the element class only
+				TypeDescriptor sourceType = this.sourceTypeResolver.apply(sourceElement);
+				target = new ElementTarget(sourceElement.getClass(), sourceType,
+						getCompiledConverter(sourceType, this.targetType));
+				this.lastTarget = target;
+			}
+			return (target.converter != null ? target.converter.convert(sourceElement) :
+					handleConverterNotFound(sourceElement, target.sourceType, this.targetType));
+		}
+	}
+
+
+	private static final class ElementTarget {
+
+		final Class<?> elementClass;
+
+		final TypeDescriptor sourceType;
+
+		@Nullable
+		final Converter<Object, Object> converter;
+
+		ElementTarget(Class<?> elementClass, TypeDescriptor sourceType, @Nullable Converter<Object, Object> converter) {
+			this.elementClass = elementClass;
+			this.sourceType = sourceType;
+			this.converter = converter;
+		}
+	}
+
+
 	/**
 	 * Adapts a {@link Converter} to a {@link GenericConverter}.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.springframework.core.CollectionFactory;
 import org.springframework.core.convert.ConversionService;
@@ -61,9 +62,29 @@ final class MapToMapConverter implements ConditionalGenericConverter {
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	@Nullable
 	public Object convert(@Nullable Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+		TypeDescriptor keyDesc = targetType.getMapKeyTypeDescriptor();
+		TypeDescriptor valueDesc = targetType.getMapValueTypeDescriptor();
+		return convert(source, targetType,
+				sourceKey -> convertKey(sourceKey, sourceType, keyDesc),
+				sourceValue -> convertValue(sourceValue, sourceType, valueDesc));
+	}
+
+	/**
+	 * Convert the given source map, applying the given functions to each key and value.
+	 * @param source the source map
+	 * @param targetType the target map type
+	 * @param keyConverter the key conversion function
+	 * @param valueConverter the value conversion function
+	 * @return the target map (possibly the source map itself)
+	 * @since 5.1.12
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	Object convert(@Nullable Object source, TypeDescriptor targetType,
+			Function<Object, Object> keyConverter, Function<Object, Object> valueConverter) {
+
 		if (source == null) {
 			return null;
 		}
@@ -75,14 +96,13 @@ final class MapToMapConverter implements ConditionalGenericConverter {
 			return sourceMap;
 		}
 		TypeDescriptor keyDesc = targetType.getMapKeyTypeDescriptor();
-		TypeDescriptor valueDesc = targetType.getMapValueTypeDescriptor();
 
 		List<MapEntry> targetEntries = new ArrayList<>(sourceMap.size());
 		for (Map.Entry<Object, Object> entry : sourceMap.entrySet()) {
 			Object sourceKey = entry.getKey();
 			Object sourceValue = entry.getValue();
-			Object targetKey = convertKey(sourceKey, sourceType, keyDesc);
-			Object targetValue = convertValue(sourceValue, sourceType, valueDesc);
+			Object targetKey = keyConverter.apply(sourceKey);
+			Object targetValue = valueConverter.apply(sourceValue);
 			targetEntries.add(new MapEntry(targetKey, targetValue));
 			if (sourceKey != targetKey || sourceValue != targetValue) {
 				copyRequired = true;
@@ -102,6 +122,11 @@ final class MapToMapConverter implements ConditionalGenericConverter {
 	}
 
 
+	ConversionService getConversionService() {
+		return this.conversionService;
+	}
+
+
 	// internal helpers
 
 	private boolean canConvertKey(TypeDescriptor sourceType, TypeDescriptor targetType) {
@@ -66,6 +66,20 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 	 */
 	public static final String IGNORE_GETENV_PROPERTY_NAME = "spring.getenv.ignore";
 
+	/**
+	 * System property that instructs Spring to resolve environment properties
+	 * through an {@link IndexedPropertySourcesPropertyResolver}, i.e. to look up
+	 * each key against an index of the property sources instead of searching
+	 * all of them, including system environment variable name variants.
+	 * <p>The default is "false". Consider switching this flag to "true" for
+	 * frequent property lookups at runtime, as long as the keys within the
+	 * registered property sources do not change once they have been looked up:
+	 * e.g. system properties which are only being set before startup.
+	 * @since 5.1.12
+	 * @see #createPropertyResolver(MutablePropertySources)
+	 */
+	public static final String INDEXED_PROPERTIES_PROPERTY_NAME = "spring.env.indexed-properties";
+
 	/**
 	 * Name of property to set to specify active profiles: {@value}. Value may be comma
 	 * delimited.
@@ -109,8 +123,7 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 
 	private final MutablePropertySources propertySources = new MutablePropertySources();
 
-	private final ConfigurablePropertyResolver propertyResolver =
-			new PropertySourcesPropertyResolver(this.propertySources);
+	private final ConfigurablePropertyResolver propertyResolver;
 
 
 	/**
@@ -121,10 +134,29 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 	 * @see #customizePropertySources(MutablePropertySources)
 	 */
 	public AbstractEnvironment() {
+		this.propertyResolver = createPropertyResolver(this.propertySources);
 		customizePropertySources(this.propertySources);
 	}
 
 
+	/**
+	 * Create the {@link ConfigurablePropertyResolver} to be used for resolving
+	 * properties against the given property sources.
+	 * <p>The default implementation returns an {@link IndexedPropertySourcesPropertyResolver}
+	 * if the "spring.env.indexed-properties" flag is set, and a regular
+	 * {@link PropertySourcesPropertyResolver} otherwise.
+	 * @param propertySources the property sources of this environment
+	 * @since 5.1.12
+	 * @see #INDEXED_PROPERTIES_PROPERTY_NAME
+	 */
+	protected ConfigurablePropertyResolver createPropertyResolver(MutablePropertySources propertySources) {
+		if (SpringProperties.getFlag(INDEXED_PROPERTIES_PROPERTY_NAME)) {
+			return new IndexedPropertySourcesPropertyResolver(propertySources);
+		}
+		return new PropertySourcesPropertyResolver(propertySources);
+	}
+
+
 	/**
 	 * Customize the set of {@link PropertySource} objects to be searched by this
 	 * {@code Environment} during calls to {@link #getProperty(String)} and related
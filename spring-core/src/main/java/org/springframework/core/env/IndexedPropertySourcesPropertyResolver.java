@@ -0,0 +1,242 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link PropertySourcesPropertyResolver} variant that resolves property keys
+ * against an index of the underlying {@link MutablePropertySources}, turning
+ * repeated lookups for the same key into a single hash probe instead of a
+ * search through all property sources.
+ *
+ * <p>For every requested key, the index remembers the {@link EnumerablePropertySource}
+ * that contains it (if any), including the actual variable name for a
+ * {@link SystemEnvironmentPropertySource} match, so that underscore/uppercase
+ * variants are only checked once per key. Property values are still retrieved
+ * from the containing property source on every lookup. Property sources that
+ * are not enumerable cannot be indexed and are searched as usual, in order of
+ * precedence.
+ *
+ * <p>The index is discarded and atomically rebuilt whenever the
+ * {@code MutablePropertySources} get modified. Keys that are added to or removed
+ * from an individual property source afterwards are not necessarily reflected:
+ * call {@link #refresh()} in such a scenario.
+ *
+ * @since 5.1.12
+ * @see AbstractEnvironment#INDEXED_PROPERTIES_PROPERTY_NAME
+ */
+public class IndexedPropertySourcesPropertyResolver extends PropertySourcesPropertyResolver {
+
+	private final MutablePropertySources propertySources;
+
+	@Nullable
+	private volatile PropertyIndex propertyIndex;
+
+
+	/**
+	 * Create a new resolver against the given property sources.
+	 * @param propertySources the set of {@link PropertySource} objects to use
+	 */
+	public IndexedPropertySourcesPropertyResolver(MutablePropertySources propertySources) {
+		super(propertySources);
+		this.propertySources = propertySources;
+	}
+
+
+	@Override
+	public boolean containsProperty(String key) {
+		PropertyIndex index = getPropertyIndex();
+		IndexEntry entry = index.getEntry(key);
+		for (PropertySource<?> propertySource : index.getNonIndexedPropertySources(entry)) {
+			if (propertySource.containsProperty(key)) {
+				return true;
+			}
+		}
+		if (entry.propertySource == null) {
+			return false;
+		}
+		return (entry.propertySource.containsProperty(entry.propertyName) || super.containsProperty(key));
+	}
+
+	@Override
+	@Nullable
+	protected <T> T getProperty(String key, Class<T> targetValueType, boolean resolveNestedPlaceholders) {
+		PropertyIndex index = getPropertyIndex();
+		IndexEntry entry = index.getEntry(key);
+		for (PropertySource<?> propertySource : index.getNonIndexedPropertySources(entry)) {
+			Object value = propertySource.getProperty(key);
+			if (value != null) {
+				return convertValue(key, propertySource, value, targetValueType, resolveNestedPlaceholders);
+			}
+		}
+		if (entry.propertySource != null) {
+			Object value = entry.propertySource.getProperty(entry.propertyName);
+			if (value != null) {
+				return convertValue(key, entry.propertySource, value, targetValueType, resolveNestedPlaceholders);
+			}
+			// Removed from its property source in the meantime -> regular search
+			return super.getProperty(key, targetValueType, resolveNestedPlaceholders);
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Could not find key '" + key + "' in any property source");
+		}
+		return null;
+	}
+
+	@Nullable
+	private <T> T convertValue(String key, PropertySource<?> propertySource, Object value,
+			Class<T> targetValueType, boolean resolveNestedPlaceholders) {
+
+		if (resolveNestedPlaceholders && value instanceof String) {
+			value = resolveNestedPlaceholders((String) value);
+		}
+		logKeyFound(key, propertySource, value);
+		return convertValueIfNecessary(value, targetValueType);
+	}
+
+	/**
+	 * Discard the current index, enforcing a rebuild on next access.
+	 * <p>This is only necessary if the keys within an individual property source
+	 * have changed; modifications of the {@code MutablePropertySources} themselves
+	 * are detected automatically.
+	 */
+	public void refresh() {
+		this.propertyIndex = null;
+	}
+
+	private PropertyIndex getPropertyIndex() {
+		int modificationCount = this.propertySources.getModificationCount();
+		PropertyIndex index = this.propertyIndex;
+		if (index == null || index.modificationCount != modificationCount) {
+			index = new PropertyIndex(this.propertySources, modificationCount);
+			this.propertyIndex = index;
+		}
+		return index;
+	}
+
+
+	/**
+	 * Immutable snapshot of the property sources at a given modification count,
+	 * with the property source per key determined on first lookup.
+	 */
+	private static class PropertyIndex {
+
+		private static final PropertySource<?>[] NO_PROPERTY_SOURCES = new PropertySource<?>[0];
+
+		final int modificationCount;
+
+		private final PropertySource<?>[] propertySources;
+
+		private final PropertySource<?>[] nonIndexedPropertySources;
+
+		private final int[] nonIndexedPositions;
+
+		private final Map<String, IndexEntry> entries = new ConcurrentHashMap<>(256);
+
+		public PropertyIndex(PropertySources propertySources, int modificationCount) {
+			this.modificationCount = modificationCount;
+			List<PropertySource<?>> all = new ArrayList<>();
+			List<PropertySource<?>> nonIndexed = new ArrayList<>();
+			List<Integer> nonIndexedPositions = new ArrayList<>();
+			for (PropertySource<?> propertySource : propertySources) {
+				if (!(propertySource instanceof EnumerablePropertySource)) {
+					nonIndexed.add(propertySource);
+					nonIndexedPositions.add(all.size());
+				}
+				all.add(propertySource);
+			}
+			this.propertySources = all.toArray(NO_PROPERTY_SOURCES);
+			this.nonIndexedPropertySources = nonIndexed.toArray(NO_PROPERTY_SOURCES);
+			this.nonIndexedPositions = new int[nonIndexedPositions.size()];
+			for (int i = 0; i < this.nonIndexedPositions.length; i++) {
+				this.nonIndexedPositions[i] = nonIndexedPositions.get(i);
+			}
+		}
+
+		public IndexEntry getEntry(String key) {
+			IndexEntry entry = this.entries.get(key);
+			if (entry == null) {
+				entry = resolveEntry(key);
+				this.entries.putIfAbsent(key, entry);
+			}
+			return entry;
+		}
+
+		private IndexEntry resolveEntry(String key) {
+			for (int i = 0; i < this.propertySources.length; i++) {
+				PropertySource<?> propertySource = this.propertySources[i];
+				if (propertySource instanceof SystemEnvironmentPropertySource) {
+					String actualName = ((SystemEnvironmentPropertySource) propertySource).resolvePropertyName(key);
+					if (propertySource.containsProperty(actualName)) {
+						return new IndexEntry(propertySource, actualName, i);
+					}
+				}
+				else if (propertySource instanceof EnumerablePropertySource && propertySource.containsProperty(key)) {
+					return new IndexEntry(propertySource, key, i);
+				}
+			}
+			return IndexEntry.NOT_FOUND;
+		}
+
+		/**
+		 * Return the non-enumerable property sources with higher precedence
+		 * than the property source of the given entry, to be searched first.
+		 */
+		public PropertySource<?>[] getNonIndexedPropertySources(IndexEntry entry) {
+			int count = 0;
+			while (count < this.nonIndexedPositions.length && this.nonIndexedPositions[count] < entry.position) {
+				count++;
+			}
+			if (count == this.nonIndexedPropertySources.length) {
+				return this.nonIndexedPropertySources;
+			}
+			PropertySource<?>[] result = new PropertySource<?>[count];
+			System.arraycopy(this.nonIndexedPropertySources, 0, result, 0, count);
+			return result;
+		}
+	}
+
+
+	/**
+	 * Index entry for a given key: the property source containing it
+	 * (if any), the actual property name and the source's position.
+	 */
+	private static class IndexEntry {
+
+		static final IndexEntry NOT_FOUND = new IndexEntry(null, "", Integer.MAX_VALUE);
+
+		@Nullable
+		final PropertySource<?> propertySource;
+
+		final String propertyName;
+
+		final int position;
+
+		IndexEntry(@Nullable PropertySource<?> propertySource, String propertyName, int position) {
+			this.propertySource = propertySource;
+			this.propertyName = propertyName;
+			this.position = position;
+		}
+	}
+
+}
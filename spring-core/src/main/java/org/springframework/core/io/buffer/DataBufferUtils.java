@@ -21,12 +21,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -150,6 +153,34 @@ public abstract class DataBufferUtils {
 		return flux.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 	}
 
+	/**
+	 * Read the given region of a file into a {@code Flux} of memory-mapped
+	 * {@code DataBuffer}s, exposing the file content without copying it into
+	 * freshly allocated buffers. Closes the file channel when the Flux is terminated.
+	 * <p>Each buffer maps a consecutive region of at most {@code regionSize}
+	 * bytes, independent from any {@code DataBufferFactory} in use. Buffers
+	 * should be {@linkplain #release(DataBuffer) released} as usual; the regions
+	 * themselves get unmapped on garbage collection, once neither a buffer nor
+	 * any of its slices or views are reachable anymore.
+	 * @param path the file to read from
+	 * @param position the position to start reading from
+	 * @param count the number of bytes to read, or -1 for reading to the end of the file
+	 * @param regionSize the maximum size of the mapped regions
+	 * @return a Flux of memory-mapped data buffers for the given region of the file
+	 * @since 5.1.12
+	 */
+	public static Flux<DataBuffer> readMappedFile(Path path, long position, long count, int regionSize) {
+		Assert.notNull(path, "'path' must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(regionSize > 0, "'regionSize' must be > 0");
+
+		Flux<DataBuffer> flux = Flux.using(() -> FileChannel.open(path, StandardOpenOption.READ),
+				channel -> Flux.generate(new MappedFileRegionGenerator(channel, position, count, regionSize)),
+				DataBufferUtils::closeChannel);
+
+		return flux.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+	}
+
 	/**
 	 * Read the given {@code Resource} into a {@code Flux} of {@code DataBuffer}s.
 	 * <p>If the resource is a file, it is read into an
@@ -514,6 +545,48 @@ public abstract class DataBufferUtils {
 	}
 
 
+	private static class MappedFileRegionGenerator implements Consumer<SynchronousSink<DataBuffer>> {
+
+		private final FileChannel channel;
+
+		private final long count;
+
+		private final int regionSize;
+
+		private long position;
+
+		private long end = -1;
+
+		public MappedFileRegionGenerator(FileChannel channel, long position, long count, int regionSize) {
+			this.channel = channel;
+			this.position = position;
+			this.count = count;
+			this.regionSize = regionSize;
+		}
+
+		@Override
+		public void accept(SynchronousSink<DataBuffer> sink) {
+			try {
+				if (this.end == -1) {
+					long size = this.channel.size();
+					this.end = (this.count >= 0 ? Math.min(this.position + this.count, size) : size);
+				}
+				if (this.position >= this.end) {
+					sink.complete();
+					return;
+				}
+				int length = (int) Math.min(this.regionSize, this.end - this.position);
+				MappedByteBuffer region = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, length);
+				this.position += length;
+				sink.next(new MappedFileDataBuffer(region));
+			}
+			catch (IOException ex) {
+				sink.error(ex);
+			}
+		}
+	}
+
+
 	private static class ReadCompletionHandler implements CompletionHandler<Integer, DataBuffer> {
 
 		private final AsynchronousFileChannel channel;
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Reference-counted {@link DefaultDataBuffer} exposing a memory-mapped
+ * region of a file.
+ *
+ * <p>The region is not unmapped explicitly on release: slices as well as
+ * {@link #asByteBuffer()} and {@link #asInputStream()} views may still point
+ * to the mapped memory, and accessing forcibly unmapped memory would crash
+ * the JVM instead of throwing an exception. The region rather gets unmapped
+ * on garbage collection once neither the buffer nor any of its views are
+ * reachable anymore, as with any {@link MappedByteBuffer}.
+ *
+ * @since 5.1.12
+ * @see DataBufferUtils#readMappedFile
+ */
+final class MappedFileDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+	private static final AtomicIntegerFieldUpdater<MappedFileDataBuffer> REF_COUNT_UPDATER =
+			AtomicIntegerFieldUpdater.newUpdater(MappedFileDataBuffer.class, "refCount");
+
+	private static final DefaultDataBufferFactory dataBufferFactory = new DefaultDataBufferFactory(true);
+
+
+	private volatile int refCount = 1;
+
+
+	MappedFileDataBuffer(MappedByteBuffer region) {
+		super(dataBufferFactory, region);
+		writePosition(region.remaining());
+	}
+
+
+	@Override
+	public boolean isAllocated() {
+		return (this.refCount > 0);
+	}
+
+	@Override
+	public PooledDataBuffer retain() {
+		int refCount;
+		do {
+			refCount = this.refCount;
+			if (refCount <= 0) {
+				throw new IllegalStateException("Cannot retain buffer which has been released already");
+			}
+		}
+		while (!REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount + 1));
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		int refCount;
+		do {
+			refCount = this.refCount;
+			if (refCount <= 0) {
+				throw new IllegalStateException("Cannot release buffer which has been released already");
+			}
+		}
+		while (!REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount - 1));
+		return (refCount == 1);
+	}
+
+	@Override
+	DefaultDataBuffer createSlice(ByteBuffer slice, int length) {
+		return new SlicedPooledDataBuffer(slice, dataBufferFactory, length, this);
+	}
+
+}
@@ -0,0 +1,482 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DataBufferFactory} which hands out reference-counted
+ * {@link PooledDataBuffer PooledDataBuffers} backed by pooled direct memory,
+ * as an alternative to {@link DefaultDataBufferFactory} for runtimes without
+ * Netty's pooled allocator (e.g. Servlet containers and Undertow).
+ *
+ * <p>Requested capacities are rounded up to power-of-two size classes between
+ * {@value #MIN_CHUNK_CAPACITY} bytes and a configurable maximum (64 KB by default).
+ * Chunks of a size class are carved from slabs of direct memory, held by a fixed
+ * number of arenas (one per available processor) which are shared across threads,
+ * with each thread allocating from the arena selected by its thread id. Released
+ * chunks are returned to the arena that they have been carved from, also when
+ * released by a different thread, and slab memory is never tied to the lifetime
+ * of a particular thread. Larger buffers, as well as allocations beyond the
+ * configured {@linkplain #PooledDataBufferFactory(int, long) memory limit},
+ * are served as unpooled direct buffers.
+ *
+ * <p>Buffers need to be {@linkplain DataBufferUtils#release released} once they
+ * are not needed anymore, and must not be accessed after their release since
+ * their memory gets reused for subsequent allocations. Slices share the reference
+ * count of the buffer that they have been created from. With leak detection
+ * turned on (by default if debug logging is enabled for this class), buffers
+ * which have been garbage-collected without release are logged along with their
+ * allocation stack trace. Their memory is not returned to the pool since
+ * {@code ByteBuffer} views obtained from them may still be in use; it rather
+ * remains counted as {@linkplain #getUsedMemory() used memory}.
+ *
+ * @since 5.1.12
+ * @see DataBufferUtils#release(DataBuffer)
+ */
+public class PooledDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The smallest size class for pooled buffers: 256 bytes.
+	 */
+	public static final int MIN_CHUNK_CAPACITY = 256;
+
+	/**
+	 * The default largest size class for pooled buffers: 64 KB.
+	 */
+	public static final int DEFAULT_MAX_CHUNK_CAPACITY = 64 * 1024;
+
+	/**
+	 * The default maximum amount of direct memory reserved for slabs: 64 MB.
+	 */
+	public static final long DEFAULT_MAX_POOLED_MEMORY = 64 * 1024 * 1024;
+
+	private static final int MIN_SLAB_CAPACITY = 256 * 1024;
+
+	private static final Log logger = LogFactory.getLog(PooledDataBufferFactory.class);
+
+
+	private final int maxChunkCapacity;
+
+	private final long maxPooledMemory;
+
+	private final ChunkPool[][] arenas;
+
+	private volatile boolean leakDetection = logger.isDebugEnabled();
+
+	private final AtomicLong pooledMemory = new AtomicLong();
+
+	private final LongAdder usedMemory = new LongAdder();
+
+	private final LongAdder activeBuffers = new LongAdder();
+
+	private final LongAdder pooledAllocations = new LongAdder();
+
+	private final LongAdder unpooledAllocations = new LongAdder();
+
+	private final LongAdder leakedBuffers = new LongAdder();
+
+	private final ReferenceQueue<Object> leakQueue = new ReferenceQueue<>();
+
+	private final Set<LeakTracker> leakTrackers = ConcurrentHashMap.newKeySet();
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with default settings.
+	 */
+	public PooledDataBufferFactory() {
+		this(DEFAULT_MAX_CHUNK_CAPACITY, DEFAULT_MAX_POOLED_MEMORY);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with the given limits.
+	 * @param maxChunkCapacity the capacity of the largest size class, i.e.
+	 * the largest buffer capacity to serve from the pool (rounded up to the
+	 * next power of two)
+	 * @param maxPooledMemory the maximum amount of direct memory to reserve for
+	 * slabs across all threads, with further allocations served unpooled
+	 */
+	public PooledDataBufferFactory(int maxChunkCapacity, long maxPooledMemory) {
+		super(true);
+		Assert.isTrue(maxChunkCapacity >= MIN_CHUNK_CAPACITY,
+				() -> "'maxChunkCapacity' must be at least " + MIN_CHUNK_CAPACITY);
+		Assert.isTrue(maxChunkCapacity <= (1 << 30), "'maxChunkCapacity' must not exceed 1 GB");
+		Assert.isTrue(maxPooledMemory >= 0, "'maxPooledMemory' must not be negative");
+		this.maxChunkCapacity = chunkCapacity(maxChunkCapacity);
+		this.maxPooledMemory = maxPooledMemory;
+		int sizeClasses = sizeClass(this.maxChunkCapacity) + 1;
+		// Power of two, for selecting an arena through a bit mask on the thread id
+		int arenaCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+		this.arenas = new ChunkPool[arenaCount][sizeClasses];
+		for (ChunkPool[] arena : this.arenas) {
+			for (int i = 0; i < sizeClasses; i++) {
+				arena[i] = new ChunkPool(MIN_CHUNK_CAPACITY << i);
+			}
+		}
+	}
+
+
+	/**
+	 * Specify whether to track buffers which have been garbage-collected
+	 * without release, logging their allocation stack trace.
+	 * <p>Default is {@code true} if debug logging is enabled for this class,
+	 * {@code false} otherwise. Note that this captures a stack trace for every
+	 * allocation, so it is only recommended for debugging purposes.
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Return whether leak detection is turned on.
+	 */
+	public boolean isLeakDetection() {
+		return this.leakDetection;
+	}
+
+
+	@Override
+	public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must not be negative");
+		if (this.leakDetection) {
+			reclaimLeakedBuffers();
+		}
+		PooledDefaultDataBuffer dataBuffer = new PooledDefaultDataBuffer(this, allocateChunk(initialCapacity));
+		this.activeBuffers.increment();
+		if (this.leakDetection) {
+			dataBuffer.leakTracker = new LeakTracker(dataBuffer, this.leakQueue);
+			this.leakTrackers.add(dataBuffer.leakTracker);
+		}
+		return dataBuffer;
+	}
+
+	private Chunk allocateChunk(int capacity) {
+		if (capacity <= this.maxChunkCapacity) {
+			int sizeClass = sizeClass(capacity);
+			int mask = this.arenas.length - 1;
+			int index = (int) Thread.currentThread().getId() & mask;
+			ChunkPool pool = this.arenas[index][sizeClass];
+			ByteBuffer memory = pool.poll();
+			// Memory limit reached: try free chunks of the same size class in other arenas
+			for (int i = 1; memory == null && i <= mask; i++) {
+				pool = this.arenas[(index + i) & mask][sizeClass];
+				memory = pool.pollFree();
+			}
+			if (memory != null) {
+				this.pooledAllocations.increment();
+				this.usedMemory.add(pool.chunkCapacity);
+				return new Chunk(memory, pool, capacity);
+			}
+		}
+		this.unpooledAllocations.increment();
+		return new Chunk(ByteBuffer.allocateDirect(capacity), null, capacity);
+	}
+
+	private void recycleChunk(Chunk chunk) {
+		ChunkPool pool = chunk.pool;
+		if (pool != null) {
+			this.usedMemory.add(-pool.chunkCapacity);
+			pool.recycle(chunk.memory);
+		}
+	}
+
+	private void reclaimLeakedBuffers() {
+		Reference<?> reference;
+		while ((reference = this.leakQueue.poll()) != null) {
+			LeakTracker tracker = (LeakTracker) reference;
+			if (this.leakTrackers.remove(tracker)) {
+				// Not recycling the chunk: ByteBuffer views of it may still be in use
+				this.leakedBuffers.increment();
+				this.activeBuffers.decrement();
+				logger.error("PooledDataBuffer was garbage-collected without having been released " +
+						"(see DataBufferUtils.release) - allocated at:", tracker.allocationSite);
+			}
+		}
+	}
+
+
+	/**
+	 * Return the amount of direct memory currently reserved for slabs.
+	 */
+	public long getPooledMemory() {
+		return this.pooledMemory.get();
+	}
+
+	/**
+	 * Return the amount of slab memory currently in use by allocated buffers.
+	 */
+	public long getUsedMemory() {
+		return this.usedMemory.sum();
+	}
+
+	/**
+	 * Return the fraction of slab memory currently in use by allocated buffers,
+	 * between 0.0 (nothing in use or nothing reserved yet) and 1.0 (fully occupied).
+	 * @see #getUsedMemory()
+	 * @see #getPooledMemory()
+	 */
+	public double getPoolOccupancy() {
+		long pooledMemory = getPooledMemory();
+		return (pooledMemory > 0 ? (double) getUsedMemory() / pooledMemory : 0.0);
+	}
+
+	/**
+	 * Return the number of buffers which have been allocated but not released yet.
+	 */
+	public long getActiveBufferCount() {
+		return this.activeBuffers.sum();
+	}
+
+	/**
+	 * Return the number of buffers served from the pool since the creation of this factory.
+	 */
+	public long getPooledAllocationCount() {
+		return this.pooledAllocations.sum();
+	}
+
+	/**
+	 * Return the number of buffers allocated outside of the pool since the
+	 * creation of this factory, either because of their size or because of
+	 * the memory limit having been reached.
+	 */
+	public long getUnpooledAllocationCount() {
+		return this.unpooledAllocations.sum();
+	}
+
+	/**
+	 * Return the number of leaked buffers detected since the creation of this factory.
+	 * @see #setLeakDetection
+	 */
+	public long getLeakedBufferCount() {
+		return this.leakedBuffers.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (pooled memory: " + getPooledMemory() + ", used memory: " +
+				getUsedMemory() + ", active buffers: " + getActiveBufferCount() + ")";
+	}
+
+
+	private static int chunkCapacity(int capacity) {
+		return (capacity <= MIN_CHUNK_CAPACITY ? MIN_CHUNK_CAPACITY : Integer.highestOneBit(capacity - 1) << 1);
+	}
+
+	private static int sizeClass(int capacity) {
+		return Integer.numberOfTrailingZeros(chunkCapacity(capacity)) -
+				Integer.numberOfTrailingZeros(MIN_CHUNK_CAPACITY);
+	}
+
+
+	/**
+	 * The free chunks of a specific size class, carved from slabs
+	 * which have been allocated for a specific arena.
+	 */
+	private final class ChunkPool {
+
+		final int chunkCapacity;
+
+		private final Queue<ByteBuffer> freeChunks = new ConcurrentLinkedQueue<>();
+
+		ChunkPool(int chunkCapacity) {
+			this.chunkCapacity = chunkCapacity;
+		}
+
+		@Nullable
+		ByteBuffer poll() {
+			ByteBuffer chunk = this.freeChunks.poll();
+			if (chunk == null && allocateSlab()) {
+				chunk = this.freeChunks.poll();
+			}
+			return chunk;
+		}
+
+		@Nullable
+		ByteBuffer pollFree() {
+			return this.freeChunks.poll();
+		}
+
+		void recycle(ByteBuffer chunk) {
+			this.freeChunks.offer(chunk);
+		}
+
+		private boolean allocateSlab() {
+			int slabCapacity = Math.max(this.chunkCapacity, MIN_SLAB_CAPACITY);
+			if (pooledMemory.addAndGet(slabCapacity) > maxPooledMemory) {
+				pooledMemory.addAndGet(-slabCapacity);
+				return false;
+			}
+			ByteBuffer slab = ByteBuffer.allocateDirect(slabCapacity);
+			for (int offset = 0; offset < slabCapacity; offset += this.chunkCapacity) {
+				// Explicit access via Buffer base type for compatibility
+				// with covariant return type on JDK 9's ByteBuffer...
+				((Buffer) slab).limit(offset + this.chunkCapacity).position(offset);
+				this.freeChunks.offer(slab.slice());
+			}
+			return true;
+		}
+	}
+
+
+	/**
+	 * The memory behind a specific buffer, potentially from a {@link ChunkPool}.
+	 */
+	private static final class Chunk {
+
+		final ByteBuffer memory;
+
+		@Nullable
+		final ChunkPool pool;
+
+		final ByteBuffer view;
+
+		Chunk(ByteBuffer memory, @Nullable ChunkPool pool, int capacity) {
+			this.memory = memory;
+			this.pool = pool;
+			ByteBuffer view = memory.duplicate();
+			((Buffer) view).limit(capacity);
+			this.view = view.slice();
+		}
+	}
+
+
+	/**
+	 * Weak reference to an allocated buffer, detecting its garbage collection
+	 * without release.
+	 */
+	private static final class LeakTracker extends WeakReference<Object> {
+
+		final Throwable allocationSite = new Throwable("Allocation site");
+
+		LeakTracker(PooledDefaultDataBuffer dataBuffer, ReferenceQueue<Object> queue) {
+			super(dataBuffer, queue);
+		}
+	}
+
+
+	/**
+	 * {@link DefaultDataBuffer} variant with a reference count,
+	 * recycling its chunk of memory once released.
+	 */
+	private static class PooledDefaultDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private static final AtomicIntegerFieldUpdater<PooledDefaultDataBuffer> REF_COUNT_UPDATER =
+				AtomicIntegerFieldUpdater.newUpdater(PooledDefaultDataBuffer.class, "refCount");
+
+		private final PooledDataBufferFactory dataBufferFactory;
+
+		private volatile Chunk chunk;
+
+		@Nullable
+		private Chunk newChunk;
+
+		@Nullable
+		volatile LeakTracker leakTracker;
+
+		private volatile int refCount = 1;
+
+		PooledDefaultDataBuffer(PooledDataBufferFactory dataBufferFactory, Chunk chunk) {
+			super(dataBufferFactory, chunk.view);
+			this.dataBufferFactory = dataBufferFactory;
+			this.chunk = chunk;
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return (this.refCount > 0);
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			int refCount;
+			do {
+				refCount = this.refCount;
+				if (refCount <= 0) {
+					throw new IllegalStateException("Cannot retain buffer which has been released already");
+				}
+			}
+			while (!REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount + 1));
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			int refCount;
+			do {
+				refCount = this.refCount;
+				if (refCount <= 0) {
+					throw new IllegalStateException("Cannot release buffer which has been released already");
+				}
+			}
+			while (!REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount - 1));
+			if (refCount > 1) {
+				return false;
+			}
+			LeakTracker leakTracker = this.leakTracker;
+			if (leakTracker != null) {
+				this.dataBufferFactory.leakTrackers.remove(leakTracker);
+				leakTracker.clear();
+			}
+			this.dataBufferFactory.activeBuffers.decrement();
+			this.dataBufferFactory.recycleChunk(this.chunk);
+			return true;
+		}
+
+		@Override
+		public DefaultDataBuffer capacity(int newCapacity) {
+			Chunk oldChunk = this.chunk;
+			super.capacity(newCapacity);
+			Chunk newChunk = this.newChunk;
+			if (newChunk != null) {
+				this.newChunk = null;
+				this.chunk = newChunk;
+				this.dataBufferFactory.recycleChunk(oldChunk);
+			}
+			return this;
+		}
+
+		@Override
+		ByteBuffer allocateNativeBuffer(int capacity, boolean direct) {
+			Chunk newChunk = this.dataBufferFactory.allocateChunk(capacity);
+			this.newChunk = newChunk;
+			return newChunk.view;
+		}
+
+		@Override
+		DefaultDataBuffer createSlice(ByteBuffer slice, int length) {
+			return new SlicedPooledDataBuffer(slice, this.dataBufferFactory, length, this);
+		}
+	}
+
+}
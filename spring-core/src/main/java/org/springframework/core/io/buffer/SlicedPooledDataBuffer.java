@@ -0,0 +1,69 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Non-resizable slice of a {@link DefaultDataBuffer} based {@link PooledDataBuffer},
+ * sharing the reference count of the original buffer.
+ *
+ * @since 5.1.12
+ * @see PooledDataBufferFactory
+ * @see DataBufferUtils#readMappedFile
+ */
+class SlicedPooledDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+	private final PooledDataBuffer parent;
+
+
+	SlicedPooledDataBuffer(ByteBuffer byteBuffer, DefaultDataBufferFactory dataBufferFactory,
+			int length, PooledDataBuffer parent) {
+
+		super(dataBufferFactory, byteBuffer);
+		writePosition(length);
+		this.parent = parent;
+	}
+
+
+	@Override
+	public boolean isAllocated() {
+		return this.parent.isAllocated();
+	}
+
+	@Override
+	public PooledDataBuffer retain() {
+		this.parent.retain();
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		return this.parent.release();
+	}
+
+	@Override
+	public DefaultDataBuffer capacity(int newCapacity) {
+		throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+	}
+
+	@Override
+	DefaultDataBuffer createSlice(ByteBuffer slice, int length) {
+		return new SlicedPooledDataBuffer(slice, factory(), length, this.parent);
+	}
+
+}
@@ -27,12 +27,17 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipException;
@@ -40,6 +45,7 @@ import java.util.zip.ZipException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.core.SpringProperties;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
@@ -182,6 +188,15 @@ import org.springframework.util.StringUtils;
  */
 public class PathMatchingResourcePatternResolver implements ResourcePatternResolver {
 
+	/**
+	 * System property that specifies the default number of threads for
+	 * scanning multiple root directories in parallel:
+	 * "spring.resource-scanning.parallelism".
+	 * @since 5.1.12
+	 * @see #setScanParallelism
+	 */
+	public static final String SCAN_PARALLELISM_PROPERTY_NAME = "spring.resource-scanning.parallelism";
+
 	private static final Log logger = LogFactory.getLog(PathMatchingResourcePatternResolver.class);
 
 	@Nullable
@@ -205,6 +220,8 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	private int scanParallelism = getDefaultScanParallelism();
+
 
 	/**
 	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
@@ -268,6 +285,31 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Set the number of threads to use for scanning the root directories
+	 * of a location pattern (e.g. all classpath roots and jar files for a
+	 * "classpath*:" pattern) in parallel.
+	 * <p>Default is 1, scanning one root directory after the other, unless
+	 * specified otherwise through the {@link #SCAN_PARALLELISM_PROPERTY_NAME}
+	 * system property. A pool with the given number of threads is used per
+	 * pattern resolution and shut down afterwards. The resulting resources
+	 * are returned in the same order as with sequential scanning.
+	 * @since 5.1.12
+	 * @see #findPathMatchingResources
+	 */
+	public void setScanParallelism(int scanParallelism) {
+		Assert.isTrue(scanParallelism > 0, "Scan parallelism must be at least 1");
+		this.scanParallelism = scanParallelism;
+	}
+
+	/**
+	 * Return the number of threads to use for scanning root directories in parallel.
+	 * @since 5.1.12
+	 */
+	public int getScanParallelism() {
+		return this.scanParallelism;
+	}
+
 
 	@Override
 	public Resource getResource(String location) {
@@ -493,24 +535,14 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		String subPattern = locationPattern.substring(rootDirPath.length());
 		Resource[] rootDirResources = getResources(rootDirPath);
 		Set<Resource> result = new LinkedHashSet<>(16);
-		for (Resource rootDirResource : rootDirResources) {
-			rootDirResource = resolveRootDirResource(rootDirResource);
-			URL rootDirUrl = rootDirResource.getURL();
-			if (equinoxResolveMethod != null && rootDirUrl.getProtocol().startsWith("bundle")) {
-				URL resolvedUrl = (URL) ReflectionUtils.invokeMethod(equinoxResolveMethod, null, rootDirUrl);
-				if (resolvedUrl != null) {
-					rootDirUrl = resolvedUrl;
-				}
-				rootDirResource = new UrlResource(rootDirUrl);
-			}
-			if (rootDirUrl.getProtocol().startsWith(ResourceUtils.URL_PROTOCOL_VFS)) {
-				result.addAll(VfsResourceMatchingDelegate.findMatchingResources(rootDirUrl, subPattern, getPathMatcher()));
+		if (this.scanParallelism > 1 && rootDirResources.length > 1) {
+			for (Set<Resource> rootDirResult : findMatchingResourcesInParallel(rootDirResources, subPattern)) {
+				result.addAll(rootDirResult);
 			}
-			else if (ResourceUtils.isJarURL(rootDirUrl) || isJarResource(rootDirResource)) {
-				result.addAll(doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern));
-			}
-			else {
-				result.addAll(doFindPathMatchingFileResources(rootDirResource, subPattern));
+		}
+		else {
+			for (Resource rootDirResource : rootDirResources) {
+				result.addAll(findMatchingResources(rootDirResource, subPattern));
 			}
 		}
 		if (logger.isTraceEnabled()) {
@@ -519,6 +551,71 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return result.toArray(new Resource[0]);
 	}
 
+	/**
+	 * Find all resources below the given root directory that match the given sub pattern.
+	 */
+	private Set<Resource> findMatchingResources(Resource rootDirResource, String subPattern) throws IOException {
+		rootDirResource = resolveRootDirResource(rootDirResource);
+		URL rootDirUrl = rootDirResource.getURL();
+		if (equinoxResolveMethod != null && rootDirUrl.getProtocol().startsWith("bundle")) {
+			URL resolvedUrl = (URL) ReflectionUtils.invokeMethod(equinoxResolveMethod, null, rootDirUrl);
+			if (resolvedUrl != null) {
+				rootDirUrl = resolvedUrl;
+			}
+			rootDirResource = new UrlResource(rootDirUrl);
+		}
+		if (rootDirUrl.getProtocol().startsWith(ResourceUtils.URL_PROTOCOL_VFS)) {
+			return VfsResourceMatchingDelegate.findMatchingResources(rootDirUrl, subPattern, getPathMatcher());
+		}
+		else if (ResourceUtils.isJarURL(rootDirUrl) || isJarResource(rootDirResource)) {
+			return doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern);
+		}
+		else {
+			return doFindPathMatchingFileResources(rootDirResource, subPattern);
+		}
+	}
+
+	/**
+	 * Scan the given root directories on a pool of {@link #setScanParallelism} threads.
+	 * @return the matching resources per root directory, in root directory order
+	 */
+	private List<Set<Resource>> findMatchingResourcesInParallel(Resource[] rootDirResources, String subPattern)
+			throws IOException {
+
+		ForkJoinPool pool = new ForkJoinPool(Math.min(this.scanParallelism, rootDirResources.length));
+		try {
+			List<Future<Set<Resource>>> futures = new ArrayList<>(rootDirResources.length);
+			for (Resource rootDirResource : rootDirResources) {
+				futures.add(pool.submit(() -> findMatchingResources(rootDirResource, subPattern)));
+			}
+			List<Set<Resource>> results = new ArrayList<>(futures.size());
+			for (Future<Set<Resource>> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Failed to scan root directories", cause);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while scanning root directories", ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
 	/**
 	 * Determine the root directory for the given location.
 	 * <p>Used for determining the starting point for file matching,
@@ -831,6 +928,36 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	}
 
 
+	/**
+	 * Determine the default scan parallelism as specified through the
+	 * {@link #SCAN_PARALLELISM_PROPERTY_NAME} system property.
+	 * <p>Falls back to 1 (sequential scanning) if the property is not set,
+	 * logging a warning if it is not a positive number.
+	 * @since 5.1.12
+	 * @see #setScanParallelism
+	 */
+	public static int getDefaultScanParallelism() {
+		String scanParallelism = SpringProperties.getProperty(SCAN_PARALLELISM_PROPERTY_NAME);
+		if (!StringUtils.hasText(scanParallelism)) {
+			return 1;
+		}
+		try {
+			int parallelism = Integer.parseInt(scanParallelism.trim());
+			if (parallelism > 0) {
+				return parallelism;
+			}
+		}
+		catch (NumberFormatException ex) {
+			// fall through to warning below
+		}
+		if (logger.isWarnEnabled()) {
+			logger.warn("Ignoring invalid value for property '" + SCAN_PARALLELISM_PROPERTY_NAME +
+					"' (expecting a positive number): " + scanParallelism);
+		}
+		return 1;
+	}
+
+
 	/**
 	 * Inner delegate class, avoiding a hard JBoss VFS API dependency at runtime.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,21 +16,32 @@
 
 package org.springframework.core.type.classreading;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
 
 /**
  * Caching implementation of the {@link MetadataReaderFactory} interface,
  * caching a {@link MetadataReader} instance per Spring {@link Resource} handle
  * (i.e. per ".class" file).
  *
+ * <p>As of 5.1.12, parsed metadata may additionally be kept in a persistent
+ * cache file, skipping the parsing of unchanged class files on subsequent runs:
+ * see {@link #setPersistentCacheFile}. Alternatively, metadata precomputed
+ * at build time may be used for class path resources: see
+ * {@link #setPrecomputedMetadata}.
+ *
  * @author Juergen Hoeller
  * @author Costin Leau
  * @since 2.5
@@ -40,10 +51,27 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	/** Default maximum number of entries for a local MetadataReader cache: 256. */
 	public static final int DEFAULT_CACHE_LIMIT = 256;
 
+	/**
+	 * System property that specifies a file for persisting class metadata
+	 * across JVM restarts: "spring.metadata-reader.cache-file".
+	 * <p>Serves as the default for {@link #setPersistentCacheFile}, allowing
+	 * for warm restarts and test runs without any configuration changes.
+	 * @since 5.1.12
+	 */
+	public static final String PERSISTENT_CACHE_FILE_PROPERTY_NAME = "spring.metadata-reader.cache-file";
+
 	/** MetadataReader cache: either local or shared at the ResourceLoader level. */
 	@Nullable
 	private Map<Resource, MetadataReader> metadataReaderCache;
 
+	/** Persistent metadata cache, if any. */
+	@Nullable
+	private PersistentMetadataCache persistentCache = getDefaultPersistentCache();
+
+	/** Precomputed metadata lookup, if any. */
+	@Nullable
+	private Function<String, String> precomputedMetadata;
+
 
 	/**
 	 * Create a new CachingMetadataReaderFactory for the default class loader,
@@ -114,13 +142,61 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	}
 
 
+	/**
+	 * Specify a file for persisting class metadata across JVM restarts.
+	 * <p>Metadata for unchanged class files (as identified by resource URL,
+	 * content length and last-modified timestamp) is restored from this file
+	 * instead of parsing the class file. Newly parsed metadata gets written
+	 * to the file on {@link #clearCache()}. The file is shared by all factories
+	 * pointing to it within the same JVM.
+	 * <p>Note that a sibling file with an ".alt" suffix will be used as well,
+	 * alternating with the given file on each write since the currently
+	 * loaded (memory-mapped) file cannot be replaced on all platforms.
+	 * <p>Default is the file specified by the
+	 * {@link #PERSISTENT_CACHE_FILE_PROPERTY_NAME} system property, if any.
+	 * @param cacheFile the cache file, or {@code null} for no persistent cache
+	 * @since 5.1.12
+	 */
+	public void setPersistentCacheFile(@Nullable File cacheFile) {
+		this.persistentCache = (cacheFile != null ? PersistentMetadataCache.forFile(cacheFile) : null);
+	}
+
+	/**
+	 * Return the file for persisting class metadata, if any.
+	 * @since 5.1.12
+	 */
+	@Nullable
+	public File getPersistentCacheFile() {
+		return (this.persistentCache != null ? this.persistentCache.getFile() : null);
+	}
+
+	/**
+	 * Specify a lookup function for class metadata precomputed at build time,
+	 * returning the encoded metadata for a given class name (or {@code null}).
+	 * <p>Such metadata is written by the {@code spring-context-indexer} annotation
+	 * processor for annotated types, in particular configuration classes. It gets
+	 * used for class path resources as obtained through {@link #getMetadataReader(String)},
+	 * with any unknown class or unreplayable metadata parsed from the class file.
+	 * <p>Precomputed metadata is only checked against the presence and the name of
+	 * the class: like the candidate components index, it needs to be regenerated
+	 * whenever the affected classes are recompiled. Changes compiled without the
+	 * annotation processor (e.g. by an IDE with annotation processing disabled)
+	 * are not detected; set the "spring.index.ignore" property to "true" then.
+	 * @param precomputedMetadata the lookup function, or {@code null} for none
+	 * @since 5.1.12
+	 */
+	public void setPrecomputedMetadata(@Nullable Function<String, String> precomputedMetadata) {
+		this.precomputedMetadata = precomputedMetadata;
+	}
+
+
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
 		if (this.metadataReaderCache instanceof ConcurrentMap) {
 			// No synchronization necessary...
 			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
 			if (metadataReader == null) {
-				metadataReader = super.getMetadataReader(resource);
+				metadataReader = readMetadata(resource);
 				this.metadataReaderCache.put(resource, metadataReader);
 			}
 			return metadataReader;
@@ -128,22 +204,56 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 		else if (this.metadataReaderCache != null) {
 			synchronized (this.metadataReaderCache) {
 				MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-				if (metadataReader == null) {
-					metadataReader = super.getMetadataReader(resource);
-					this.metadataReaderCache.put(resource, metadataReader);
+				if (metadataReader != null) {
+					return metadataReader;
 				}
-				return metadataReader;
+			}
+			// Read outside of the lock, allowing for concurrent reading of different resources
+			MetadataReader metadataReader = readMetadata(resource);
+			synchronized (this.metadataReaderCache) {
+				MetadataReader existing = this.metadataReaderCache.putIfAbsent(resource, metadataReader);
+				return (existing != null ? existing : metadataReader);
 			}
 		}
 		else {
-			return super.getMetadataReader(resource);
+			return readMetadata(resource);
 		}
 	}
 
+	private MetadataReader readMetadata(Resource resource) throws IOException {
+		Function<String, String> precomputedMetadata = this.precomputedMetadata;
+		if (precomputedMetadata != null && resource instanceof ClassPathResource) {
+			String path = ((ClassPathResource) resource).getPath();
+			if (path.endsWith(ClassUtils.CLASS_FILE_SUFFIX)) {
+				String className = ClassUtils.convertResourcePathToClassName(
+						path.substring(0, path.length() - ClassUtils.CLASS_FILE_SUFFIX.length()));
+				String encodedMetadata = precomputedMetadata.apply(className);
+				// A class removed since the index has been built -> regular "class not found" handling
+				if (encodedMetadata != null && resource.exists()) {
+					MetadataReader metadataReader = PersistentMetadataCache.createMetadataReader(
+							resource, className, encodedMetadata, getResourceLoader().getClassLoader());
+					if (metadataReader != null) {
+						return metadataReader;
+					}
+				}
+			}
+		}
+		PersistentMetadataCache persistentCache = this.persistentCache;
+		if (persistentCache != null) {
+			return persistentCache.getMetadataReader(resource, getResourceLoader().getClassLoader());
+		}
+		return super.getMetadataReader(resource);
+	}
+
 	/**
 	 * Clear the local MetadataReader cache, if any, removing all cached class metadata.
+	 * <p>Newly parsed metadata gets written to the persistent cache file at this point.
+	 * @see #setPersistentCacheFile
 	 */
 	public void clearCache() {
+		if (this.persistentCache != null) {
+			this.persistentCache.save();
+		}
 		if (this.metadataReaderCache instanceof LocalResourceCache) {
 			synchronized (this.metadataReaderCache) {
 				this.metadataReaderCache.clear();
@@ -156,6 +266,13 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	}
 
 
+	@Nullable
+	private static PersistentMetadataCache getDefaultPersistentCache() {
+		String cacheFile = SpringProperties.getProperty(PERSISTENT_CACHE_FILE_PROPERTY_NAME);
+		return (cacheFile != null ? PersistentMetadataCache.forFile(new File(cacheFile)) : null);
+	}
+
+
 	@SuppressWarnings("serial")
 	private static class LocalResourceCache extends LinkedHashMap<Resource, MetadataReader> {
 
@@ -0,0 +1,870 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Internal file-based cache for class metadata, allowing for skipping
+ * the parsing of unchanged class files across JVM restarts.
+ *
+ * <p>Rather than storing the resulting metadata objects, this cache records
+ * the ASM visitor events relevant to {@link AnnotationMetadataReadingVisitor}
+ * (class header, member and enclosing classes, class-level and method-level
+ * annotations) in a compact binary form. A cache hit replays those events
+ * into a fresh visitor, leading to exactly the same metadata as an actual
+ * parse of the class file, including the resolution of enum values and
+ * annotation defaults against the current ClassLoader.
+ *
+ * <p>Entries are keyed by resource URL and validated against the resource's
+ * content length and last-modified timestamp. The cache file is memory-mapped
+ * on load; newly parsed entries are kept in memory until {@link #save()}.
+ * A cache instance is shared per file within the JVM.
+ *
+ * <p>Since a mapped file cannot be replaced on all platforms (e.g. not on
+ * Windows) and is only unmapped on garbage collection, the cache alternates
+ * between two files: the given file and a sibling file with an ".alt" suffix.
+ * Each save writes a new generation to the file that is not mapped by this
+ * cache instance, and a restarting JVM loads the file with the most recent
+ * generation. Entries which have not been used in any of the last
+ * {@value #MAX_UNUSED_GENERATIONS} generations are dropped on save.
+ *
+ * <p>The same event encoding is used for class metadata precomputed at
+ * build time (see {@link #createMetadataReader(Resource, String, String, ClassLoader)}).
+ *
+ * @since 5.1.12
+ * @see CachingMetadataReaderFactory#setPersistentCacheFile
+ */
+final class PersistentMetadataCache {
+
+	private static final int MAGIC = 0x53504d43;
+
+	private static final int VERSION = 2;
+
+	private static final String ALTERNATE_FILE_SUFFIX = ".alt";
+
+	private static final int MAX_UNUSED_GENERATIONS = 5;
+
+	private static final byte PRECOMPUTED_FORMAT_VERSION = 1;
+
+	private static final byte END = 0;
+
+	private static final byte VISIT = 1;
+
+	private static final byte OUTER_CLASS = 2;
+
+	private static final byte INNER_CLASS = 3;
+
+	private static final byte ANNOTATION = 4;
+
+	private static final byte METHOD = 5;
+
+	private static final byte ANNOTATION_VALUE = 1;
+
+	private static final byte ANNOTATION_ENUM = 2;
+
+	private static final byte ANNOTATION_NESTED = 3;
+
+	private static final byte ANNOTATION_ARRAY = 4;
+
+	private static final Log logger = LogFactory.getLog(PersistentMetadataCache.class);
+
+	private static final Map<File, PersistentMetadataCache> sharedCaches = new ConcurrentReferenceHashMap<>(4);
+
+
+	private final File file;
+
+	private final File alternateFile;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>(256);
+
+	@Nullable
+	private File mappedFile;
+
+	private long generation;
+
+	private volatile boolean modified;
+
+
+	private PersistentMetadataCache(File file) {
+		this.file = file;
+		this.alternateFile = new File(file.getPath() + ALTERNATE_FILE_SUFFIX);
+		load();
+	}
+
+
+	/**
+	 * Return the cache file.
+	 */
+	public File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Obtain a MetadataReader for the given resource, replaying cached metadata
+	 * if the resource is unchanged and parsing (and recording) it otherwise.
+	 * @param resource the class file resource
+	 * @param classLoader the ClassLoader to resolve annotation values against
+	 */
+	public MetadataReader getMetadataReader(Resource resource, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		String key;
+		long size;
+		long lastModified;
+		try {
+			key = resource.getURL().toString();
+			size = resource.contentLength();
+			lastModified = resource.lastModified();
+		}
+		catch (IOException ex) {
+			// Not identifiable -> no persistent caching for this resource
+			return new SimpleMetadataReader(resource, classLoader);
+		}
+
+		Entry entry = this.entries.get(key);
+		if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+			AnnotationMetadataReadingVisitor visitor = new AnnotationMetadataReadingVisitor(classLoader);
+			try {
+				replayClass(entry.data.duplicate(), visitor);
+				entry.used = true;
+				return new SimpleMetadataReader(resource, visitor);
+			}
+			catch (RuntimeException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to replay cached metadata for " + resource + " - parsing class file", ex);
+				}
+			}
+		}
+
+		ClassReader classReader = SimpleMetadataReader.getClassReader(resource);
+		AnnotationMetadataReadingVisitor visitor = new AnnotationMetadataReadingVisitor(classLoader);
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+		try {
+			classReader.accept(new RecordingClassVisitor(visitor, new DataOutputStream(bos)), ClassReader.SKIP_DEBUG);
+		}
+		catch (IllegalArgumentException | UncheckedIOException ex) {
+			// Not recordable -> plain parsing without persistent caching
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to record class metadata for " + resource, ex);
+			}
+			visitor = new AnnotationMetadataReadingVisitor(classLoader);
+			classReader.accept(visitor, ClassReader.SKIP_DEBUG);
+			return new SimpleMetadataReader(resource, visitor);
+		}
+		this.entries.put(key, new Entry(size, lastModified, this.generation, ByteBuffer.wrap(bos.toByteArray()), true));
+		this.modified = true;
+		return new SimpleMetadataReader(resource, visitor);
+	}
+
+	/**
+	 * Create a MetadataReader for the given resource from precomputed metadata,
+	 * as encoded at build time by Spring's candidate components indexer.
+	 * @param resource the class file resource
+	 * @param className the name of the class that the metadata is expected for
+	 * @param encodedMetadata the Base64-encoded visitor events, prefixed with a format version
+	 * @param classLoader the ClassLoader to resolve annotation values against
+	 * @return the MetadataReader, or {@code null} if the metadata is not replayable
+	 * or does not match the given class name
+	 */
+	@Nullable
+	static MetadataReader createMetadataReader(
+			Resource resource, String className, String encodedMetadata, @Nullable ClassLoader classLoader) {
+
+		try {
+			ByteBuffer data = ByteBuffer.wrap(Base64.getDecoder().decode(encodedMetadata));
+			if (data.get() != PRECOMPUTED_FORMAT_VERSION) {
+				return null;
+			}
+			AnnotationMetadataReadingVisitor visitor = new AnnotationMetadataReadingVisitor(classLoader);
+			replayClass(data, visitor);
+			if (!className.equals(visitor.getClassName())) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring precomputed metadata for class [" + visitor.getClassName() +
+							"] registered for " + resource);
+				}
+				return null;
+			}
+			return new SimpleMetadataReader(resource, visitor);
+		}
+		catch (RuntimeException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to replay precomputed metadata for " + resource, ex);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Write all entries to a new generation of the cache file if new metadata
+	 * has been recorded since the last load or save, dropping entries which
+	 * have not been used for a while.
+	 * Failures are logged but not propagated.
+	 */
+	public synchronized void save() {
+		if (!this.modified) {
+			return;
+		}
+		this.modified = false;
+		long newGeneration = this.generation + 1;
+		Map<String, Entry> entriesToWrite = new LinkedHashMap<>(this.entries.size());
+		this.entries.forEach((key, entry) -> {
+			if (entry.used || newGeneration - entry.generation <= MAX_UNUSED_GENERATIONS) {
+				entriesToWrite.put(key, entry);
+			}
+			else {
+				this.entries.remove(key, entry);
+			}
+		});
+		// Never replace the file that we have mapped ourselves
+		File targetFile = (this.file.equals(this.mappedFile) ? this.alternateFile : this.file);
+		Path target = targetFile.toPath();
+		Path tempFile = null;
+		try {
+			Path dir = target.toAbsolutePath().getParent();
+			if (dir != null) {
+				Files.createDirectories(dir);
+			}
+			tempFile = Files.createTempFile(dir, targetFile.getName(), ".tmp");
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(newGeneration);
+				out.writeInt(entriesToWrite.size());
+				for (Map.Entry<String, Entry> mapEntry : entriesToWrite.entrySet()) {
+					Entry entry = mapEntry.getValue();
+					writeString(out, mapEntry.getKey());
+					out.writeLong(entry.size);
+					out.writeLong(entry.lastModified);
+					out.writeLong(entry.used ? newGeneration : entry.generation);
+					ByteBuffer data = entry.data.duplicate();
+					out.writeInt(data.remaining());
+					while (data.hasRemaining()) {
+						out.write(data.get());
+					}
+				}
+			}
+			Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			this.generation = newGeneration;
+		}
+		catch (IOException | UncheckedIOException ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Failed to write class metadata cache file [" + targetFile + "]", ex);
+			}
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				}
+				catch (IOException ex2) {
+					// ignore
+				}
+			}
+		}
+	}
+
+
+	private void load() {
+		long fileGeneration = readGeneration(this.file);
+		long alternateGeneration = readGeneration(this.alternateFile);
+		this.generation = Math.max(Math.max(fileGeneration, alternateGeneration), 0);
+		if (fileGeneration < 0 && alternateGeneration < 0) {
+			return;
+		}
+		File fileToLoad = (alternateGeneration > fileGeneration ? this.alternateFile : this.file);
+		try (FileChannel channel = FileChannel.open(fileToLoad.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			this.mappedFile = fileToLoad;
+			if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				return;
+			}
+			this.generation = Math.max(this.generation, buffer.getLong());
+			int count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				String key = readString(buffer);
+				long size = buffer.getLong();
+				long lastModified = buffer.getLong();
+				long entryGeneration = buffer.getLong();
+				int length = buffer.getInt();
+				ByteBuffer data = buffer.slice();
+				data.limit(length);
+				buffer.position(buffer.position() + length);
+				this.entries.put(key, new Entry(size, lastModified, entryGeneration, data.asReadOnlyBuffer(), false));
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			// Unreadable or truncated file -> start from scratch
+			this.entries.clear();
+			if (logger.isInfoEnabled()) {
+				logger.info("Failed to read class metadata cache file [" + fileToLoad + "]: " + ex);
+			}
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Loaded " + this.entries.size() + " class metadata entries from [" + fileToLoad + "]");
+		}
+	}
+
+	/**
+	 * Read the generation from the header of the given cache file.
+	 * @return the generation, or -1 if the file does not exist or is not a valid cache file
+	 */
+	private static long readGeneration(File file) {
+		if (!file.isFile()) {
+			return -1;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return -1;
+			}
+			return in.readLong();
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to read class metadata cache file [" + file + "]", ex);
+			}
+			return -1;
+		}
+	}
+
+
+	private static void replayClass(ByteBuffer in, ClassVisitor visitor) {
+		byte tag;
+		while ((tag = in.get()) != END) {
+			switch (tag) {
+				case VISIT:
+					int version = in.getInt();
+					int access = in.getInt();
+					String name = readString(in);
+					String signature = readNullableString(in);
+					String superName = readNullableString(in);
+					visitor.visit(version, access, name, signature, superName, readStringArray(in));
+					break;
+				case OUTER_CLASS:
+					visitor.visitOuterClass(readString(in), readNullableString(in), readNullableString(in));
+					break;
+				case INNER_CLASS:
+					String innerName = readString(in);
+					String outerName = readNullableString(in);
+					String simpleName = readNullableString(in);
+					visitor.visitInnerClass(innerName, outerName, simpleName, in.getInt());
+					break;
+				case ANNOTATION:
+					String desc = readString(in);
+					replayAnnotation(in, visitor.visitAnnotation(desc, in.get() != 0));
+					break;
+				case METHOD:
+					int methodAccess = in.getInt();
+					String methodName = readString(in);
+					String methodDesc = readString(in);
+					String methodSignature = readNullableString(in);
+					MethodVisitor mv = visitor.visitMethod(
+							methodAccess, methodName, methodDesc, methodSignature, readStringArray(in));
+					while (in.get() == ANNOTATION) {
+						String annotationDesc = readString(in);
+						boolean visible = (in.get() != 0);
+						replayAnnotation(in, (mv != null ? mv.visitAnnotation(annotationDesc, visible) : null));
+					}
+					if (mv != null) {
+						mv.visitEnd();
+					}
+					break;
+				default:
+					throw new IllegalStateException("Unexpected class event tag: " + tag);
+			}
+		}
+		visitor.visitEnd();
+	}
+
+	private static void replayAnnotation(ByteBuffer in, @Nullable AnnotationVisitor av) {
+		byte tag;
+		while ((tag = in.get()) != END) {
+			String name = readNullableString(in);
+			switch (tag) {
+				case ANNOTATION_VALUE:
+					Object value = readValue(in);
+					if (av != null) {
+						av.visit(name, value);
+					}
+					break;
+				case ANNOTATION_ENUM:
+					String desc = readString(in);
+					String enumValue = readString(in);
+					if (av != null) {
+						av.visitEnum(name, desc, enumValue);
+					}
+					break;
+				case ANNOTATION_NESTED:
+					String nestedDesc = readString(in);
+					replayAnnotation(in, (av != null ? av.visitAnnotation(name, nestedDesc) : null));
+					break;
+				case ANNOTATION_ARRAY:
+					replayAnnotation(in, (av != null ? av.visitArray(name) : null));
+					break;
+				default:
+					throw new IllegalStateException("Unexpected annotation event tag: " + tag);
+			}
+		}
+		if (av != null) {
+			av.visitEnd();
+		}
+	}
+
+
+	private static void record(RecordingCallback callback) {
+		try {
+			callback.record();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value instanceof String) {
+			out.writeByte('s');
+			writeString(out, (String) value);
+		}
+		else if (value instanceof Type) {
+			out.writeByte('T');
+			writeString(out, ((Type) value).getDescriptor());
+		}
+		else if (value instanceof Integer) {
+			out.writeByte('I');
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte('Z');
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte('J');
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Byte) {
+			out.writeByte('B');
+			out.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			out.writeByte('C');
+			out.writeChar((Character) value);
+		}
+		else if (value instanceof Short) {
+			out.writeByte('S');
+			out.writeShort((Short) value);
+		}
+		else if (value instanceof Float) {
+			out.writeByte('F');
+			out.writeFloat((Float) value);
+		}
+		else if (value instanceof Double) {
+			out.writeByte('D');
+			out.writeDouble((Double) value);
+		}
+		else if (value.getClass().isArray() && value.getClass().getComponentType().isPrimitive()) {
+			// Primitive arrays as passed by ASM for array values of primitive type
+			out.writeByte('[');
+			int length = Array.getLength(value);
+			out.writeByte(Type.getDescriptor(value.getClass().getComponentType()).charAt(0));
+			out.writeInt(length);
+			for (int i = 0; i < length; i++) {
+				writeValue(out, Array.get(value, i));
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Unsupported annotation value type: " + value.getClass().getName());
+		}
+	}
+
+	private static Object readValue(ByteBuffer in) {
+		byte type = in.get();
+		switch (type) {
+			case 's': return readString(in);
+			case 'T': return Type.getType(readString(in));
+			case 'I': return in.getInt();
+			case 'Z': return (in.get() != 0);
+			case 'J': return in.getLong();
+			case 'B': return in.get();
+			case 'C': return in.getChar();
+			case 'S': return in.getShort();
+			case 'F': return in.getFloat();
+			case 'D': return in.getDouble();
+			case '[':
+				Class<?> componentType = primitiveType(in.get());
+				int length = in.getInt();
+				Object array = Array.newInstance(componentType, length);
+				for (int i = 0; i < length; i++) {
+					Array.set(array, i, readValue(in));
+				}
+				return array;
+			default:
+				throw new IllegalStateException("Unexpected annotation value type: " + (char) type);
+		}
+	}
+
+	private static Class<?> primitiveType(byte descriptor) {
+		switch (descriptor) {
+			case 'I': return int.class;
+			case 'Z': return boolean.class;
+			case 'J': return long.class;
+			case 'B': return byte.class;
+			case 'C': return char.class;
+			case 'S': return short.class;
+			case 'F': return float.class;
+			case 'D': return double.class;
+			default: throw new IllegalStateException("Unexpected primitive type: " + (char) descriptor);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+		if (value != null) {
+			writeString(out, value);
+		}
+		else {
+			out.writeInt(-1);
+		}
+	}
+
+	private static void writeStringArray(DataOutputStream out, @Nullable String[] values) throws IOException {
+		if (values != null) {
+			out.writeInt(values.length);
+			for (String value : values) {
+				writeString(out, value);
+			}
+		}
+		else {
+			out.writeInt(-1);
+		}
+	}
+
+	private static String readString(ByteBuffer in) {
+		String value = readNullableString(in);
+		if (value == null) {
+			throw new IllegalStateException("Unexpected null string");
+		}
+		return value;
+	}
+
+	@Nullable
+	private static String readNullableString(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Nullable
+	private static String[] readStringArray(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = readString(in);
+		}
+		return values;
+	}
+
+
+	/**
+	 * Return the shared cache for the given file, loading it if necessary.
+	 */
+	public static PersistentMetadataCache forFile(File file) {
+		File fileToUse = file.getAbsoluteFile();
+		return sharedCaches.computeIfAbsent(fileToUse, PersistentMetadataCache::new);
+	}
+
+
+	/**
+	 * A cached entry: validation attributes plus recorded visitor events,
+	 * along with the generation that the entry has last been used in.
+	 */
+	private static final class Entry {
+
+		final long size;
+
+		final long lastModified;
+
+		final long generation;
+
+		final ByteBuffer data;
+
+		volatile boolean used;
+
+		Entry(long size, long lastModified, long generation, ByteBuffer data, boolean used) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.generation = generation;
+			this.data = data;
+			this.used = used;
+		}
+	}
+
+
+	/**
+	 * ClassVisitor that records the relevant events while delegating to the target visitor.
+	 */
+	private static final class RecordingClassVisitor extends ClassVisitor {
+
+		private final DataOutputStream out;
+
+		RecordingClassVisitor(ClassVisitor cv, DataOutputStream out) {
+			super(SpringAsmInfo.ASM_VERSION, cv);
+			this.out = out;
+		}
+
+		@Override
+		public void visit(int version, int access, String name, @Nullable String signature,
+				@Nullable String superName, @Nullable String[] interfaces) {
+
+			record(() -> {
+				this.out.writeByte(VISIT);
+				this.out.writeInt(version);
+				this.out.writeInt(access);
+				writeString(this.out, name);
+				writeNullableString(this.out, signature);
+				writeNullableString(this.out, superName);
+				writeStringArray(this.out, interfaces);
+			});
+			super.visit(version, access, name, signature, superName, interfaces);
+		}
+
+		@Override
+		public void visitOuterClass(String owner, @Nullable String name, @Nullable String desc) {
+			record(() -> {
+				this.out.writeByte(OUTER_CLASS);
+				writeString(this.out, owner);
+				writeNullableString(this.out, name);
+				writeNullableString(this.out, desc);
+			});
+			super.visitOuterClass(owner, name, desc);
+		}
+
+		@Override
+		public void visitInnerClass(String name, @Nullable String outerName, @Nullable String innerName, int access) {
+			record(() -> {
+				this.out.writeByte(INNER_CLASS);
+				writeString(this.out, name);
+				writeNullableString(this.out, outerName);
+				writeNullableString(this.out, innerName);
+				this.out.writeInt(access);
+			});
+			super.visitInnerClass(name, outerName, innerName, access);
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+			record(() -> {
+				this.out.writeByte(ANNOTATION);
+				writeString(this.out, desc);
+				this.out.writeBoolean(visible);
+			});
+			return new RecordingAnnotationVisitor(super.visitAnnotation(desc, visible), this.out);
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String desc,
+				@Nullable String signature, @Nullable String[] exceptions) {
+
+			MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+			if ((access & Opcodes.ACC_BRIDGE) != 0) {
+				return mv;
+			}
+			return new RecordingMethodVisitor(mv, this.out, access, name, desc, signature, exceptions);
+		}
+
+		@Override
+		public void visitEnd() {
+			record(() -> this.out.writeByte(END));
+			super.visitEnd();
+		}
+	}
+
+
+	/**
+	 * MethodVisitor that records annotations on a method, emitting the method
+	 * header on the first annotation (skipping non-annotated methods entirely).
+	 */
+	private static final class RecordingMethodVisitor extends MethodVisitor {
+
+		private final DataOutputStream out;
+
+		private final int access;
+
+		private final String name;
+
+		private final String desc;
+
+		@Nullable
+		private final String signature;
+
+		@Nullable
+		private final String[] exceptions;
+
+		private boolean annotated;
+
+		RecordingMethodVisitor(@Nullable MethodVisitor mv, DataOutputStream out, int access, String name,
+				String desc, @Nullable String signature, @Nullable String[] exceptions) {
+
+			super(SpringAsmInfo.ASM_VERSION, mv);
+			this.out = out;
+			this.access = access;
+			this.name = name;
+			this.desc = desc;
+			this.signature = signature;
+			this.exceptions = exceptions;
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(String annotationDesc, boolean visible) {
+			record(() -> {
+				if (!this.annotated) {
+					this.out.writeByte(METHOD);
+					this.out.writeInt(this.access);
+					writeString(this.out, this.name);
+					writeString(this.out, this.desc);
+					writeNullableString(this.out, this.signature);
+					writeStringArray(this.out, this.exceptions);
+					this.annotated = true;
+				}
+				this.out.writeByte(ANNOTATION);
+				writeString(this.out, annotationDesc);
+				this.out.writeBoolean(visible);
+			});
+			return new RecordingAnnotationVisitor(super.visitAnnotation(annotationDesc, visible), this.out);
+		}
+
+		@Override
+		public void visitEnd() {
+			if (this.annotated) {
+				record(() -> this.out.writeByte(END));
+			}
+			super.visitEnd();
+		}
+	}
+
+
+	/**
+	 * AnnotationVisitor that records annotation values while delegating to the target visitor.
+	 */
+	private static final class RecordingAnnotationVisitor extends AnnotationVisitor {
+
+		private final DataOutputStream out;
+
+		RecordingAnnotationVisitor(@Nullable AnnotationVisitor av, DataOutputStream out) {
+			super(SpringAsmInfo.ASM_VERSION, av);
+			this.out = out;
+		}
+
+		@Override
+		public void visit(@Nullable String name, Object value) {
+			record(() -> {
+				this.out.writeByte(ANNOTATION_VALUE);
+				writeNullableString(this.out, name);
+				writeValue(this.out, value);
+			});
+			super.visit(name, value);
+		}
+
+		@Override
+		public void visitEnum(@Nullable String name, String desc, String value) {
+			record(() -> {
+				this.out.writeByte(ANNOTATION_ENUM);
+				writeNullableString(this.out, name);
+				writeString(this.out, desc);
+				writeString(this.out, value);
+			});
+			super.visitEnum(name, desc, value);
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(@Nullable String name, String desc) {
+			record(() -> {
+				this.out.writeByte(ANNOTATION_NESTED);
+				writeNullableString(this.out, name);
+				writeString(this.out, desc);
+			});
+			return new RecordingAnnotationVisitor(super.visitAnnotation(name, desc), this.out);
+		}
+
+		@Override
+		public AnnotationVisitor visitArray(@Nullable String name) {
+			record(() -> {
+				this.out.writeByte(ANNOTATION_ARRAY);
+				writeNullableString(this.out, name);
+			});
+			return new RecordingAnnotationVisitor(super.visitArray(name), this.out);
+		}
+
+		@Override
+		public void visitEnd() {
+			record(() -> this.out.writeByte(END));
+			super.visitEnd();
+		}
+	}
+
+
+	@FunctionalInterface
+	private interface RecordingCallback {
+
+		void record() throws IOException;
+	}
+
+}
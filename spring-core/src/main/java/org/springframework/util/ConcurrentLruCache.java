@@ -0,0 +1,238 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Simple bounded cache of values generated per key, evicting the least
+ * recently used entries once a size limit has been exceeded.
+ *
+ * <p>Cache hits are lock-free: they merely read from a {@link ConcurrentHashMap}
+ * and stamp the entry with the current logical time, which only advances on
+ * cache misses. Misses generate the value outside of any lock, with concurrent
+ * misses for the same key potentially generating the value more than once
+ * (the first one wins). Eviction happens in batches by whichever thread
+ * exceeds the size limit, without blocking other threads. As a consequence,
+ * the size limit may be temporarily exceeded under concurrent access and the
+ * eviction order is an approximation of strict LRU order.
+ *
+ * <p>Hit and miss counts are tracked for monitoring and sizing purposes.
+ * Neither keys nor generated values may be {@code null}; values are
+ * expected to be immutable since they are shared across callers.
+ *
+ * @since 5.1.12
+ * @param <K> the type of the key used for cache retrieval
+ * @param <V> the type of the cached values
+ */
+public class ConcurrentLruCache<K, V> {
+
+	private final Map<K, Entry<V>> cache = new ConcurrentHashMap<>();
+
+	private final Function<K, V> generator;
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private volatile int sizeLimit;
+
+
+	/**
+	 * Create a new cache instance.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 * @param generator a function to generate a new value for a given key
+	 */
+	public ConcurrentLruCache(int sizeLimit, Function<K, V> generator) {
+		Assert.isTrue(sizeLimit > 0, "Cache size limit must be positive");
+		Assert.notNull(generator, "Generator function must not be null");
+		this.sizeLimit = sizeLimit;
+		this.generator = generator;
+	}
+
+
+	/**
+	 * Specify the maximum number of entries in the cache.
+	 * <p>A lower limit than before takes effect with the next cache miss.
+	 */
+	public void setSizeLimit(int sizeLimit) {
+		Assert.isTrue(sizeLimit > 0, "Cache size limit must be positive");
+		this.sizeLimit = sizeLimit;
+	}
+
+	/**
+	 * Return the maximum number of entries in the cache.
+	 */
+	public int getSizeLimit() {
+		return this.sizeLimit;
+	}
+
+	/**
+	 * Retrieve an entry from the cache, potentially triggering generation
+	 * of the value.
+	 * @param key the key to retrieve the entry for
+	 * @return the cached or newly generated value
+	 */
+	public V get(K key) {
+		Entry<V> entry = this.cache.get(key);
+		if (entry != null) {
+			this.hitCount.increment();
+			entry.touch(this.clock.get());
+			return entry.value;
+		}
+
+		this.missCount.increment();
+		V value = this.generator.apply(key);
+		Assert.state(value != null, "Generator function must not return null");
+		// Advance the clock after stamping the new entry, ranking subsequent hits above it
+		entry = new Entry<>(value, this.clock.getAndIncrement());
+		Entry<V> existing = this.cache.putIfAbsent(key, entry);
+		if (existing != null) {
+			return existing.value;
+		}
+		if (this.cache.size() > this.sizeLimit) {
+			evict();
+		}
+		return value;
+	}
+
+	/**
+	 * Determine whether the given key is present in this cache.
+	 * <p>This does not count as a cache access.
+	 * @param key the key to check for
+	 */
+	public boolean contains(K key) {
+		return this.cache.containsKey(key);
+	}
+
+	/**
+	 * Return the current number of entries in the cache.
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Remove all entries from the cache, keeping the hit and miss counts.
+	 */
+	public void clear() {
+		this.cache.clear();
+	}
+
+	/**
+	 * Return the number of cache hits since the creation of this cache.
+	 */
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of cache misses (i.e. generated values)
+	 * since the creation of this cache.
+	 */
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+
+	private void evict() {
+		if (!this.evictionLock.tryLock()) {
+			// Another thread is evicting already
+			return;
+		}
+		try {
+			int sizeLimit = this.sizeLimit;
+			int size = this.cache.size();
+			if (size <= sizeLimit) {
+				return;
+			}
+			// Evict a bit more than necessary, avoiding a full scan on every miss
+			int targetSize = sizeLimit - (sizeLimit / 16);
+			List<EvictionCandidate<K, V>> candidates = new ArrayList<>(size);
+			this.cache.forEach((key, entry) -> candidates.add(new EvictionCandidate<>(key, entry)));
+			candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+			for (int i = 0; i < candidates.size() - targetSize; i++) {
+				EvictionCandidate<K, V> candidate = candidates.get(i);
+				this.cache.remove(candidate.key, candidate.entry);
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ": " + size() + "/" + getSizeLimit() +
+				" entries, " + getHitCount() + " hits, " + getMissCount() + " misses";
+	}
+
+
+	/**
+	 * A cached value with its last access time.
+	 */
+	private static final class Entry<V> {
+
+		final V value;
+
+		volatile long lastAccess;
+
+		Entry(V value, long lastAccess) {
+			this.value = value;
+			this.lastAccess = lastAccess;
+		}
+
+		void touch(long now) {
+			// Avoid writes to shared memory for entries accessed since the last miss
+			if (this.lastAccess != now) {
+				this.lastAccess = now;
+			}
+		}
+	}
+
+
+	/**
+	 * An entry considered for eviction, with a snapshot of its last access time.
+	 */
+	private static final class EvictionCandidate<K, V> {
+
+		final K key;
+
+		final Entry<V> entry;
+
+		final long lastAccess;
+
+		EvictionCandidate(K key, Entry<V> entry) {
+			this.key = key;
+			this.entry = entry;
+			this.lastAccess = entry.lastAccess;
+		}
+	}
+
+}
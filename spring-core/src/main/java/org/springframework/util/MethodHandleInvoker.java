@@ -0,0 +1,225 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+
+/**
+ * Invoker for a specific {@link Method}, based on a {@link MethodHandle} which
+ * has been adapted to a generic {@code (Object target, Object[] args)} signature
+ * once, avoiding the per-call access checks and argument validation of
+ * {@link Method#invoke}. Invokers are cached per method.
+ *
+ * <p>{@link #invoke} follows the exception contract of {@link Method#invoke}:
+ * exceptions thrown by the method itself are wrapped in an
+ * {@link InvocationTargetException}, whereas argument mismatches lead to an
+ * {@link IllegalArgumentException}. Non-public methods need to be
+ * {@linkplain ReflectionUtils#makeAccessible(Method) made accessible} before
+ * obtaining an invoker for them; otherwise, the invoker falls back to reflection.
+ *
+ * <p>Framework call sites which invoke user methods (e.g. handler methods,
+ * event listener methods, scheduled methods) use this invoker instead of
+ * reflection if the "spring.reflection.method-handles" property is set to
+ * "true", either as a JVM system property or in a {@code spring.properties}
+ * file in the root of the classpath; see {@link #isEnabled()}.
+ *
+ * @since 5.1.12
+ * @see #METHOD_HANDLES_PROPERTY_NAME
+ * @see ReflectionUtils#invokeMethod(Method, Object, Object...)
+ */
+public final class MethodHandleInvoker {
+
+	/**
+	 * Property that instructs Spring's method invocation call sites to go through
+	 * cached {@code MethodHandleInvoker} instances instead of reflection:
+	 * "spring.reflection.method-handles".
+	 * <p>The default is "false", invoking methods through reflection.
+	 */
+	public static final String METHOD_HANDLES_PROPERTY_NAME = "spring.reflection.method-handles";
+
+	private static final boolean enabled = SpringProperties.getFlag(METHOD_HANDLES_PROPERTY_NAME);
+
+	private static final Object[] EMPTY_ARGS = new Object[0];
+
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+	private static final MethodHandle wrapTargetExceptionHandle;
+
+	static {
+		try {
+			wrapTargetExceptionHandle = lookup.findStatic(MethodHandleInvoker.class, "wrapTargetException",
+					MethodType.methodType(Object.class, Throwable.class));
+		}
+		catch (NoSuchMethodException | IllegalAccessException ex) {
+			throw new IllegalStateException("Cannot initialize MethodHandleInvoker", ex);
+		}
+	}
+
+	/** Cache of invokers, keyed by method. */
+	private static final Map<Method, MethodHandleInvoker> invokerCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	private final Method method;
+
+	@Nullable
+	private final MethodHandle methodHandle;
+
+	private final boolean isStatic;
+
+
+	private MethodHandleInvoker(Method method, @Nullable MethodHandle methodHandle) {
+		this.method = method;
+		this.methodHandle = methodHandle;
+		this.isStatic = Modifier.isStatic(method.getModifiers());
+	}
+
+
+	/**
+	 * Return the method that this invoker invokes.
+	 */
+	public Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Return whether this invoker uses a {@code MethodHandle}, as opposed
+	 * to falling back to reflection for a method which is not accessible.
+	 */
+	public boolean isMethodHandleBased() {
+		return (this.methodHandle != null);
+	}
+
+	/**
+	 * Invoke the method on the given target with the given arguments,
+	 * with the same semantics as {@link Method#invoke}.
+	 * @param target the target object to invoke the method on
+	 * (may be {@code null} for static methods)
+	 * @param args the invocation arguments (may be {@code null} for no arguments)
+	 * @return the invocation result, or {@code null} for a {@code void} method
+	 * @throws IllegalAccessException if the method is not accessible
+	 * @throws IllegalArgumentException if the target or the arguments do not match the method
+	 * @throws InvocationTargetException if the method itself threw an exception
+	 */
+	@Nullable
+	public Object invoke(@Nullable Object target, @Nullable Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		MethodHandle methodHandle = this.methodHandle;
+		if (methodHandle == null) {
+			return this.method.invoke(target, args);
+		}
+		if (target == null && !this.isStatic) {
+			throw new NullPointerException("Target must not be null for non-static method: " + this.method);
+		}
+		Object[] argsToUse = (args != null ? args : EMPTY_ARGS);
+		try {
+			return (Object) methodHandle.invokeExact(target, argsToUse);
+		}
+		catch (InvocationTargetException | IllegalArgumentException ex) {
+			throw ex;
+		}
+		catch (ClassCastException | NullPointerException ex) {
+			// Conversion of target or arguments before the actual invocation
+			throw new IllegalArgumentException("Target or argument type mismatch for method: " + this.method, ex);
+		}
+		catch (RuntimeException | Error ex) {
+			throw ex;
+		}
+		catch (Throwable ex) {
+			throw new UndeclaredThrowableException(ex);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MethodHandleInvoker for " + this.method;
+	}
+
+
+	/**
+	 * Return whether framework call sites should invoke user methods through
+	 * {@code MethodHandleInvoker} instances rather than through reflection,
+	 * as specified by the {@link #METHOD_HANDLES_PROPERTY_NAME} property.
+	 * <p>Invocation paths differ in stack traces and in the exceptions thrown
+	 * for misconfigured call sites, so this stays opt-in.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Obtain an invoker for the given method, creating and caching it if necessary.
+	 * @param method the method to invoke
+	 * @return the corresponding invoker (never {@code null})
+	 */
+	public static MethodHandleInvoker forMethod(Method method) {
+		Assert.notNull(method, "Method must not be null");
+		MethodHandleInvoker invoker = invokerCache.get(method);
+		if (invoker == null) {
+			MethodHandle methodHandle;
+			try {
+				methodHandle = createMethodHandle(method);
+			}
+			catch (IllegalAccessException ex) {
+				// Not accessible: reflective invocation, not cached (may be made accessible later on)
+				return new MethodHandleInvoker(method, null);
+			}
+			invoker = new MethodHandleInvoker(method, methodHandle);
+			invokerCache.put(method, invoker);
+		}
+		return invoker;
+	}
+
+	/**
+	 * Clear the internal invoker cache.
+	 * @see ReflectionUtils#clearCache()
+	 */
+	public static void clearCache() {
+		invokerCache.clear();
+	}
+
+
+	private static MethodHandle createMethodHandle(Method method) throws IllegalAccessException {
+		MethodHandle handle = lookup.unreflect(method).asFixedArity();
+		MethodType type = handle.type();
+		// Wrap exceptions thrown by the method itself, before any argument conversion
+		MethodHandle exceptionHandler = MethodHandles.dropArguments(
+				wrapTargetExceptionHandle.asType(MethodType.methodType(type.returnType(), Throwable.class)),
+				1, type.parameterList());
+		handle = MethodHandles.catchException(handle, Throwable.class, exceptionHandler);
+		if (Modifier.isStatic(method.getModifiers())) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		handle = handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+		return handle.asSpreader(Object[].class, method.getParameterCount());
+	}
+
+	private static Object wrapTargetException(Throwable ex) throws InvocationTargetException {
+		throw new InvocationTargetException(ex);
+	}
+
+}
@@ -49,6 +49,13 @@ public abstract class MimeTypeUtils {
 					'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U',
 					'V', 'W', 'X', 'Y', 'Z'};
 
+	/**
+	 * Default maximum number of entries for the cache of parsed mime types: 64.
+	 * @since 5.1.12
+	 * @see #getMimeTypeCache()
+	 */
+	public static final int DEFAULT_CACHE_LIMIT = 64;
+
 	/**
 	 * Comparator used by {@link #sortBySpecificity(List)}.
 	 */
@@ -155,6 +162,9 @@ public abstract class MimeTypeUtils {
 	public static final String TEXT_XML_VALUE = "text/xml";
 
 
+	private static final ConcurrentLruCache<String, MimeType> cachedMimeTypes =
+			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT, MimeTypeUtils::parseMimeTypeInternal);
+
 	@Nullable
 	private static volatile Random random;
 
@@ -174,6 +184,8 @@ public abstract class MimeTypeUtils {
 
 	/**
 	 * Parse the given String into a single {@code MimeType}.
+	 * <p>As of 5.1.12, parsed mime types are cached (except for multipart types
+	 * which typically come with a unique boundary): see {@link #getMimeTypeCache()}.
 	 * @param mimeType the string to parse
 	 * @return the mime type
 	 * @throws InvalidMimeTypeException if the string cannot be parsed
@@ -182,7 +194,14 @@ public abstract class MimeTypeUtils {
 		if (!StringUtils.hasLength(mimeType)) {
 			throw new InvalidMimeTypeException(mimeType, "'mimeType' must not be empty");
 		}
+		// Do not cache multipart mime types with random boundaries
+		if (mimeType.startsWith("multipart")) {
+			return parseMimeTypeInternal(mimeType);
+		}
+		return cachedMimeTypes.get(mimeType);
+	}
 
+	private static MimeType parseMimeTypeInternal(String mimeType) {
 		int index = mimeType.indexOf(';');
 		String fullType = (index >= 0 ? mimeType.substring(0, index) : mimeType).trim();
 		if (fullType.isEmpty()) {
@@ -249,6 +268,19 @@ public abstract class MimeTypeUtils {
 		}
 	}
 
+	/**
+	 * Return the cache of parsed mime types, e.g. for monitoring its
+	 * hit and miss counts or for adjusting its size limit.
+	 * <p>The default size limit is {@value #DEFAULT_CACHE_LIMIT} entries.
+	 * @since 5.1.12
+	 * @see ConcurrentLruCache#getHitCount()
+	 * @see ConcurrentLruCache#getMissCount()
+	 * @see ConcurrentLruCache#setSizeLimit(int)
+	 */
+	public static ConcurrentLruCache<String, MimeType> getMimeTypeCache() {
+		return cachedMimeTypes;
+	}
+
 	/**
 	 * Parse the comma-separated string into a list of {@code MimeType} objects.
 	 * @param mimeTypes the string to parse
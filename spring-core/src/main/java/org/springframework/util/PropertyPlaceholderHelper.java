@@ -16,8 +16,10 @@
 
 package org.springframework.util;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -33,6 +35,9 @@ import org.springframework.lang.Nullable;
  * user-supplied values. <p> Values for substitution can be supplied using a {@link Properties} instance or
  * using a {@link PlaceholderResolver}.
  *
+ * <p>As of 5.1.12, each String with placeholders is parsed once into a template of literal
+ * text and (possibly nested) placeholders, which is cached for subsequent replacements.
+ *
  * @author Juergen Hoeller
  * @author Rob Harrop
  * @since 3.0
@@ -61,6 +66,8 @@ public class PropertyPlaceholderHelper {
 
 	private final boolean ignoreUnresolvablePlaceholders;
 
+	private final Map<String, PlaceholderTemplate> templateCache = new ConcurrentReferenceHashMap<>(256);
+
 
 	/**
 	 * Creates a new {@code PropertyPlaceholderHelper} that uses the supplied prefix and suffix.
@@ -127,64 +134,122 @@ public class PropertyPlaceholderHelper {
 	protected String parseStringValue(
 			String value, PlaceholderResolver placeholderResolver, @Nullable Set<String> visitedPlaceholders) {
 
-		int startIndex = value.indexOf(this.placeholderPrefix);
-		if (startIndex == -1) {
+		if (value.indexOf(this.placeholderPrefix) == -1) {
 			return value;
 		}
+		PlaceholderTemplate template = this.templateCache.get(value);
+		if (template == null) {
+			template = parseTemplate(value);
+			this.templateCache.put(value, template);
+		}
+		return resolveTemplate(template, placeholderResolver, visitedPlaceholders);
+	}
 
-		StringBuilder result = new StringBuilder(value);
+	/**
+	 * Parse the given value into a {@link PlaceholderTemplate}, splitting it into
+	 * literal text and placeholders, with each placeholder key parsed in turn.
+	 */
+	private PlaceholderTemplate parseTemplate(String value) {
+		List<Object> segments = new ArrayList<>(4);
+		int literalIndex = 0;
+		int startIndex = value.indexOf(this.placeholderPrefix);
 		while (startIndex != -1) {
-			int endIndex = findPlaceholderEndIndex(result, startIndex);
-			if (endIndex != -1) {
-				String placeholder = result.substring(startIndex + this.placeholderPrefix.length(), endIndex);
-				String originalPlaceholder = placeholder;
+			int endIndex = findPlaceholderEndIndex(value, startIndex);
+			if (endIndex == -1) {
+				break;
+			}
+			if (startIndex > literalIndex) {
+				segments.add(value.substring(literalIndex, startIndex));
+			}
+			literalIndex = endIndex + this.placeholderSuffix.length();
+			String placeholder = value.substring(startIndex + this.placeholderPrefix.length(), endIndex);
+			segments.add(new Placeholder(value.substring(startIndex, literalIndex), parseTemplate(placeholder)));
+			startIndex = value.indexOf(this.placeholderPrefix, literalIndex);
+		}
+		if (literalIndex < value.length()) {
+			segments.add(value.substring(literalIndex));
+		}
+		return new PlaceholderTemplate(value, segments.toArray());
+	}
+
+	private String resolveTemplate(PlaceholderTemplate template, PlaceholderResolver placeholderResolver,
+			@Nullable Set<String> visitedPlaceholders) {
+
+		if (template.literal) {
+			return template.value;
+		}
+		if (template.segments.length == 1) {
+			return resolvePlaceholder(
+					(Placeholder) template.segments[0], template, placeholderResolver, visitedPlaceholders);
+		}
+		StringBuilder result = new StringBuilder(template.value.length());
+		for (Object segment : template.segments) {
+			if (segment instanceof Placeholder) {
+				result.append(resolvePlaceholder(
+						(Placeholder) segment, template, placeholderResolver, visitedPlaceholders));
+			}
+			else {
+				result.append((String) segment);
+			}
+		}
+		return result.toString();
+	}
+
+	private String resolvePlaceholder(Placeholder placeholder, PlaceholderTemplate template,
+			PlaceholderResolver placeholderResolver, @Nullable Set<String> visitedPlaceholders) {
+
+		String originalPlaceholder = placeholder.key.value;
+		// Only track visited placeholders once there are nested placeholders to resolve.
+		if (visitedPlaceholders == null && !placeholder.key.literal) {
+			visitedPlaceholders = new HashSet<>(4);
+		}
+		if (visitedPlaceholders != null && !visitedPlaceholders.add(originalPlaceholder)) {
+			throw new IllegalArgumentException(
+					"Circular placeholder reference '" + originalPlaceholder + "' in property definitions");
+		}
+		// Recursive invocation, resolving placeholders contained in the placeholder key.
+		String resolvedPlaceholder = resolveTemplate(placeholder.key, placeholderResolver, visitedPlaceholders);
+		// Now obtain the value for the fully resolved key...
+		String propVal = placeholderResolver.resolvePlaceholder(resolvedPlaceholder);
+		if (propVal == null && this.valueSeparator != null) {
+			int separatorIndex = resolvedPlaceholder.indexOf(this.valueSeparator);
+			if (separatorIndex != -1) {
+				String actualPlaceholder = resolvedPlaceholder.substring(0, separatorIndex);
+				String defaultValue = resolvedPlaceholder.substring(separatorIndex + this.valueSeparator.length());
+				propVal = placeholderResolver.resolvePlaceholder(actualPlaceholder);
+				if (propVal == null) {
+					propVal = defaultValue;
+				}
+			}
+		}
+		String result;
+		if (propVal != null) {
+			if (propVal.indexOf(this.placeholderPrefix) != -1) {
 				if (visitedPlaceholders == null) {
 					visitedPlaceholders = new HashSet<>(4);
+					visitedPlaceholders.add(originalPlaceholder);
 				}
-				if (!visitedPlaceholders.add(originalPlaceholder)) {
-					throw new IllegalArgumentException(
-							"Circular placeholder reference '" + originalPlaceholder + "' in property definitions");
-				}
-				// Recursive invocation, parsing placeholders contained in the placeholder key.
-				placeholder = parseStringValue(placeholder, placeholderResolver, visitedPlaceholders);
-				// Now obtain the value for the fully resolved key...
-				String propVal = placeholderResolver.resolvePlaceholder(placeholder);
-				if (propVal == null && this.valueSeparator != null) {
-					int separatorIndex = placeholder.indexOf(this.valueSeparator);
-					if (separatorIndex != -1) {
-						String actualPlaceholder = placeholder.substring(0, separatorIndex);
-						String defaultValue = placeholder.substring(separatorIndex + this.valueSeparator.length());
-						propVal = placeholderResolver.resolvePlaceholder(actualPlaceholder);
-						if (propVal == null) {
-							propVal = defaultValue;
-						}
-					}
-				}
-				if (propVal != null) {
-					// Recursive invocation, parsing placeholders contained in the
-					// previously resolved placeholder value.
-					propVal = parseStringValue(propVal, placeholderResolver, visitedPlaceholders);
-					result.replace(startIndex, endIndex + this.placeholderSuffix.length(), propVal);
-					if (logger.isTraceEnabled()) {
-						logger.trace("Resolved placeholder '" + placeholder + "'");
-					}
-					startIndex = result.indexOf(this.placeholderPrefix, startIndex + propVal.length());
-				}
-				else if (this.ignoreUnresolvablePlaceholders) {
-					// Proceed with unprocessed value.
-					startIndex = result.indexOf(this.placeholderPrefix, endIndex + this.placeholderSuffix.length());
-				}
-				else {
-					throw new IllegalArgumentException("Could not resolve placeholder '" +
-							placeholder + "'" + " in value \"" + value + "\"");
-				}
-				visitedPlaceholders.remove(originalPlaceholder);
+				// Recursive invocation, parsing placeholders contained in the
+				// previously resolved placeholder value.
+				propVal = parseStringValue(propVal, placeholderResolver, visitedPlaceholders);
 			}
-			else {
-				startIndex = -1;
+			if (logger.isTraceEnabled()) {
+				logger.trace("Resolved placeholder '" + resolvedPlaceholder + "'");
 			}
+			result = propVal;
 		}
-		return result.toString();
+		else if (this.ignoreUnresolvablePlaceholders) {
+			// Proceed with unprocessed value.
+			result = placeholder.text;
+		}
+		else {
+			throw new IllegalArgumentException("Could not resolve placeholder '" +
+					resolvedPlaceholder + "'" + " in value \"" + template.value + "\"");
+		}
+		if (visitedPlaceholders != null) {
+			visitedPlaceholders.remove(originalPlaceholder);
+		}
+		return result;
 	}
 
 	private int findPlaceholderEndIndex(CharSequence buf, int startIndex) {
@@ -227,4 +292,41 @@ public class PropertyPlaceholderHelper {
 		String resolvePlaceholder(String placeholderName);
 	}
 
+
+	/**
+	 * A parsed String value: a sequence of literal text segments and {@link Placeholder}
+	 * instances, resolvable against a {@link PlaceholderResolver} without rescanning.
+	 */
+	private static final class PlaceholderTemplate {
+
+		final String value;
+
+		final Object[] segments;
+
+		final boolean literal;
+
+		PlaceholderTemplate(String value, Object[] segments) {
+			this.value = value;
+			this.segments = segments;
+			this.literal = (segments.length == 0 || (segments.length == 1 && segments[0] instanceof String));
+		}
+	}
+
+
+	/**
+	 * A placeholder within a {@link PlaceholderTemplate}: its original text
+	 * including prefix and suffix, and its parsed key.
+	 */
+	private static final class Placeholder {
+
+		final String text;
+
+		final PlaceholderTemplate key;
+
+		Placeholder(String text, PlaceholderTemplate key) {
+			this.text = text;
+			this.key = key;
+		}
+	}
+
 }
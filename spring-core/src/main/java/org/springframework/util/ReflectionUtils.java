@@ -815,11 +815,13 @@ public abstract class ReflectionUtils {
 
 	/**
 	 * Clear the internal method/field cache.
+	 * <p>As of 5.1.12, this also clears the {@link MethodHandleInvoker} cache.
 	 * @since 4.2.4
 	 */
 	public static void clearCache() {
 		declaredMethodsCache.clear();
 		declaredFieldsCache.clear();
+		MethodHandleInvoker.clearCache();
 	}
 
 
@@ -0,0 +1,496 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link AntPathMatcher} variant which compiles a set of registered patterns
+ * into a shared trie of path segments, supporting the same {@code ?}, {@code *},
+ * {@code **} and {@code {spring:[a-z]+}} syntax with the same matching rules.
+ *
+ * <p>Registered patterns are compiled once and stay compiled until they are
+ * unregistered, independent from the pattern cache of the {@code AntPathMatcher}
+ * base class (which is turned off once encountering too many patterns at runtime).
+ * {@link #match} calls for registered patterns are served from their compiled
+ * form; all other patterns are matched through the regular {@code AntPathMatcher}
+ * algorithm. Beyond that, {@link #getMatchingPatterns(String)} determines all
+ * registered patterns matching a given path in a single pass over the trie,
+ * sharing the evaluation of common pattern prefixes.
+ *
+ * <p>Patterns are registered with reference counting: each call to
+ * {@link #registerPattern} needs to be balanced by a corresponding call to
+ * {@link #unregisterPattern} in order to release the compiled pattern again.
+ * This allows for sharing a single matcher instance across several components
+ * (e.g. handler mappings and a STOMP subscription registry).
+ *
+ * @since 5.1.12
+ * @see #registerPattern
+ * @see #getMatchingPatterns
+ */
+public class TriePathMatcher extends AntPathMatcher {
+
+	private static final String DOUBLE_WILDCARD = "**";
+
+	private static final String SINGLE_WILDCARD = "*";
+
+	private static final CompiledPattern[] NO_PATTERNS = new CompiledPattern[0];
+
+
+	private String pathSeparator;
+
+	private boolean caseSensitive = true;
+
+	private final Map<String, CompiledPattern> compiledPatterns = new ConcurrentHashMap<>(256);
+
+	private volatile Node absoluteRoot = new Node(null);
+
+	private volatile Node relativeRoot = new Node(null);
+
+	private final Object trieMonitor = new Object();
+
+
+	/**
+	 * Create a new instance with the {@link #DEFAULT_PATH_SEPARATOR}.
+	 */
+	public TriePathMatcher() {
+		super();
+		this.pathSeparator = DEFAULT_PATH_SEPARATOR;
+	}
+
+	/**
+	 * Create a new instance with a custom path separator.
+	 * @param pathSeparator the path separator to use, must not be {@code null}.
+	 */
+	public TriePathMatcher(String pathSeparator) {
+		super(pathSeparator);
+		this.pathSeparator = pathSeparator;
+	}
+
+
+	@Override
+	public void setPathSeparator(@Nullable String pathSeparator) {
+		super.setPathSeparator(pathSeparator);
+		this.pathSeparator = (pathSeparator != null ? pathSeparator : DEFAULT_PATH_SEPARATOR);
+		recompilePatterns();
+	}
+
+	@Override
+	public void setCaseSensitive(boolean caseSensitive) {
+		super.setCaseSensitive(caseSensitive);
+		this.caseSensitive = caseSensitive;
+		recompilePatterns();
+	}
+
+	@Override
+	public void setTrimTokens(boolean trimTokens) {
+		super.setTrimTokens(trimTokens);
+		recompilePatterns();
+	}
+
+
+	/**
+	 * Register the given pattern, compiling it into this matcher's trie.
+	 * @param pattern the pattern to register
+	 * @see #unregisterPattern
+	 */
+	public void registerPattern(String pattern) {
+		Assert.notNull(pattern, "Pattern must not be null");
+		synchronized (this.trieMonitor) {
+			CompiledPattern compiled = this.compiledPatterns.get(pattern);
+			if (compiled != null) {
+				compiled.registrations++;
+			}
+			else {
+				compiled = compilePattern(pattern, 1);
+				addToTrie(compiled);
+				this.compiledPatterns.put(pattern, compiled);
+			}
+		}
+	}
+
+	/**
+	 * Unregister the given pattern, removing it from this matcher's trie
+	 * once all of its registrations have been released.
+	 * @param pattern the pattern to unregister
+	 * @see #registerPattern
+	 */
+	public void unregisterPattern(String pattern) {
+		Assert.notNull(pattern, "Pattern must not be null");
+		synchronized (this.trieMonitor) {
+			CompiledPattern compiled = this.compiledPatterns.get(pattern);
+			if (compiled != null && --compiled.registrations <= 0) {
+				this.compiledPatterns.remove(pattern);
+				removeFromTrie(compiled);
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the given pattern is currently registered with this matcher.
+	 * @param pattern the pattern to check
+	 */
+	public boolean isRegisteredPattern(String pattern) {
+		return this.compiledPatterns.containsKey(pattern);
+	}
+
+	/**
+	 * Return the number of distinct patterns currently registered with this matcher.
+	 */
+	public int getRegisteredPatternCount() {
+		return this.compiledPatterns.size();
+	}
+
+	/**
+	 * Determine all registered patterns which match the given path,
+	 * sorted by {@link #getPatternComparator(String) specificity}.
+	 * <p>This is equivalent to calling {@link #match} for each registered
+	 * pattern, but evaluates common pattern prefixes only once.
+	 * @param path the path to match against
+	 * @return the matching patterns, with the best match first
+	 * (or an empty list if none of the registered patterns matches)
+	 */
+	public List<String> getMatchingPatterns(String path) {
+		Node root = (path.startsWith(this.pathSeparator) ? this.absoluteRoot : this.relativeRoot);
+		Set<String> result = new LinkedHashSet<>();
+		collectMatchingPatterns(root, tokenizePath(path), 0, path.endsWith(this.pathSeparator), result);
+		if (result.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<String> patterns = new ArrayList<>(result);
+		if (patterns.size() > 1) {
+			patterns.sort(getPatternComparator(path));
+		}
+		return patterns;
+	}
+
+	/**
+	 * This implementation matches registered patterns through their compiled
+	 * form, falling back to the regular {@code AntPathMatcher} algorithm for
+	 * unregistered patterns and for start matches or variable extraction.
+	 */
+	@Override
+	protected boolean doMatch(String pattern, String path, boolean fullMatch,
+			@Nullable Map<String, String> uriTemplateVariables) {
+
+		if (fullMatch && uriTemplateVariables == null) {
+			CompiledPattern compiled = this.compiledPatterns.get(pattern);
+			if (compiled != null) {
+				if (path.startsWith(this.pathSeparator) != compiled.absolute) {
+					return false;
+				}
+				return compiled.matches(tokenizePath(path), path.endsWith(this.pathSeparator));
+			}
+		}
+		return super.doMatch(pattern, path, fullMatch, uriTemplateVariables);
+	}
+
+	/**
+	 * This implementation returns the pre-tokenized form of registered patterns,
+	 * delegating to the {@code AntPathMatcher} base class for all other patterns.
+	 */
+	@Override
+	protected String[] tokenizePattern(String pattern) {
+		CompiledPattern compiled = this.compiledPatterns.get(pattern);
+		return (compiled != null ? compiled.tokens : super.tokenizePattern(pattern));
+	}
+
+
+	private void collectMatchingPatterns(Node node, String[] pathDirs, int pathIdx,
+			boolean pathEndsWithSeparator, Set<String> result) {
+
+		if (pathIdx == pathDirs.length) {
+			for (CompiledPattern compiled : node.patterns) {
+				if (compiled.doubleWildcard || compiled.trailingSeparator == pathEndsWithSeparator) {
+					result.add(compiled.pattern);
+				}
+			}
+			if (pathEndsWithSeparator) {
+				// "/foo/*" matches "/foo/" (see AntPathMatcher)
+				Node wildcardChild = node.patternChildren.get(SINGLE_WILDCARD);
+				if (wildcardChild != null) {
+					for (CompiledPattern compiled : wildcardChild.patterns) {
+						if (!compiled.doubleWildcard) {
+							result.add(compiled.pattern);
+						}
+					}
+				}
+			}
+		}
+		else {
+			String pathDir = pathDirs[pathIdx];
+			Node literalChild = node.literalChildren.get(pathDir);
+			if (literalChild != null) {
+				collectMatchingPatterns(literalChild, pathDirs, pathIdx + 1, pathEndsWithSeparator, result);
+			}
+			for (Node patternChild : node.patternChildren.values()) {
+				if (patternChild.segment.matches(pathDir)) {
+					collectMatchingPatterns(patternChild, pathDirs, pathIdx + 1, pathEndsWithSeparator, result);
+				}
+			}
+		}
+		Node doubleWildcardChild = node.doubleWildcardChild;
+		if (doubleWildcardChild != null) {
+			// "**" consumes zero or more path segments
+			for (int i = pathIdx; i <= pathDirs.length; i++) {
+				collectMatchingPatterns(doubleWildcardChild, pathDirs, i, pathEndsWithSeparator, result);
+			}
+		}
+	}
+
+	private CompiledPattern compilePattern(String pattern, int registrations) {
+		String[] tokens = tokenizePath(pattern);
+		Segment[] segments = new Segment[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			segments[i] = compileSegment(tokens[i]);
+		}
+		return new CompiledPattern(pattern, tokens, segments, pattern.startsWith(this.pathSeparator),
+				pattern.endsWith(this.pathSeparator), registrations);
+	}
+
+	private Segment compileSegment(String token) {
+		if (DOUBLE_WILDCARD.equals(token)) {
+			return new Segment(token, true, null);
+		}
+		boolean literal = (this.caseSensitive && token.indexOf('*') == -1 && token.indexOf('?') == -1 &&
+				token.indexOf('{') == -1 && token.indexOf('}') == -1);
+		return new Segment(token, false, (literal ? null : new AntPathStringMatcher(token, this.caseSensitive)));
+	}
+
+	private void addToTrie(CompiledPattern compiled) {
+		Node node = (compiled.absolute ? this.absoluteRoot : this.relativeRoot);
+		for (int i = 0; i < compiled.segments.length; i++) {
+			node = node.getOrCreateChild(compiled.segments[i]);
+			// Share compiled segment matchers with other patterns of the same prefix
+			compiled.segments[i] = node.segment;
+		}
+		CompiledPattern[] patterns = Arrays.copyOf(node.patterns, node.patterns.length + 1);
+		patterns[patterns.length - 1] = compiled;
+		node.patterns = patterns;
+	}
+
+	private void removeFromTrie(CompiledPattern compiled) {
+		Node root = (compiled.absolute ? this.absoluteRoot : this.relativeRoot);
+		Node[] trail = new Node[compiled.segments.length + 1];
+		trail[0] = root;
+		for (int i = 0; i < compiled.segments.length; i++) {
+			trail[i + 1] = trail[i].getChild(compiled.segments[i]);
+			if (trail[i + 1] == null) {
+				return;
+			}
+		}
+		Node node = trail[trail.length - 1];
+		List<CompiledPattern> patterns = new ArrayList<>(Arrays.asList(node.patterns));
+		patterns.remove(compiled);
+		node.patterns = patterns.toArray(NO_PATTERNS);
+		// Prune nodes which do not lead to any registered pattern anymore
+		for (int i = trail.length - 1; i > 0 && trail[i].isEmpty(); i--) {
+			trail[i - 1].removeChild(compiled.segments[i - 1]);
+		}
+	}
+
+	private void recompilePatterns() {
+		synchronized (this.trieMonitor) {
+			if (this.compiledPatterns.isEmpty()) {
+				return;
+			}
+			List<CompiledPattern> previous = new ArrayList<>(this.compiledPatterns.values());
+			this.compiledPatterns.clear();
+			this.absoluteRoot = new Node(null);
+			this.relativeRoot = new Node(null);
+			for (CompiledPattern compiled : previous) {
+				CompiledPattern recompiled = compilePattern(compiled.pattern, compiled.registrations);
+				addToTrie(recompiled);
+				this.compiledPatterns.put(recompiled.pattern, recompiled);
+			}
+		}
+	}
+
+
+	/**
+	 * A single pattern segment between path separators.
+	 */
+	private static final class Segment {
+
+		final String token;
+
+		final boolean doubleWildcard;
+
+		@Nullable
+		final AntPathStringMatcher matcher;
+
+		Segment(String token, boolean doubleWildcard, @Nullable AntPathStringMatcher matcher) {
+			this.token = token;
+			this.doubleWildcard = doubleWildcard;
+			this.matcher = matcher;
+		}
+
+		boolean isLiteral() {
+			return (!this.doubleWildcard && this.matcher == null);
+		}
+
+		boolean matches(String pathDir) {
+			return (this.matcher != null ? this.matcher.matchStrings(pathDir, null) : this.token.equals(pathDir));
+		}
+	}
+
+
+	/**
+	 * A registered pattern in compiled form.
+	 */
+	private static final class CompiledPattern {
+
+		final String pattern;
+
+		final String[] tokens;
+
+		final Segment[] segments;
+
+		final boolean absolute;
+
+		final boolean trailingSeparator;
+
+		final boolean doubleWildcard;
+
+		int registrations;
+
+		CompiledPattern(String pattern, String[] tokens, Segment[] segments,
+				boolean absolute, boolean trailingSeparator, int registrations) {
+
+			this.pattern = pattern;
+			this.tokens = tokens;
+			this.segments = segments;
+			this.absolute = absolute;
+			this.trailingSeparator = trailingSeparator;
+			this.doubleWildcard = Arrays.stream(segments).anyMatch(segment -> segment.doubleWildcard);
+			this.registrations = registrations;
+		}
+
+		boolean matches(String[] pathDirs, boolean pathEndsWithSeparator) {
+			if (this.doubleWildcard) {
+				return matchFrom(0, pathDirs, 0);
+			}
+			int length = this.segments.length;
+			if (pathDirs.length == length) {
+				return (this.trailingSeparator == pathEndsWithSeparator && matchFrom(0, pathDirs, 0));
+			}
+			if (pathDirs.length == length - 1 && pathEndsWithSeparator &&
+					SINGLE_WILDCARD.equals(this.segments[length - 1].token)) {
+				// "/foo/*" matches "/foo/" (see AntPathMatcher)
+				for (int i = 0; i < pathDirs.length; i++) {
+					if (!this.segments[i].matches(pathDirs[i])) {
+						return false;
+					}
+				}
+				return true;
+			}
+			return false;
+		}
+
+		private boolean matchFrom(int segmentIdx, String[] pathDirs, int pathIdx) {
+			while (segmentIdx < this.segments.length) {
+				Segment segment = this.segments[segmentIdx];
+				if (segment.doubleWildcard) {
+					if (segmentIdx == this.segments.length - 1) {
+						return true;
+					}
+					for (int i = pathIdx; i <= pathDirs.length; i++) {
+						if (matchFrom(segmentIdx + 1, pathDirs, i)) {
+							return true;
+						}
+					}
+					return false;
+				}
+				if (pathIdx >= pathDirs.length || !segment.matches(pathDirs[pathIdx])) {
+					return false;
+				}
+				segmentIdx++;
+				pathIdx++;
+			}
+			return (pathIdx == pathDirs.length);
+		}
+	}
+
+
+	/**
+	 * A node in the pattern trie, representing a pattern prefix.
+	 */
+	private static final class Node {
+
+		@Nullable
+		final Segment segment;
+
+		final Map<String, Node> literalChildren = new ConcurrentHashMap<>(4);
+
+		final Map<String, Node> patternChildren = new ConcurrentHashMap<>(4);
+
+		@Nullable
+		volatile Node doubleWildcardChild;
+
+		volatile CompiledPattern[] patterns = NO_PATTERNS;
+
+		Node(@Nullable Segment segment) {
+			this.segment = segment;
+		}
+
+		@Nullable
+		Node getChild(Segment segment) {
+			if (segment.doubleWildcard) {
+				return this.doubleWildcardChild;
+			}
+			return (segment.isLiteral() ? this.literalChildren : this.patternChildren).get(segment.token);
+		}
+
+		Node getOrCreateChild(Segment segment) {
+			Node child = getChild(segment);
+			if (child == null) {
+				child = new Node(segment);
+				if (segment.doubleWildcard) {
+					this.doubleWildcardChild = child;
+				}
+				else {
+					(segment.isLiteral() ? this.literalChildren : this.patternChildren).put(segment.token, child);
+				}
+			}
+			return child;
+		}
+
+		void removeChild(Segment segment) {
+			if (segment.doubleWildcard) {
+				this.doubleWildcardChild = null;
+			}
+			else {
+				(segment.isLiteral() ? this.literalChildren : this.patternChildren).remove(segment.token);
+			}
+		}
+
+		boolean isEmpty() {
+			return (this.patterns.length == 0 && this.literalChildren.isEmpty() &&
+					this.patternChildren.isEmpty() && this.doubleWildcardChild == null);
+		}
+	}
+
+}
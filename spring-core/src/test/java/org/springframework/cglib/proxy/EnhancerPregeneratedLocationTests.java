@@ -0,0 +1,198 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cglib.proxy;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.cglib.core.ClassGenerator;
+import org.springframework.cglib.core.DefaultGeneratorStrategy;
+import org.springframework.cglib.core.GeneratorStrategy;
+import org.springframework.cglib.core.NamingPolicy;
+import org.springframework.core.OverridingClassLoader;
+import org.springframework.tests.sample.objects.TestObject;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link Enhancer} with a pregenerated class location.
+ */
+public class EnhancerPregeneratedLocationTests {
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+	@Test
+	public void classStoredAndReusedWithDeterministicName() throws Exception {
+		File location = this.temporaryFolder.newFolder();
+		CountingGeneratorStrategy strategy = new CountingGeneratorStrategy();
+
+		Object proxy = createProxy(location, "getName", strategy);
+		assertEquals(1, strategy.generatedCount.get());
+		assertEquals("proxied", invoke(proxy, "getName"));
+		String className = proxy.getClass().getName();
+		File classFile = new File(location, className.replace('.', File.separatorChar) + ".class");
+		assertTrue(classFile.isFile());
+		assertTrue(keyFile(classFile).isFile());
+		assertTrue(classFile.setLastModified(0));
+
+		Object otherProxy = createProxy(location, "getName", strategy);
+		assertEquals("Stored class should have been loaded", 1, strategy.generatedCount.get());
+		assertNotSame(proxy.getClass(), otherProxy.getClass());
+		assertEquals(className, otherProxy.getClass().getName());
+		assertEquals("proxied", invoke(otherProxy, "getName"));
+		assertEquals(0, classFile.lastModified());
+	}
+
+	@Test
+	public void invalidClassFileRegenerated() throws Exception {
+		File location = this.temporaryFolder.newFolder();
+		CountingGeneratorStrategy strategy = new CountingGeneratorStrategy();
+
+		Object proxy = createProxy(location, "getName", strategy);
+		File classFile = new File(location, proxy.getClass().getName().replace('.', File.separatorChar) + ".class");
+		Files.write(classFile.toPath(), new byte[] {1, 2, 3});
+
+		Object otherProxy = createProxy(location, "getName", strategy);
+		assertEquals(2, strategy.generatedCount.get());
+		assertEquals(proxy.getClass().getName(), otherProxy.getClass().getName());
+		assertEquals("proxied", invoke(otherProxy, "getName"));
+	}
+
+	@Test
+	public void classFileWithoutKeyFileRegenerated() throws Exception {
+		File location = this.temporaryFolder.newFolder();
+		CountingGeneratorStrategy strategy = new CountingGeneratorStrategy();
+
+		Object proxy = createProxy(location, "getName", strategy);
+		File classFile = new File(location, proxy.getClass().getName().replace('.', File.separatorChar) + ".class");
+		assertTrue(keyFile(classFile).delete());
+
+		createProxy(location, "getName", strategy);
+		assertEquals(2, strategy.generatedCount.get());
+		assertTrue(keyFile(classFile).isFile());
+	}
+
+	@Test
+	public void classFileForDifferentKeyWithSameNameRegenerated() throws Exception {
+		File location = this.temporaryFolder.newFolder();
+		CountingGeneratorStrategy strategy = new CountingGeneratorStrategy();
+		// Same class name for every key, just like a hash code collision
+		NamingPolicy namingPolicy = (prefix, source, key, names) -> prefix + "$$Fixed";
+
+		Object proxy = createProxy(location, "getName", strategy, namingPolicy);
+		Object otherProxy = createProxy(location, "toString", strategy, namingPolicy);
+		assertEquals("Class for different key should have been generated", 2, strategy.generatedCount.get());
+		assertEquals(proxy.getClass().getName(), otherProxy.getClass().getName());
+		assertEquals("proxied", invoke(proxy, "getName"));
+		assertNull(invoke(otherProxy, "getName"));
+		assertEquals("proxied", invoke(otherProxy, "toString"));
+
+		Object thirdProxy = createProxy(location, "toString", strategy, namingPolicy);
+		assertEquals("Class stored for latest key should have been loaded", 2, strategy.generatedCount.get());
+		assertEquals("proxied", invoke(thirdProxy, "toString"));
+	}
+
+	@Test
+	public void differentCallbackMappingLeadsToDifferentClass() throws Exception {
+		File location = this.temporaryFolder.newFolder();
+
+		Object proxy = createProxy(location, "getName", DefaultGeneratorStrategy.INSTANCE);
+		Object otherProxy = createProxy(location, "toString", DefaultGeneratorStrategy.INSTANCE);
+		assertNotEquals(proxy.getClass().getName(), otherProxy.getClass().getName());
+		assertEquals("proxied", invoke(proxy, "getName"));
+		assertNull(invoke(otherProxy, "getName"));
+		assertEquals("proxied", invoke(otherProxy, "toString"));
+	}
+
+	@Test
+	public void noLocation() throws Exception {
+		Enhancer enhancer = new Enhancer();
+		enhancer.setSuperclass(TestObject.class);
+		enhancer.setCallback(NoOp.INSTANCE);
+		enhancer.setPregeneratedLocation(null);
+		assertNull(enhancer.getPregeneratedLocation());
+		assertTrue(enhancer.create() instanceof TestObject);
+	}
+
+
+	/**
+	 * Create a proxy for a freshly loaded {@link TestObject} class, returning a fixed
+	 * value for the given method and delegating to the superclass for all others.
+	 */
+	private static Object createProxy(File location, String fixedValueMethod, GeneratorStrategy strategy) {
+		return createProxy(location, fixedValueMethod, strategy, null);
+	}
+
+	private static Object createProxy(File location, String fixedValueMethod, GeneratorStrategy strategy,
+			NamingPolicy namingPolicy) {
+
+		OverridingClassLoader classLoader = new OverridingClassLoader(
+				EnhancerPregeneratedLocationTests.class.getClassLoader());
+		classLoader.excludePackage("org.springframework.cglib.");
+		Class<?> superclass;
+		try {
+			superclass = classLoader.loadClass(TestObject.class.getName());
+		}
+		catch (ClassNotFoundException ex) {
+			throw new IllegalStateException(ex);
+		}
+
+		Enhancer enhancer = new Enhancer();
+		enhancer.setSuperclass(superclass);
+		enhancer.setClassLoader(classLoader);
+		enhancer.setPregeneratedLocation(location);
+		enhancer.setStrategy(strategy);
+		if (namingPolicy != null) {
+			enhancer.setNamingPolicy(namingPolicy);
+		}
+		enhancer.setCallbackFilter(method -> (method.getName().equals(fixedValueMethod) ? 0 : 1));
+		enhancer.setCallbacks(new Callback[] {(FixedValue) () -> "proxied", NoOp.INSTANCE});
+		Object proxy = enhancer.create();
+		assertSame(classLoader, proxy.getClass().getClassLoader());
+		return proxy;
+	}
+
+	private static File keyFile(File classFile) {
+		return new File(classFile.getPath().replaceFirst("\\.class$", ".key"));
+	}
+
+	private static Object invoke(Object target, String methodName) throws Exception {
+		Method method = target.getClass().getMethod(methodName);
+		return method.invoke(target);
+	}
+
+
+	private static class CountingGeneratorStrategy implements GeneratorStrategy {
+
+		private final AtomicInteger generatedCount = new AtomicInteger();
+
+		@Override
+		public byte[] generate(ClassGenerator cg) throws Exception {
+			this.generatedCount.incrementAndGet();
+			return DefaultGeneratorStrategy.INSTANCE.generate(cg);
+		}
+	}
+
+}
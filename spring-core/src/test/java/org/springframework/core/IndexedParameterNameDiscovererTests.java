@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link IndexedParameterNameDiscoverer}.
+ */
+public class IndexedParameterNameDiscovererTests {
+
+	private final Properties index = new Properties();
+
+	private final ParameterNameDiscoverer discoverer = new IndexedParameterNameDiscoverer(this.index::getProperty);
+
+
+	@Test
+	public void methodKey() throws Exception {
+		Method method = Sample.class.getMethod("handle", String[].class, int.class, List.class);
+		assertEquals("org.springframework.core.IndexedParameterNameDiscovererTests$Sample#handle(java.lang.String[],int,java.util.List)",
+				IndexedParameterNameDiscoverer.getKey(Sample.class, "handle", method.getParameterTypes()));
+	}
+
+	@Test
+	public void indexedMethod() throws Exception {
+		Method method = Sample.class.getMethod("handle", String[].class, int.class, List.class);
+		assertNull(this.discoverer.getParameterNames(method));
+
+		this.index.setProperty(IndexedParameterNameDiscoverer.getKey(
+				Sample.class, "handle", String[].class, int.class, List.class), "names,count,values");
+		assertArrayEquals(new String[] {"names", "count", "values"}, this.discoverer.getParameterNames(method));
+	}
+
+	@Test
+	public void indexedConstructor() throws Exception {
+		Constructor<?> ctor = Sample.class.getConstructor(String.class);
+		this.index.setProperty(IndexedParameterNameDiscoverer.getKey(Sample.class, "<init>", String.class), "name");
+		assertArrayEquals(new String[] {"name"}, this.discoverer.getParameterNames(ctor));
+	}
+
+	@Test
+	public void indexedBridgeMethod() throws Exception {
+		this.index.setProperty(IndexedParameterNameDiscoverer.getKey(Sample.class, "compareTo", Sample.class), "other");
+		Method bridgeMethod = Sample.class.getMethod("compareTo", Object.class);
+		assertTrue(bridgeMethod.isBridge());
+		assertArrayEquals(new String[] {"other"}, this.discoverer.getParameterNames(bridgeMethod));
+	}
+
+	@Test
+	public void parameterCountMismatch() throws Exception {
+		this.index.setProperty(IndexedParameterNameDiscoverer.getKey(Sample.class, "<init>", String.class), "name,other");
+		assertNull(this.discoverer.getParameterNames(Sample.class.getConstructor(String.class)));
+	}
+
+
+	public static class Sample implements Comparable<Sample> {
+
+		public Sample(String name) {
+		}
+
+		public void handle(String[] names, int count, List<String> values) {
+		}
+
+		@Override
+		public int compareTo(Sample other) {
+			return 0;
+		}
+	}
+
+}
@@ -117,6 +117,18 @@ public class ResolvableTypeTests {
 		assertTrue(type.isAssignableFrom(String.class));
 	}
 
+	@Test
+	public void forClassIsShared() throws Exception {
+		ResolvableType type = ResolvableType.forClass(ExtendsList.class);
+		assertThat(ResolvableType.forClass(ExtendsList.class), sameInstance(type));
+		assertThat(ResolvableType.forType(ExtendsList.class), sameInstance(type));
+		assertThat(type.as(List.class), sameInstance(ResolvableType.forClass(ExtendsList.class).as(List.class)));
+
+		ResolvableType.clearCache();
+		assertThat(ResolvableType.forClass(ExtendsList.class), not(sameInstance(type)));
+		assertThat(ResolvableType.forClass(ExtendsList.class), equalTo(type));
+	}
+
 	@Test
 	public void forRawClass() throws Exception {
 		ResolvableType type = ResolvableType.forRawClass(ExtendsList.class);
@@ -286,6 +298,28 @@ public class ResolvableTypeTests {
 		assertThat(((MethodParameter)type.getSource()).getMethod(), equalTo(method));
 	}
 
+	@Test
+	public void forFieldIsShared() throws Exception {
+		ResolvableType type = ResolvableType.forField(Fields.class.getField("charSequenceList"));
+		ResolvableType type2 = ResolvableType.forField(Fields.class.getField("charSequenceList"));
+		assertThat(type2, sameInstance(type));
+		assertThat(type2.getGeneric(), sameInstance(type.getGeneric()));
+	}
+
+	@Test
+	public void forMethodParameterIsSharedForSameSource() throws Exception {
+		Method method = Methods.class.getMethod("charSequenceParameter", List.class);
+		MethodParameter methodParameter = MethodParameter.forExecutable(method, 0);
+		ResolvableType type = ResolvableType.forMethodParameter(methodParameter);
+		assertThat(ResolvableType.forMethodParameter(methodParameter), sameInstance(type));
+
+		MethodParameter otherMethodParameter = MethodParameter.forExecutable(method, 0);
+		ResolvableType otherType = ResolvableType.forMethodParameter(otherMethodParameter);
+		assertThat(otherType, not(sameInstance(type)));
+		assertThat(otherType, equalTo(type));
+		assertThat(otherType.getSource(), sameInstance(otherMethodParameter));
+	}
+
 	@Test
 	public void forMethodReturn() throws Exception {
 		Method method = Methods.class.getMethod("charSequenceReturn");
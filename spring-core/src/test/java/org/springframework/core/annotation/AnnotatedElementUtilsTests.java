@@ -796,6 +796,43 @@ public class AnnotatedElementUtilsTests {
 		assertNotNull(order);
 	}
 
+	@Test
+	public void mergedAnnotationAttributesFromIndexAreIndependentCopies() {
+		AnnotationAttributes attributes = findMergedAnnotationAttributes(MetaAndLocalTxConfigClass.class, Transactional.class);
+		assertEquals("localTxMgr", attributes.getString("qualifier"));
+		attributes.put("qualifier", "modified");
+
+		attributes = findMergedAnnotationAttributes(MetaAndLocalTxConfigClass.class, Transactional.class);
+		assertEquals("localTxMgr", attributes.getString("qualifier"));
+		attributes = getMergedAnnotationAttributes(MetaAndLocalTxConfigClass.class, Transactional.class.getName());
+		assertEquals("localTxMgr", attributes.getString("qualifier"));
+	}
+
+	@Test
+	public void mergedAnnotationFromIndexIsSynthesizedOnce() {
+		AliasedTransactional annotation = findMergedAnnotation(AliasedTransactionalComponentClass.class, AliasedTransactional.class);
+		assertEquals("aliasForQualifier", annotation.value());
+		assertSame(annotation, findMergedAnnotation(AliasedTransactionalComponentClass.class, AliasedTransactional.class));
+		assertTrue(hasAnnotation(AliasedTransactionalComponentClass.class, AliasedTransactional.class));
+		assertFalse(hasAnnotation(AliasedTransactionalComponentClass.class, Order.class));
+
+		AnnotationUtils.clearCache();
+		AliasedTransactional otherAnnotation = findMergedAnnotation(AliasedTransactionalComponentClass.class, AliasedTransactional.class);
+		assertNotSame(annotation, otherAnnotation);
+		assertEquals(annotation, otherAnnotation);
+	}
+
+	@Test
+	public void mergedAnnotationFromAdaptedAnnotationsIsNotIndexed() {
+		Annotation[] annotations = AliasedTransactionalComponentClass.class.getAnnotations();
+		AliasedTransactional annotation = findMergedAnnotation(forAnnotations(annotations), AliasedTransactional.class);
+		assertEquals("aliasForQualifier", annotation.value());
+		assertNotSame(annotation, findMergedAnnotation(forAnnotations(annotations), AliasedTransactional.class));
+		assertTrue(isAnnotated(forAnnotations(annotations), AliasedTransactional.class.getName()));
+		assertEquals("aliasForQualifier", getMergedAnnotationAttributes(
+				forAnnotations(annotations), AliasedTransactional.class.getName()).getString("value"));
+	}
+
 
 	// -------------------------------------------------------------------------
 
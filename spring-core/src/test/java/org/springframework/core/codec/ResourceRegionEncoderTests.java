@@ -87,6 +87,22 @@ public class ResourceRegionEncoderTests  {
 				.verify();
 	}
 
+	@Test
+	public void shouldEncodeResourceRegionFileResourceMemoryMapped() throws Exception {
+		this.encoder.setMappedFileThreshold(0);
+		ResourceRegion region = new ResourceRegion(
+				new ClassPathResource("ResourceRegionEncoderTests.txt", getClass()), 7, 9);
+		Flux<DataBuffer> result = this.encoder.encode(Mono.just(region), this.bufferFactory,
+				ResolvableType.forClass(ResourceRegion.class),
+				MimeTypeUtils.APPLICATION_OCTET_STREAM,
+				Collections.emptyMap());
+
+		StepVerifier.create(result)
+				.consumeNextWith(stringConsumer("Framework"))
+				.expectComplete()
+				.verify();
+	}
+
 	@Test
 	public void shouldEncodeMultipleResourceRegionsFileResource() {
 		Resource resource = new ClassPathResource("ResourceRegionEncoderTests.txt", getClass());
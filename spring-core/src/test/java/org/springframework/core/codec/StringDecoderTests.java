@@ -141,6 +141,42 @@ public class StringDecoderTests extends AbstractDecoderTestCase<StringDecoder> {
 						.verifyError(DataBufferLimitException.class));
 	}
 
+	@Test
+	public void decodeNewLineWithLimitAcrossBuffers() {
+		Flux<DataBuffer> input = Flux.just(
+				stringBuffer("ab"),
+				stringBuffer("cd\nef"),
+				stringBuffer("gh"),
+				stringBuffer("i\n")
+		);
+		this.decoder.setMaxInMemorySize(4);
+
+		testDecode(input, String.class, step ->
+				step.expectNext("abcd")
+						.verifyError(DataBufferLimitException.class));
+	}
+
+	@Test
+	public void decodeCustomDelimiters() {
+		this.decoder = StringDecoder.allMimeTypes(Arrays.asList("--", "-", "\n"), true);
+
+		Flux<DataBuffer> input = Flux.just(
+				stringBuffer("abc--def-gh"),
+				stringBuffer("i\njkl-"),
+				stringBuffer("-mno")
+		);
+
+		testDecode(input, String.class, step -> step
+				.expectNext("abc")
+				.expectNext("def")
+				.expectNext("ghi")
+				.expectNext("jkl")
+				.expectNext("")
+				.expectNext("mno")
+				.expectComplete()
+				.verify());
+	}
+
 	@Test
 	public void decodeNewLineIncludeDelimiters() {
 		this.decoder = StringDecoder.allMimeTypes(StringDecoder.DEFAULT_DELIMITERS, false);
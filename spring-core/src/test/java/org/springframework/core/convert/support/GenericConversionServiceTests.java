@@ -640,6 +640,114 @@ public class GenericConversionServiceTests {
 				conversionService.convert("test", TypeDescriptor.valueOf(String.class), new TypeDescriptor(getClass().getField("integerCollection"))));
 	}
 
+	@Test
+	public void compiledConverter() {
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		Converter<Object, Object> converter = conversionService.getCompiledConverter(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(int.class));
+		assertNotNull(converter);
+		assertSame(converter, conversionService.getCompiledConverter(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(int.class)));
+		assertEquals(3, converter.convert("3"));
+		try {
+			converter.convert(null);
+			fail("Should have thrown ConversionFailedException");
+		}
+		catch (ConversionFailedException ex) {
+			// expected: null for primitive
+		}
+		try {
+			converter.convert("x");
+			fail("Should have thrown ConversionFailedException");
+		}
+		catch (ConversionFailedException ex) {
+			assertTrue(ex.getCause() instanceof NumberFormatException);
+		}
+	}
+
+	@Test
+	public void compiledConverterNotFound() {
+		assertNull(conversionService.getCompiledConverter(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class)));
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		assertNotNull(conversionService.getCompiledConverter(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class)));
+	}
+
+	@Test
+	public void compiledCollectionConverter() throws Exception {
+		DefaultConversionService.addDefaultConverters(conversionService);
+		TypeDescriptor targetType = new TypeDescriptor(getClass().getField("list"));
+		Converter<Object, Object> converter =
+				conversionService.getCompiledConverter(TypeDescriptor.valueOf(ArrayList.class), targetType);
+		assertNotNull(converter);
+
+		List<Object> source = new ArrayList<>(Arrays.asList("1", 2L, null, "3"));
+		Object expected = conversionService.convert(source, TypeDescriptor.forObject(source), targetType);
+		assertEquals(Arrays.asList(1, 2, null, 3), expected);
+		assertEquals(expected, converter.convert(source));
+
+		List<Integer> integers = new ArrayList<>(Arrays.asList(1, 2));
+		assertSame(integers, converter.convert(integers));
+		try {
+			converter.convert(new LinkedList<>(Arrays.asList("1", "2")));
+			fail("Should have thrown IllegalArgumentException");
+		}
+		catch (IllegalArgumentException ex) {
+			// expected: not an instance of the compiled source type
+		}
+	}
+
+	@Test
+	public void compiledArrayToCollectionConverter() throws Exception {
+		DefaultConversionService.addDefaultConverters(conversionService);
+		Converter<Object, Object> converter = conversionService.getCompiledConverter(
+				TypeDescriptor.valueOf(String[].class), new TypeDescriptor(getClass().getField("list")));
+		assertNotNull(converter);
+		assertEquals(Arrays.asList(1, 2), converter.convert(new String[] {"1", "2"}));
+	}
+
+	@Test
+	public void compiledMapConverter() throws Exception {
+		DefaultConversionService.addDefaultConverters(conversionService);
+		Converter<Object, Object> converter = conversionService.getCompiledConverter(
+				TypeDescriptor.valueOf(HashMap.class), new TypeDescriptor(getClass().getField("map")));
+		assertNotNull(converter);
+
+		Map<Object, Object> source = new HashMap<>();
+		source.put("a", "1");
+		source.put("b", 2L);
+		Map<String, Integer> expected = new HashMap<>();
+		expected.put("a", 1);
+		expected.put("b", 2);
+		assertEquals(expected, converter.convert(source));
+	}
+
+	@Test
+	public void compiledConverterInvalidatedOnRegistration() {
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		Converter<Object, Object> converter = conversionService.getCompiledConverter(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class));
+		conversionService.addConverter(String.class, Integer.class, source -> 42);
+		Converter<Object, Object> newConverter = conversionService.getCompiledConverter(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class));
+		assertNotSame(converter, newConverter);
+		assertEquals(42, newConverter.convert("3"));
+	}
+
+	@Test
+	public void compiledConversionDisabledForCustomConversion() {
+		assertTrue(conversionService.isCompiledConversionEnabled());
+		assertTrue(new DefaultConversionService().isCompiledConversionEnabled());
+		GenericConversionService customService = new GenericConversionService() {
+			@Override
+			public Object convert(@Nullable Object source, @Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
+				return "custom";
+			}
+		};
+		assertFalse(customService.isCompiledConversionEnabled());
+	}
+
 
 	@ExampleAnnotation(active = true)
 	public String annotatedString;
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.mock.env.MockPropertySource;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link IndexedPropertySourcesPropertyResolver}.
+ */
+public class IndexedPropertySourcesPropertyResolverTests {
+
+	private final Properties testProperties = new Properties();
+
+	private final Map<String, Object> envProperties = new HashMap<>();
+
+	private final MutablePropertySources propertySources = new MutablePropertySources();
+
+	private final IndexedPropertySourcesPropertyResolver propertyResolver =
+			new IndexedPropertySourcesPropertyResolver(this.propertySources);
+
+
+	@Before
+	public void setUp() {
+		this.propertySources.addLast(new PropertiesPropertySource("testProperties", this.testProperties));
+		this.propertySources.addLast(new SystemEnvironmentPropertySource("env", this.envProperties));
+	}
+
+
+	@Test
+	public void getProperty() {
+		this.testProperties.put("foo", "bar");
+		assertThat(this.propertyResolver.getProperty("foo"), is("bar"));
+		assertThat(this.propertyResolver.containsProperty("foo"), is(true));
+		assertThat(this.propertyResolver.getProperty("bar"), nullValue());
+		assertThat(this.propertyResolver.containsProperty("bar"), is(false));
+	}
+
+	@Test
+	public void getPropertyWithChangedValue() {
+		this.testProperties.put("foo", "bar");
+		assertThat(this.propertyResolver.getProperty("foo"), is("bar"));
+		this.testProperties.put("foo", "baz");
+		assertThat(this.propertyResolver.getProperty("foo"), is("baz"));
+	}
+
+	@Test
+	public void getPropertyWithRemovedKey() {
+		this.testProperties.put("foo", "bar");
+		this.envProperties.put("FOO", "env");
+		assertThat(this.propertyResolver.getProperty("foo"), is("bar"));
+		this.testProperties.remove("foo");
+		assertThat(this.propertyResolver.getProperty("foo"), is("env"));
+		assertThat(this.propertyResolver.containsProperty("foo"), is(true));
+	}
+
+	@Test
+	public void getPropertyWithSystemEnvironmentVariant() {
+		this.envProperties.put("MY_APP_NAME", "env");
+		assertThat(this.propertyResolver.getProperty("my.app-name"), is("env"));
+		assertThat(this.propertyResolver.getProperty("my.app-name"), is("env"));
+		assertThat(this.propertyResolver.getProperty("my.app-name", String.class), is("env"));
+		assertThat(this.propertyResolver.containsProperty("my.app-name"), is(true));
+	}
+
+	@Test
+	public void getPropertyWithSystemEnvironmentVariantOfHigherPrecedence() {
+		this.propertySources.addFirst(new SystemEnvironmentPropertySource("env2",
+				Collections.singletonMap("MY_APP_NAME", "env2")));
+		this.testProperties.put("my.app.name", "bar");
+		assertThat(this.propertyResolver.getProperty("my.app.name"), is("env2"));
+	}
+
+	@Test
+	public void getPropertyWithNestedPlaceholder() {
+		this.testProperties.put("foo", "${bar}");
+		this.envProperties.put("BAR", "baz");
+		assertThat(this.propertyResolver.getProperty("foo"), is("baz"));
+		assertThat(this.propertyResolver.resolvePlaceholders("${foo}-${bar}"), is("baz-baz"));
+	}
+
+	@Test
+	public void getPropertyWithConversion() {
+		this.testProperties.put("count", "42");
+		assertThat(this.propertyResolver.getProperty("count", Integer.class), is(42));
+	}
+
+	@Test
+	public void indexRebuiltOnModification() {
+		assertThat(this.propertyResolver.getProperty("foo"), nullValue());
+		this.propertySources.addFirst(new MockPropertySource("ps1").withProperty("foo", "ps1"));
+		assertThat(this.propertyResolver.getProperty("foo"), is("ps1"));
+		this.propertySources.addFirst(new MockPropertySource("ps2").withProperty("foo", "ps2"));
+		assertThat(this.propertyResolver.getProperty("foo"), is("ps2"));
+		this.propertySources.replace("ps2", new MockPropertySource("ps2").withProperty("foo", "ps2b"));
+		assertThat(this.propertyResolver.getProperty("foo"), is("ps2b"));
+		this.propertySources.remove("ps2");
+		assertThat(this.propertyResolver.getProperty("foo"), is("ps1"));
+	}
+
+	@Test
+	public void keyAddedToPropertySourceRequiresRefresh() {
+		assertThat(this.propertyResolver.getProperty("foo"), nullValue());
+		this.testProperties.put("foo", "bar");
+		assertThat(this.propertyResolver.getProperty("foo"), nullValue());
+		this.propertyResolver.refresh();
+		assertThat(this.propertyResolver.getProperty("foo"), is("bar"));
+	}
+
+	@Test
+	public void nonEnumerablePropertySourceSearchedInOrder() {
+		this.testProperties.put("foo", "bar");
+		assertThat(this.propertyResolver.getProperty("foo"), is("bar"));
+		Map<String, String> live = new HashMap<>();
+		this.propertySources.addFirst(new PropertySource<Map<String, String>>("live", live) {
+			@Override
+			public Object getProperty(String name) {
+				return this.source.get(name);
+			}
+		});
+		assertThat(this.propertyResolver.getProperty("foo"), is("bar"));
+		live.put("foo", "live");
+		assertThat(this.propertyResolver.getProperty("foo"), is("live"));
+		assertThat(this.propertyResolver.getProperty("other"), nullValue());
+		live.put("other", "live");
+		assertThat(this.propertyResolver.getProperty("other"), is("live"));
+		assertThat(this.propertyResolver.containsProperty("other"), is(true));
+	}
+
+	@Test
+	public void indexedEnvironment() {
+		System.setProperty(AbstractEnvironment.INDEXED_PROPERTIES_PROPERTY_NAME, "true");
+		try {
+			StandardEnvironment environment = new StandardEnvironment();
+			environment.getPropertySources().addFirst(new MockPropertySource().withProperty("foo", "bar"));
+			assertThat(environment.getProperty("foo"), is("bar"));
+			assertThat(environment.resolvePlaceholders("${foo}"), is("bar"));
+		}
+		finally {
+			System.clearProperty(AbstractEnvironment.INDEXED_PROPERTIES_PROPERTY_NAME);
+		}
+	}
+
+}
@@ -17,6 +17,9 @@
 package org.springframework.core.env;
 
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -199,4 +202,19 @@ public class MutablePropertySourcesTests {
 		assertThat(sources.stream().count(), is(0L));
 	}
 
+	@Test
+	public void concurrentModificationsCounted() throws Exception {
+		MutablePropertySources sources = new MutablePropertySources();
+		int initialCount = sources.getModificationCount();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 1000; i++) {
+			String name = "ps" + i;
+			executor.execute(() -> sources.addLast(new MockPropertySource(name)));
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertThat(sources.size(), is(1000));
+		assertThat(sources.getModificationCount() - initialCount, is(1000));
+	}
+
 }
@@ -60,8 +60,8 @@ public abstract class AbstractDataBufferAllocatingTestCase {
 				{new NettyDataBufferFactory(new PooledByteBufAllocator(true, 1, 1, 8192, 11, 0, 0, 0, true))},
 				{new NettyDataBufferFactory(new PooledByteBufAllocator(false, 1, 1, 8192, 11, 0, 0, 0, true))},
 				{new DefaultDataBufferFactory(true)},
-				{new DefaultDataBufferFactory(false)}
-
+				{new DefaultDataBufferFactory(false)},
+				{new PooledDataBufferFactory()}
 		};
 	}
 
@@ -141,6 +141,10 @@ public abstract class AbstractDataBufferAllocatingTestCase {
 				}
 			}
 		}
+		else if (this.bufferFactory instanceof PooledDataBufferFactory) {
+			long active = ((PooledDataBufferFactory) this.bufferFactory).getActiveBufferCount();
+			assertEquals("DataBuffer Leak: " + active + " unreleased allocations", 0, active);
+		}
 	}
 
 	private static long getAllocations(List<PoolArenaMetric> metrics) {
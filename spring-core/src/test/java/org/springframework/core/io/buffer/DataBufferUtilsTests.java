@@ -49,6 +49,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.support.DataBufferTestUtils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.anyLong;
@@ -220,6 +222,54 @@ public class DataBufferUtilsTests extends AbstractDataBufferAllocatingTestCase {
 				.verify(Duration.ofSeconds(5));
 	}
 
+	@Test
+	public void readMappedFile() throws Exception {
+		Path path = Paths.get(this.resource.getURI());
+		Flux<DataBuffer> flux = DataBufferUtils.readMappedFile(path, 0, -1, 3);
+
+		verifyReadData(flux);
+	}
+
+	@Test
+	public void readMappedFilePositionAndCount() throws Exception {
+		Path path = Paths.get(this.resource.getURI());
+		Flux<DataBuffer> flux = DataBufferUtils.readMappedFile(path, 3, 5, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("ba"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void readMappedFileSlice() throws Exception {
+		Path path = Paths.get(this.resource.getURI());
+		Flux<DataBuffer> flux = DataBufferUtils.readMappedFile(path, 0, -1, 6)
+				.map(buffer -> buffer.slice(3, 3));
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("qux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void readMappedFileAccessAfterRelease() throws Exception {
+		Path path = Paths.get(this.resource.getURI());
+		DataBuffer buffer = DataBufferUtils.readMappedFile(path, 0, 12, 12).blockFirst(Duration.ofSeconds(5));
+		DataBuffer slice = buffer.slice(3, 3);
+		ByteBuffer byteBuffer = buffer.asByteBuffer(6, 3);
+
+		assertTrue(DataBufferUtils.release(buffer));
+		assertFalse(((PooledDataBuffer) buffer).isAllocated());
+		System.gc();
+
+		assertEquals("bar", DataBufferTestUtils.dumpString(slice, StandardCharsets.UTF_8));
+		assertEquals("baz", StandardCharsets.UTF_8.decode(byteBuffer).toString());
+	}
+
 	private void verifyReadData(Flux<DataBuffer> buffers) {
 		StepVerifier.create(buffers)
 				.consumeNextWith(stringConsumer("foo"))
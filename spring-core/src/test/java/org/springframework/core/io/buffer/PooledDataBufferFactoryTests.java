@@ -0,0 +1,192 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PooledDataBufferFactory}.
+ */
+public class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(1024, 1024 * 1024);
+
+
+	@Test
+	public void allocateAndRecycle() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		assertTrue(buffer instanceof PooledDataBuffer);
+		assertEquals(100, buffer.capacity());
+		assertTrue(buffer.asByteBuffer().isDirect());
+		assertEquals(1, this.bufferFactory.getActiveBufferCount());
+		assertEquals(256, this.bufferFactory.getUsedMemory());
+		assertEquals(256 * 1024, this.bufferFactory.getPooledMemory());
+
+		assertTrue(DataBufferUtils.release(buffer));
+		assertFalse(((PooledDataBuffer) buffer).isAllocated());
+		assertEquals(0, this.bufferFactory.getActiveBufferCount());
+		assertEquals(0, this.bufferFactory.getUsedMemory());
+
+		buffer = this.bufferFactory.allocateBuffer(200);
+		DataBufferUtils.release(buffer);
+		assertEquals(2, this.bufferFactory.getPooledAllocationCount());
+		assertEquals(0, this.bufferFactory.getUnpooledAllocationCount());
+		assertEquals(256 * 1024, this.bufferFactory.getPooledMemory());
+	}
+
+	@Test
+	public void writeAndRead() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(4);
+		buffer.write("foobar", StandardCharsets.UTF_8);
+		assertEquals("foobar", DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	public void unpooledBeyondMaxCapacity() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(2048);
+		assertEquals(2048, buffer.capacity());
+		assertEquals(1, this.bufferFactory.getUnpooledAllocationCount());
+		assertEquals(0, this.bufferFactory.getPooledMemory());
+		assertEquals(1, this.bufferFactory.getActiveBufferCount());
+		assertTrue(DataBufferUtils.release(buffer));
+		assertEquals(0, this.bufferFactory.getActiveBufferCount());
+	}
+
+	@Test
+	public void unpooledBeyondMaxMemory() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(1024, 0);
+		DataBuffer buffer = bufferFactory.allocateBuffer(100);
+		assertEquals(0, bufferFactory.getPooledAllocationCount());
+		assertEquals(1, bufferFactory.getUnpooledAllocationCount());
+		assertEquals(0, bufferFactory.getPooledMemory());
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	public void changeCapacity() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		buffer.write("foo", StandardCharsets.UTF_8);
+		buffer.capacity(600);
+		assertEquals(600, buffer.capacity());
+		assertEquals(1024, this.bufferFactory.getUsedMemory());
+		assertEquals("foo", DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+		DataBufferUtils.release(buffer);
+		assertEquals(0, this.bufferFactory.getUsedMemory());
+		assertEquals(0, this.bufferFactory.getActiveBufferCount());
+	}
+
+	@Test
+	public void sliceSharesReferenceCount() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(8);
+		buffer.write("foobar", StandardCharsets.UTF_8);
+		DataBuffer slice = buffer.slice(3, 3);
+		assertTrue(slice instanceof PooledDataBuffer);
+		assertEquals("bar", DataBufferTestUtils.dumpString(slice, StandardCharsets.UTF_8));
+
+		DataBufferUtils.retain(slice);
+		assertFalse(DataBufferUtils.release(buffer));
+		assertTrue(((PooledDataBuffer) buffer).isAllocated());
+		assertTrue(DataBufferUtils.release(slice));
+		assertFalse(((PooledDataBuffer) slice).isAllocated());
+		assertEquals(0, this.bufferFactory.getActiveBufferCount());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void sliceCapacity() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(8);
+		try {
+			buffer.slice(0, 4).capacity(16);
+		}
+		finally {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void tooManyReleases() {
+		PooledDataBuffer buffer = (PooledDataBuffer) this.bufferFactory.allocateBuffer(8);
+		buffer.release();
+		buffer.release();
+	}
+
+	@Test
+	public void releaseFromOtherThread() throws Exception {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(8);
+		AtomicReference<Boolean> released = new AtomicReference<>();
+		Thread thread = new Thread(() -> released.set(DataBufferUtils.release(buffer)));
+		thread.start();
+		thread.join();
+		assertTrue(released.get());
+		assertEquals(0, this.bufferFactory.getUsedMemory());
+
+		DataBufferUtils.release(this.bufferFactory.allocateBuffer(8));
+		assertEquals(256 * 1024, this.bufferFactory.getPooledMemory());
+	}
+
+	@Test
+	public void allocateFromShortLivedThreads() throws Exception {
+		for (int i = 0; i < 50; i++) {
+			Thread thread = new Thread(() -> DataBufferUtils.release(this.bufferFactory.allocateBuffer(100)));
+			thread.start();
+			thread.join();
+		}
+		assertEquals(50, this.bufferFactory.getPooledAllocationCount());
+		assertEquals(0, this.bufferFactory.getUnpooledAllocationCount());
+		assertTrue(this.bufferFactory.getPooledMemory() <= 1024 * 1024);
+		assertEquals(0, this.bufferFactory.getUsedMemory());
+	}
+
+	@Test
+	public void leakedBufferNotRecycled() throws Exception {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(1024, 256 * 1024);
+		bufferFactory.setLeakDetection(true);
+		ByteBuffer view = allocateAndLeak(bufferFactory, "foo");
+		for (int i = 0; i < 100 && bufferFactory.getLeakedBufferCount() == 0; i++) {
+			System.gc();
+			Thread.sleep(10);
+			DataBufferUtils.release(bufferFactory.allocateBuffer(8));
+		}
+		assertEquals(1, bufferFactory.getLeakedBufferCount());
+		assertEquals(0, bufferFactory.getActiveBufferCount());
+		assertEquals(256, bufferFactory.getUsedMemory());
+
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (int i = 0; i < 1024; i++) {
+			buffers.add(bufferFactory.allocateBuffer(8).write("bar", StandardCharsets.UTF_8));
+		}
+		assertEquals("foo", StandardCharsets.UTF_8.decode(view).toString());
+		buffers.forEach(DataBufferUtils::release);
+	}
+
+	private static ByteBuffer allocateAndLeak(PooledDataBufferFactory bufferFactory, String content) {
+		DataBuffer buffer = bufferFactory.allocateBuffer(8);
+		buffer.write(content, StandardCharsets.UTF_8);
+		return buffer.asByteBuffer();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -118,6 +118,40 @@ public class PathMatchingResourcePatternResolverTests {
 		assertTrue("Could not find aspectj_1_5_0.dtd in the root of the aspectjweaver jar", found);
 	}
 
+	@Test
+	public void parallelScanningWithSameResultOrder() throws IOException {
+		PathMatchingResourcePatternResolver parallelResolver = new PathMatchingResourcePatternResolver();
+		parallelResolver.setScanParallelism(4);
+		assertEquals(4, parallelResolver.getScanParallelism());
+		for (String pattern : new String[] {"classpath*:org/springframework/core/io/**/*.class",
+				"classpath*:org/reactivestreams/*.class", "classpath*:*.dtd"}) {
+			Resource[] expected = resolver.getResources(pattern);
+			assertTrue(expected.length > 0);
+			assertArrayEquals(expected, parallelResolver.getResources(pattern));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidScanParallelism() {
+		resolver.setScanParallelism(0);
+	}
+
+	@Test
+	public void invalidScanParallelismProperty() {
+		String propertyName = PathMatchingResourcePatternResolver.SCAN_PARALLELISM_PROPERTY_NAME;
+		try {
+			System.setProperty(propertyName, "many");
+			assertEquals(1, new PathMatchingResourcePatternResolver().getScanParallelism());
+			System.setProperty(propertyName, "-2");
+			assertEquals(1, new PathMatchingResourcePatternResolver().getScanParallelism());
+			System.setProperty(propertyName, " 3 ");
+			assertEquals(3, new PathMatchingResourcePatternResolver().getScanParallelism());
+		}
+		finally {
+			System.clearProperty(propertyName);
+		}
+	}
+
 
 	private void assertProtocolAndFilenames(Resource[] resources, String protocol, String... filenames)
 			throws IOException {
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.ObjectUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CachingMetadataReaderFactory}, in particular its
+ * persistent metadata cache.
+ */
+public class CachingMetadataReaderFactoryTests {
+
+	private File tempDir;
+
+	private File classFile;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.tempDir = Files.createTempDirectory("metadata").toFile();
+		this.classFile = new File(this.tempDir, "AnnotatedComponent.class");
+		try (InputStream is = new ClassPathResource(
+				AnnotatedComponent.class.getName().replace('.', '/') + ".class").getInputStream()) {
+			Files.copy(is, this.classFile.toPath());
+		}
+	}
+
+	@After
+	public void cleanup() {
+		for (File file : this.tempDir.listFiles()) {
+			file.delete();
+		}
+		this.tempDir.delete();
+	}
+
+
+	@Test
+	public void metadataRestoredWithoutParsing() throws IOException {
+		File cacheFile = new File(this.tempDir, "metadata.cache");
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		factory.setPersistentCacheFile(cacheFile);
+		assertEquals(cacheFile.getAbsoluteFile(), factory.getPersistentCacheFile());
+		AnnotationMetadata parsed =
+				factory.getMetadataReader(new FileSystemResource(this.classFile)).getAnnotationMetadata();
+		factory.clearCache();
+		assertTrue(cacheFile.isFile());
+
+		// Fresh cache instance, loaded from a copy of the file
+		File copiedCacheFile = new File(this.tempDir, "copied.cache");
+		Files.copy(cacheFile.toPath(), copiedCacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		CachingMetadataReaderFactory restoringFactory = new CachingMetadataReaderFactory();
+		restoringFactory.setPersistentCacheFile(copiedCacheFile);
+		AnnotationMetadata restored =
+				restoringFactory.getMetadataReader(new UnreadableResource(this.classFile)).getAnnotationMetadata();
+
+		assertSameMetadata(parsed, restored);
+		assertEquals(AnnotatedComponent.class.getName(), restored.getClassName());
+		AnnotationAttributes attributes =
+				AnnotationAttributes.fromMap(restored.getAnnotationAttributes(CacheTest.class.getName()));
+		assertEquals("component", attributes.getString("value"));
+		assertEquals(ElementType.TYPE, attributes.getEnum("elementType"));
+		assertArrayEquals(new Class<?>[] {String.class, int[].class}, attributes.getClassArray("types"));
+		assertArrayEquals(new int[] {1, 2}, (int[]) attributes.get("numbers"));
+		assertEquals('x', attributes.get("character"));
+		assertEquals("nested", attributes.getAnnotation("nested").getString("value"));
+		assertEquals("default", attributes.getAnnotationArray("nestedArray")[0].getString("value"));
+		Set<MethodMetadata> methods = restored.getAnnotatedMethods(CacheTest.class.getName());
+		assertEquals(1, methods.size());
+		assertEquals("annotatedMethod", methods.iterator().next().getMethodName());
+	}
+
+	@Test
+	public void modifiedClassFileParsedAgain() throws IOException {
+		File cacheFile = new File(this.tempDir, "metadata.cache");
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		factory.setPersistentCacheFile(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(this.classFile));
+		factory.clearCache();
+
+		assertTrue(this.classFile.setLastModified(this.classFile.lastModified() - 10000));
+		File copiedCacheFile = new File(this.tempDir, "copied.cache");
+		Files.copy(cacheFile.toPath(), copiedCacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		CachingMetadataReaderFactory restoringFactory = new CachingMetadataReaderFactory();
+		restoringFactory.setPersistentCacheFile(copiedCacheFile);
+		try {
+			restoringFactory.getMetadataReader(new UnreadableResource(this.classFile));
+			fail("Should have attempted to parse modified class file");
+		}
+		catch (IOException ex) {
+			assertEquals("Unexpected parsing", ex.getMessage());
+		}
+		assertTrue(restoringFactory.getMetadataReader(new FileSystemResource(this.classFile))
+				.getAnnotationMetadata().hasAnnotation(CacheTest.class.getName()));
+	}
+
+	@Test
+	public void corruptCacheFileIgnored() throws IOException {
+		File cacheFile = new File(this.tempDir, "corrupt.cache");
+		Files.write(cacheFile.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		factory.setPersistentCacheFile(cacheFile);
+		assertTrue(factory.getMetadataReader(new FileSystemResource(this.classFile))
+				.getAnnotationMetadata().hasAnnotation(CacheTest.class.getName()));
+		factory.clearCache();
+		assertTrue(cacheFile.length() > 13);
+	}
+
+	@Test
+	public void loadedCacheFileNotReplaced() throws IOException {
+		File cacheFile = new File(this.tempDir, "metadata.cache");
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		factory.setPersistentCacheFile(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(this.classFile));
+		factory.clearCache();
+
+		File loadedCacheFile = new File(this.tempDir, "loaded.cache");
+		Files.copy(cacheFile.toPath(), loadedCacheFile.toPath());
+		byte[] loadedContent = Files.readAllBytes(loadedCacheFile.toPath());
+		CachingMetadataReaderFactory loadingFactory = new CachingMetadataReaderFactory();
+		loadingFactory.setPersistentCacheFile(loadedCacheFile);
+		File otherClassFile = copyClassFile("Other.class");
+		loadingFactory.getMetadataReader(new FileSystemResource(otherClassFile));
+		loadingFactory.clearCache();
+		File alternateFile = new File(this.tempDir, "loaded.cache.alt");
+		assertTrue(alternateFile.isFile());
+		assertArrayEquals(loadedContent, Files.readAllBytes(loadedCacheFile.toPath()));
+
+		// Fresh cache instance, picking up the most recent generation
+		File restoredCacheFile = new File(this.tempDir, "restored.cache");
+		Files.copy(loadedCacheFile.toPath(), restoredCacheFile.toPath());
+		Files.copy(alternateFile.toPath(), new File(this.tempDir, "restored.cache.alt").toPath());
+		CachingMetadataReaderFactory restoringFactory = new CachingMetadataReaderFactory();
+		restoringFactory.setPersistentCacheFile(restoredCacheFile);
+		assertTrue(restoringFactory.getMetadataReader(new UnreadableResource(this.classFile))
+				.getAnnotationMetadata().hasAnnotation(CacheTest.class.getName()));
+		assertTrue(restoringFactory.getMetadataReader(new UnreadableResource(otherClassFile))
+				.getAnnotationMetadata().hasAnnotation(CacheTest.class.getName()));
+	}
+
+	@Test
+	public void unusedEntriesDropped() throws IOException {
+		File cacheFile = new File(this.tempDir, "generation0.cache");
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		factory.setPersistentCacheFile(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(this.classFile));
+		factory.clearCache();
+
+		// Each generation records a new class file without using the first one
+		for (int i = 1; i <= 6; i++) {
+			File nextCacheFile = new File(this.tempDir, "generation" + i + ".cache");
+			Files.copy(cacheFile.toPath(), nextCacheFile.toPath());
+			factory = new CachingMetadataReaderFactory();
+			factory.setPersistentCacheFile(nextCacheFile);
+			if (i == 5) {
+				// Still there after four generations without use
+				assertNotNull(factory.getMetadataReader(new UnreadableResource(copyClassFile("Other1.class"))));
+			}
+			factory.getMetadataReader(new FileSystemResource(copyClassFile("Other" + i + ".class")));
+			factory.clearCache();
+			cacheFile = new File(this.tempDir, "generation" + i + ".cache.alt");
+		}
+
+		CachingMetadataReaderFactory restoringFactory = new CachingMetadataReaderFactory();
+		restoringFactory.setPersistentCacheFile(cacheFile);
+		try {
+			restoringFactory.getMetadataReader(new UnreadableResource(this.classFile));
+			fail("Should have attempted to parse class file with dropped entry");
+		}
+		catch (IOException ex) {
+			assertEquals("Unexpected parsing", ex.getMessage());
+		}
+		assertNotNull(restoringFactory.getMetadataReader(new UnreadableResource(copyClassFile("Other6.class"))));
+	}
+
+
+	private File copyClassFile(String name) throws IOException {
+		File file = new File(this.tempDir, name);
+		if (!file.exists()) {
+			Files.copy(this.classFile.toPath(), file.toPath());
+		}
+		return file;
+	}
+
+	private static void assertSameMetadata(AnnotationMetadata expected, AnnotationMetadata actual) {
+		assertEquals(expected.getClassName(), actual.getClassName());
+		assertEquals(expected.getSuperClassName(), actual.getSuperClassName());
+		assertArrayEquals(expected.getInterfaceNames(), actual.getInterfaceNames());
+		assertArrayEquals(expected.getMemberClassNames(), actual.getMemberClassNames());
+		assertEquals(expected.getEnclosingClassName(), actual.getEnclosingClassName());
+		assertEquals(expected.isIndependent(), actual.isIndependent());
+		assertEquals(expected.isAbstract(), actual.isAbstract());
+		assertEquals(expected.getAnnotationTypes(), actual.getAnnotationTypes());
+		for (String annotationType : expected.getAnnotationTypes()) {
+			assertEquals(expected.getMetaAnnotationTypes(annotationType), actual.getMetaAnnotationTypes(annotationType));
+			Map<String, Object> expectedAttributes = expected.getAnnotationAttributes(annotationType, true);
+			Map<String, Object> actualAttributes = actual.getAnnotationAttributes(annotationType, true);
+			assertEquals(expectedAttributes.keySet(), actualAttributes.keySet());
+			for (String name : expectedAttributes.keySet()) {
+				assertTrue(name, ObjectUtils.nullSafeEquals(expectedAttributes.get(name), actualAttributes.get(name)));
+			}
+		}
+	}
+
+
+	private static class UnreadableResource extends FileSystemResource {
+
+		UnreadableResource(File file) {
+			super(file);
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			throw new IOException("Unexpected parsing");
+		}
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface Nested {
+
+		String value() default "default";
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface CacheTest {
+
+		String value() default "";
+
+		ElementType elementType() default ElementType.METHOD;
+
+		Class<?>[] types() default {};
+
+		int[] numbers() default {};
+
+		char character() default ' ';
+
+		Nested nested() default @Nested;
+
+		Nested[] nestedArray() default {};
+	}
+
+
+	@CacheTest(value = "component", elementType = ElementType.TYPE, types = {String.class, int[].class},
+			numbers = {1, 2}, character = 'x', nested = @Nested("nested"), nestedArray = @Nested)
+	public static class AnnotatedComponent implements Runnable {
+
+		@CacheTest
+		public void annotatedMethod() {
+		}
+
+		@Override
+		public void run() {
+		}
+
+		public static class Member {
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ConcurrentLruCache}.
+ */
+public class ConcurrentLruCacheTests {
+
+	private final ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2, key -> key + "value");
+
+
+	@Test
+	public void getAndSize() {
+		assertEquals(2, this.cache.getSizeLimit());
+		assertEquals(0, this.cache.size());
+		assertEquals("k1value", this.cache.get("k1"));
+		assertEquals(1, this.cache.size());
+		assertTrue(this.cache.contains("k1"));
+		assertEquals("k2value", this.cache.get("k2"));
+		assertEquals(2, this.cache.size());
+		assertTrue(this.cache.contains("k2"));
+		assertEquals("k3value", this.cache.get("k3"));
+		assertEquals(2, this.cache.size());
+		assertTrue(this.cache.contains("k3"));
+	}
+
+	@Test
+	public void hitAndMissCounts() {
+		String value = this.cache.get("k1");
+		assertSame(value, this.cache.get("k1"));
+		assertSame(value, this.cache.get("k1"));
+		this.cache.get("k2");
+		assertEquals(2, this.cache.getHitCount());
+		assertEquals(2, this.cache.getMissCount());
+	}
+
+	@Test
+	public void leastRecentlyUsedEntryEvicted() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		this.cache.get("k1");
+		this.cache.get("k3");
+		assertTrue(this.cache.contains("k1"));
+		assertFalse(this.cache.contains("k2"));
+		assertTrue(this.cache.contains("k3"));
+	}
+
+	@Test
+	public void lowerSizeLimit() {
+		ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(64, key -> key * 2);
+		for (int i = 0; i < 64; i++) {
+			assertEquals(Integer.valueOf(i * 2), cache.get(i));
+		}
+		assertEquals(64, cache.size());
+		cache.setSizeLimit(32);
+		cache.get(64);
+		assertTrue(cache.size() <= 32);
+		assertTrue(cache.contains(64));
+		assertFalse(cache.contains(0));
+	}
+
+	@Test
+	public void clear() {
+		this.cache.get("k1");
+		this.cache.clear();
+		assertEquals(0, this.cache.size());
+		assertFalse(this.cache.contains("k1"));
+		assertEquals(1, this.cache.getMissCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidSizeLimit() {
+		new ConcurrentLruCache<String, String>(0, key -> key);
+	}
+
+}
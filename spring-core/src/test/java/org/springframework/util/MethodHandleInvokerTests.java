@@ -0,0 +1,139 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link MethodHandleInvoker}.
+ */
+public class MethodHandleInvokerTests {
+
+	@Test
+	public void invokeInstanceMethod() throws Exception {
+		Method method = Sample.class.getMethod("concat", String.class, int.class);
+		MethodHandleInvoker invoker = MethodHandleInvoker.forMethod(method);
+		assertTrue(invoker.isMethodHandleBased());
+		assertSame(invoker, MethodHandleInvoker.forMethod(method));
+		assertEquals("foo42", invoker.invoke(new Sample(), "foo", 42));
+	}
+
+	@Test
+	public void invokeStaticAndVoidMethods() throws Exception {
+		Method staticMethod = Sample.class.getMethod("twice", int.class);
+		assertEquals(84, MethodHandleInvoker.forMethod(staticMethod).invoke(null, 42));
+
+		Sample sample = new Sample();
+		Method voidMethod = Sample.class.getMethod("setName", String.class);
+		assertNull(MethodHandleInvoker.forMethod(voidMethod).invoke(sample, "bar"));
+		assertEquals("bar", sample.name);
+	}
+
+	@Test
+	public void invokeVarargsMethod() throws Exception {
+		Method method = Sample.class.getMethod("join", String[].class);
+		Object[] args = new Object[] {new String[] {"a", "b"}};
+		assertEquals("ab", MethodHandleInvoker.forMethod(method).invoke(new Sample(), args));
+	}
+
+	@Test
+	public void invokeNonPublicMethod() throws Exception {
+		Method method = Sample.class.getDeclaredMethod("secret");
+		assertFalse(MethodHandleInvoker.forMethod(method).isMethodHandleBased());
+		ReflectionUtils.makeAccessible(method);
+		MethodHandleInvoker invoker = MethodHandleInvoker.forMethod(method);
+		assertTrue(invoker.isMethodHandleBased());
+		assertEquals("secret", invoker.invoke(new Sample()));
+	}
+
+	@Test
+	public void exceptionFromMethod() throws Exception {
+		Method method = Sample.class.getMethod("fail", String.class);
+		try {
+			MethodHandleInvoker.forMethod(method).invoke(new Sample(), "oops");
+			fail("InvocationTargetException expected");
+		}
+		catch (InvocationTargetException ex) {
+			assertTrue(ex.getTargetException() instanceof ClassCastException);
+			assertEquals("oops", ex.getTargetException().getMessage());
+		}
+	}
+
+	@Test
+	public void argumentMismatch() throws Exception {
+		MethodHandleInvoker invoker =
+				MethodHandleInvoker.forMethod(Sample.class.getMethod("concat", String.class, int.class));
+		assertIllegalArgument(invoker, new Sample(), "foo");
+		assertIllegalArgument(invoker, new Sample(), "foo", "bar");
+		assertIllegalArgument(invoker, new Sample(), "foo", null);
+		assertIllegalArgument(invoker, "notASample", "foo", 42);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void nullTargetForInstanceMethod() throws Exception {
+		MethodHandleInvoker.forMethod(Sample.class.getMethod("setName", String.class)).invoke(null, "bar");
+	}
+
+
+	private static void assertIllegalArgument(MethodHandleInvoker invoker, Object target, Object... args)
+			throws Exception {
+
+		try {
+			invoker.invoke(target, args);
+			fail("IllegalArgumentException expected");
+		}
+		catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+
+
+	public static class Sample {
+
+		String name;
+
+		public String concat(String s, int i) {
+			return s + i;
+		}
+
+		public static int twice(int i) {
+			return i * 2;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String join(String... parts) {
+			return String.join("", parts);
+		}
+
+		public void fail(String message) {
+			throw new ClassCastException(message);
+		}
+
+		private String secret() {
+			return "secret";
+		}
+	}
+
+}
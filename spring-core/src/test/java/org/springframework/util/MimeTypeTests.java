@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -277,6 +277,17 @@ public class MimeTypeTests {
 		assertEquals("Invalid amount of mime types", 0, mimeTypes.size());
 	}
 
+	@Test
+	public void parseMimeTypeCached() {
+		MimeType mimeType = MimeTypeUtils.parseMimeType("text/x-cached;charset=UTF-8");
+		assertSame(mimeType, MimeTypeUtils.parseMimeType("text/x-cached;charset=UTF-8"));
+		assertTrue(MimeTypeUtils.getMimeTypeCache().contains("text/x-cached;charset=UTF-8"));
+
+		String multipart = "multipart/form-data;boundary=x-cached";
+		assertNotSame(MimeTypeUtils.parseMimeType(multipart), MimeTypeUtils.parseMimeType(multipart));
+		assertFalse(MimeTypeUtils.getMimeTypeCache().contains(multipart));
+	}
+
 	@Test // gh-23241
 	public void parseMimeTypesWithTrailingComma() {
 		List<MimeType> mimeTypes = MimeTypeUtils.parseMimeTypes("text/plain, text/html,");
@@ -114,4 +114,33 @@ public class PropertyPlaceholderHelperTests {
 		assertEquals("foo=bar,bar=${bar}", helper.replacePlaceholders(text, props));
 	}
 
+	@Test
+	public void testRepeatedReplacementWithDifferentProperties() {
+		String text = "foo=${foo},bar=${b${inner}:default}";
+		Properties props = new Properties();
+		props.setProperty("foo", "bar");
+		props.setProperty("inner", "ar");
+		props.setProperty("bar", "baz");
+
+		PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper("${", "}", ":", true);
+		assertEquals("foo=bar,bar=baz", helper.replacePlaceholders(text, props));
+
+		props.setProperty("foo", "${bar}");
+		props.remove("bar");
+		assertEquals("foo=${bar},bar=default", helper.replacePlaceholders(text, props));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRepeatedReplacementWithCircularReference() {
+		String text = "foo=${foo}";
+		Properties props = new Properties();
+		props.setProperty("foo", "bar");
+
+		assertEquals("foo=bar", this.helper.replacePlaceholders(text, props));
+
+		props.setProperty("foo", "${bar}");
+		props.setProperty("bar", "${foo}");
+		this.helper.replacePlaceholders(text, props);
+	}
+
 }
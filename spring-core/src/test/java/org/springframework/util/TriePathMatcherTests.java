@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link TriePathMatcher}.
+ */
+public class TriePathMatcherTests {
+
+	private static final String[] PATTERNS = {
+			"test", "/test", "/test/", "t?st", "??st", "tes?", "te??", "?es?", "*", "test*", "*test*", "*test",
+			"*.*", "a*", "test*aaa", "/*", "/*/", "/x/*", "/x/*/y", "/{foo}", "/{foo}.html", "/{foo:[a-z]+}",
+			"/**", "/*bla/test", "/bla/**/bla", "/bla/**/**/bla", "/bla*bla/test", "/**/test", "/bla/**/test",
+			"/x/x/**/bla", "/foo/bar/**", "/XXX/*", "/XXX/**/*.jsp", "/XXX/**/*.html", "*bla*/**/bla/**",
+			"/{hotel}/*", "/hotels/{hotel}", "/hotels/new", "/hotels/*", "/{foo}/{bar}", "/group/{groupName}/members",
+	};
+
+	private static final String[] PATHS = {
+			"test", "/test", "/test/", "tst", "tset", "testt", "testblaaaa", "/", "/x", "/x/", "/x/y", "/x/x/y",
+			"/x/a/y", "foo.html", "/foo", "/foo.html", "/Foo", "/1", "/testing/testing", "/bla/bla", "/bla/x/bla",
+			"/bla/x/y/bla", "/bla/bla/bla/bla", "/bla/testing/testing/test", "/x/x/x/bla", "/foo/bar", "/foo/bar/",
+			"/foo/bar/baz", "/XXX/test.jsp", "/XXX/a/b/test.html", "/XXX/a/b/test.jsp", "XbxbxXbxXbla/bla",
+			"/hotels/new", "/hotels/1", "/hotels/1/edit", "/group/sales/members", "", "//test",
+	};
+
+
+	private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+	private final TriePathMatcher pathMatcher = new TriePathMatcher();
+
+
+	@Test
+	public void matchLikeAntPathMatcher() {
+		for (String pattern : PATTERNS) {
+			this.pathMatcher.registerPattern(pattern);
+		}
+		assertEquals(PATTERNS.length, this.pathMatcher.getRegisteredPatternCount());
+		assertSameMatches();
+	}
+
+	@Test
+	public void matchLikeAntPathMatcherWithUnregisteredPatterns() {
+		assertSameMatches();
+	}
+
+	@Test
+	public void matchLikeAntPathMatcherWithCaseInsensitiveMatching() {
+		for (String pattern : PATTERNS) {
+			this.pathMatcher.registerPattern(pattern);
+		}
+		this.antPathMatcher.setCaseSensitive(false);
+		this.pathMatcher.setCaseSensitive(false);
+		assertSameMatches();
+		assertTrue(this.pathMatcher.match("/hotels/new", "/HOTELS/New"));
+		assertEquals(Arrays.asList("/hotels/new", "/hotels/{hotel}", "/hotels/*", "/{foo}/{bar}", "/{hotel}/*", "/**"),
+				this.pathMatcher.getMatchingPatterns("/HOTELS/New"));
+	}
+
+	@Test
+	public void getMatchingPatternsBestFirst() {
+		for (String pattern : PATTERNS) {
+			this.pathMatcher.registerPattern(pattern);
+		}
+		assertEquals(Arrays.asList("/hotels/new", "/hotels/{hotel}", "/hotels/*", "/{foo}/{bar}", "/{hotel}/*", "/**"),
+				this.pathMatcher.getMatchingPatterns("/hotels/new"));
+		assertEquals(Collections.singletonList("/**"), this.pathMatcher.getMatchingPatterns("/hotels/1/edit/x"));
+		assertEquals(Collections.emptyList(), this.pathMatcher.getMatchingPatterns("hotels/1/edit/x"));
+	}
+
+	@Test
+	public void unregisterPattern() {
+		this.pathMatcher.registerPattern("/hotels/{hotel}");
+		this.pathMatcher.registerPattern("/hotels/{hotel}");
+		this.pathMatcher.registerPattern("/hotels/new");
+		this.pathMatcher.unregisterPattern("/hotels/{hotel}");
+		assertTrue(this.pathMatcher.isRegisteredPattern("/hotels/{hotel}"));
+		assertEquals(Arrays.asList("/hotels/new", "/hotels/{hotel}"), this.pathMatcher.getMatchingPatterns("/hotels/new"));
+
+		this.pathMatcher.unregisterPattern("/hotels/{hotel}");
+		assertFalse(this.pathMatcher.isRegisteredPattern("/hotels/{hotel}"));
+		assertEquals(Collections.singletonList("/hotels/new"), this.pathMatcher.getMatchingPatterns("/hotels/new"));
+		assertTrue(this.pathMatcher.getMatchingPatterns("/hotels/1").isEmpty());
+		assertTrue(this.pathMatcher.match("/hotels/{hotel}", "/hotels/1"));
+
+		this.pathMatcher.unregisterPattern("/hotels/new");
+		assertEquals(0, this.pathMatcher.getRegisteredPatternCount());
+		assertTrue(this.pathMatcher.getMatchingPatterns("/hotels/new").isEmpty());
+	}
+
+	@Test
+	public void extractUriTemplateVariablesForRegisteredPattern() {
+		this.pathMatcher.registerPattern("/hotels/{hotel}/bookings/{booking:\\d+}");
+		Map<String, String> variables =
+				this.pathMatcher.extractUriTemplateVariables("/hotels/{hotel}/bookings/{booking:\\d+}", "/hotels/1/bookings/2");
+		assertEquals("1", variables.get("hotel"));
+		assertEquals("2", variables.get("booking"));
+		assertFalse(this.pathMatcher.match("/hotels/{hotel}/bookings/{booking:\\d+}", "/hotels/1/bookings/x"));
+	}
+
+	@Test
+	public void customPathSeparator() {
+		this.pathMatcher.registerPattern("com.*.service.**");
+		this.pathMatcher.setPathSeparator(".");
+		assertTrue(this.pathMatcher.match("com.*.service.**", "com.example.service.impl.Foo"));
+		assertEquals(Collections.singletonList("com.*.service.**"),
+				this.pathMatcher.getMatchingPatterns("com.example.service.impl.Foo"));
+		assertFalse(this.pathMatcher.match("com.*.service.**", "com.example.repository.Foo"));
+	}
+
+
+	private void assertSameMatches() {
+		for (String pattern : PATTERNS) {
+			for (String path : PATHS) {
+				boolean expected = this.antPathMatcher.match(pattern, path);
+				assertEquals(pattern + " vs " + path, expected, this.pathMatcher.match(pattern, path));
+				if (this.pathMatcher.isRegisteredPattern(pattern)) {
+					assertEquals(pattern + " vs " + path, expected,
+							this.pathMatcher.getMatchingPatterns(path).contains(pattern));
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Benchmarks for SpEL evaluation in interpreted mode versus
+ * {@link SpelCompilerMode#IMMEDIATE compiled} mode.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SpelEvaluationBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"OFF", "IMMEDIATE"})
+		public SpelCompilerMode compilerMode;
+
+		public Expression propertyExpression;
+
+		public Expression arithmeticExpression;
+
+		public Expression methodExpression;
+
+		public EvaluationContext context;
+
+		public Order root;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			SpelExpressionParser parser = new SpelExpressionParser(
+					new SpelParserConfiguration(this.compilerMode, getClass().getClassLoader()));
+			this.propertyExpression = parser.parseExpression("customer.name");
+			this.arithmeticExpression = parser.parseExpression("quantity * price > 100");
+			this.methodExpression = parser.parseExpression("customer.name.toUpperCase().startsWith('SP')");
+			this.root = new Order(new Customer("spring"), 3, 42);
+			this.context = new StandardEvaluationContext(this.root);
+			// Trigger compilation (if enabled) before measurement starts
+			this.propertyExpression.getValue(this.context);
+			this.arithmeticExpression.getValue(this.context);
+			this.methodExpression.getValue(this.context);
+		}
+	}
+
+	@Benchmark
+	public void property(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.propertyExpression.getValue(state.context));
+	}
+
+	@Benchmark
+	public void arithmetic(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.arithmeticExpression.getValue(state.context));
+	}
+
+	@Benchmark
+	public void methodInvocation(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.methodExpression.getValue(state.context));
+	}
+
+
+	public static class Customer {
+
+		private final String name;
+
+		public Customer(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+	}
+
+
+	public static class Order {
+
+		private final Customer customer;
+
+		private final int quantity;
+
+		private final int price;
+
+		public Order(Customer customer, int quantity, int price) {
+			this.customer = customer;
+			this.quantity = quantity;
+			this.price = price;
+		}
+
+		public Customer getCustomer() {
+			return this.customer;
+		}
+
+		public int getQuantity() {
+			return this.quantity;
+		}
+
+		public int getPrice() {
+			return this.price;
+		}
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Benchmarks for {@link JdbcTemplate} row mapping against an embedded H2 database,
+ * comparing {@link BeanPropertyRowMapper} with a hand-written {@link RowMapper}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class JdbcTemplateRowMappingBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"10", "1000"})
+		public int rowCount;
+
+		public EmbeddedDatabase database;
+
+		public JdbcTemplate jdbcTemplate;
+
+		public RowMapper<Person> beanPropertyRowMapper;
+
+		public RowMapper<Person> lambdaRowMapper;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.database = new EmbeddedDatabaseBuilder()
+					.setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+			this.jdbcTemplate = new JdbcTemplate(this.database);
+			this.jdbcTemplate.execute("create table person (id bigint primary key, first_name varchar(50), " +
+					"last_name varchar(50), age int, active boolean)");
+			for (int i = 0; i < this.rowCount; i++) {
+				this.jdbcTemplate.update("insert into person values (?, ?, ?, ?, ?)",
+						i, "First" + i, "Last" + i, i % 100, i % 2 == 0);
+			}
+			this.beanPropertyRowMapper = BeanPropertyRowMapper.newInstance(Person.class);
+			this.lambdaRowMapper = (rs, rowNum) -> {
+				Person person = new Person();
+				person.setId(rs.getLong("id"));
+				person.setFirstName(rs.getString("first_name"));
+				person.setLastName(rs.getString("last_name"));
+				person.setAge(rs.getInt("age"));
+				person.setActive(rs.getBoolean("active"));
+				return person;
+			};
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.database.shutdown();
+		}
+	}
+
+	@Benchmark
+	public void beanPropertyRowMapper(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.jdbcTemplate.query("select * from person", state.beanPropertyRowMapper));
+	}
+
+	@Benchmark
+	public void lambdaRowMapper(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.jdbcTemplate.query("select * from person", state.lambdaRowMapper));
+	}
+
+	@Benchmark
+	public void queryForList(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.jdbcTemplate.queryForList("select * from person"));
+	}
+
+
+	public static class Person {
+
+		private long id;
+
+		private String firstName;
+
+		private String lastName;
+
+		private int age;
+
+		private boolean active;
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getFirstName() {
+			return this.firstName;
+		}
+
+		public void setFirstName(String firstName) {
+			this.firstName = firstName;
+		}
+
+		public String getLastName() {
+			return this.lastName;
+		}
+
+		public void setLastName(String lastName) {
+			this.lastName = lastName;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+
+}
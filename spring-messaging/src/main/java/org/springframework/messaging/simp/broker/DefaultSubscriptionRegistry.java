@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -45,6 +45,7 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.PathMatcher;
 import org.springframework.util.StringUtils;
+import org.springframework.util.TriePathMatcher;
 
 /**
  * Implementation of {@link SubscriptionRegistry} that stores subscriptions
@@ -88,6 +89,10 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	/**
 	 * Specify the {@link PathMatcher} to use.
+	 * <p>A {@link TriePathMatcher} gets the destination patterns of all current
+	 * subscriptions registered, determining the subscriptions for a new destination
+	 * in a single pass. Such a matcher needs to be specified before any
+	 * subscriptions are added.
 	 */
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		this.pathMatcher = pathMatcher;
@@ -148,7 +153,11 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			String sessionId, String subsId, String destination, Message<?> message) {
 
 		Expression expression = getSelectorExpression(message.getHeaders());
-		this.subscriptionRegistry.addSubscription(sessionId, subsId, destination, expression);
+		boolean added = this.subscriptionRegistry.addSubscription(sessionId, subsId, destination, expression);
+		if (added && this.pathMatcher instanceof TriePathMatcher) {
+			// Register before updating the cache: look-ups in between get corrected by the update
+			((TriePathMatcher) this.pathMatcher).registerPattern(destination);
+		}
 		this.destinationCache.updateAfterNewSubscription(destination, sessionId, subsId);
 	}
 
@@ -182,6 +191,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			String destination = info.removeSubscription(subsId);
 			if (destination != null) {
 				this.destinationCache.updateAfterRemovedSubscription(sessionId, subsId);
+				if (this.pathMatcher instanceof TriePathMatcher) {
+					((TriePathMatcher) this.pathMatcher).unregisterPattern(destination);
+				}
 			}
 		}
 	}
@@ -191,6 +203,14 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		SessionSubscriptionInfo info = this.subscriptionRegistry.removeSubscriptions(sessionId);
 		if (info != null) {
 			this.destinationCache.updateAfterRemovedSession(info);
+			if (this.pathMatcher instanceof TriePathMatcher) {
+				TriePathMatcher triePathMatcher = (TriePathMatcher) this.pathMatcher;
+				for (String destination : info.getDestinations()) {
+					for (int i = 0; i < info.getSubscriptions(destination).size(); i++) {
+						triePathMatcher.unregisterPattern(destination);
+					}
+				}
+			}
 		}
 	}
 
@@ -278,9 +298,14 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			if (result == null) {
 				synchronized (this.updateCache) {
 					result = new LinkedMultiValueMap<>();
+					PathMatcher pathMatcher = getPathMatcher();
+					// Determine all matching patterns in a single pass, if possible
+					Set<String> matchingPatterns = (pathMatcher instanceof TriePathMatcher ?
+							new HashSet<>(((TriePathMatcher) pathMatcher).getMatchingPatterns(destination)) : null);
 					for (SessionSubscriptionInfo info : subscriptionRegistry.getAllSubscriptions()) {
 						for (String destinationPattern : info.getDestinations()) {
-							if (getPathMatcher().match(destinationPattern, destination)) {
+							if (matchingPatterns != null ? matchingPatterns.contains(destinationPattern) :
+									pathMatcher.match(destinationPattern, destination)) {
 								for (Subscription sub : info.getSubscriptions(destinationPattern)) {
 									result.add(info.sessionId, sub.getId());
 								}
@@ -380,7 +405,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			return this.sessions.values();
 		}
 
-		public SessionSubscriptionInfo addSubscription(String sessionId, String subscriptionId,
+		public boolean addSubscription(String sessionId, String subscriptionId,
 				String destination, @Nullable Expression selectorExpression) {
 
 			SessionSubscriptionInfo info = this.sessions.get(sessionId);
@@ -391,8 +416,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 					info = value;
 				}
 			}
-			info.addSubscription(destination, subscriptionId, selectorExpression);
-			return info;
+			return info.addSubscription(destination, subscriptionId, selectorExpression);
 		}
 
 		@Nullable
@@ -447,7 +471,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			return null;
 		}
 
-		public void addSubscription(String destination, String subscriptionId, @Nullable Expression selectorExpression) {
+		public boolean addSubscription(String destination, String subscriptionId,
+				@Nullable Expression selectorExpression) {
+
 			Set<Subscription> subs = this.destinationLookup.get(destination);
 			if (subs == null) {
 				synchronized (this.destinationLookup) {
@@ -458,7 +484,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 					}
 				}
 			}
-			subs.add(new Subscription(subscriptionId, selectorExpression));
+			return subs.add(new Subscription(subscriptionId, selectorExpression));
 		}
 
 		@Nullable
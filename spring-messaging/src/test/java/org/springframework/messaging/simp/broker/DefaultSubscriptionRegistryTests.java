@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,9 +29,12 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.TriePathMatcher;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test fixture for
@@ -131,6 +134,47 @@ public class DefaultSubscriptionRegistryTests {
 		assertEquals(Collections.singletonList(subsId), actual.get(sessId));
 	}
 
+	@Test
+	public void registerSubscriptionWithTriePathMatcher() {
+		TriePathMatcher pathMatcher = new TriePathMatcher();
+		this.registry.setPathMatcher(pathMatcher);
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/PRICE.STOCK.*.IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/topic/PRICE.STOCK.**"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/topic/PRICE.STOCK.*.IBM"));
+		assertEquals(2, pathMatcher.getRegisteredPatternCount());
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/PRICE.STOCK.NASDAQ.IBM"));
+		assertEquals(2, actual.size());
+		assertEquals(Arrays.asList("subs01", "subs02"), sort(actual.get("sess01")));
+		assertEquals(Collections.singletonList("subs01"), actual.get("sess02"));
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs02"));
+		assertFalse(pathMatcher.isRegisteredPattern("/topic/PRICE.STOCK.**"));
+		this.registry.unregisterAllSubscriptions("sess01");
+		assertTrue(pathMatcher.isRegisteredPattern("/topic/PRICE.STOCK.*.IBM"));
+		this.registry.unregisterAllSubscriptions("sess02");
+		assertEquals(0, pathMatcher.getRegisteredPatternCount());
+	}
+
+	@Test
+	public void registerDuplicateSubscriptionWithTriePathMatcher() {
+		TriePathMatcher pathMatcher = new TriePathMatcher();
+		this.registry.setPathMatcher(pathMatcher);
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/PRICE.STOCK.*.IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/PRICE.STOCK.*.IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/topic/PRICE.STOCK.**"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/topic/PRICE.STOCK.**"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/PRICE.STOCK.NASDAQ.IBM"));
+		assertEquals(Collections.singletonList("subs01"), actual.get("sess01"));
+		assertEquals(Collections.singletonList("subs01"), actual.get("sess02"));
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs01"));
+		assertFalse(pathMatcher.isRegisteredPattern("/topic/PRICE.STOCK.*.IBM"));
+		this.registry.unregisterAllSubscriptions("sess02");
+		assertEquals(0, pathMatcher.getRegisteredPatternCount());
+	}
+
 	@Test  // SPR-11657
 	public void registerSubscriptionsWithSimpleAndPatternDestinations() {
 		String sess1 = "sess01";
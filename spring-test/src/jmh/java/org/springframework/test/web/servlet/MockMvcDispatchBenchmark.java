@@ -0,0 +1,81 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.test.web.servlet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+/**
+ * Benchmarks for {@code DispatcherServlet} request dispatch through {@link MockMvc},
+ * covering handler lookup, argument resolution and response body conversion.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class MockMvcDispatchBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public MockMvc mockMvc;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.mockMvc = standaloneSetup(new BenchmarkController()).build();
+		}
+	}
+
+	@Benchmark
+	public void plainText(BenchmarkState state, Blackhole bh) throws Exception {
+		bh.consume(state.mockMvc.perform(get("/text")).andReturn());
+	}
+
+	@Benchmark
+	public void pathVariableAndParam(BenchmarkState state, Blackhole bh) throws Exception {
+		bh.consume(state.mockMvc.perform(get("/users/42").param("verbose", "true")
+				.accept(MediaType.TEXT_PLAIN)).andReturn());
+	}
+
+
+	@RestController
+	public static class BenchmarkController {
+
+		@GetMapping("/text")
+		public String text() {
+			return "Hello";
+		}
+
+		@GetMapping("/users/{id}")
+		public String user(@PathVariable long id, @RequestParam boolean verbose) {
+			return (verbose ? "User " + id : String.valueOf(id));
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for typed and raw {@link HttpHeaders} access.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class HttpHeadersBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public HttpHeaders headers;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.headers = new HttpHeaders();
+			this.headers.set(HttpHeaders.CONTENT_TYPE, "application/json;charset=UTF-8");
+			this.headers.set(HttpHeaders.ACCEPT, "application/json, text/plain, */*");
+			this.headers.set(HttpHeaders.CONTENT_LENGTH, "1024");
+			this.headers.set(HttpHeaders.HOST, "localhost:8080");
+			this.headers.set(HttpHeaders.USER_AGENT, "Mozilla/5.0");
+			this.headers.set(HttpHeaders.ACCEPT_LANGUAGE, "en-US,en;q=0.5");
+			this.headers.set(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 21 Oct 2015 07:28:00 GMT");
+		}
+	}
+
+	@Benchmark
+	public void getFirst(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.headers.getFirst(HttpHeaders.HOST));
+	}
+
+	@Benchmark
+	public void getContentType(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.headers.getContentType());
+	}
+
+	@Benchmark
+	public void getAccept(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.headers.getAccept());
+	}
+
+	@Benchmark
+	public void getIfModifiedSince(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.headers.getIfModifiedSince());
+	}
+
+	@Benchmark
+	public void writeHeaders(Blackhole bh) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setContentLength(1024);
+		headers.setCacheControl("no-cache");
+		bh.consume(headers);
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link MediaType} parsing of typical
+ * {@code Content-Type} and {@code Accept} header values.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class MediaTypeBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public String contentType = "application/json;charset=UTF-8";
+
+		public String accept = "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8";
+	}
+
+	@Benchmark
+	public void parseMediaType(BenchmarkState state, Blackhole bh) {
+		bh.consume(MediaType.parseMediaType(state.contentType));
+	}
+
+	@Benchmark
+	public void parseMediaTypes(BenchmarkState state, Blackhole bh) {
+		bh.consume(MediaType.parseMediaTypes(state.accept));
+	}
+
+	@Benchmark
+	public void parseAndSortAccept(BenchmarkState state, Blackhole bh) {
+		List<MediaType> mediaTypes = MediaType.parseMediaTypes(state.accept);
+		MediaType.sortBySpecificityAndQuality(mediaTypes);
+		bh.consume(mediaTypes);
+	}
+
+}
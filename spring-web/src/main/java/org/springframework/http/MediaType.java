@@ -30,6 +30,7 @@ import java.util.stream.Collectors;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.InvalidMimeTypeException;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
@@ -322,6 +323,11 @@ public class MediaType extends MimeType implements Serializable {
 
 	private static final String PARAM_QUALITY_FACTOR = "q";
 
+	private static final ConcurrentLruCache<String, MediaType> cachedMediaTypes =
+			new ConcurrentLruCache<>(MimeTypeUtils.DEFAULT_CACHE_LIMIT, MediaType::parseMediaTypeInternal);
+
+	private static final ConcurrentLruCache<String, List<MediaType>> cachedSortedMediaTypes =
+			new ConcurrentLruCache<>(MimeTypeUtils.DEFAULT_CACHE_LIMIT, MediaType::parseAndSortMediaTypesInternal);
 
 	static {
 		ALL = valueOf(ALL_VALUE);
@@ -522,11 +528,20 @@ public class MediaType extends MimeType implements Serializable {
 
 	/**
 	 * Parse the given String into a single {@code MediaType}.
+	 * <p>As of 5.1.12, parsed media types are cached (except for multipart types
+	 * which typically come with a unique boundary): see {@link #getMediaTypeCache()}.
 	 * @param mediaType the string to parse
 	 * @return the media type
 	 * @throws InvalidMediaTypeException if the media type value cannot be parsed
 	 */
 	public static MediaType parseMediaType(String mediaType) {
+		if (!StringUtils.hasLength(mediaType) || mediaType.startsWith("multipart")) {
+			return parseMediaTypeInternal(mediaType);
+		}
+		return cachedMediaTypes.get(mediaType);
+	}
+
+	private static MediaType parseMediaTypeInternal(String mediaType) {
 		MimeType type;
 		try {
 			type = MimeTypeUtils.parseMimeType(mediaType);
@@ -584,6 +599,66 @@ public class MediaType extends MimeType implements Serializable {
 		}
 	}
 
+	/**
+	 * Parse the given list of (potentially) comma-separated strings into a
+	 * list of {@code MediaType} objects, sorted by specificity and quality.
+	 * <p>This method is meant to be used for parsing an Accept header. The sorted
+	 * result for a single header value is cached, so common values sent by the
+	 * same kind of clients over and over are only parsed and sorted once.
+	 * @param mediaTypes the strings to parse
+	 * @return a newly created, mutable list of media types
+	 * @throws InvalidMediaTypeException if the media type value cannot be parsed
+	 * @since 5.1.12
+	 * @see #parseMediaTypes(List)
+	 * @see #sortBySpecificityAndQuality(List)
+	 * @see #getSortedMediaTypesCache()
+	 */
+	public static List<MediaType> parseAndSortMediaTypes(@Nullable List<String> mediaTypes) {
+		if (CollectionUtils.isEmpty(mediaTypes)) {
+			return new ArrayList<>();
+		}
+		else if (mediaTypes.size() == 1) {
+			String mediaType = mediaTypes.get(0);
+			if (!StringUtils.hasLength(mediaType)) {
+				return new ArrayList<>();
+			}
+			return new ArrayList<>(cachedSortedMediaTypes.get(mediaType));
+		}
+		else {
+			List<MediaType> result = parseMediaTypes(mediaTypes);
+			sortBySpecificityAndQuality(result);
+			return result;
+		}
+	}
+
+	private static List<MediaType> parseAndSortMediaTypesInternal(String mediaTypes) {
+		List<MediaType> result = parseMediaTypes(mediaTypes);
+		sortBySpecificityAndQuality(result);
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Return the cache of parsed media types, e.g. for monitoring its
+	 * hit and miss counts or for adjusting its size limit.
+	 * <p>The default size limit is {@value MimeTypeUtils#DEFAULT_CACHE_LIMIT} entries.
+	 * @since 5.1.12
+	 * @see #parseMediaType(String)
+	 */
+	public static ConcurrentLruCache<String, MediaType> getMediaTypeCache() {
+		return cachedMediaTypes;
+	}
+
+	/**
+	 * Return the cache of parsed and sorted Accept header values, e.g. for
+	 * monitoring its hit and miss counts or for adjusting its size limit.
+	 * <p>The default size limit is {@value MimeTypeUtils#DEFAULT_CACHE_LIMIT} entries.
+	 * @since 5.1.12
+	 * @see #parseAndSortMediaTypes(List)
+	 */
+	public static ConcurrentLruCache<String, List<MediaType>> getSortedMediaTypesCache() {
+		return cachedSortedMediaTypes;
+	}
+
 	/**
 	 * Re-create the given mime types as media types.
 	 * @since 5.0
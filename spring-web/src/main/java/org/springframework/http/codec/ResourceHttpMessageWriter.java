@@ -92,6 +92,29 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 	}
 
 
+	/**
+	 * Set the minimum resource or region size from which on file resources are
+	 * written from memory-mapped file regions instead of being copied into
+	 * buffers, if the target does not support zero-copy file transfer.
+	 * <p>Default is -1, always copying in such a case.
+	 * @since 5.1.12
+	 * @see ZeroCopyHttpOutputMessage
+	 * @see ResourceRegionEncoder#setMappedFileThreshold
+	 */
+	public void setMappedFileThreshold(long mappedFileThreshold) {
+		this.regionEncoder.setMappedFileThreshold(mappedFileThreshold);
+	}
+
+	/**
+	 * Return the minimum size for writing file resources from memory-mapped
+	 * file regions, or -1 if not enabled.
+	 * @since 5.1.12
+	 */
+	public long getMappedFileThreshold() {
+		return this.regionEncoder.getMappedFileThreshold();
+	}
+
+
 	@Override
 	public boolean canWrite(ResolvableType elementType, @Nullable MediaType mediaType) {
 		return this.encoder.canEncode(elementType, mediaType);
@@ -129,6 +152,13 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 
 		return zeroCopy(resource, null, message, hints)
 				.orElseGet(() -> {
+					long threshold = getMappedFileThreshold();
+					long length = headers.getContentLength();
+					if (threshold >= 0 && length >= threshold && resource.isFile()) {
+						// Whole file from memory-mapped regions, without multipart boundaries
+						ResourceRegion region = new ResourceRegion(resource, 0, length);
+						return encodeAndWriteRegions(Mono.just(region), resourceMediaType, message, hints);
+					}
 					Mono<Resource> input = Mono.just(resource);
 					DataBufferFactory factory = message.bufferFactory();
 					Flux<DataBuffer> body = this.encoder.encode(input, factory, type, resourceMediaType, hints);
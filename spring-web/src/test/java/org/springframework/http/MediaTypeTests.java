@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.http;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -428,6 +429,36 @@ public class MediaTypeTests {
 		}
 	}
 
+	@Test
+	public void parseMediaTypeCached() {
+		MediaType mediaType = MediaType.parseMediaType("application/x-cached;q=0.5");
+		assertSame(mediaType, MediaType.parseMediaType("application/x-cached;q=0.5"));
+		assertTrue(MediaType.getMediaTypeCache().contains("application/x-cached;q=0.5"));
+	}
+
+	@Test
+	public void parseAndSortMediaTypes() {
+		String accept = "text/*;q=0.5, text/html, */*;q=0.1, text/x-cached";
+		List<MediaType> result = MediaType.parseAndSortMediaTypes(Collections.singletonList(accept));
+		List<MediaType> expected = MediaType.parseMediaTypes(accept);
+		MediaType.sortBySpecificityAndQuality(expected);
+		assertEquals(expected, result);
+		assertTrue(MediaType.getSortedMediaTypesCache().contains(accept));
+
+		// Returned list must be a mutable copy of the cached one
+		result.clear();
+		assertEquals(expected, MediaType.parseAndSortMediaTypes(Collections.singletonList(accept)));
+
+		result = MediaType.parseAndSortMediaTypes(Arrays.asList("text/html;q=0.5", "text/plain"));
+		assertEquals(Arrays.asList(MediaType.TEXT_PLAIN, MediaType.valueOf("text/html;q=0.5")), result);
+		assertTrue(MediaType.parseAndSortMediaTypes(null).isEmpty());
+	}
+
+	@Test(expected = InvalidMediaTypeException.class)
+	public void parseAndSortMediaTypesInvalid() {
+		MediaType.parseAndSortMediaTypes(Collections.singletonList("text/html, foo"));
+	}
+
 	@Test
 	public void testWithConversionService() {
 		ConversionService conversionService = new DefaultConversionService();
@@ -34,6 +34,7 @@ import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.MethodHandleInvoker;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.method.HandlerMethod;
@@ -134,7 +135,9 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			Object value;
 			try {
 				ReflectionUtils.makeAccessible(getBridgedMethod());
-				value = getBridgedMethod().invoke(getBean(), args);
+				value = (MethodHandleInvoker.isEnabled() ?
+						MethodHandleInvoker.forMethod(getBridgedMethod()).invoke(getBean(), args) :
+						getBridgedMethod().invoke(getBean(), args));
 			}
 			catch (IllegalArgumentException ex) {
 				assertTargetBean(getBridgedMethod(), getBean(), args);
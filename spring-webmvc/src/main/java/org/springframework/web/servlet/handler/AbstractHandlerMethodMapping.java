@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -44,6 +45,8 @@ import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.TriePathMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
@@ -388,8 +391,14 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, request);
 		}
 		if (matches.isEmpty()) {
-			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			Collection<T> patternMatches = this.mappingRegistry.getMappingsByPattern(lookupPath);
+			if (patternMatches != null) {
+				addMatchingMappings(patternMatches, matches, request);
+			}
+			else {
+				// No choice but to go through all mappings...
+				addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			}
 		}
 
 		if (!matches.isEmpty()) {
@@ -528,6 +537,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final MultiValueMap<String, T> urlLookup = new LinkedMultiValueMap<>();
 
+		private final MultiValueMap<String, T> patternLookup = new LinkedMultiValueMap<>();
+
+		private final List<T> mappingsWithoutPatterns = new ArrayList<>();
+
 		private final Map<String, List<HandlerMethod>> nameLookup = new ConcurrentHashMap<>();
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
@@ -551,6 +564,29 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.urlLookup.get(urlPath);
 		}
 
+		/**
+		 * Return the mappings with a path pattern matching the given URL path, as
+		 * determined in a single pass through a {@link TriePathMatcher}, plus all
+		 * mappings without path patterns. Not thread-safe.
+		 * @return the candidate mappings, or {@code null} if no TriePathMatcher is used
+		 * @see #acquireReadLock()
+		 */
+		@Nullable
+		public Collection<T> getMappingsByPattern(String urlPath) {
+			PathMatcher pathMatcher = getPathMatcher();
+			if (!(pathMatcher instanceof TriePathMatcher)) {
+				return null;
+			}
+			Set<T> mappings = new LinkedHashSet<>(this.mappingsWithoutPatterns);
+			for (String pattern : ((TriePathMatcher) pathMatcher).getMatchingPatterns(urlPath)) {
+				List<T> patternMappings = this.patternLookup.get(pattern);
+				if (patternMappings != null) {
+					mappings.addAll(patternMappings);
+				}
+			}
+			return mappings;
+		}
+
 		/**
 		 * Return handler methods by mapping name. Thread-safe for concurrent use.
 		 */
@@ -591,6 +627,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				for (String url : directUrls) {
 					this.urlLookup.add(url, mapping);
 				}
+				if (getPathMatcher() instanceof TriePathMatcher) {
+					registerPatterns((TriePathMatcher) getPathMatcher(), mapping);
+				}
 
 				String name = null;
 				if (getNamingStrategy() != null) {
@@ -630,6 +669,54 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return urls;
 		}
 
+		private void registerPatterns(TriePathMatcher triePathMatcher, T mapping) {
+			Set<String> patterns = getMappingPathPatterns(mapping);
+			if (patterns.isEmpty()) {
+				this.mappingsWithoutPatterns.add(mapping);
+			}
+			for (String pattern : patterns) {
+				for (String variant : getPatternVariants(pattern)) {
+					triePathMatcher.registerPattern(variant);
+					this.patternLookup.add(variant, mapping);
+				}
+			}
+		}
+
+		private void unregisterPatterns(TriePathMatcher triePathMatcher, T mapping) {
+			Set<String> patterns = getMappingPathPatterns(mapping);
+			if (patterns.isEmpty()) {
+				this.mappingsWithoutPatterns.remove(mapping);
+			}
+			for (String pattern : patterns) {
+				for (String variant : getPatternVariants(pattern)) {
+					triePathMatcher.unregisterPattern(variant);
+					List<T> list = this.patternLookup.get(variant);
+					if (list != null) {
+						list.remove(mapping);
+						if (list.isEmpty()) {
+							this.patternLookup.remove(variant);
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Return the given pattern along with the variants that a mapping may match
+		 * a lookup path with: a suffix pattern (covering file extensions as well)
+		 * and a trailing slash, as in
+		 * {@link org.springframework.web.servlet.mvc.condition.PatternsRequestCondition}.
+		 */
+		private List<String> getPatternVariants(String pattern) {
+			List<String> variants = new ArrayList<>(3);
+			variants.add(pattern);
+			variants.add(pattern + ".*");
+			if (!pattern.endsWith("/")) {
+				variants.add(pattern + "/");
+			}
+			return variants;
+		}
+
 		private void addMappingName(String name, HandlerMethod handlerMethod) {
 			List<HandlerMethod> oldList = this.nameLookup.get(name);
 			if (oldList == null) {
@@ -668,6 +755,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					}
 				}
 
+				if (getPathMatcher() instanceof TriePathMatcher) {
+					unregisterPatterns((TriePathMatcher) getPathMatcher(), definition.getMapping());
+				}
+
 				removeMappingName(definition);
 
 				this.corsLookup.remove(definition.getHandlerMethod());
@@ -31,6 +31,8 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.TriePathMatcher;
 import org.springframework.web.servlet.HandlerExecutionChain;
 
 /**
@@ -63,6 +65,9 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 
 	private final Map<String, Object> handlerMap = new LinkedHashMap<>();
 
+	@Nullable
+	private volatile TriePathMatcher registeredPatternMatcher;
+
 
 	/**
 	 * Set the root handler for this handler mapping, that is,
@@ -173,17 +178,7 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 		}
 
 		// Pattern match?
-		List<String> matchingPatterns = new ArrayList<>();
-		for (String registeredPattern : this.handlerMap.keySet()) {
-			if (getPathMatcher().match(registeredPattern, urlPath)) {
-				matchingPatterns.add(registeredPattern);
-			}
-			else if (useTrailingSlashMatch()) {
-				if (!registeredPattern.endsWith("/") && getPathMatcher().match(registeredPattern + "/", urlPath)) {
-					matchingPatterns.add(registeredPattern + "/");
-				}
-			}
-		}
+		List<String> matchingPatterns = getMatchingPatterns(urlPath);
 
 		String bestMatch = null;
 		Comparator<String> patternComparator = getPathMatcher().getPatternComparator(urlPath);
@@ -233,6 +228,62 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 		return null;
 	}
 
+	/**
+	 * Determine the registered patterns (potentially with an added trailing slash)
+	 * which match the given URL path, in a single pass through a
+	 * {@link TriePathMatcher} if configured.
+	 */
+	private List<String> getMatchingPatterns(String urlPath) {
+		PathMatcher pathMatcher = getPathMatcher();
+		if (pathMatcher instanceof TriePathMatcher) {
+			TriePathMatcher triePathMatcher = (TriePathMatcher) pathMatcher;
+			if (this.registeredPatternMatcher != triePathMatcher) {
+				synchronized (this.handlerMap) {
+					if (this.registeredPatternMatcher != triePathMatcher) {
+						for (String registeredPattern : this.handlerMap.keySet()) {
+							registerPattern(triePathMatcher, registeredPattern);
+						}
+						this.registeredPatternMatcher = triePathMatcher;
+					}
+				}
+			}
+			List<String> candidates = triePathMatcher.getMatchingPatterns(urlPath);
+			List<String> matchingPatterns = new ArrayList<>(candidates.size());
+			for (String candidate : candidates) {
+				if (this.handlerMap.containsKey(candidate)) {
+					matchingPatterns.add(candidate);
+				}
+				else if (useTrailingSlashMatch() && candidate.endsWith("/")) {
+					String registeredPattern = candidate.substring(0, candidate.length() - 1);
+					if (this.handlerMap.containsKey(registeredPattern) && !candidates.contains(registeredPattern)) {
+						matchingPatterns.add(candidate);
+					}
+				}
+			}
+			return matchingPatterns;
+		}
+
+		List<String> matchingPatterns = new ArrayList<>();
+		for (String registeredPattern : this.handlerMap.keySet()) {
+			if (pathMatcher.match(registeredPattern, urlPath)) {
+				matchingPatterns.add(registeredPattern);
+			}
+			else if (useTrailingSlashMatch()) {
+				if (!registeredPattern.endsWith("/") && pathMatcher.match(registeredPattern + "/", urlPath)) {
+					matchingPatterns.add(registeredPattern + "/");
+				}
+			}
+		}
+		return matchingPatterns;
+	}
+
+	private void registerPattern(TriePathMatcher triePathMatcher, String registeredPattern) {
+		triePathMatcher.registerPattern(registeredPattern);
+		if (!registeredPattern.endsWith("/")) {
+			triePathMatcher.registerPattern(registeredPattern + "/");
+		}
+	}
+
 	/**
 	 * Validate the given handler against the current request.
 	 * <p>The default implementation is empty. Can be overridden in subclasses,
@@ -363,6 +414,10 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 			}
 			else {
 				this.handlerMap.put(urlPath, resolvedHandler);
+				TriePathMatcher triePathMatcher = this.registeredPatternMatcher;
+				if (triePathMatcher != null) {
+					registerPattern(triePathMatcher, urlPath);
+				}
 				if (logger.isTraceEnabled()) {
 					logger.trace("Mapped [" + urlPath + "] onto " + getHandlerDescription(handler));
 				}
@@ -35,6 +35,7 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.TriePathMatcher;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -134,6 +135,21 @@ public class RequestMappingInfoHandlerMappingTests {
 		assertEquals(this.emptyMethod.getMethod(), handlerMethod.getMethod());
 	}
 
+	@Test
+	public void getHandlerPatternMatchWithTriePathMatcher() throws Exception {
+		TestRequestMappingInfoHandlerMapping mapping = new TestRequestMappingInfoHandlerMapping();
+		mapping.setPathMatcher(new TriePathMatcher());
+		mapping.registerHandler(new TestController());
+
+		assertEquals(this.barMethod.getMethod(), getHandler(mapping, new MockHttpServletRequest("GET", "/bar")).getMethod());
+		assertEquals(this.barMethod.getMethod(), getHandler(mapping, new MockHttpServletRequest("GET", "/bar.json")).getMethod());
+		assertEquals(this.barMethod.getMethod(), getHandler(mapping, new MockHttpServletRequest("GET", "/bar/")).getMethod());
+		assertEquals(this.fooMethod.getMethod(), getHandler(mapping, new MockHttpServletRequest("GET", "/foo.json")).getMethod());
+		assertEquals(this.emptyMethod.getMethod(), getHandler(mapping, new MockHttpServletRequest("GET", "")).getMethod());
+		assertEquals(this.emptyMethod.getMethod(), getHandler(mapping, new MockHttpServletRequest("GET", "/")).getMethod());
+		assertNull(mapping.getHandler(new MockHttpServletRequest("GET", "/baz/qux")));
+	}
+
 	@Test
 	public void getHandlerBestMatch() throws Exception {
 		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
@@ -386,7 +402,11 @@ public class RequestMappingInfoHandlerMappingTests {
 
 
 	private HandlerMethod getHandler(MockHttpServletRequest request) throws Exception {
-		HandlerExecutionChain chain = this.handlerMapping.getHandler(request);
+		return getHandler(this.handlerMapping, request);
+	}
+
+	private HandlerMethod getHandler(HandlerMapping mapping, MockHttpServletRequest request) throws Exception {
+		HandlerExecutionChain chain = mapping.getHandler(request);
 		assertNotNull(chain);
 		return (HandlerMethod) chain.getHandler();
 	}